@@ -0,0 +1,127 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.posting.DirectJournalCommitter;
+import fr.kovelya.accounting.application.posting.PostingCoordinator;
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.application.service.AccountingService;
+import fr.kovelya.accounting.application.service.impl.AccountingServiceImpl;
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountingPeriodRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryJournalTransactionRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.SegmentedLedgerEntryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ConcurrentPostingBenchmark {
+
+    @Param({"2", "1000"})
+    public int accounts;
+
+    private AccountingService accountingService;
+    private List<Account> opened;
+    private Money amount;
+    private LocalDate date;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @State(Scope.Thread)
+    public static class Picker {
+
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryJournalTransactionRepository transactionRepository = new InMemoryJournalTransactionRepository();
+        SegmentedLedgerEntryRepository ledgerEntryRepository = new SegmentedLedgerEntryRepository();
+        AccountBalanceProjection projection = new AccountBalanceProjection();
+        accountingService = new AccountingServiceImpl(
+                new InMemoryAccountRepository(),
+                transactionRepository,
+                new InMemoryAccountingPeriodRepository(),
+                projection,
+                new DirectJournalCommitter(transactionRepository, ledgerEntryRepository, projection),
+                Metrics.noop(),
+                new PostingCoordinator(1024)
+        );
+
+        LedgerId ledgerId = new LedgerId(UUID.randomUUID());
+        date = LocalDate.of(2025, 6, 1);
+        accountingService.createPeriod(ledgerId, "FY2025", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+        opened = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            opened.add(accountingService.openAccount(ledgerId, String.valueOf(100_000 + i), "Account " + i, "EUR", AccountType.ASSET));
+        }
+        amount = Money.of(new BigDecimal("12.50"), SyntheticLedger.EUR);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void post1Thread(Picker picker) {
+        post(picker);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void post4Threads(Picker picker) {
+        post(picker);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void post16Threads(Picker picker) {
+        post(picker);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void post64Threads(Picker picker) {
+        post(picker);
+    }
+
+    private void post(Picker picker) {
+        int debit = picker.random.nextInt(opened.size());
+        int credit = (debit + 1 + picker.random.nextInt(opened.size() - 1)) % opened.size();
+        accountingService.postJournalTransaction(
+                JournalType.GENERAL,
+                "BENCH-" + sequence.incrementAndGet(),
+                "Concurrent posting",
+                date,
+                new AccountPosting(opened.get(debit).id(), amount, LedgerEntry.Direction.DEBIT),
+                new AccountPosting(opened.get(credit).id(), amount, LedgerEntry.Direction.CREDIT)
+        );
+    }
+}
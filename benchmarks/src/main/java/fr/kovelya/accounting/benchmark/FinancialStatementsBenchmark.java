@@ -0,0 +1,100 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.application.report.FinancialStatementsView;
+import fr.kovelya.accounting.application.service.AccountingService;
+import fr.kovelya.accounting.application.service.FinancialStatementsService;
+import fr.kovelya.accounting.application.service.impl.AccountingServiceImpl;
+import fr.kovelya.accounting.application.service.impl.FinancialStatementsServiceImpl;
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.period.AccountingPeriod;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountingPeriodRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryJournalTransactionRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.SegmentedLedgerEntryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class FinancialStatementsBenchmark {
+
+    private static final AccountType[] TYPES = AccountType.values();
+
+    @Param({"500"})
+    public int accounts;
+
+    @Param({"100000", "500000"})
+    public int transactions;
+
+    private FinancialStatementsService service;
+    private AccountingPeriod period;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Currency eur = Currency.getInstance("EUR");
+        LedgerId ledgerId = new LedgerId(UUID.randomUUID());
+        SplittableRandom random = new SplittableRandom(42);
+
+        InMemoryJournalTransactionRepository transactionRepository = new InMemoryJournalTransactionRepository();
+        AccountingService accountingService = new AccountingServiceImpl(
+                new InMemoryAccountRepository(),
+                new SegmentedLedgerEntryRepository(),
+                transactionRepository,
+                new InMemoryAccountingPeriodRepository()
+        );
+        period = accountingService.createPeriod(ledgerId, "FY2025", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+
+        Account[] opened = new Account[accounts];
+        for (int i = 0; i < accounts; i++) {
+            opened[i] = accountingService.openAccount(ledgerId, String.valueOf(100_000 + i), "Account " + i, "EUR", TYPES[i % TYPES.length]);
+        }
+
+        for (int i = 0; i < transactions; i++) {
+            int debit = random.nextInt(accounts);
+            int credit = (debit + 1 + random.nextInt(accounts - 1)) % accounts;
+            accountingService.postTransfer(opened[debit].id(), opened[credit].id(),
+                    Money.of(BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2), eur),
+                    JournalType.GENERAL, "Benchmark", period.startDate().plusDays(random.nextInt(365)));
+        }
+
+        service = new FinancialStatementsServiceImpl(accountingService, transactionRepository);
+    }
+
+    @Benchmark
+    public void perStatement(Blackhole blackhole) {
+        blackhole.consume(service.getIncomeStatement(period));
+        blackhole.consume(service.getOperatingIncomeStatement(period));
+        blackhole.consume(service.getBalanceSheet(period));
+    }
+
+    @Benchmark
+    public FinancialStatementsView singlePass() {
+        return service.getStatements(period);
+    }
+}
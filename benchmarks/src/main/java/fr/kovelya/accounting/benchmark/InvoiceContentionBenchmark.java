@@ -0,0 +1,102 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.domain.customer.CustomerId;
+import fr.kovelya.accounting.domain.invoice.InvoiceLine;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.repository.StaleVersionException;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemorySalesInvoiceRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class InvoiceContentionBenchmark {
+
+    @Param({"1", "1000"})
+    public int invoices;
+
+    private InMemorySalesInvoiceRepository repository;
+    private SalesInvoiceId[] ids;
+
+    @State(Scope.Thread)
+    public static class Picker {
+
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repository = new InMemorySalesInvoiceRepository();
+        LedgerId ledgerId = new LedgerId(UUID.randomUUID());
+        List<InvoiceLine> lines = List.of(new InvoiceLine("Service", Money.of(new BigDecimal("120.00"), SyntheticLedger.EUR), TaxCategory.STANDARD));
+        ids = new SalesInvoiceId[invoices];
+        for (int i = 0; i < invoices; i++) {
+            SalesInvoice draft = SalesInvoice.draft(ledgerId, "INV-" + i, CustomerId.newId(), LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1), lines);
+            ids[i] = repository.compareAndSave(draft.issue()).id();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long update1Thread(Picker picker) {
+        return update(picker);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long update4Threads(Picker picker) {
+        return update(picker);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long update16Threads(Picker picker) {
+        return update(picker);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long update64Threads(Picker picker) {
+        return update(picker);
+    }
+
+    private long update(Picker picker) {
+        SalesInvoiceId id = ids[picker.random.nextInt(ids.length)];
+        long conflicts = 0;
+        while (true) {
+            SalesInvoice current = repository.findById(id).orElseThrow();
+            try {
+                repository.compareAndSave(current.markPartiallyPaid());
+                return conflicts;
+            } catch (StaleVersionException e) {
+                conflicts++;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.application.dto.BulkPostingResult;
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class InvoicePostingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int invoices;
+
+    private SyntheticLedger ledger;
+    private List<SalesInvoiceId> drafts;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ledger = SyntheticLedger.generate(0, 0, 100, 0, 0, 42L);
+        drafts = new ArrayList<>(invoices);
+        for (int i = 0; i < invoices; i++) {
+            LocalDate issueDate = SyntheticLedger.START.plusDays(i % 335);
+            drafts.add(ledger.invoicingService.createDraftInvoice(ledger.ledgerId, "BULK-" + i, ledger.customers.get(i % 100).id(),
+                    issueDate, issueDate.plusDays(30),
+                    new InvoiceLineRequest("Service", BigDecimal.valueOf(10_000 + i, 2), TaxCategory.STANDARD),
+                    new InvoiceLineRequest("Books", BigDecimal.valueOf(2_500 + i, 2), TaxCategory.REDUCED)).id());
+        }
+    }
+
+    @Benchmark
+    public int postOneByOne() {
+        for (SalesInvoiceId id : drafts) {
+            ledger.invoicePostingService.postInvoice(id);
+        }
+        return drafts.size();
+    }
+
+    @Benchmark
+    public BulkPostingResult<SalesInvoiceId> postInBulk() {
+        return ledger.invoicePostingService.postInvoices(drafts);
+    }
+}
@@ -0,0 +1,106 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.file.FileJournalStore;
+import fr.kovelya.accounting.infrastructure.persistence.file.FsyncPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class JournalLogBenchmark {
+
+    @Param({"PER_TRANSACTION", "GROUP_COMMIT", "OS_MANAGED"})
+    public String fsync;
+
+    @Param({"2"})
+    public int groupCommitMillis;
+
+    private Path directory;
+    private FileJournalStore store;
+    private AccountId debitAccount;
+    private AccountId creditAccount;
+    private AccountingPeriodId periodId;
+    private Money amount;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("kovelya-journal-bench");
+        FsyncPolicy policy = switch (FsyncPolicy.Mode.valueOf(fsync)) {
+            case PER_TRANSACTION -> FsyncPolicy.perTransaction();
+            case GROUP_COMMIT -> FsyncPolicy.groupCommit(Duration.ofMillis(groupCommitMillis));
+            case OS_MANAGED -> FsyncPolicy.osManaged();
+        };
+        store = FileJournalStore.open(directory.resolve("journal.log"), policy);
+        debitAccount = AccountId.newId();
+        creditAccount = AccountId.newId();
+        periodId = AccountingPeriodId.newId();
+        amount = Money.of(new BigDecimal("125.40"), Currency.getInstance("EUR"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public JournalTransaction save() {
+        Instant now = Instant.now();
+        List<LedgerEntry> entries = List.of(
+                LedgerEntry.create(debitAccount, amount, LedgerEntry.Direction.DEBIT, "Benchmark", now),
+                LedgerEntry.create(creditAccount, amount, LedgerEntry.Direction.CREDIT, "Benchmark", now)
+        );
+        JournalTransaction transaction = JournalTransaction.create(
+                JournalType.GENERAL,
+                "BENCH-" + sequence.incrementAndGet(),
+                "Benchmark",
+                now,
+                LocalDate.of(2025, 1, 1),
+                periodId,
+                entries
+        );
+        return store.transactionRepository().save(transaction);
+    }
+}
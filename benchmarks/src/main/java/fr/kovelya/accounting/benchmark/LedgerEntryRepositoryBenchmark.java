@@ -0,0 +1,112 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.repository.LedgerEntryRepository;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryLedgerEntryRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.SegmentedLedgerEntryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class LedgerEntryRepositoryBenchmark {
+
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+    private static final int DAYS = 5 * 365;
+
+    @Param({"1000000", "10000000"})
+    public int entries;
+
+    @Param({"1000"})
+    public int accounts;
+
+    @Param({"inMemory", "segmented"})
+    public String implementation;
+
+    private LedgerEntryRepository repository;
+    private AccountId[] accountIds;
+    private Money amount;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountIds = new AccountId[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = AccountId.newId();
+        }
+        amount = Money.of(new BigDecimal("100.00"), Currency.getInstance("EUR"));
+        random = new Random(42);
+
+        List<LedgerEntry> generated = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            long day = (long) i * DAYS / entries;
+            generated.add(LedgerEntry.create(
+                    accountIds[random.nextInt(accounts)],
+                    amount,
+                    i % 2 == 0 ? LedgerEntry.Direction.DEBIT : LedgerEntry.Direction.CREDIT,
+                    "Benchmark",
+                    START.plus(day, ChronoUnit.DAYS)
+            ));
+        }
+
+        if ("inMemory".equals(implementation)) {
+            InMemoryLedgerEntryRepository inMemory = new InMemoryLedgerEntryRepository();
+            inMemory.saveAll(generated);
+            repository = inMemory;
+        } else {
+            SegmentedLedgerEntryRepository segmented = new SegmentedLedgerEntryRepository();
+            for (LedgerEntry entry : generated) {
+                segmented.save(entry);
+            }
+            repository = segmented;
+        }
+    }
+
+    @Benchmark
+    public List<LedgerEntry> findByAccountAndPeriod() {
+        AccountId accountId = accountIds[random.nextInt(accounts)];
+        Instant from = START.plus(random.nextInt(DAYS - 31), ChronoUnit.DAYS);
+        return repository.findByAccountAndPeriod(accountId, from, from.plus(31, ChronoUnit.DAYS));
+    }
+
+    @Benchmark
+    public List<LedgerEntry> findByAccount() {
+        return repository.findByAccount(accountIds[random.nextInt(accounts)]);
+    }
+
+    @Benchmark
+    public LedgerEntry append() {
+        return repository.save(LedgerEntry.create(
+                accountIds[random.nextInt(accounts)],
+                amount,
+                LedgerEntry.Direction.DEBIT,
+                "Benchmark",
+                START.plus(DAYS, ChronoUnit.DAYS)
+        ));
+    }
+}
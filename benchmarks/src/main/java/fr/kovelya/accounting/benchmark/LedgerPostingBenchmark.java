@@ -0,0 +1,76 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.report.AccountBalanceView;
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.shared.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class LedgerPostingBenchmark {
+
+    @Param({"1000"})
+    public int accounts;
+
+    @Param({"100000", "1000000"})
+    public int transactions;
+
+    private SyntheticLedger ledger;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ledger = SyntheticLedger.generate(accounts, transactions, 0, 0, 0, 42L);
+    }
+
+    @Benchmark
+    public void postJournalTransaction() {
+        Account debit = ledger.randomAccount();
+        Account credit = ledger.randomAccount();
+        Money amount = ledger.randomAmount();
+        ledger.accountingService.postJournalTransaction(
+                JournalType.GENERAL,
+                "BENCH-" + sequence++,
+                "Benchmark posting",
+                ledger.randomDate(),
+                new AccountPosting(debit.id(), amount, LedgerEntry.Direction.DEBIT),
+                new AccountPosting(credit.id(), amount, LedgerEntry.Direction.CREDIT)
+        );
+    }
+
+    @Benchmark
+    public Money getBalance() {
+        return ledger.accountingService.getBalance(ledger.randomAccount().id());
+    }
+
+    @Benchmark
+    public Money getBalanceForPeriod() {
+        return ledger.accountingService.getBalanceForPeriod(ledger.randomAccount().id(), ledger.period);
+    }
+
+    @Benchmark
+    public List<AccountBalanceView> getTrialBalance() {
+        return ledger.accountingService.getTrialBalance(ledger.ledgerId, ledger.period);
+    }
+}
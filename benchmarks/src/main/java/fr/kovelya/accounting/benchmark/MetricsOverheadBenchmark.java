@@ -0,0 +1,86 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.metrics.MetricsRegistry;
+import fr.kovelya.accounting.application.posting.DirectJournalCommitter;
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.application.service.AccountingService;
+import fr.kovelya.accounting.application.service.impl.AccountingServiceImpl;
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountingPeriodRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryJournalTransactionRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.SegmentedLedgerEntryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class MetricsOverheadBenchmark {
+
+    @Param({"noop", "registry"})
+    public String metrics;
+
+    private AccountingService accountingService;
+    private AccountPosting[] postings;
+    private LocalDate date;
+    private long sequence;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Metrics selected = "registry".equals(metrics) ? new MetricsRegistry() : Metrics.noop();
+        InMemoryJournalTransactionRepository transactionRepository = new InMemoryJournalTransactionRepository();
+        SegmentedLedgerEntryRepository ledgerEntryRepository = new SegmentedLedgerEntryRepository();
+        AccountBalanceProjection projection = new AccountBalanceProjection();
+        accountingService = new AccountingServiceImpl(
+                new InMemoryAccountRepository(),
+                transactionRepository,
+                new InMemoryAccountingPeriodRepository(),
+                projection,
+                new DirectJournalCommitter(transactionRepository, ledgerEntryRepository, projection, selected),
+                selected
+        );
+
+        LedgerId ledgerId = new LedgerId(UUID.randomUUID());
+        date = LocalDate.of(2025, 6, 1);
+        accountingService.createPeriod(ledgerId, "FY2025", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+        Account bank = accountingService.openAccount(ledgerId, "5121", "Bank", "EUR", AccountType.ASSET);
+        Account capital = accountingService.openAccount(ledgerId, "1010", "Capital", "EUR", AccountType.EQUITY);
+        Money amount = Money.of(new BigDecimal("125.40"), Currency.getInstance("EUR"));
+        postings = new AccountPosting[]{
+                new AccountPosting(bank.id(), amount, LedgerEntry.Direction.DEBIT),
+                new AccountPosting(capital.id(), amount, LedgerEntry.Direction.CREDIT)
+        };
+    }
+
+    @Benchmark
+    public void postJournalTransaction() {
+        accountingService.postJournalTransaction(JournalType.GENERAL, "BENCH-" + sequence++, "Benchmark posting", date, postings);
+    }
+}
@@ -0,0 +1,76 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.domain.shared.MinorUnitMoney;
+import fr.kovelya.accounting.domain.shared.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    @Param({"1000"})
+    public int amounts;
+
+    private Money[] money;
+    private MinorUnitMoney[] minorUnits;
+    private Currency eur;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eur = Currency.getInstance("EUR");
+        Random random = new Random(42);
+        money = new Money[amounts];
+        minorUnits = new MinorUnitMoney[amounts];
+        for (int i = 0; i < amounts; i++) {
+            money[i] = Money.of(BigDecimal.valueOf(random.nextInt(1_000_000), 2), eur);
+            minorUnits[i] = MinorUnitMoney.from(money[i]);
+        }
+    }
+
+    @Benchmark
+    public Money sumBigDecimal() {
+        Money total = Money.zero(eur);
+        for (Money amount : money) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money sumMinorUnits() {
+        MinorUnitMoney total = MinorUnitMoney.zero(eur);
+        for (MinorUnitMoney amount : minorUnits) {
+            total = total.add(amount);
+        }
+        return total.toMoney();
+    }
+
+    @Benchmark
+    public Money sumMinorUnitsConverted() {
+        MinorUnitMoney total = MinorUnitMoney.zero(eur);
+        for (Money amount : money) {
+            total = total.add(MinorUnitMoney.from(amount));
+        }
+        return total.toMoney();
+    }
+}
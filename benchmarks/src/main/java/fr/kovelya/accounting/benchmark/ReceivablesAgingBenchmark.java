@@ -0,0 +1,165 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
+import fr.kovelya.accounting.application.report.CustomerReceivableAgingView;
+import fr.kovelya.accounting.application.service.impl.ReceivablesAgingServiceImpl;
+import fr.kovelya.accounting.domain.customer.Customer;
+import fr.kovelya.accounting.domain.customer.CustomerId;
+import fr.kovelya.accounting.domain.invoice.InvoiceLine;
+import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.payment.CustomerPayment;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
+import fr.kovelya.accounting.domain.repository.SalesInvoiceRepository;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryCustomerRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ReceivablesAgingBenchmark {
+
+    @Param({"100000"})
+    public int customers;
+
+    @Param({"1000000", "5000000"})
+    public int invoices;
+
+    @Param({"1", "8"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private ReceivablesAgingServiceImpl service;
+    private LocalDate asOfDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Currency eur = Currency.getInstance("EUR");
+        LedgerId ledgerId = new LedgerId(UUID.randomUUID());
+        SplittableRandom random = new SplittableRandom(42);
+        asOfDate = LocalDate.of(2025, 6, 30);
+
+        InMemoryCustomerRepository customerRepository = new InMemoryCustomerRepository();
+        CustomerId[] customerIds = new CustomerId[customers];
+        for (int i = 0; i < customers; i++) {
+            customerIds[i] = customerRepository.save(Customer.create(ledgerId, "CUST-" + i, "Customer " + i)).id();
+        }
+
+        InvoiceLine[] lines = new InvoiceLine[1_000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = new InvoiceLine("Service", Money.of(BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2), eur), TaxCategory.STANDARD);
+        }
+        LocalDate[] issueDates = new LocalDate[365];
+        for (int i = 0; i < issueDates.length; i++) {
+            issueDates[i] = asOfDate.minusDays(i);
+        }
+
+        InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> balances = new InvoiceBalanceProjection<>();
+        List<SalesInvoice> storage = new ArrayList<>(invoices);
+        for (int i = 0; i < invoices; i++) {
+            InvoiceLine line = lines[random.nextInt(lines.length)];
+            LocalDate issueDate = issueDates[random.nextInt(issueDates.length)];
+            InvoiceStatus status = random.nextInt(10) == 0 ? InvoiceStatus.PAID : InvoiceStatus.ISSUED;
+            SalesInvoice invoice = new SalesInvoice(SalesInvoiceId.newId(), ledgerId, "INV-" + i, customerIds[random.nextInt(customers)],
+                    issueDate, issueDate.plusDays(30), List.of(line), status);
+            storage.add(invoice);
+            if (random.nextInt(4) == 0) {
+                CustomerPayment payment = CustomerPayment.create(invoice.id(), Money.of(line.amount().amount().movePointLeft(1).setScale(2, RoundingMode.DOWN), eur), issueDate, "5121");
+                balances.apply(payment.id(), payment.invoiceId(), payment.amount());
+            }
+        }
+
+        pool = new ForkJoinPool(parallelism);
+        service = new ReceivablesAgingServiceImpl(customerRepository, new ListSalesInvoiceRepository(storage), balances, pool, ReceivablesAgingServiceImpl.DEFAULT_SPLIT_THRESHOLD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<CustomerReceivableAgingView> customerAging() {
+        return service.getCustomerAging(asOfDate);
+    }
+
+    private static final class ListSalesInvoiceRepository implements SalesInvoiceRepository {
+
+        private final List<SalesInvoice> storage;
+
+        private ListSalesInvoiceRepository(List<SalesInvoice> storage) {
+            this.storage = List.copyOf(storage);
+        }
+
+        @Override
+        public SalesInvoice save(SalesInvoice invoice) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SalesInvoice compareAndSave(SalesInvoice invoice) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<SalesInvoice> findById(SalesInvoiceId id) {
+            return storage.stream().filter(invoice -> invoice.id().equals(id)).findFirst();
+        }
+
+        @Override
+        public Optional<SalesInvoice> findByNumber(String number) {
+            return storage.stream().filter(invoice -> invoice.number().equals(number)).findFirst();
+        }
+
+        @Override
+        public List<SalesInvoice> findByCustomer(CustomerId customerId) {
+            return storage.stream().filter(invoice -> invoice.customerId().equals(customerId)).toList();
+        }
+
+        @Override
+        public List<SalesInvoice> findByStatus(InvoiceStatus status) {
+            return storage.stream().filter(invoice -> invoice.status() == status).toList();
+        }
+
+        @Override
+        public List<SalesInvoice> findByIssueDateBetween(LocalDate from, LocalDate to) {
+            return storage.stream().filter(invoice -> !invoice.issueDate().isBefore(from) && !invoice.issueDate().isAfter(to)).toList();
+        }
+
+        @Override
+        public List<SalesInvoice> findAll() {
+            return storage;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.application.dto.SalesInvoicePaymentAllocation;
+import fr.kovelya.accounting.application.report.CustomerReceivableAgingView;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.shared.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ReceivablesWorkflowBenchmark {
+
+    private static final int BATCH_SIZE = 3;
+
+    @Param({"1000"})
+    public int customers;
+
+    @Param({"10000", "50000"})
+    public int invoices;
+
+    @Param({"5000"})
+    public int payments;
+
+    private SyntheticLedger ledger;
+    private List<List<SalesInvoice>> batches;
+    private Money cent;
+    private LocalDate asOfDate;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ledger = SyntheticLedger.generate(0, 0, customers, invoices, payments, 42L);
+        cent = Money.of(new BigDecimal("0.01"), SyntheticLedger.EUR);
+        asOfDate = SyntheticLedger.END;
+
+        batches = new ArrayList<>();
+        for (List<SalesInvoice> invoicesOfCustomer : ledger.invoicesByCustomer) {
+            for (int from = 0; from < invoicesOfCustomer.size(); from += BATCH_SIZE) {
+                batches.add(invoicesOfCustomer.subList(from, Math.min(from + BATCH_SIZE, invoicesOfCustomer.size())));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<CustomerReceivableAgingView> getCustomerAging() {
+        return ledger.receivablesAgingService.getCustomerAging(asOfDate);
+    }
+
+    @Benchmark
+    public void recordBatchPayment() {
+        List<SalesInvoice> batch = batches.get(next++ % batches.size());
+        SalesInvoicePaymentAllocation[] allocations = new SalesInvoicePaymentAllocation[batch.size()];
+        for (int i = 0; i < allocations.length; i++) {
+            allocations[i] = new SalesInvoicePaymentAllocation(batch.get(i).id(), cent);
+        }
+        ledger.customerBatchPaymentService.recordBatchPayment(UUID.randomUUID(), SyntheticLedger.BANK, asOfDate, allocations);
+    }
+}
@@ -0,0 +1,133 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.file.FileJournalStore;
+import fr.kovelya.accounting.infrastructure.persistence.file.FsyncPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms12g", "-Xmx12g"})
+public class SnapshotStartupBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int entries;
+
+    @Param({"1000"})
+    public int accounts;
+
+    @Param({"0.01"})
+    public double tailRatio;
+
+    private Path directory;
+    private Path log;
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("kovelya-snapshot-bench");
+        log = directory.resolve("journal.log");
+        snapshot = directory.resolve("journal.snapshot");
+
+        Currency eur = Currency.getInstance("EUR");
+        AccountId[] accountIds = new AccountId[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = AccountId.newId();
+        }
+        AccountingPeriodId periodId = AccountingPeriodId.newId();
+        SplittableRandom random = new SplittableRandom(42);
+
+        int transactions = entries / 2;
+        int beforeSnapshot = transactions - (int) (transactions * tailRatio);
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+
+        try (FileJournalStore store = FileJournalStore.open(log, FsyncPolicy.osManaged())) {
+            List<JournalTransaction> batch = new ArrayList<>(10_000);
+            for (int i = 0; i < transactions; i++) {
+                if (i == beforeSnapshot) {
+                    store.transactionRepository().saveAll(batch);
+                    batch.clear();
+                    store.writeSnapshot(snapshot);
+                }
+                Instant timestamp = start.plusSeconds(i);
+                Money amount = Money.of(BigDecimal.valueOf(random.nextLong(1, 1_000_000), 2), eur);
+                AccountId debit = accountIds[random.nextInt(accounts)];
+                AccountId credit = accountIds[random.nextInt(accounts)];
+                batch.add(JournalTransaction.create(
+                        JournalType.GENERAL,
+                        "BENCH-" + i,
+                        "Benchmark",
+                        timestamp,
+                        LocalDate.of(2025, 1, 1),
+                        periodId,
+                        List.of(
+                                LedgerEntry.create(debit, amount, LedgerEntry.Direction.DEBIT, "Benchmark", timestamp),
+                                LedgerEntry.create(credit, amount, LedgerEntry.Direction.CREDIT, "Benchmark", timestamp)
+                        )
+                ));
+                if (batch.size() == 10_000) {
+                    store.transactionRepository().saveAll(batch);
+                    batch.clear();
+                }
+            }
+            store.transactionRepository().saveAll(batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int fullReplay() {
+        try (FileJournalStore store = FileJournalStore.open(log, FsyncPolicy.osManaged())) {
+            return store.recoveredBalances().size();
+        }
+    }
+
+    @Benchmark
+    public int snapshotPlusTail() {
+        try (FileJournalStore store = FileJournalStore.open(log, snapshot, FsyncPolicy.osManaged())) {
+            return store.recoveredBalances().size();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package fr.kovelya.accounting.benchmark;
+
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
+import fr.kovelya.accounting.application.service.AccountingService;
+import fr.kovelya.accounting.application.service.CustomerBatchPaymentService;
+import fr.kovelya.accounting.application.service.InvoicePaymentService;
+import fr.kovelya.accounting.application.service.InvoicePostingService;
+import fr.kovelya.accounting.application.service.InvoicingService;
+import fr.kovelya.accounting.application.service.ReceivablesAgingService;
+import fr.kovelya.accounting.application.service.impl.AccountingServiceImpl;
+import fr.kovelya.accounting.application.service.impl.CustomerBatchPaymentServiceImpl;
+import fr.kovelya.accounting.application.service.impl.IdempotencyExecutor;
+import fr.kovelya.accounting.application.service.impl.InvoicePaymentServiceImpl;
+import fr.kovelya.accounting.application.service.impl.InvoicePostingServiceImpl;
+import fr.kovelya.accounting.application.service.impl.InvoicingServiceImpl;
+import fr.kovelya.accounting.application.service.impl.ReceivablesAgingServiceImpl;
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.customer.Customer;
+import fr.kovelya.accounting.domain.customer.CustomerId;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
+import fr.kovelya.accounting.domain.period.AccountingPeriod;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import fr.kovelya.accounting.domain.tax.VatRate;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountingPeriodRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryCustomerCreditRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryCustomerPaymentRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryCustomerRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryIdempotencyRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryJournalTransactionRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemorySalesInvoiceRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.SegmentedLedgerEntryRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+final class SyntheticLedger {
+
+    static final String BANK = "5121";
+    static final String RECEIVABLE = "4110";
+    static final String REVENUE = "7060";
+    static final String VAT_COLLECTED = "4457";
+    static final String CUSTOMER_ADVANCES = "4191";
+
+    static final Currency EUR = Currency.getInstance("EUR");
+    static final LocalDate START = LocalDate.of(2025, 1, 1);
+    static final LocalDate END = LocalDate.of(2025, 12, 31);
+
+    final LedgerId ledgerId;
+    final AccountingPeriod period;
+    final AccountingService accountingService;
+    final InvoicingService invoicingService;
+    final InvoicePostingService invoicePostingService;
+    final InvoicePaymentService invoicePaymentService;
+    final CustomerBatchPaymentService customerBatchPaymentService;
+    final ReceivablesAgingService receivablesAgingService;
+    final InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances;
+    final List<Account> accounts = new ArrayList<>();
+    final List<Customer> customers = new ArrayList<>();
+    final List<List<SalesInvoice>> invoicesByCustomer = new ArrayList<>();
+
+    private final SplittableRandom random;
+
+    private SyntheticLedger(long seed) {
+        InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+        InMemoryJournalTransactionRepository transactionRepository = new InMemoryJournalTransactionRepository();
+        InMemoryCustomerRepository customerRepository = new InMemoryCustomerRepository();
+        InMemorySalesInvoiceRepository salesInvoiceRepository = new InMemorySalesInvoiceRepository();
+        InMemoryCustomerPaymentRepository customerPaymentRepository = new InMemoryCustomerPaymentRepository();
+        IdempotencyExecutor idempotencyExecutor = new IdempotencyExecutor(new InMemoryIdempotencyRepository());
+        VatRate vatRate20 = VatRate.ofFraction(new BigDecimal("0.20"));
+
+        this.random = new SplittableRandom(seed);
+        this.ledgerId = new LedgerId(new UUID(seed, seed));
+        this.invoiceBalances = InvoiceBalanceProjection.rebuildSales(customerPaymentRepository, salesInvoiceRepository);
+        this.accountingService = new AccountingServiceImpl(
+                accountRepository,
+                new SegmentedLedgerEntryRepository(),
+                transactionRepository,
+                new InMemoryAccountingPeriodRepository()
+        );
+        this.invoicingService = new InvoicingServiceImpl(customerRepository, salesInvoiceRepository, EUR);
+        this.invoicePostingService = new InvoicePostingServiceImpl(
+                salesInvoiceRepository,
+                invoiceBalances,
+                accountRepository,
+                accountingService,
+                transactionRepository,
+                RECEIVABLE,
+                REVENUE,
+                VAT_COLLECTED,
+                vatRate20
+        );
+        this.invoicePaymentService = new InvoicePaymentServiceImpl(
+                salesInvoiceRepository,
+                accountRepository,
+                accountingService,
+                customerPaymentRepository,
+                invoiceBalances,
+                new InMemoryCustomerCreditRepository(),
+                RECEIVABLE,
+                CUSTOMER_ADVANCES,
+                idempotencyExecutor
+        );
+        this.customerBatchPaymentService = new CustomerBatchPaymentServiceImpl(
+                salesInvoiceRepository,
+                accountRepository,
+                accountingService,
+                customerPaymentRepository,
+                invoiceBalances,
+                RECEIVABLE,
+                idempotencyExecutor
+        );
+        this.receivablesAgingService = ReceivablesAgingServiceImpl.incremental(customerRepository, salesInvoiceRepository, invoiceBalances);
+        this.period = accountingService.createPeriod(ledgerId, "FY2025", START, END);
+    }
+
+    static SyntheticLedger generate(int accounts, int transfers, int customers, int invoices, int payments, long seed) {
+        SyntheticLedger ledger = new SyntheticLedger(seed);
+        ledger.openAccounts(accounts);
+        ledger.postTransfers(transfers);
+        ledger.issueInvoices(customers, invoices);
+        ledger.recordPayments(payments);
+        return ledger;
+    }
+
+    Account randomAccount() {
+        return accounts.get(random.nextInt(accounts.size()));
+    }
+
+    LocalDate randomDate() {
+        return START.plusDays(random.nextInt(365));
+    }
+
+    Money randomAmount() {
+        return Money.of(BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2), EUR);
+    }
+
+    private void openAccounts(int count) {
+        accountingService.openAccount(ledgerId, BANK, "Bank", "EUR", AccountType.ASSET);
+        accountingService.openAccount(ledgerId, RECEIVABLE, "Accounts Receivable", "EUR", AccountType.ASSET);
+        accountingService.openAccount(ledgerId, REVENUE, "Sales Revenue", "EUR", AccountType.INCOME);
+        accountingService.openAccount(ledgerId, VAT_COLLECTED, "VAT Collected", "EUR", AccountType.LIABILITY);
+        accountingService.openAccount(ledgerId, CUSTOMER_ADVANCES, "Customer Advances", "EUR", AccountType.LIABILITY);
+
+        AccountType[] types = AccountType.values();
+        for (int i = 0; i < count; i++) {
+            accounts.add(accountingService.openAccount(ledgerId, String.valueOf(100_000 + i), "Account " + i, "EUR", types[i % types.length]));
+        }
+    }
+
+    private void postTransfers(int count) {
+        for (int i = 0; i < count; i++) {
+            Account debit = randomAccount();
+            Account credit = randomAccount();
+            while (credit == debit) {
+                credit = randomAccount();
+            }
+            accountingService.postTransfer(debit.id(), credit.id(), randomAmount(), JournalType.GENERAL, "Synthetic transfer", randomDate());
+        }
+    }
+
+    private void issueInvoices(int customerCount, int invoiceCount) {
+        for (int i = 0; i < customerCount; i++) {
+            customers.add(invoicingService.createCustomer(ledgerId, "CUST-" + i, "Customer " + i));
+            invoicesByCustomer.add(new ArrayList<>());
+        }
+        for (int i = 0; i < invoiceCount; i++) {
+            int customer = random.nextInt(customerCount);
+            LocalDate issueDate = START.plusDays(random.nextInt(335));
+            SalesInvoice invoice = invoicingService.createDraftInvoice(ledgerId, "INV-" + i, customers.get(customer).id(),
+                    issueDate, issueDate.plusDays(30),
+                    new InvoiceLineRequest("Service", randomAmount().amount(), TaxCategory.STANDARD));
+            invoicePostingService.postInvoice(invoice.id());
+            invoicesByCustomer.get(customer).add(invoice);
+        }
+    }
+
+    private void recordPayments(int count) {
+        List<SalesInvoice> payable = new ArrayList<>();
+        for (List<SalesInvoice> invoices : invoicesByCustomer) {
+            payable.addAll(invoices);
+        }
+        for (int i = 0; i < count && !payable.isEmpty(); i++) {
+            SalesInvoice invoice = payable.remove(random.nextInt(payable.size()));
+            Money outstanding = invoiceBalances.outstanding(invoice.id(), invoice.total());
+            Money amount = Money.of(outstanding.amount().divide(BigDecimal.valueOf(2), 2, RoundingMode.DOWN), EUR);
+            invoicePaymentService.recordPayment(UUID.randomUUID(), invoice.id(), BANK, amount, invoice.dueDate());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package fr.kovelya.accounting.application.command;
+
+import fr.kovelya.accounting.application.dto.PurchaseInvoicePaymentAllocation;
+import fr.kovelya.accounting.application.dto.SalesInvoicePaymentAllocation;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
+import fr.kovelya.accounting.domain.shared.Money;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public sealed interface AccountingCommand {
+
+    UUID commandId();
+
+    record PostInvoice(UUID commandId, SalesInvoiceId invoiceId) implements AccountingCommand {
+    }
+
+    record RecordPayment(UUID commandId, SalesInvoiceId invoiceId, String bankAccountCode, Money amount, LocalDate paymentDate) implements AccountingCommand {
+    }
+
+    record RecordBatchPayment(UUID commandId, String bankAccountCode, LocalDate paymentDate, List<SalesInvoicePaymentAllocation> allocations) implements AccountingCommand {
+
+        public RecordBatchPayment {
+            allocations = allocations == null ? List.of() : List.copyOf(allocations);
+        }
+    }
+
+    record ApplyCredit(UUID commandId, SalesInvoiceId invoiceId, Money amount, LocalDate date) implements AccountingCommand {
+    }
+
+    record PostPurchaseInvoice(UUID commandId, PurchaseInvoiceId invoiceId) implements AccountingCommand {
+    }
+
+    record RecordSupplierPayment(UUID commandId, PurchaseInvoiceId invoiceId, String bankAccountCode, Money amount, LocalDate paymentDate) implements AccountingCommand {
+    }
+
+    record RecordSupplierBatchPayment(UUID commandId, String bankAccountCode, LocalDate paymentDate, List<PurchaseInvoicePaymentAllocation> allocations) implements AccountingCommand {
+
+        public RecordSupplierBatchPayment {
+            allocations = allocations == null ? List.of() : List.copyOf(allocations);
+        }
+    }
+
+    record ApplyAdvance(UUID commandId, PurchaseInvoiceId invoiceId, Money amount, LocalDate date) implements AccountingCommand {
+    }
+}
@@ -0,0 +1,211 @@
+package fr.kovelya.accounting.application.command;
+
+import fr.kovelya.accounting.application.dto.PurchaseInvoicePaymentAllocation;
+import fr.kovelya.accounting.application.dto.SalesInvoicePaymentAllocation;
+import fr.kovelya.accounting.application.service.CustomerBatchPaymentService;
+import fr.kovelya.accounting.application.service.CustomerCreditApplicationService;
+import fr.kovelya.accounting.application.service.InvoicePaymentService;
+import fr.kovelya.accounting.application.service.InvoicePostingService;
+import fr.kovelya.accounting.application.service.PurchaseInvoicePaymentService;
+import fr.kovelya.accounting.application.service.PurchaseInvoicePostingService;
+import fr.kovelya.accounting.application.service.SupplierAdvanceApplicationService;
+import fr.kovelya.accounting.application.service.SupplierBatchPaymentService;
+import fr.kovelya.accounting.application.service.impl.IdempotencyExecutor;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
+import fr.kovelya.accounting.domain.repository.PurchaseInvoiceRepository;
+import fr.kovelya.accounting.domain.repository.SalesInvoiceRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public final class CommandBus implements AutoCloseable {
+
+    private static final CompletableFuture<Void> IDLE = CompletableFuture.completedFuture(null);
+
+    private final SalesInvoiceRepository salesInvoiceRepository;
+    private final PurchaseInvoiceRepository purchaseInvoiceRepository;
+    private final InvoicePostingService invoicePostingService;
+    private final InvoicePaymentService invoicePaymentService;
+    private final CustomerBatchPaymentService customerBatchPaymentService;
+    private final CustomerCreditApplicationService customerCreditApplicationService;
+    private final PurchaseInvoicePostingService purchaseInvoicePostingService;
+    private final PurchaseInvoicePaymentService purchaseInvoicePaymentService;
+    private final SupplierBatchPaymentService supplierBatchPaymentService;
+    private final SupplierAdvanceApplicationService supplierAdvanceApplicationService;
+    private final IdempotencyExecutor idempotencyExecutor;
+    private final int maxPending;
+    private final Semaphore capacity;
+    private final Map<Object, CompletableFuture<Void>> lanes = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean closed;
+
+    public CommandBus(
+            SalesInvoiceRepository salesInvoiceRepository,
+            PurchaseInvoiceRepository purchaseInvoiceRepository,
+            InvoicePostingService invoicePostingService,
+            InvoicePaymentService invoicePaymentService,
+            CustomerBatchPaymentService customerBatchPaymentService,
+            CustomerCreditApplicationService customerCreditApplicationService,
+            PurchaseInvoicePostingService purchaseInvoicePostingService,
+            PurchaseInvoicePaymentService purchaseInvoicePaymentService,
+            SupplierBatchPaymentService supplierBatchPaymentService,
+            SupplierAdvanceApplicationService supplierAdvanceApplicationService,
+            IdempotencyExecutor idempotencyExecutor,
+            int maxPending
+    ) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("maxPending must be positive");
+        }
+        this.salesInvoiceRepository = Objects.requireNonNull(salesInvoiceRepository);
+        this.purchaseInvoiceRepository = Objects.requireNonNull(purchaseInvoiceRepository);
+        this.invoicePostingService = Objects.requireNonNull(invoicePostingService);
+        this.invoicePaymentService = Objects.requireNonNull(invoicePaymentService);
+        this.customerBatchPaymentService = Objects.requireNonNull(customerBatchPaymentService);
+        this.customerCreditApplicationService = Objects.requireNonNull(customerCreditApplicationService);
+        this.purchaseInvoicePostingService = Objects.requireNonNull(purchaseInvoicePostingService);
+        this.purchaseInvoicePaymentService = Objects.requireNonNull(purchaseInvoicePaymentService);
+        this.supplierBatchPaymentService = Objects.requireNonNull(supplierBatchPaymentService);
+        this.supplierAdvanceApplicationService = Objects.requireNonNull(supplierAdvanceApplicationService);
+        this.idempotencyExecutor = Objects.requireNonNull(idempotencyExecutor);
+        this.maxPending = maxPending;
+        this.capacity = new Semaphore(maxPending, true);
+    }
+
+    public CompletableFuture<UUID> submit(AccountingCommand command) {
+        if (command == null || command.commandId() == null) {
+            throw new IllegalArgumentException("commandId is required");
+        }
+        if (closed) {
+            throw new IllegalStateException("Command bus is closed");
+        }
+        Object lane;
+        try {
+            lane = laneOf(command);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for command capacity", e);
+        }
+        if (closed) {
+            capacity.release();
+            throw new IllegalStateException("Command bus is closed");
+        }
+
+        CompletableFuture<UUID> result = new CompletableFuture<>();
+        CompletableFuture<Void> tail = lanes.compute(lane, (key, previous) ->
+                (previous == null ? IDLE : previous).thenRunAsync(() -> execute(command, result), executor));
+        tail.whenComplete((ignored, failure) -> lanes.remove(lane, tail));
+        return result;
+    }
+
+    public int pending() {
+        return maxPending - capacity.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        capacity.acquireUninterruptibly(maxPending);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            capacity.release(maxPending);
+        }
+    }
+
+    private void execute(AccountingCommand command, CompletableFuture<UUID> result) {
+        Throwable failure = null;
+        try {
+            dispatch(command);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        } finally {
+            capacity.release();
+        }
+        if (failure == null) {
+            result.complete(command.commandId());
+        } else {
+            result.completeExceptionally(failure);
+        }
+    }
+
+    private void dispatch(AccountingCommand command) {
+        switch (command) {
+            case AccountingCommand.PostInvoice c ->
+                    idempotencyExecutor.runVoid(c.commandId(), () -> invoicePostingService.postInvoice(c.invoiceId()), () -> {
+                    });
+            case AccountingCommand.RecordPayment c ->
+                    invoicePaymentService.recordPayment(c.commandId(), c.invoiceId(), c.bankAccountCode(), c.amount(), c.paymentDate());
+            case AccountingCommand.RecordBatchPayment c ->
+                    customerBatchPaymentService.recordBatchPayment(c.commandId(), c.bankAccountCode(), c.paymentDate(),
+                            c.allocations().toArray(new SalesInvoicePaymentAllocation[0]));
+            case AccountingCommand.ApplyCredit c ->
+                    customerCreditApplicationService.applyCredit(c.commandId(), c.invoiceId(), c.amount(), c.date());
+            case AccountingCommand.PostPurchaseInvoice c ->
+                    idempotencyExecutor.runVoid(c.commandId(), () -> purchaseInvoicePostingService.postPurchaseInvoice(c.invoiceId()), () -> {
+                    });
+            case AccountingCommand.RecordSupplierPayment c ->
+                    purchaseInvoicePaymentService.recordPayment(c.commandId(), c.invoiceId(), c.bankAccountCode(), c.amount(), c.paymentDate());
+            case AccountingCommand.RecordSupplierBatchPayment c ->
+                    supplierBatchPaymentService.recordBatchPayment(c.commandId(), c.bankAccountCode(), c.paymentDate(),
+                            c.allocations().toArray(new PurchaseInvoicePaymentAllocation[0]));
+            case AccountingCommand.ApplyAdvance c ->
+                    supplierAdvanceApplicationService.applyAdvance(c.commandId(), c.invoiceId(), c.amount(), c.date());
+        }
+    }
+
+    private Object laneOf(AccountingCommand command) {
+        Object ledger = switch (command) {
+            case AccountingCommand.PostInvoice c -> salesLedger(c.invoiceId());
+            case AccountingCommand.RecordPayment c -> salesLedger(c.invoiceId());
+            case AccountingCommand.RecordBatchPayment c -> singleLedger(c.allocations().stream().map(a -> salesLedger(a.invoiceId())).toList());
+            case AccountingCommand.ApplyCredit c -> salesLedger(c.invoiceId());
+            case AccountingCommand.PostPurchaseInvoice c -> purchaseLedger(c.invoiceId());
+            case AccountingCommand.RecordSupplierPayment c -> purchaseLedger(c.invoiceId());
+            case AccountingCommand.RecordSupplierBatchPayment c -> singleLedger(c.allocations().stream().map(a -> purchaseLedger(a.invoiceId())).toList());
+            case AccountingCommand.ApplyAdvance c -> purchaseLedger(c.invoiceId());
+        };
+        return ledger == null ? command.commandId() : ledger;
+    }
+
+    private Object salesLedger(SalesInvoiceId invoiceId) {
+        return invoiceId == null ? null : salesInvoiceRepository.findById(invoiceId).map(SalesInvoice::ledgerId).orElse(null);
+    }
+
+    private Object purchaseLedger(PurchaseInvoiceId invoiceId) {
+        return invoiceId == null ? null : purchaseInvoiceRepository.findById(invoiceId).map(PurchaseInvoice::ledgerId).orElse(null);
+    }
+
+    private static Object singleLedger(List<Object> ledgers) {
+        Set<Object> distinct = new HashSet<>();
+        for (Object ledger : ledgers) {
+            if (ledger != null) {
+                distinct.add(ledger);
+            }
+        }
+        if (distinct.size() > 1) {
+            throw new IllegalArgumentException("Batch payment allocations span several ledgers");
+        }
+        return distinct.isEmpty() ? null : distinct.iterator().next();
+    }
+}
@@ -0,0 +1,40 @@
+package fr.kovelya.accounting.application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fr.kovelya.accounting.AgingRun")
+@Label("Aging Run")
+@Category({"Kovelya", "Reporting"})
+@Description("One receivables or payables aging report")
+public final class AgingRunEvent extends Event {
+
+    @Label("Kind")
+    private String kind;
+
+    @Label("Incremental")
+    private boolean incremental;
+
+    @Label("As Of Date")
+    private String asOfDate;
+
+    @Label("Parties")
+    private int parties;
+
+    @Label("Rows")
+    private int rows;
+
+    public void run(String kind, boolean incremental, String asOfDate) {
+        this.kind = kind;
+        this.incremental = incremental;
+        this.asOfDate = asOfDate;
+    }
+
+    public void result(int parties, int rows) {
+        this.parties = parties;
+        this.rows = rows;
+    }
+}
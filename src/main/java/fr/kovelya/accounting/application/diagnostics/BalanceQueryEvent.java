@@ -0,0 +1,36 @@
+package fr.kovelya.accounting.application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fr.kovelya.accounting.BalanceQuery")
+@Label("Balance Query")
+@Category({"Kovelya", "Accounting"})
+@Description("Period balance lookup for one account")
+public final class BalanceQueryEvent extends Event {
+
+    @Label("Ledger Id")
+    private String ledgerId;
+
+    @Label("Account Id")
+    private String accountId;
+
+    @Label("Period")
+    private String period;
+
+    @Label("Frozen Totals")
+    private boolean frozen;
+
+    public void query(String ledgerId, String accountId, String period) {
+        this.ledgerId = ledgerId;
+        this.accountId = accountId;
+        this.period = period;
+    }
+
+    public void frozen(boolean frozen) {
+        this.frozen = frozen;
+    }
+}
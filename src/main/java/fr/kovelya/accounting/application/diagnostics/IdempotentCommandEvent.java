@@ -0,0 +1,29 @@
+package fr.kovelya.accounting.application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fr.kovelya.accounting.IdempotentCommand")
+@Label("Idempotent Command")
+@Category({"Kovelya", "Commands"})
+@Description("Claim, execution or replay of an idempotent command")
+public final class IdempotentCommandEvent extends Event {
+
+    @Label("Command Id")
+    private String commandId;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public void command(String commandId) {
+        this.commandId = commandId;
+        this.outcome = "FAILED";
+    }
+
+    public void outcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
@@ -0,0 +1,40 @@
+package fr.kovelya.accounting.application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fr.kovelya.accounting.JournalPosting")
+@Label("Journal Posting")
+@Category({"Kovelya", "Accounting"})
+@Description("Validation and commit of one journal transaction")
+public final class JournalPostingEvent extends Event {
+
+    @Label("Ledger Id")
+    private String ledgerId;
+
+    @Label("Journal Type")
+    private String journalType;
+
+    @Label("Reference")
+    private String reference;
+
+    @Label("Entry Count")
+    private int entryCount;
+
+    @Label("Succeeded")
+    private boolean succeeded;
+
+    public void request(String journalType, String reference, int entryCount) {
+        this.journalType = journalType;
+        this.reference = reference;
+        this.entryCount = entryCount;
+    }
+
+    public void posted(String ledgerId) {
+        this.ledgerId = ledgerId;
+        this.succeeded = true;
+    }
+}
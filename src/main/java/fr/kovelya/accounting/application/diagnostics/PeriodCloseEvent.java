@@ -0,0 +1,40 @@
+package fr.kovelya.accounting.application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fr.kovelya.accounting.PeriodClose")
+@Label("Period Close")
+@Category({"Kovelya", "Accounting"})
+@Description("Closing of an accounting period, including closing entries and statement caching")
+public final class PeriodCloseEvent extends Event {
+
+    @Label("Ledger Id")
+    private String ledgerId;
+
+    @Label("Period")
+    private String period;
+
+    @Label("Accounts Scanned")
+    private int accountsScanned;
+
+    @Label("Closing Entries")
+    private int closingEntries;
+
+    @Label("Succeeded")
+    private boolean succeeded;
+
+    public void period(String ledgerId, String period) {
+        this.ledgerId = ledgerId;
+        this.period = period;
+    }
+
+    public void closed(int accountsScanned, int closingEntries) {
+        this.accountsScanned = accountsScanned;
+        this.closingEntries = closingEntries;
+        this.succeeded = true;
+    }
+}
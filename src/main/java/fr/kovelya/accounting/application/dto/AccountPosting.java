@@ -1,5 +1,6 @@
 package fr.kovelya.accounting.application.dto;
 
+import fr.kovelya.accounting.application.posting.PostingAccount;
 import fr.kovelya.accounting.domain.account.AccountId;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.shared.Money;
@@ -7,11 +8,21 @@ import fr.kovelya.accounting.domain.shared.Money;
 public final class AccountPosting {
 
     private final AccountId accountId;
+    private final PostingAccount postingAccount;
     private final Money amount;
     private final LedgerEntry.Direction direction;
 
     public AccountPosting(AccountId accountId, Money amount, LedgerEntry.Direction direction) {
+        this(accountId, null, amount, direction);
+    }
+
+    public AccountPosting(PostingAccount postingAccount, Money amount, LedgerEntry.Direction direction) {
+        this(postingAccount.id(), postingAccount, amount, direction);
+    }
+
+    private AccountPosting(AccountId accountId, PostingAccount postingAccount, Money amount, LedgerEntry.Direction direction) {
         this.accountId = accountId;
+        this.postingAccount = postingAccount;
         this.amount = amount;
         this.direction = direction;
     }
@@ -20,6 +31,10 @@ public final class AccountPosting {
         return accountId;
     }
 
+    public PostingAccount postingAccount() {
+        return postingAccount;
+    }
+
     public Money amount() {
         return amount;
     }
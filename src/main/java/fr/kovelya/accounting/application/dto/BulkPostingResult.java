@@ -0,0 +1,35 @@
+package fr.kovelya.accounting.application.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class BulkPostingResult<I> {
+
+    private final List<I> posted;
+    private final List<I> skipped;
+    private final Map<I, RuntimeException> failed;
+
+    public BulkPostingResult(List<I> posted, List<I> skipped, Map<I, RuntimeException> failed) {
+        this.posted = List.copyOf(posted);
+        this.skipped = List.copyOf(skipped);
+        this.failed = Collections.unmodifiableMap(new LinkedHashMap<>(failed));
+    }
+
+    public List<I> posted() {
+        return posted;
+    }
+
+    public List<I> skipped() {
+        return skipped;
+    }
+
+    public Map<I, RuntimeException> failed() {
+        return failed;
+    }
+
+    public int total() {
+        return posted.size() + skipped.size() + failed.size();
+    }
+}
@@ -0,0 +1,42 @@
+package fr.kovelya.accounting.application.dto;
+
+import fr.kovelya.accounting.domain.ledger.JournalType;
+
+import java.time.LocalDate;
+
+public final class JournalPostingRequest {
+
+    private final JournalType journalType;
+    private final String reference;
+    private final String description;
+    private final LocalDate transactionDate;
+    private final AccountPosting[] postings;
+
+    public JournalPostingRequest(JournalType journalType, String reference, String description, LocalDate transactionDate, AccountPosting... postings) {
+        this.journalType = journalType;
+        this.reference = reference;
+        this.description = description;
+        this.transactionDate = transactionDate;
+        this.postings = postings == null ? null : postings.clone();
+    }
+
+    public JournalType journalType() {
+        return journalType;
+    }
+
+    public String reference() {
+        return reference;
+    }
+
+    public String description() {
+        return description;
+    }
+
+    public LocalDate transactionDate() {
+        return transactionDate;
+    }
+
+    public AccountPosting[] postings() {
+        return postings == null ? null : postings.clone();
+    }
+}
@@ -0,0 +1,12 @@
+package fr.kovelya.accounting.application.metrics;
+
+public interface Counter {
+
+    void add(long delta);
+
+    long value();
+
+    default void increment() {
+        add(1);
+    }
+}
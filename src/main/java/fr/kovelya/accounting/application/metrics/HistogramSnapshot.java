@@ -0,0 +1,9 @@
+package fr.kovelya.accounting.application.metrics;
+
+public record HistogramSnapshot(String name, long count, long min, long max, double mean, long p50, long p90, long p99) {
+
+    @Override
+    public String toString() {
+        return String.format("%s count=%d min=%d p50=%d p90=%d p99=%d max=%d mean=%.1f", name, count, min, p50, p90, p99, max, mean);
+    }
+}
@@ -0,0 +1,18 @@
+package fr.kovelya.accounting.application.metrics;
+
+import java.util.function.LongSupplier;
+
+public interface Metrics {
+
+    Counter counter(String name);
+
+    Timer timer(String name);
+
+    void gauge(String name, LongSupplier value);
+
+    String textSnapshot();
+
+    static Metrics noop() {
+        return NoopMetrics.INSTANCE;
+    }
+}
@@ -0,0 +1,92 @@
+package fr.kovelya.accounting.application.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public final class MetricsRegistry implements Metrics {
+
+    private final Map<String, LongAdderCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, HistogramTimer> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(requireName(name), n -> new LongAdderCounter());
+    }
+
+    @Override
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(requireName(name), HistogramTimer::new);
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Gauge supplier is required");
+        }
+        gauges.put(requireName(name), value);
+    }
+
+    @Override
+    public String textSnapshot() {
+        Map<String, String> lines = new TreeMap<>();
+        counters.forEach((name, counter) -> lines.put(name + " counter", "counter " + name + " " + counter.value()));
+        gauges.forEach((name, gauge) -> lines.put(name + " gauge", "gauge " + name + " " + gauge.getAsLong()));
+        timers.forEach((name, timer) -> lines.put(name + " timer", "timer " + timer.snapshot()));
+
+        StringBuilder text = new StringBuilder();
+        for (String line : lines.values()) {
+            text.append(line).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String requireName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Metric name is required");
+        }
+        return name;
+    }
+
+    private static final class LongAdderCounter implements Counter {
+
+        private final LongAdder adder = new LongAdder();
+
+        @Override
+        public void add(long delta) {
+            adder.add(delta);
+        }
+
+        @Override
+        public long value() {
+            return adder.sum();
+        }
+    }
+
+    private static final class HistogramTimer implements Timer {
+
+        private final Histogram nanos;
+
+        private HistogramTimer(String name) {
+            this.nanos = new Histogram(name);
+        }
+
+        @Override
+        public long start() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void stop(long started) {
+            nanos.record(Math.max(0L, System.nanoTime() - started));
+        }
+
+        @Override
+        public HistogramSnapshot snapshot() {
+            return nanos.snapshot();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package fr.kovelya.accounting.application.metrics;
+
+import java.util.function.LongSupplier;
+
+enum NoopMetrics implements Metrics, Counter, Timer {
+
+    INSTANCE;
+
+    private static final HistogramSnapshot EMPTY = new HistogramSnapshot("noop", 0, 0, 0, 0.0, 0, 0, 0);
+
+    @Override
+    public Counter counter(String name) {
+        return this;
+    }
+
+    @Override
+    public Timer timer(String name) {
+        return this;
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value) {
+    }
+
+    @Override
+    public String textSnapshot() {
+        return "";
+    }
+
+    @Override
+    public void add(long delta) {
+    }
+
+    @Override
+    public long value() {
+        return 0;
+    }
+
+    @Override
+    public long start() {
+        return 0;
+    }
+
+    @Override
+    public void stop(long started) {
+    }
+
+    @Override
+    public HistogramSnapshot snapshot() {
+        return EMPTY;
+    }
+}
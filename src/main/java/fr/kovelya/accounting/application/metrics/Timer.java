@@ -0,0 +1,10 @@
+package fr.kovelya.accounting.application.metrics;
+
+public interface Timer {
+
+    long start();
+
+    void stop(long started);
+
+    HistogramSnapshot snapshot();
+}
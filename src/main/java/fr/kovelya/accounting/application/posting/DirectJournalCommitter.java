@@ -0,0 +1,82 @@
+package fr.kovelya.accounting.application.posting;
+
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.metrics.Timer;
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.TransactionId;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
+import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
+import fr.kovelya.accounting.domain.repository.LedgerEntryRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class DirectJournalCommitter implements JournalCommitter {
+
+    private final JournalTransactionRepository journalTransactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountBalanceProjection balanceProjection;
+    private final Timer transactionSaveTimer;
+    private final Timer entrySaveTimer;
+
+    public DirectJournalCommitter(JournalTransactionRepository journalTransactionRepository, LedgerEntryRepository ledgerEntryRepository, AccountBalanceProjection balanceProjection) {
+        this(journalTransactionRepository, ledgerEntryRepository, balanceProjection, Metrics.noop());
+    }
+
+    public DirectJournalCommitter(JournalTransactionRepository journalTransactionRepository, LedgerEntryRepository ledgerEntryRepository, AccountBalanceProjection balanceProjection, Metrics metrics) {
+        this.journalTransactionRepository = journalTransactionRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceProjection = balanceProjection;
+        this.transactionSaveTimer = metrics.timer("repository.journalTransaction.save");
+        this.entrySaveTimer = metrics.timer("repository.ledgerEntry.save");
+    }
+
+    @Override
+    public void commit(JournalTransaction transaction) {
+        long started = transactionSaveTimer.start();
+        try {
+            journalTransactionRepository.save(transaction);
+        } finally {
+            transactionSaveTimer.stop(started);
+        }
+        applyEntries(transaction);
+    }
+
+    @Override
+    public Map<TransactionId, RuntimeException> commitAll(List<JournalTransaction> transactions) {
+        long started = transactionSaveTimer.start();
+        try {
+            journalTransactionRepository.saveAll(transactions);
+        } catch (DuplicateJournalReferenceException rejected) {
+            return JournalCommitter.super.commitAll(transactions);
+        } finally {
+            transactionSaveTimer.stop(started);
+        }
+
+        Map<TransactionId, RuntimeException> failures = new HashMap<>();
+        for (JournalTransaction transaction : transactions) {
+            try {
+                applyEntries(transaction);
+            } catch (RuntimeException e) {
+                failures.put(transaction.id(), e);
+            }
+        }
+        return failures;
+    }
+
+    private void applyEntries(JournalTransaction transaction) {
+        long started = entrySaveTimer.start();
+        try {
+            for (LedgerEntry entry : transaction.entries()) {
+                ledgerEntryRepository.save(entry);
+            }
+        } finally {
+            entrySaveTimer.stop(started);
+        }
+
+        balanceProjection.apply(transaction);
+    }
+}
@@ -0,0 +1,201 @@
+package fr.kovelya.accounting.application.posting;
+
+import fr.kovelya.accounting.application.metrics.Histogram;
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.TransactionId;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
+import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
+import fr.kovelya.accounting.domain.repository.LedgerEntryRepository;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public final class GroupCommitJournalCommitter implements JournalCommitter, Closeable {
+
+    private final JournalTransactionRepository journalTransactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountBalanceProjection balanceProjection;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingCommit> queue = new LinkedBlockingQueue<>();
+    private final Histogram batchSizes = new Histogram("journal.commit.batch.size");
+    private final Histogram commitLatencyMicros = new Histogram("journal.commit.latency.us");
+    private final Object lifecycle = new Object();
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    public GroupCommitJournalCommitter(JournalTransactionRepository journalTransactionRepository, LedgerEntryRepository ledgerEntryRepository, AccountBalanceProjection balanceProjection, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Max batch size must be positive");
+        }
+        this.journalTransactionRepository = journalTransactionRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceProjection = balanceProjection;
+        this.maxBatchSize = maxBatchSize;
+        this.writer = new Thread(this::runWriter, "journal-group-commit");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void commit(JournalTransaction transaction) {
+        PendingCommit pending = new PendingCommit(transaction, System.nanoTime(), new CompletableFuture<>());
+        enqueue(List.of(pending));
+        try {
+            pending.future().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<TransactionId, RuntimeException> commitAll(List<JournalTransaction> transactions) {
+        List<PendingCommit> pendings = new ArrayList<>(transactions.size());
+        for (JournalTransaction transaction : transactions) {
+            pendings.add(new PendingCommit(transaction, System.nanoTime(), new CompletableFuture<>()));
+        }
+        enqueue(pendings);
+        Map<TransactionId, RuntimeException> failures = new HashMap<>();
+        for (PendingCommit pending : pendings) {
+            try {
+                pending.future().join();
+            } catch (CompletionException e) {
+                failures.put(pending.transaction().id(),
+                        e.getCause() instanceof RuntimeException cause ? cause : e);
+            }
+        }
+        return failures;
+    }
+
+    public Histogram batchSizes() {
+        return batchSizes;
+    }
+
+    public Histogram commitLatencyMicros() {
+        return commitLatencyMicros;
+    }
+
+    @Override
+    public void close() {
+        synchronized (lifecycle) {
+            running = false;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failQueued(new IllegalStateException("Journal committer is closed"));
+    }
+
+    private void enqueue(List<PendingCommit> pendings) {
+        synchronized (lifecycle) {
+            if (!running) {
+                throw new IllegalStateException("Journal committer is closed");
+            }
+            queue.addAll(pendings);
+        }
+    }
+
+    private void runWriter() {
+        List<PendingCommit> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingCommit first = queue.poll(10, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+                process(batch);
+                batch.clear();
+            }
+        } finally {
+            synchronized (lifecycle) {
+                running = false;
+            }
+            IllegalStateException closed = new IllegalStateException("Journal committer is closed");
+            for (PendingCommit pending : batch) {
+                pending.future().completeExceptionally(closed);
+            }
+            failQueued(closed);
+        }
+    }
+
+    private void failQueued(RuntimeException failure) {
+        PendingCommit left;
+        while ((left = queue.poll()) != null) {
+            left.future().completeExceptionally(failure);
+        }
+    }
+
+    private void process(List<PendingCommit> batch) {
+        List<JournalTransaction> transactions = new ArrayList<>(batch.size());
+        for (PendingCommit pending : batch) {
+            transactions.add(pending.transaction());
+        }
+        batchSizes.record(batch.size());
+
+        try {
+            journalTransactionRepository.saveAll(transactions);
+        } catch (DuplicateJournalReferenceException rejected) {
+            for (PendingCommit pending : batch) {
+                try {
+                    journalTransactionRepository.save(pending.transaction());
+                    complete(pending);
+                } catch (RuntimeException e) {
+                    pending.future().completeExceptionally(e);
+                }
+            }
+            return;
+        } catch (RuntimeException failure) {
+            for (PendingCommit pending : batch) {
+                pending.future().completeExceptionally(failure);
+            }
+            return;
+        }
+        for (PendingCommit pending : batch) {
+            complete(pending);
+        }
+    }
+
+    private void complete(PendingCommit pending) {
+        JournalTransaction transaction = pending.transaction();
+        RuntimeException failure = null;
+        try {
+            for (LedgerEntry entry : transaction.entries()) {
+                ledgerEntryRepository.save(entry);
+            }
+            balanceProjection.apply(transaction);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        commitLatencyMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - pending.enqueuedAt()));
+        if (failure == null) {
+            pending.future().complete(null);
+        } else {
+            pending.future().completeExceptionally(failure);
+        }
+    }
+
+    private record PendingCommit(JournalTransaction transaction, long enqueuedAt, CompletableFuture<Void> future) {
+    }
+}
@@ -0,0 +1,25 @@
+package fr.kovelya.accounting.application.posting;
+
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.TransactionId;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public interface JournalCommitter {
+
+    void commit(JournalTransaction transaction);
+
+    default Map<TransactionId, RuntimeException> commitAll(List<JournalTransaction> transactions) {
+        Map<TransactionId, RuntimeException> failures = new HashMap<>();
+        for (JournalTransaction transaction : transactions) {
+            try {
+                commit(transaction);
+            } catch (RuntimeException e) {
+                failures.put(transaction.id(), e);
+            }
+        }
+        return failures;
+    }
+}
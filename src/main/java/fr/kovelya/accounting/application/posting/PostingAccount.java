@@ -0,0 +1,36 @@
+package fr.kovelya.accounting.application.posting;
+
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+
+import java.util.Currency;
+
+public final class PostingAccount {
+
+    private final Account account;
+
+    PostingAccount(Account account) {
+        this.account = account;
+    }
+
+    public Account account() {
+        return account;
+    }
+
+    public AccountId id() {
+        return account.id();
+    }
+
+    public String code() {
+        return account.code();
+    }
+
+    public LedgerId ledgerId() {
+        return account.ledgerId();
+    }
+
+    public Currency currency() {
+        return account.currency();
+    }
+}
@@ -0,0 +1,45 @@
+package fr.kovelya.accounting.application.posting;
+
+import fr.kovelya.accounting.domain.account.AccountId;
+
+import java.util.Collection;
+
+public final class PostingCoordinator {
+
+    private static final int DEFAULT_STRIPES = 256;
+    private static final PostingCoordinator SHARED = new PostingCoordinator(DEFAULT_STRIPES);
+
+    private final StripedLocks documentLocks;
+    private final StripedLocks accountLocks;
+
+    public PostingCoordinator() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public PostingCoordinator(int stripes) {
+        this.documentLocks = new StripedLocks(stripes);
+        this.accountLocks = new StripedLocks(stripes);
+    }
+
+    public static PostingCoordinator shared() {
+        return SHARED;
+    }
+
+    public void runWithDocuments(Collection<?> documentIds, Runnable action) {
+        StripedLocks.Held held = documentLocks.lockAll(documentIds);
+        try {
+            action.run();
+        } finally {
+            held.close();
+        }
+    }
+
+    public void runWithAccounts(Collection<AccountId> accountIds, Runnable action) {
+        StripedLocks.Held held = accountLocks.lockAll(accountIds);
+        try {
+            action.run();
+        } finally {
+            held.close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package fr.kovelya.accounting.application.posting;
+
+import fr.kovelya.accounting.domain.account.ChartOfAccounts;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public final class PostingProfile {
+
+    private final ChartOfAccounts chart;
+    private final Map<String, PostingAccount> resolved;
+
+    PostingProfile(ChartOfAccounts chart, List<String> codes) {
+        this.chart = chart;
+        this.resolved = new HashMap<>();
+        for (String code : codes) {
+            chart.findByCode(code).ifPresent(account -> resolved.put(code, new PostingAccount(account)));
+        }
+    }
+
+    public Optional<PostingAccount> find(String code) {
+        PostingAccount account = resolved.get(code);
+        if (account != null) {
+            return Optional.of(account);
+        }
+        return chart.findByCode(code).map(PostingAccount::new);
+    }
+
+    public LedgerId ledgerId() {
+        return chart.ledgerId();
+    }
+
+    ChartOfAccounts chart() {
+        return chart;
+    }
+}
@@ -0,0 +1,34 @@
+package fr.kovelya.accounting.application.posting;
+
+import fr.kovelya.accounting.domain.account.ChartOfAccounts;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.repository.AccountRepository;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class PostingProfiles {
+
+    private final AccountRepository accountRepository;
+    private final List<String> codes;
+    private final ConcurrentHashMap<LedgerId, PostingProfile> profiles = new ConcurrentHashMap<>();
+
+    public PostingProfiles(AccountRepository accountRepository, String... codes) {
+        if (accountRepository == null) {
+            throw new IllegalArgumentException("Account repository is required");
+        }
+        this.accountRepository = accountRepository;
+        this.codes = List.of(codes);
+    }
+
+    public PostingProfile forLedger(LedgerId ledgerId) {
+        ChartOfAccounts chart = accountRepository.chartOf(ledgerId);
+        PostingProfile profile = profiles.get(ledgerId);
+        if (profile != null && profile.chart() == chart) {
+            return profile;
+        }
+        PostingProfile refreshed = new PostingProfile(chart, codes);
+        profiles.put(ledgerId, refreshed);
+        return refreshed;
+    }
+}
@@ -0,0 +1,104 @@
+package fr.kovelya.accounting.application.projection;
+
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.PeriodBalance;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
+import fr.kovelya.accounting.domain.repository.LedgerEntryRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class AccountBalanceProjection {
+
+    private final Map<AccountId, AccountTotals> totals = new ConcurrentHashMap<>();
+    private final Map<AccountingPeriodId, Map<AccountId, AccountTotals>> periodTotals = new ConcurrentHashMap<>();
+    private final Map<AccountingPeriodId, Map<AccountId, AccountTotals>> frozenPeriodTotals = new ConcurrentHashMap<>();
+
+    public static AccountBalanceProjection rebuild(JournalTransactionRepository journalTransactionRepository) {
+        AccountBalanceProjection projection = new AccountBalanceProjection();
+        for (JournalTransaction transaction : journalTransactionRepository.findAll()) {
+            projection.apply(transaction);
+        }
+        return projection;
+    }
+
+    public static AccountBalanceProjection restore(Collection<PeriodBalance> balances) {
+        AccountBalanceProjection projection = new AccountBalanceProjection();
+        for (PeriodBalance balance : balances) {
+            AccountTotals restored = new AccountTotals(balance.debit(), balance.credit());
+            projection.totals.merge(balance.accountId(), restored, AccountTotals::plus);
+            projection.periodTotals.computeIfAbsent(balance.periodId(), id -> new ConcurrentHashMap<>())
+                    .merge(balance.accountId(), restored, AccountTotals::plus);
+        }
+        return projection;
+    }
+
+    public synchronized void apply(JournalTransaction transaction) {
+        Map<AccountId, AccountTotals> bucket = periodTotals.computeIfAbsent(transaction.getPeriodId(), id -> new ConcurrentHashMap<>());
+        for (LedgerEntry entry : transaction.entries()) {
+            totals.merge(entry.accountId(), AccountTotals.ZERO.add(entry), (current, ignored) -> current.add(entry));
+            bucket.merge(entry.accountId(), AccountTotals.ZERO.add(entry), (current, ignored) -> current.add(entry));
+        }
+        frozenPeriodTotals.remove(transaction.getPeriodId());
+    }
+
+    public AccountTotals totalsFor(AccountId accountId) {
+        return totals.getOrDefault(accountId, AccountTotals.ZERO);
+    }
+
+    public AccountTotals totalsFor(AccountId accountId, AccountingPeriodId periodId) {
+        Map<AccountId, AccountTotals> bucket = periodTotals.get(periodId);
+        if (bucket == null) {
+            return AccountTotals.ZERO;
+        }
+        return bucket.getOrDefault(accountId, AccountTotals.ZERO);
+    }
+
+    public synchronized Map<AccountId, AccountTotals> periodTotals(AccountingPeriodId periodId) {
+        Map<AccountId, AccountTotals> bucket = periodTotals.get(periodId);
+        if (bucket == null) {
+            return Map.of();
+        }
+        return Map.copyOf(bucket);
+    }
+
+    public Map<AccountId, AccountTotals> frozenPeriodTotals(AccountingPeriodId periodId) {
+        Map<AccountId, AccountTotals> frozen = frozenPeriodTotals.get(periodId);
+        if (frozen != null) {
+            return frozen;
+        }
+        synchronized (this) {
+            frozen = frozenPeriodTotals.get(periodId);
+            if (frozen == null) {
+                frozen = periodTotals(periodId);
+                frozenPeriodTotals.put(periodId, frozen);
+            }
+            return frozen;
+        }
+    }
+
+    public synchronized List<AccountId> verify(LedgerEntryRepository ledgerEntryRepository, Collection<AccountId> accountIds) {
+        Set<AccountId> candidates = new LinkedHashSet<>(accountIds);
+        candidates.addAll(totals.keySet());
+
+        List<AccountId> drifted = new ArrayList<>();
+        for (AccountId accountId : candidates) {
+            AccountTotals expected = AccountTotals.ZERO;
+            for (LedgerEntry entry : ledgerEntryRepository.findByAccount(accountId)) {
+                expected = expected.add(entry);
+            }
+            if (!expected.sameAs(totalsFor(accountId))) {
+                drifted.add(accountId);
+            }
+        }
+        return drifted;
+    }
+}
@@ -0,0 +1,34 @@
+package fr.kovelya.accounting.application.projection;
+
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+
+import java.math.BigDecimal;
+
+public record AccountTotals(BigDecimal debit, BigDecimal credit) {
+
+    public static final AccountTotals ZERO = new AccountTotals(BigDecimal.ZERO, BigDecimal.ZERO);
+
+    public AccountTotals add(LedgerEntry entry) {
+        BigDecimal amount = entry.amount().amount();
+        if (entry.direction() == LedgerEntry.Direction.DEBIT) {
+            return new AccountTotals(debit.add(amount), credit);
+        }
+        return new AccountTotals(debit, credit.add(amount));
+    }
+
+    public AccountTotals plus(AccountTotals other) {
+        return new AccountTotals(debit.add(other.debit), credit.add(other.credit));
+    }
+
+    public BigDecimal net(AccountType type) {
+        if (type == AccountType.ASSET || type == AccountType.EXPENSE) {
+            return debit.subtract(credit);
+        }
+        return credit.subtract(debit);
+    }
+
+    public boolean sameAs(AccountTotals other) {
+        return debit.compareTo(other.debit) == 0 && credit.compareTo(other.credit) == 0;
+    }
+}
@@ -0,0 +1,189 @@
+package fr.kovelya.accounting.application.projection;
+
+import fr.kovelya.accounting.application.report.AgingBucket;
+import fr.kovelya.accounting.domain.shared.MinorUnitMoney;
+import fr.kovelya.accounting.domain.shared.Money;
+
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+public final class DueDateAgingIndex<P, I> {
+
+    private static final AgingBucket[] BUCKETS = AgingBucket.values();
+    private static final long[] THRESHOLDS = {0L, 31L, 61L, 91L};
+
+    private final Map<I, Position<P>> invoices = new HashMap<>();
+    private final NavigableMap<Long, Map<P, Long>> byDueDay = new TreeMap<>();
+    private final Map<P, long[]> buckets = new HashMap<>();
+    private final Map<P, Currency> currencies = new HashMap<>();
+    private final Set<P> exact = new HashSet<>();
+
+    private boolean positioned;
+    private long asOfDay;
+
+    public synchronized void register(I invoiceId, P party, LocalDate dueDate, Money total, Money paid) {
+        if (invoices.containsKey(invoiceId)) {
+            return;
+        }
+        Position<P> position = new Position<>(party, dueDate.toEpochDay());
+        invoices.put(invoiceId, position);
+        if (!claimCurrency(party, total.currency())) {
+            return;
+        }
+        try {
+            position.total = MinorUnitMoney.from(total).units();
+        } catch (ArithmeticException e) {
+            exact.add(party);
+            return;
+        }
+        updatePaid(position, paid);
+    }
+
+    public synchronized void paid(I invoiceId, Money paid) {
+        Position<P> position = invoices.get(invoiceId);
+        if (position != null) {
+            updatePaid(position, paid);
+        }
+    }
+
+    public synchronized Snapshot<P> snapshot(LocalDate asOfDate) {
+        rollTo(asOfDate.toEpochDay());
+
+        Map<P, Money[]> result = new HashMap<>();
+        for (Map.Entry<P, long[]> entry : buckets.entrySet()) {
+            if (exact.contains(entry.getKey())) {
+                continue;
+            }
+            Currency currency = currencies.get(entry.getKey());
+            long[] units = entry.getValue();
+            boolean open = false;
+            Money[] amounts = new Money[BUCKETS.length];
+            for (int i = 0; i < BUCKETS.length; i++) {
+                open |= units[i] != 0L;
+                amounts[i] = MinorUnitMoney.ofMinor(units[i], currency).toMoney();
+            }
+            if (open) {
+                result.put(entry.getKey(), amounts);
+            }
+        }
+        return new Snapshot<>(result, Set.copyOf(exact));
+    }
+
+    private void rollTo(long day) {
+        if (!positioned) {
+            asOfDay = day;
+            positioned = true;
+            buckets.clear();
+            for (Map.Entry<Long, Map<P, Long>> due : byDueDay.entrySet()) {
+                int index = bucketIndex(day - due.getKey());
+                for (Map.Entry<P, Long> party : due.getValue().entrySet()) {
+                    buckets.computeIfAbsent(party.getKey(), p -> new long[BUCKETS.length])[index] += party.getValue();
+                }
+            }
+            return;
+        }
+        if (day == asOfDay) {
+            return;
+        }
+
+        long from = Math.min(asOfDay, day);
+        long to = Math.max(asOfDay, day);
+        Set<Long> crossed = new HashSet<>();
+        for (long threshold : THRESHOLDS) {
+            crossed.addAll(byDueDay.subMap(from - threshold, false, to - threshold, true).keySet());
+        }
+
+        for (Long dueDay : crossed) {
+            int previous = bucketIndex(asOfDay - dueDay);
+            int next = bucketIndex(day - dueDay);
+            if (previous == next) {
+                continue;
+            }
+            for (Map.Entry<P, Long> party : byDueDay.get(dueDay).entrySet()) {
+                long[] units = buckets.get(party.getKey());
+                units[previous] -= party.getValue();
+                units[next] += party.getValue();
+            }
+        }
+        asOfDay = day;
+    }
+
+    private void updatePaid(Position<P> position, Money paid) {
+        if (exact.contains(position.party)) {
+            return;
+        }
+        long contribution;
+        try {
+            if (!paid.currency().equals(currencies.get(position.party))) {
+                throw new ArithmeticException("Payment currency differs from invoice currency");
+            }
+            contribution = Math.max(0L, Math.subtractExact(position.total, MinorUnitMoney.from(paid).units()));
+        } catch (ArithmeticException e) {
+            exact.add(position.party);
+            return;
+        }
+
+        long delta = contribution - position.contribution;
+        if (delta == 0L) {
+            return;
+        }
+        position.contribution = contribution;
+
+        Map<P, Long> parties = byDueDay.computeIfAbsent(position.dueDay, d -> new HashMap<>());
+        if (parties.merge(position.party, delta, Long::sum) == 0L) {
+            parties.remove(position.party);
+            if (parties.isEmpty()) {
+                byDueDay.remove(position.dueDay);
+            }
+        }
+        if (positioned) {
+            buckets.computeIfAbsent(position.party, p -> new long[BUCKETS.length])[bucketIndex(asOfDay - position.dueDay)] += delta;
+        }
+    }
+
+    private boolean claimCurrency(P party, Currency currency) {
+        if (exact.contains(party)) {
+            return false;
+        }
+        Currency existing = currencies.putIfAbsent(party, currency);
+        if (existing != null && !existing.equals(currency)) {
+            exact.add(party);
+            return false;
+        }
+        return true;
+    }
+
+    private static int bucketIndex(long daysPastDue) {
+        return AgingBucket.forDaysPastDue(daysPastDue).ordinal();
+    }
+
+    public record Snapshot<P>(Map<P, Money[]> buckets, Set<P> exact) {
+
+        public boolean requiresExact(P party) {
+            return exact.contains(party);
+        }
+
+        public Money[] bucketsFor(P party) {
+            return buckets.get(party);
+        }
+    }
+
+    private static final class Position<P> {
+
+        private final P party;
+        private final long dueDay;
+        private long total;
+        private long contribution;
+
+        private Position(P party, long dueDay) {
+            this.party = party;
+            this.dueDay = dueDay;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package fr.kovelya.accounting.application.projection;
+
+import fr.kovelya.accounting.domain.customer.CustomerId;
+import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.payment.CustomerPayment;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
+import fr.kovelya.accounting.domain.payment.SupplierPayment;
+import fr.kovelya.accounting.domain.payment.SupplierPaymentId;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceStatus;
+import fr.kovelya.accounting.domain.repository.CustomerPaymentRepository;
+import fr.kovelya.accounting.domain.repository.PurchaseInvoiceRepository;
+import fr.kovelya.accounting.domain.repository.SalesInvoiceRepository;
+import fr.kovelya.accounting.domain.repository.SupplierPaymentRepository;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.supplier.SupplierId;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public final class InvoiceBalanceProjection<I, P, K> {
+
+    private final Map<K, Applied<I>> payments = new ConcurrentHashMap<>();
+    private final Map<I, Money> paid = new ConcurrentHashMap<>();
+    private final DueDateAgingIndex<P, I> aging = new DueDateAgingIndex<>();
+
+    public static InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> rebuildSales(CustomerPaymentRepository customerPaymentRepository) {
+        InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> projection = new InvoiceBalanceProjection<>();
+        for (CustomerPayment payment : customerPaymentRepository.findAll()) {
+            projection.apply(payment.id(), payment.invoiceId(), payment.amount());
+        }
+        return projection;
+    }
+
+    public static InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> rebuildSales(CustomerPaymentRepository customerPaymentRepository, SalesInvoiceRepository salesInvoiceRepository) {
+        InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> projection = rebuildSales(customerPaymentRepository);
+        for (SalesInvoice invoice : salesInvoiceRepository.findAll()) {
+            if (invoice.status() != InvoiceStatus.DRAFT && invoice.status() != InvoiceStatus.CANCELLED) {
+                projection.issue(invoice.id(), invoice.customerId(), invoice.dueDate(), invoice.total());
+            }
+        }
+        return projection;
+    }
+
+    public static InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> rebuildPurchases(SupplierPaymentRepository supplierPaymentRepository) {
+        InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> projection = new InvoiceBalanceProjection<>();
+        for (SupplierPayment payment : supplierPaymentRepository.findAll()) {
+            projection.apply(payment.id(), payment.invoiceId(), payment.amount());
+        }
+        return projection;
+    }
+
+    public static InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> rebuildPurchases(SupplierPaymentRepository supplierPaymentRepository, PurchaseInvoiceRepository purchaseInvoiceRepository) {
+        InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> projection = rebuildPurchases(supplierPaymentRepository);
+        for (PurchaseInvoice invoice : purchaseInvoiceRepository.findAll()) {
+            if (invoice.status() != PurchaseInvoiceStatus.DRAFT && invoice.status() != PurchaseInvoiceStatus.CANCELLED) {
+                projection.issue(invoice.id(), invoice.supplierId(), invoice.dueDate(), invoice.total());
+            }
+        }
+        return projection;
+    }
+
+    public synchronized void issue(I invoiceId, P party, LocalDate dueDate, Money total) {
+        aging.register(invoiceId, party, dueDate, total, paid(invoiceId, total.currency()));
+    }
+
+    public synchronized void apply(K paymentId, I invoiceId, Money amount) {
+        Applied<I> previous = payments.put(paymentId, new Applied<>(invoiceId, amount));
+        if (previous != null) {
+            Money remaining = paid.computeIfPresent(previous.invoiceId(), (id, total) -> total.subtract(previous.amount()));
+            if (remaining != null) {
+                aging.paid(previous.invoiceId(), remaining);
+            }
+        }
+        aging.paid(invoiceId, paid.merge(invoiceId, amount, Money::add));
+    }
+
+    public Money paid(I invoiceId, Currency currency) {
+        Money total = paid.get(invoiceId);
+        return total != null ? total : Money.zero(currency);
+    }
+
+    public Money outstanding(I invoiceId, Money total) {
+        return total.subtract(paid(invoiceId, total.currency()));
+    }
+
+    public DueDateAgingIndex<P, I> aging() {
+        return aging;
+    }
+
+    public synchronized <T> List<I> verify(List<T> recorded, Function<T, I> invoiceOf, Function<T, Money> amountOf) {
+        Map<I, Money> expected = new HashMap<>();
+        for (T payment : recorded) {
+            expected.merge(invoiceOf.apply(payment), amountOf.apply(payment), Money::add);
+        }
+
+        Set<I> candidates = new LinkedHashSet<>(expected.keySet());
+        candidates.addAll(paid.keySet());
+
+        List<I> drifted = new ArrayList<>();
+        for (I invoiceId : candidates) {
+            Money actual = paid.get(invoiceId);
+            Money recomputed = expected.get(invoiceId);
+            if (actual == null || recomputed == null) {
+                Money present = actual != null ? actual : recomputed;
+                if (present.amount().signum() != 0) {
+                    drifted.add(invoiceId);
+                }
+            } else if (actual.amount().compareTo(recomputed.amount()) != 0 || !actual.currency().equals(recomputed.currency())) {
+                drifted.add(invoiceId);
+            }
+        }
+        return drifted;
+    }
+
+    private record Applied<I>(I invoiceId, Money amount) {
+    }
+}
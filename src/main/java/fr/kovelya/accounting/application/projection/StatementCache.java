@@ -0,0 +1,178 @@
+package fr.kovelya.accounting.application.projection;
+
+import fr.kovelya.accounting.application.report.AccountBalanceView;
+import fr.kovelya.accounting.application.report.BalanceSheetView;
+import fr.kovelya.accounting.application.report.FinancialStatementsView;
+import fr.kovelya.accounting.application.report.IncomeStatementView;
+import fr.kovelya.accounting.application.report.PeriodStatementsView;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.period.AccountingPeriod;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+import fr.kovelya.accounting.domain.shared.Money;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public final class StatementCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final int maxEntries;
+    private final Path directory;
+    private final Map<AccountingPeriodId, PeriodStatementsView> entries;
+
+    private StatementCache(int maxEntries, Path directory) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Statement cache size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.directory = directory;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<AccountingPeriodId, PeriodStatementsView> eldest) {
+                return size() > StatementCache.this.maxEntries;
+            }
+        };
+    }
+
+    public static StatementCache inMemory(int maxEntries) {
+        return new StatementCache(maxEntries, null);
+    }
+
+    public static StatementCache persistent(Path directory, int maxEntries) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create statement cache directory " + directory, e);
+        }
+        return new StatementCache(maxEntries, directory);
+    }
+
+    public synchronized Optional<PeriodStatementsView> find(AccountingPeriod period) {
+        PeriodStatementsView cached = entries.get(period.id());
+        if (cached != null || directory == null) {
+            return Optional.ofNullable(cached);
+        }
+        Optional<PeriodStatementsView> stored = read(period);
+        stored.ifPresent(view -> entries.put(period.id(), view));
+        return stored;
+    }
+
+    public synchronized void put(PeriodStatementsView view) {
+        if (directory != null) {
+            write(view);
+        }
+        entries.put(view.period().id(), view);
+    }
+
+    public synchronized void invalidate(AccountingPeriodId periodId) {
+        entries.remove(periodId);
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(fileFor(periodId));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot invalidate cached statements for period " + periodId, e);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Path fileFor(AccountingPeriodId periodId) {
+        return directory.resolve(periodId.value() + ".stmt");
+    }
+
+    private void write(PeriodStatementsView view) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            FinancialStatementsView statements = view.statements();
+            writeIncomeStatement(out, statements.incomeStatement());
+            writeIncomeStatement(out, statements.operatingIncomeStatement());
+            BalanceSheetView balanceSheet = statements.balanceSheet();
+            writeMoney(out, balanceSheet.totalAssets());
+            writeMoney(out, balanceSheet.totalLiabilities());
+            writeMoney(out, balanceSheet.totalEquity());
+            writeMoney(out, balanceSheet.derivedEquity());
+            out.writeInt(view.trialBalance().size());
+            for (AccountBalanceView line : view.trialBalance()) {
+                out.writeUTF(line.accountCode());
+                out.writeUTF(line.accountName());
+                out.writeUTF(line.accountType().name());
+                writeMoney(out, line.balance());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Path target = fileFor(view.period().id());
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.write(temporary, bytes.toByteArray());
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot persist cached statements for period " + view.period().id(), e);
+        }
+    }
+
+    private Optional<PeriodStatementsView> read(AccountingPeriod period) {
+        Path source = fileFor(period.id());
+        try (InputStream stream = Files.newInputStream(source); DataInputStream in = new DataInputStream(stream)) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported statement cache version " + version + " in " + source);
+            }
+            IncomeStatementView incomeStatement = readIncomeStatement(in, period);
+            IncomeStatementView operatingIncomeStatement = readIncomeStatement(in, period);
+            BalanceSheetView balanceSheet = new BalanceSheetView(period, readMoney(in), readMoney(in), readMoney(in), readMoney(in));
+            int lines = in.readInt();
+            List<AccountBalanceView> trialBalance = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) {
+                trialBalance.add(new AccountBalanceView(in.readUTF(), in.readUTF(), AccountType.valueOf(in.readUTF()), readMoney(in)));
+            }
+            FinancialStatementsView statements = new FinancialStatementsView(period, incomeStatement, operatingIncomeStatement, balanceSheet);
+            return Optional.of(new PeriodStatementsView(period, statements, trialBalance));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read cached statements for period " + period.id(), e);
+        }
+    }
+
+    private static void writeIncomeStatement(DataOutputStream out, IncomeStatementView view) throws IOException {
+        writeMoney(out, view.totalRevenue());
+        writeMoney(out, view.totalExpenses());
+        writeMoney(out, view.netIncome());
+    }
+
+    private static IncomeStatementView readIncomeStatement(DataInputStream in, AccountingPeriod period) throws IOException {
+        return new IncomeStatementView(period, readMoney(in), readMoney(in), readMoney(in));
+    }
+
+    private static void writeMoney(DataOutputStream out, Money money) throws IOException {
+        out.writeUTF(money.currency().getCurrencyCode());
+        out.writeUTF(money.amount().toString());
+    }
+
+    private static Money readMoney(DataInputStream in) throws IOException {
+        Currency currency = Currency.getInstance(in.readUTF());
+        return Money.of(new BigDecimal(in.readUTF()), currency);
+    }
+}
@@ -5,5 +5,18 @@ public enum AgingBucket {
     DUE_0_30,
     DUE_31_60,
     DUE_61_90,
-    DUE_90_PLUS
-}
\ No newline at end of file
+    DUE_90_PLUS;
+
+    public static AgingBucket forDaysPastDue(long daysPastDue) {
+        if (daysPastDue < 0) {
+            return NOT_DUE;
+        } else if (daysPastDue <= 30) {
+            return DUE_0_30;
+        } else if (daysPastDue <= 60) {
+            return DUE_31_60;
+        } else if (daysPastDue <= 90) {
+            return DUE_61_90;
+        }
+        return DUE_90_PLUS;
+    }
+}
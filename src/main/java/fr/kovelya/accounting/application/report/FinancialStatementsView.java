@@ -0,0 +1,34 @@
+package fr.kovelya.accounting.application.report;
+
+import fr.kovelya.accounting.domain.period.AccountingPeriod;
+
+public final class FinancialStatementsView {
+
+    private final AccountingPeriod period;
+    private final IncomeStatementView incomeStatement;
+    private final IncomeStatementView operatingIncomeStatement;
+    private final BalanceSheetView balanceSheet;
+
+    public FinancialStatementsView(AccountingPeriod period, IncomeStatementView incomeStatement, IncomeStatementView operatingIncomeStatement, BalanceSheetView balanceSheet) {
+        this.period = period;
+        this.incomeStatement = incomeStatement;
+        this.operatingIncomeStatement = operatingIncomeStatement;
+        this.balanceSheet = balanceSheet;
+    }
+
+    public AccountingPeriod period() {
+        return period;
+    }
+
+    public IncomeStatementView incomeStatement() {
+        return incomeStatement;
+    }
+
+    public IncomeStatementView operatingIncomeStatement() {
+        return operatingIncomeStatement;
+    }
+
+    public BalanceSheetView balanceSheet() {
+        return balanceSheet;
+    }
+}
@@ -0,0 +1,30 @@
+package fr.kovelya.accounting.application.report;
+
+import fr.kovelya.accounting.domain.period.AccountingPeriod;
+
+import java.util.List;
+
+public final class PeriodStatementsView {
+
+    private final AccountingPeriod period;
+    private final FinancialStatementsView statements;
+    private final List<AccountBalanceView> trialBalance;
+
+    public PeriodStatementsView(AccountingPeriod period, FinancialStatementsView statements, List<AccountBalanceView> trialBalance) {
+        this.period = period;
+        this.statements = statements;
+        this.trialBalance = List.copyOf(trialBalance);
+    }
+
+    public AccountingPeriod period() {
+        return period;
+    }
+
+    public FinancialStatementsView statements() {
+        return statements;
+    }
+
+    public List<AccountBalanceView> trialBalance() {
+        return trialBalance;
+    }
+}
@@ -2,6 +2,7 @@ package fr.kovelya.accounting.application.service;
 
 import fr.kovelya.accounting.application.report.AccountBalanceView;
 import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.dto.JournalPostingRequest;
 import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.account.AccountId;
 import fr.kovelya.accounting.domain.account.AccountType;
@@ -14,6 +15,7 @@ import fr.kovelya.accounting.domain.shared.Money;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 public interface AccountingService {
 
@@ -23,6 +25,8 @@ public interface AccountingService {
 
     void postJournalTransaction(JournalType journalType, String reference, String description, LocalDate transactionDate, AccountPosting... postings);
 
+    Map<String, RuntimeException> postJournalTransactions(List<JournalPostingRequest> requests);
+
     void reverseTransaction(TransactionId originalTransactionId, String reversalReference, String description, LocalDate reversalDate);
 
     Money getBalance(AccountId accountId);
@@ -1,9 +1,13 @@
 package fr.kovelya.accounting.application.service;
 
+import fr.kovelya.accounting.application.report.AccountBalanceView;
 import fr.kovelya.accounting.application.report.BalanceSheetView;
+import fr.kovelya.accounting.application.report.FinancialStatementsView;
 import fr.kovelya.accounting.application.report.IncomeStatementView;
 import fr.kovelya.accounting.domain.period.AccountingPeriod;
 
+import java.util.List;
+
 public interface FinancialStatementsService {
 
     IncomeStatementView getIncomeStatement(AccountingPeriod period);
@@ -11,4 +15,8 @@ public interface FinancialStatementsService {
     IncomeStatementView getOperatingIncomeStatement(AccountingPeriod period);
 
     BalanceSheetView getBalanceSheet(AccountingPeriod period);
+
+    FinancialStatementsView getStatements(AccountingPeriod period);
+
+    List<AccountBalanceView> getTrialBalance(AccountingPeriod period);
 }
@@ -1,7 +1,12 @@
 package fr.kovelya.accounting.application.service;
 
+import fr.kovelya.accounting.application.dto.BulkPostingResult;
 import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
 
+import java.util.Collection;
+
 public interface InvoicePostingService {
     void postInvoice(SalesInvoiceId invoiceId);
+
+    BulkPostingResult<SalesInvoiceId> postInvoices(Collection<SalesInvoiceId> invoiceIds);
 }
@@ -6,4 +6,8 @@ import fr.kovelya.accounting.domain.period.AccountingPeriod;
 public interface PeriodClosingService {
 
     void closePeriod(AccountingPeriod period, AccountId retainedEarningsAccountId);
+
+    void reopenPeriod(AccountingPeriod period);
+
+    void archivePeriod(AccountingPeriod period);
 }
@@ -1,8 +1,12 @@
 package fr.kovelya.accounting.application.service;
 
+import fr.kovelya.accounting.application.dto.BulkPostingResult;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
 
-public interface PurchaseInvoicePostingService {
+import java.util.Collection;
 
+public interface PurchaseInvoicePostingService {
     void postPurchaseInvoice(PurchaseInvoiceId invoiceId);
+
+    BulkPostingResult<PurchaseInvoiceId> postPurchaseInvoices(Collection<PurchaseInvoiceId> invoiceIds);
 }
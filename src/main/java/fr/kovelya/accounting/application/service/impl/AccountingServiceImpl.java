@@ -1,7 +1,18 @@
 package fr.kovelya.accounting.application.service.impl;
 
+import fr.kovelya.accounting.application.diagnostics.BalanceQueryEvent;
+import fr.kovelya.accounting.application.diagnostics.JournalPostingEvent;
+import fr.kovelya.accounting.application.metrics.Counter;
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.metrics.Timer;
+import fr.kovelya.accounting.application.posting.DirectJournalCommitter;
+import fr.kovelya.accounting.application.posting.JournalCommitter;
+import fr.kovelya.accounting.application.posting.PostingCoordinator;
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.application.projection.AccountTotals;
 import fr.kovelya.accounting.application.report.AccountBalanceView;
 import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.dto.JournalPostingRequest;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.account.AccountId;
@@ -13,6 +24,7 @@ import fr.kovelya.accounting.domain.period.PeriodStatus;
 import fr.kovelya.accounting.domain.shared.Money;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
 import fr.kovelya.accounting.domain.repository.AccountingPeriodRepository;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
 import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
 import fr.kovelya.accounting.domain.repository.LedgerEntryRepository;
 
@@ -21,19 +33,51 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class AccountingServiceImpl implements AccountingService {
 
+    private static final int COMMIT_BATCH_SIZE = 1000;
+
     private final AccountRepository accountRepository;
-    private final LedgerEntryRepository ledgerEntryRepository;
     private final JournalTransactionRepository journalTransactionRepository;
     private final AccountingPeriodRepository accountingPeriodRepository;
+    private final AccountBalanceProjection balanceProjection;
+    private final JournalCommitter journalCommitter;
+    private final PostingCoordinator postingCoordinator;
+    private final Timer postTimer;
+    private final Timer bulkPostTimer;
+    private final Timer trialBalanceTimer;
+    private final Counter postedEntries;
+    private final AtomicLong transferSequence = new AtomicLong();
 
     public AccountingServiceImpl(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository, JournalTransactionRepository journalTransactionRepository, AccountingPeriodRepository accountingPeriodRepository) {
+        this(accountRepository, ledgerEntryRepository, journalTransactionRepository, accountingPeriodRepository, AccountBalanceProjection.rebuild(journalTransactionRepository));
+    }
+
+    public AccountingServiceImpl(AccountRepository accountRepository, LedgerEntryRepository ledgerEntryRepository, JournalTransactionRepository journalTransactionRepository, AccountingPeriodRepository accountingPeriodRepository, AccountBalanceProjection balanceProjection) {
+        this(accountRepository, journalTransactionRepository, accountingPeriodRepository, balanceProjection, new DirectJournalCommitter(journalTransactionRepository, ledgerEntryRepository, balanceProjection));
+    }
+
+    public AccountingServiceImpl(AccountRepository accountRepository, JournalTransactionRepository journalTransactionRepository, AccountingPeriodRepository accountingPeriodRepository, AccountBalanceProjection balanceProjection, JournalCommitter journalCommitter) {
+        this(accountRepository, journalTransactionRepository, accountingPeriodRepository, balanceProjection, journalCommitter, Metrics.noop());
+    }
+
+    public AccountingServiceImpl(AccountRepository accountRepository, JournalTransactionRepository journalTransactionRepository, AccountingPeriodRepository accountingPeriodRepository, AccountBalanceProjection balanceProjection, JournalCommitter journalCommitter, Metrics metrics) {
+        this(accountRepository, journalTransactionRepository, accountingPeriodRepository, balanceProjection, journalCommitter, metrics, PostingCoordinator.shared());
+    }
+
+    public AccountingServiceImpl(AccountRepository accountRepository, JournalTransactionRepository journalTransactionRepository, AccountingPeriodRepository accountingPeriodRepository, AccountBalanceProjection balanceProjection, JournalCommitter journalCommitter, Metrics metrics, PostingCoordinator postingCoordinator) {
         this.accountRepository = accountRepository;
-        this.ledgerEntryRepository = ledgerEntryRepository;
         this.journalTransactionRepository = journalTransactionRepository;
         this.accountingPeriodRepository = accountingPeriodRepository;
+        this.balanceProjection = balanceProjection;
+        this.journalCommitter = journalCommitter;
+        this.postTimer = metrics.timer("accounting.postJournalTransaction");
+        this.bulkPostTimer = metrics.timer("accounting.postJournalTransactions");
+        this.trialBalanceTimer = metrics.timer("accounting.getTrialBalance");
+        this.postedEntries = metrics.counter("accounting.postedEntries");
+        this.postingCoordinator = postingCoordinator;
     }
 
     @Override
@@ -76,6 +120,104 @@ public final class AccountingServiceImpl implements AccountingService {
 
     @Override
     public void postJournalTransaction(JournalType journalType, String reference, String description, LocalDate transactionDate, AccountPosting... postings) {
+        long started = postTimer.start();
+        JournalPostingEvent event = new JournalPostingEvent();
+        event.begin();
+        try {
+            postingCoordinator.runWithAccounts(touchedAccounts(postings),
+                    () -> doPostJournalTransaction(event, journalType, reference, description, transactionDate, postings));
+        } finally {
+            event.commit();
+            postTimer.stop(started);
+        }
+    }
+
+    @Override
+    public Map<String, RuntimeException> postJournalTransactions(List<JournalPostingRequest> requests) {
+        long started = bulkPostTimer.start();
+        try {
+            Map<String, RuntimeException> failures = new LinkedHashMap<>();
+            doPostJournalTransactions(requests, failures);
+            return failures;
+        } finally {
+            bulkPostTimer.stop(started);
+        }
+    }
+
+    private void doPostJournalTransactions(List<JournalPostingRequest> requests, Map<String, RuntimeException> failures) {
+        for (int from = 0; from < requests.size(); from += COMMIT_BATCH_SIZE) {
+            List<JournalPostingRequest> chunk = requests.subList(from, Math.min(requests.size(), from + COMMIT_BATCH_SIZE));
+            Set<AccountId> accountIds = new HashSet<>();
+            for (JournalPostingRequest request : chunk) {
+                touchedAccounts(accountIds, request.postings());
+            }
+            postingCoordinator.runWithAccounts(accountIds, () -> postChunk(chunk, failures));
+        }
+    }
+
+    private void postChunk(List<JournalPostingRequest> chunk, Map<String, RuntimeException> failures) {
+        List<JournalTransaction> batch = new ArrayList<>(chunk.size());
+        for (JournalPostingRequest request : chunk) {
+            try {
+                batch.add(buildTransaction(request.journalType(), request.reference(), request.description(), request.transactionDate(), request.postings()).transaction());
+            } catch (RuntimeException e) {
+                failures.put(request.reference(), e);
+            }
+        }
+        if (!batch.isEmpty()) {
+            commitBatch(batch, failures);
+        }
+    }
+
+    private void commitBatch(List<JournalTransaction> batch, Map<String, RuntimeException> failures) {
+        Map<TransactionId, RuntimeException> failed;
+        RuntimeException batchFailure = null;
+        try {
+            failed = journalCommitter.commitAll(batch);
+        } catch (RuntimeException e) {
+            failed = Map.of();
+            batchFailure = e;
+        }
+        for (JournalTransaction transaction : batch) {
+            RuntimeException failure = batchFailure != null ? batchFailure : failed.get(transaction.id());
+            if (failure != null) {
+                failures.put(transaction.reference(), failure);
+            } else {
+                postedEntries.add(transaction.entries().size());
+            }
+        }
+    }
+
+    private static List<AccountId> touchedAccounts(AccountPosting... postings) {
+        List<AccountId> accountIds = new ArrayList<>();
+        touchedAccounts(accountIds, postings);
+        return accountIds;
+    }
+
+    private static void touchedAccounts(Collection<AccountId> accountIds, AccountPosting... postings) {
+        if (postings != null) {
+            for (AccountPosting posting : postings) {
+                if (posting != null && posting.accountId() != null) {
+                    accountIds.add(posting.accountId());
+                }
+            }
+        }
+    }
+
+    private void doPostJournalTransaction(JournalPostingEvent event, JournalType journalType, String reference, String description, LocalDate transactionDate, AccountPosting... postings) {
+        if (event.isEnabled()) {
+            event.request(String.valueOf(journalType), reference, postings == null ? 0 : postings.length);
+        }
+        PreparedTransaction prepared = buildTransaction(journalType, reference, description, transactionDate, postings);
+
+        journalCommitter.commit(prepared.transaction());
+        postedEntries.add(prepared.transaction().entries().size());
+        if (event.isEnabled()) {
+            event.posted(prepared.ledgerId().toString());
+        }
+    }
+
+    private PreparedTransaction buildTransaction(JournalType journalType, String reference, String description, LocalDate transactionDate, AccountPosting... postings) {
         if (postings == null || postings.length < 2) {
             throw new IllegalArgumentException("At least two postings are required");
         }
@@ -95,8 +237,10 @@ public final class AccountingServiceImpl implements AccountingService {
         LedgerId ledgerId = null;
 
         for (AccountPosting posting : postings) {
-            Account account = accountRepository.findById(posting.accountId())
-                    .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+            Account account = posting.postingAccount() != null
+                    ? posting.postingAccount().account()
+                    : accountRepository.findById(posting.accountId())
+                            .orElseThrow(() -> new IllegalArgumentException("Account not found"));
 
             if (ledgerId == null) {
                 ledgerId = account.ledgerId();
@@ -140,12 +284,7 @@ public final class AccountingServiceImpl implements AccountingService {
                 period.id(),
                 entries
         );
-
-        journalTransactionRepository.save(transaction);
-
-        for (LedgerEntry entry : entries) {
-            ledgerEntryRepository.save(entry);
-        }
+        return new PreparedTransaction(transaction, ledgerId);
     }
 
     @Override
@@ -186,13 +325,17 @@ public final class AccountingServiceImpl implements AccountingService {
                 ? "Reversal of " + original.reference()
                 : description;
 
-        postJournalTransaction(
-                JournalType.ADJUSTMENT,
-                reversalReference,
-                finalDescription,
-                reversalDate,
-                reversedPostings
-        );
+        try {
+            postJournalTransaction(
+                    JournalType.ADJUSTMENT,
+                    reversalReference,
+                    finalDescription,
+                    reversalDate,
+                    reversedPostings
+            );
+        } catch (DuplicateJournalReferenceException e) {
+            return;
+        }
     }
 
     @Override
@@ -200,72 +343,39 @@ public final class AccountingServiceImpl implements AccountingService {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found"));
 
-        List<LedgerEntry> entries = ledgerEntryRepository.findByAccount(accountId);
-
-        BigDecimal debitTotal = BigDecimal.ZERO;
-        BigDecimal creditTotal = BigDecimal.ZERO;
-
-        for (LedgerEntry entry : entries) {
-            BigDecimal amount = entry.amount().amount();
-            if (entry.direction() == LedgerEntry.Direction.DEBIT) {
-                debitTotal = debitTotal.add(amount);
-            } else {
-                creditTotal = creditTotal.add(amount);
-            }
-        }
-
-        BigDecimal net;
-        AccountType type = account.type();
-        if (type == AccountType.ASSET || type == AccountType.EXPENSE) {
-            net = debitTotal.subtract(creditTotal);
-        } else {
-            net = creditTotal.subtract(debitTotal);
-        }
+        BigDecimal net = balanceProjection.totalsFor(accountId).net(account.type());
         return Money.of(net, account.currency());
     }
 
     @Override
     public Money getBalanceForPeriod(AccountId accountId, AccountingPeriod period) {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-
-        ZoneId zone = ZoneId.systemDefault();
-        Instant from = period.startDate().atStartOfDay(zone).toInstant();
-        Instant to = period.endDate().plusDays(1).atStartOfDay(zone).minusNanos(1).toInstant();
-
-        List<LedgerEntry> entries = ledgerEntryRepository.findByAccountAndPeriod(accountId, from, to);
+        BalanceQueryEvent event = new BalanceQueryEvent();
+        event.begin();
+        try {
+            if (event.isEnabled()) {
+                event.query(period.ledgerId().toString(), accountId.value(), period.name());
+            }
 
-        BigDecimal debitTotal = BigDecimal.ZERO;
-        BigDecimal creditTotal = BigDecimal.ZERO;
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new IllegalArgumentException("Account not found"));
 
-        for (LedgerEntry entry : entries) {
-            BigDecimal amount = entry.amount().amount();
-            if (entry.direction() == LedgerEntry.Direction.DEBIT) {
-                debitTotal = debitTotal.add(amount);
-            } else {
-                creditTotal = creditTotal.add(amount);
+            boolean open = isOpen(period);
+            if (event.isEnabled()) {
+                event.frozen(!open);
             }
-        }
+            AccountTotals totals = open
+                    ? balanceProjection.totalsFor(accountId, period.id())
+                    : balanceProjection.frozenPeriodTotals(period.id()).getOrDefault(accountId, AccountTotals.ZERO);
 
-        BigDecimal net;
-        AccountType type = account.type();
-        if (type == AccountType.ASSET || type == AccountType.EXPENSE) {
-            net = debitTotal.subtract(creditTotal);
-        } else {
-            net = creditTotal.subtract(debitTotal);
+            return Money.of(totals.net(account.type()), account.currency());
+        } finally {
+            event.commit();
         }
-        return Money.of(net, account.currency());
     }
 
     @Override
     public List<Account> listAccounts(LedgerId ledgerId) {
-        List<Account> result = new ArrayList<>();
-        for(Account account : accountRepository.findAll()) {
-            if (account.ledgerId().equals(ledgerId)) {
-                result.add(account);
-            }
-        }
-        return result;
+        return accountRepository.chartOf(ledgerId).accounts();
     }
 
     @Override
@@ -311,27 +421,43 @@ public final class AccountingServiceImpl implements AccountingService {
 
     @Override
     public List<AccountBalanceView> getTrialBalance(LedgerId ledgerId, AccountingPeriod period) {
+        long started = trialBalanceTimer.start();
+        try {
+            return computeTrialBalance(ledgerId, period);
+        } finally {
+            trialBalanceTimer.stop(started);
+        }
+    }
+
+    private List<AccountBalanceView> computeTrialBalance(LedgerId ledgerId, AccountingPeriod period) {
+        Map<AccountId, AccountTotals> totals = isOpen(period)
+                ? balanceProjection.periodTotals(period.id())
+                : balanceProjection.frozenPeriodTotals(period.id());
+
         List<AccountBalanceView> result = new ArrayList<>();
-        for (Account account : accountRepository.findAll()) {
-            if (!account.ledgerId().equals(ledgerId)) {
-                continue;
-            }
-            var balance = getBalanceForPeriod(account.id(), period);
+        for (Account account : accountRepository.chartOf(ledgerId).accounts()) {
+            BigDecimal net = totals.getOrDefault(account.id(), AccountTotals.ZERO).net(account.type());
             result.add(new AccountBalanceView(
                     account.code(),
                     account.name(),
                     account.type(),
-                    balance
+                    Money.of(net, account.currency())
             ));
         }
-        result.sort(Comparator.comparing(AccountBalanceView::accountCode));
         return result;
     }
 
     private String buildTransferReference(JournalType journalType, Account debitAccount, Account creditAccount, LocalDate transactionDate) {
         String datePart = transactionDate.toString().replace("-", "");
         long timePart = Instant.now().toEpochMilli();
-        return journalType.name() + "-TRF-" + datePart + "-" + debitAccount.code() + "-" + creditAccount.code() + "-" + timePart;
+        return journalType.name() + "-TRF-" + datePart + "-" + debitAccount.code() + "-" + creditAccount.code() + "-" + timePart + "-" + transferSequence.incrementAndGet();
+    }
+
+    private boolean isOpen(AccountingPeriod period) {
+        PeriodStatus status = accountingPeriodRepository.findById(period.id())
+                .map(AccountingPeriod::status)
+                .orElse(period.status());
+        return status == PeriodStatus.OPEN;
     }
 
     private AccountingPeriod requireOpenPeriod(LedgerId ledgerId, LocalDate transactionDate) {
@@ -357,5 +483,6 @@ public final class AccountingServiceImpl implements AccountingService {
         return period;
     }
 
-
+    private record PreparedTransaction(JournalTransaction transaction, LedgerId ledgerId) {
+    }
 }
@@ -0,0 +1,165 @@
+package fr.kovelya.accounting.application.service.impl;
+
+import fr.kovelya.accounting.application.dto.BulkPostingResult;
+import fr.kovelya.accounting.application.dto.JournalPostingRequest;
+import fr.kovelya.accounting.application.service.AccountingService;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
+import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+final class BulkInvoicePosting<I, V, A> {
+
+    interface Split {
+        void run(int size, IntConsumer task);
+    }
+
+    private final JournalType journalType;
+    private final JournalTransactionRepository journalTransactionRepository;
+    private final AccountingService accountingService;
+    private final Function<I, V> issue;
+    private final Function<V, I> id;
+    private final Function<V, String> reference;
+    private final Function<V, LedgerId> ledgerId;
+    private final Function<LedgerId, A> accounts;
+    private final BiFunction<V, A, JournalPostingRequest> request;
+    private final Split split;
+
+    BulkInvoicePosting(JournalType journalType, JournalTransactionRepository journalTransactionRepository, AccountingService accountingService, Function<I, V> issue, Function<V, I> id, Function<V, String> reference, Function<V, LedgerId> ledgerId, Function<LedgerId, A> accounts, BiFunction<V, A, JournalPostingRequest> request, Split split) {
+        this.journalType = journalType;
+        this.journalTransactionRepository = journalTransactionRepository;
+        this.accountingService = accountingService;
+        this.issue = issue;
+        this.id = id;
+        this.reference = reference;
+        this.ledgerId = ledgerId;
+        this.accounts = accounts;
+        this.request = request;
+        this.split = split;
+    }
+
+    static Split parallelStream() {
+        return (size, task) -> IntStream.range(0, size).parallel().forEach(task);
+    }
+
+    static Split forkJoin(ForkJoinPool pool, int threshold) {
+        return (size, task) -> {
+            SplitTask root = new SplitTask(task, threshold, 0, size);
+            if (size <= threshold) {
+                root.compute();
+            } else {
+                pool.invoke(root);
+            }
+        };
+    }
+
+    BulkPostingResult<I> post(Collection<I> invoiceIds) {
+        List<I> posted = new ArrayList<>();
+        List<I> skipped = new ArrayList<>();
+        Map<I, RuntimeException> failed = new LinkedHashMap<>();
+        Set<String> references = new HashSet<>();
+        Map<LedgerId, A> accountsByLedger = new HashMap<>();
+        List<V> toPost = new ArrayList<>();
+
+        for (I invoiceId : new LinkedHashSet<>(invoiceIds)) {
+            try {
+                V issued = issue.apply(invoiceId);
+                String number = reference.apply(issued);
+                if (!references.add(number)
+                        || journalTransactionRepository.findByJournalAndReference(journalType, number).isPresent()) {
+                    skipped.add(invoiceId);
+                    continue;
+                }
+                accountsByLedger.computeIfAbsent(ledgerId.apply(issued), accounts);
+                toPost.add(issued);
+            } catch (RuntimeException e) {
+                failed.put(invoiceId, e);
+            }
+        }
+
+        JournalPostingRequest[] prepared = new JournalPostingRequest[toPost.size()];
+        RuntimeException[] splitFailures = new RuntimeException[toPost.size()];
+        split.run(toPost.size(), i -> {
+            V invoice = toPost.get(i);
+            try {
+                prepared[i] = request.apply(invoice, accountsByLedger.get(ledgerId.apply(invoice)));
+            } catch (RuntimeException e) {
+                splitFailures[i] = e;
+            }
+        });
+
+        List<JournalPostingRequest> requests = new ArrayList<>(toPost.size());
+        List<I> requested = new ArrayList<>(toPost.size());
+        for (int i = 0; i < prepared.length; i++) {
+            if (splitFailures[i] != null) {
+                failed.put(id.apply(toPost.get(i)), splitFailures[i]);
+            } else {
+                requests.add(prepared[i]);
+                requested.add(id.apply(toPost.get(i)));
+            }
+        }
+
+        Map<String, RuntimeException> failures = accountingService.postJournalTransactions(requests);
+        for (int i = 0; i < requests.size(); i++) {
+            RuntimeException failure = failures.get(requests.get(i).reference());
+            if (failure == null) {
+                posted.add(requested.get(i));
+            } else if (failure instanceof DuplicateJournalReferenceException) {
+                skipped.add(requested.get(i));
+            } else {
+                failed.put(requested.get(i), failure);
+            }
+        }
+
+        return new BulkPostingResult<>(posted, skipped, failed);
+    }
+
+    private static final class SplitTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer task;
+        private final int threshold;
+        private final int from;
+        private final int to;
+
+        private SplitTask(IntConsumer task, int threshold, int from, int to) {
+            this.task = task;
+            this.threshold = threshold;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    task.accept(i);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new SplitTask(task, threshold, from, middle),
+                    new SplitTask(task, threshold, middle, to)
+            );
+        }
+    }
+}
@@ -4,10 +4,12 @@ import fr.kovelya.accounting.application.dto.AccountPosting;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.CustomerAdvanceReceiptService;
 import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.customer.Customer;
 import fr.kovelya.accounting.domain.customer.CustomerId;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
+import fr.kovelya.accounting.domain.repository.CustomerRepository;
 import fr.kovelya.accounting.domain.repository.CustomerCreditRepository;
 import fr.kovelya.accounting.domain.shared.Money;
 import fr.kovelya.accounting.domain.credit.CustomerCredit;
@@ -20,6 +22,7 @@ import java.util.UUID;
 public final class CustomerAdvanceReceiptServiceImpl implements CustomerAdvanceReceiptService {
 
     private final AccountRepository accountRepository;
+    private final CustomerRepository customerRepository;
     private final AccountingService accountingService;
     private final CustomerCreditRepository customerCreditRepository;
     private final String customerAdvanceAccountCode;
@@ -27,12 +30,14 @@ public final class CustomerAdvanceReceiptServiceImpl implements CustomerAdvanceR
 
     public CustomerAdvanceReceiptServiceImpl(
             AccountRepository accountRepository,
+            CustomerRepository customerRepository,
             AccountingService accountingService,
             CustomerCreditRepository customerCreditRepository,
             String customerAdvanceAccountCode,
             IdempotencyExecutor idempotencyExecutor
     ) {
         this.accountRepository = Objects.requireNonNull(accountRepository);
+        this.customerRepository = Objects.requireNonNull(customerRepository);
         this.accountingService = Objects.requireNonNull(accountingService);
         this.customerCreditRepository = Objects.requireNonNull(customerCreditRepository);
         this.customerAdvanceAccountCode = Objects.requireNonNull(customerAdvanceAccountCode);
@@ -55,10 +60,13 @@ public final class CustomerAdvanceReceiptServiceImpl implements CustomerAdvanceR
         if (date == null) throw new IllegalArgumentException("date is required");
         if (amount.amount().compareTo(BigDecimal.ZERO) <= 0) throw new IllegalArgumentException("amount must be positive");
 
-        Account bank = accountRepository.findByCode(bankAccountCode)
+        Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new IllegalArgumentException("Customer not found: " + customerId));
+
+        Account bank = accountRepository.findByCode(customer.ledgerId(), bankAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Bank account not found: " + bankAccountCode));
 
-        Account advance = accountRepository.findByCode(customerAdvanceAccountCode)
+        Account advance = accountRepository.findByCode(customer.ledgerId(), customerAdvanceAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Customer advances account not found: " + customerAdvanceAccountCode));
 
         if (!bank.currency().equals(amount.currency())) throw new IllegalArgumentException("Bank currency mismatch");
@@ -2,14 +2,23 @@ package fr.kovelya.accounting.application.service.impl;
 
 import fr.kovelya.accounting.application.dto.AccountPosting;
 import fr.kovelya.accounting.application.dto.SalesInvoicePaymentAllocation;
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.metrics.Timer;
+import fr.kovelya.accounting.application.posting.PostingAccount;
+import fr.kovelya.accounting.application.posting.PostingCoordinator;
+import fr.kovelya.accounting.application.posting.PostingProfile;
+import fr.kovelya.accounting.application.posting.PostingProfiles;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.CustomerBatchPaymentService;
-import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.customer.CustomerId;
 import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
 import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.payment.CustomerPayment;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
 import fr.kovelya.accounting.domain.repository.CustomerPaymentRepository;
 import fr.kovelya.accounting.domain.repository.SalesInvoiceRepository;
@@ -25,35 +34,106 @@ import java.util.UUID;
 public final class CustomerBatchPaymentServiceImpl implements CustomerBatchPaymentService {
 
     private final SalesInvoiceRepository salesInvoiceRepository;
-    private final AccountRepository accountRepository;
+    private final PostingProfiles postingProfiles;
     private final AccountingService accountingService;
     private final CustomerPaymentRepository customerPaymentRepository;
+    private final InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances;
     private final String receivableAccountCode;
+    private final PostingCoordinator postingCoordinator;
     private final IdempotencyExecutor idempotencyExecutor;
+    private final Timer paymentTimer;
 
     public CustomerBatchPaymentServiceImpl(
             SalesInvoiceRepository salesInvoiceRepository,
             AccountRepository accountRepository,
             AccountingService accountingService,
             CustomerPaymentRepository customerPaymentRepository,
+            InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances,
             String receivableAccountCode,
             IdempotencyExecutor idempotencyExecutor
+    ) {
+        this(
+                salesInvoiceRepository,
+                accountRepository,
+                accountingService,
+                customerPaymentRepository,
+                invoiceBalances,
+                receivableAccountCode,
+                idempotencyExecutor,
+                Metrics.noop()
+        );
+    }
+
+    public CustomerBatchPaymentServiceImpl(
+            SalesInvoiceRepository salesInvoiceRepository,
+            AccountRepository accountRepository,
+            AccountingService accountingService,
+            CustomerPaymentRepository customerPaymentRepository,
+            InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances,
+            String receivableAccountCode,
+            IdempotencyExecutor idempotencyExecutor,
+            Metrics metrics
+    ) {
+        this(
+                salesInvoiceRepository,
+                accountRepository,
+                accountingService,
+                customerPaymentRepository,
+                invoiceBalances,
+                receivableAccountCode,
+                idempotencyExecutor,
+                metrics,
+                PostingCoordinator.shared()
+        );
+    }
+
+    public CustomerBatchPaymentServiceImpl(
+            SalesInvoiceRepository salesInvoiceRepository,
+            AccountRepository accountRepository,
+            AccountingService accountingService,
+            CustomerPaymentRepository customerPaymentRepository,
+            InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances,
+            String receivableAccountCode,
+            IdempotencyExecutor idempotencyExecutor,
+            Metrics metrics,
+            PostingCoordinator postingCoordinator
     ) {
         this.salesInvoiceRepository = salesInvoiceRepository;
-        this.accountRepository = accountRepository;
         this.accountingService = accountingService;
         this.customerPaymentRepository = customerPaymentRepository;
+        this.invoiceBalances = invoiceBalances;
         this.receivableAccountCode = receivableAccountCode;
+        this.postingProfiles = new PostingProfiles(accountRepository, receivableAccountCode);
         this.idempotencyExecutor = idempotencyExecutor;
+        this.postingCoordinator = postingCoordinator;
+        this.paymentTimer = metrics.timer("payments.customer.batch");
     }
 
     @Override
     public void recordBatchPayment(UUID commandId, String bankAccountCode, LocalDate paymentDate, SalesInvoicePaymentAllocation... allocations) {
-        idempotencyExecutor.runVoid(
-                commandId,
-                () -> doRecord(commandId, bankAccountCode, paymentDate, allocations),
-                () -> {}
-        );
+        long started = paymentTimer.start();
+        try {
+            idempotencyExecutor.runVoid(
+                    commandId,
+                    () -> postingCoordinator.runWithDocuments(invoiceIds(allocations),
+                            () -> doRecord(commandId, bankAccountCode, paymentDate, allocations)),
+                    () -> {}
+            );
+        } finally {
+            paymentTimer.stop(started);
+        }
+    }
+
+    private static List<Object> invoiceIds(SalesInvoicePaymentAllocation... allocations) {
+        List<Object> invoiceIds = new ArrayList<>();
+        if (allocations != null) {
+            for (SalesInvoicePaymentAllocation allocation : allocations) {
+                if (allocation != null && allocation.invoiceId() != null) {
+                    invoiceIds.add(allocation.invoiceId());
+                }
+            }
+        }
+        return invoiceIds;
     }
 
     private void doRecord(UUID commandId, String bankAccountCode, LocalDate paymentDate, SalesInvoicePaymentAllocation... allocations) {
@@ -64,19 +144,13 @@ public final class CustomerBatchPaymentServiceImpl implements CustomerBatchPayme
             throw new IllegalArgumentException("Payment date is required");
         }
 
-        Account bank = accountRepository.findByCode(bankAccountCode)
-                .orElseThrow(() -> new IllegalStateException("Bank account not found: " + bankAccountCode));
-
-        Account receivable = accountRepository.findByCode(receivableAccountCode)
-                .orElseThrow(() -> new IllegalStateException("Receivable account not found: " + receivableAccountCode));
-
         Currency currency = null;
         Money total = null;
 
         SalesInvoice firstInvoice = null;
 
         List<CustomerPayment> paymentsToSave = new ArrayList<>();
-        List<SalesInvoice> invoicesToSave = new ArrayList<>();
+        List<SalesInvoice> invoicesToSettle = new ArrayList<>();
 
         for (SalesInvoicePaymentAllocation a : allocations) {
             if (a == null || a.invoiceId() == null || a.amount() == null) {
@@ -106,12 +180,7 @@ public final class CustomerBatchPaymentServiceImpl implements CustomerBatchPayme
                 throw new IllegalStateException("Multiple currencies not supported in batch payment");
             }
 
-            Money alreadyPaid = Money.zero(invoice.total().currency());
-            for (CustomerPayment p : customerPaymentRepository.findByInvoice(invoice.id())) {
-                alreadyPaid = alreadyPaid.add(p.amount());
-            }
-
-            Money remaining = invoice.total().subtract(alreadyPaid);
+            Money remaining = invoiceBalances.outstanding(invoice.id(), invoice.total());
             if (remaining.amount().compareTo(BigDecimal.ZERO) <= 0) {
                 throw new IllegalStateException("Invoice already fully paid: " + invoice.number());
             }
@@ -123,15 +192,19 @@ public final class CustomerBatchPaymentServiceImpl implements CustomerBatchPayme
 
             paymentsToSave.add(CustomerPayment.create(invoice.id(), a.amount(), paymentDate, bankAccountCode));
 
-            SalesInvoice updated = a.amount().amount().compareTo(remaining.amount()) == 0
-                    ? invoice.markPaid()
-                    : invoice.markPartiallyPaid();
-
-            invoicesToSave.add(updated);
+            invoicesToSettle.add(invoice);
         }
 
-        AccountPosting debitBank = new AccountPosting(bank.id(), total, LedgerEntry.Direction.DEBIT);
-        AccountPosting creditAr = new AccountPosting(receivable.id(), total, LedgerEntry.Direction.CREDIT);
+        PostingProfile profile = postingProfiles.forLedger(firstInvoice.ledgerId());
+
+        PostingAccount bank = profile.find(bankAccountCode)
+                .orElseThrow(() -> new IllegalStateException("Bank account not found: " + bankAccountCode));
+
+        PostingAccount receivable = profile.find(receivableAccountCode)
+                .orElseThrow(() -> new IllegalStateException("Receivable account not found: " + receivableAccountCode));
+
+        AccountPosting debitBank = new AccountPosting(bank, total, LedgerEntry.Direction.DEBIT);
+        AccountPosting creditAr = new AccountPosting(receivable, total, LedgerEntry.Direction.CREDIT);
 
         accountingService.postJournalTransaction(
                 JournalType.BANK,
@@ -144,9 +217,10 @@ public final class CustomerBatchPaymentServiceImpl implements CustomerBatchPayme
 
         for (CustomerPayment p : paymentsToSave) {
             customerPaymentRepository.save(p);
+            invoiceBalances.apply(p.id(), p.invoiceId(), p.amount());
         }
-        for (SalesInvoice inv : invoicesToSave) {
-            salesInvoiceRepository.save(inv);
+        for (SalesInvoice inv : invoicesToSettle) {
+            InvoiceTransitions.settle(salesInvoiceRepository, invoiceBalances, inv.id());
         }
     }
 }
@@ -1,16 +1,22 @@
 package fr.kovelya.accounting.application.service.impl;
 
 import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.posting.PostingAccount;
+import fr.kovelya.accounting.application.posting.PostingCoordinator;
+import fr.kovelya.accounting.application.posting.PostingProfile;
+import fr.kovelya.accounting.application.posting.PostingProfiles;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.CustomerCreditApplicationService;
-import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.credit.CustomerCredit;
+import fr.kovelya.accounting.domain.customer.CustomerId;
 import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
 import fr.kovelya.accounting.domain.invoice.SalesInvoice;
 import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.payment.CustomerPayment;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
 import fr.kovelya.accounting.domain.repository.CustomerCreditRepository;
 import fr.kovelya.accounting.domain.repository.CustomerPaymentRepository;
@@ -19,6 +25,7 @@ import fr.kovelya.accounting.domain.shared.Money;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,42 +33,83 @@ public final class CustomerCreditApplicationServiceImpl implements CustomerCredi
 
     private final SalesInvoiceRepository salesInvoiceRepository;
     private final CustomerPaymentRepository customerPaymentRepository;
+    private final InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances;
     private final CustomerCreditRepository customerCreditRepository;
-    private final AccountRepository accountRepository;
+    private final PostingProfiles postingProfiles;
     private final AccountingService accountingService;
     private final String receivableAccountCode;
     private final String customerAdvanceAccountCode;
+    private final PostingCoordinator postingCoordinator;
     private final IdempotencyExecutor idempotencyExecutor;
 
     public CustomerCreditApplicationServiceImpl(
             SalesInvoiceRepository salesInvoiceRepository,
             CustomerPaymentRepository customerPaymentRepository,
+            InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances,
             CustomerCreditRepository customerCreditRepository,
             AccountRepository accountRepository,
             AccountingService accountingService,
             String receivableAccountCode,
             String customerAdvanceAccountCode,
             IdempotencyExecutor idempotencyExecutor
+    ) {
+        this(
+                salesInvoiceRepository,
+                customerPaymentRepository,
+                invoiceBalances,
+                customerCreditRepository,
+                accountRepository,
+                accountingService,
+                receivableAccountCode,
+                customerAdvanceAccountCode,
+                idempotencyExecutor,
+                PostingCoordinator.shared()
+        );
+    }
+
+    public CustomerCreditApplicationServiceImpl(
+            SalesInvoiceRepository salesInvoiceRepository,
+            CustomerPaymentRepository customerPaymentRepository,
+            InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances,
+            CustomerCreditRepository customerCreditRepository,
+            AccountRepository accountRepository,
+            AccountingService accountingService,
+            String receivableAccountCode,
+            String customerAdvanceAccountCode,
+            IdempotencyExecutor idempotencyExecutor,
+            PostingCoordinator postingCoordinator
     ) {
         this.salesInvoiceRepository = salesInvoiceRepository;
         this.customerPaymentRepository = customerPaymentRepository;
+        this.invoiceBalances = invoiceBalances;
         this.customerCreditRepository = customerCreditRepository;
-        this.accountRepository = accountRepository;
         this.accountingService = accountingService;
         this.receivableAccountCode = receivableAccountCode;
         this.customerAdvanceAccountCode = customerAdvanceAccountCode;
+        this.postingProfiles = new PostingProfiles(accountRepository, receivableAccountCode, customerAdvanceAccountCode);
         this.idempotencyExecutor = idempotencyExecutor;
+        this.postingCoordinator = postingCoordinator;
     }
 
     @Override
     public void applyCredit(UUID commandId, SalesInvoiceId invoiceId, Money amount, LocalDate date) {
         idempotencyExecutor.runVoid(
                 commandId,
-                () -> doApply(invoiceId, amount, date, commandId),
+                () -> postingCoordinator.runWithDocuments(lockedDocuments(invoiceId),
+                        () -> doApply(invoiceId, amount, date, commandId)),
                 () -> {}
         );
     }
 
+    private List<Object> lockedDocuments(SalesInvoiceId invoiceId) {
+        List<Object> documents = new ArrayList<>();
+        documents.add(invoiceId);
+        if (invoiceId != null) {
+            salesInvoiceRepository.findById(invoiceId).ifPresent(invoice -> documents.add(invoice.customerId()));
+        }
+        return documents;
+    }
+
     private void doApply(SalesInvoiceId invoiceId, Money amount, LocalDate date, UUID commandId) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount is required");
@@ -84,12 +132,7 @@ public final class CustomerCreditApplicationServiceImpl implements CustomerCredi
             throw new IllegalArgumentException("Currency mismatch");
         }
 
-        Money alreadyPaid = Money.zero(invoice.total().currency());
-        for (CustomerPayment p : customerPaymentRepository.findByInvoice(invoiceId)) {
-            alreadyPaid = alreadyPaid.add(p.amount());
-        }
-
-        Money remaining = invoice.total().subtract(alreadyPaid);
+        Money remaining = invoiceBalances.outstanding(invoice.id(), invoice.total());
         if (remaining.amount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalStateException("Invoice is already fully paid");
         }
@@ -115,16 +158,18 @@ public final class CustomerCreditApplicationServiceImpl implements CustomerCredi
             left = left.subtract(canUse);
         }
 
-        Account receivable = accountRepository.findByCode(receivableAccountCode)
+        PostingProfile profile = postingProfiles.forLedger(invoice.ledgerId());
+
+        PostingAccount receivable = profile.find(receivableAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Receivable account not found: " + receivableAccountCode));
 
-        Account advances = accountRepository.findByCode(customerAdvanceAccountCode)
+        PostingAccount advances = profile.find(customerAdvanceAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Customer advances account not found: " + customerAdvanceAccountCode));
 
         String reference = "CREDIT-APPLY-" + invoice.number() + "-" + commandId;
 
-        AccountPosting debitAdv = new AccountPosting(advances.id(), toApply, LedgerEntry.Direction.DEBIT);
-        AccountPosting creditAr = new AccountPosting(receivable.id(), toApply, LedgerEntry.Direction.CREDIT);
+        AccountPosting debitAdv = new AccountPosting(advances, toApply, LedgerEntry.Direction.DEBIT);
+        AccountPosting creditAr = new AccountPosting(receivable, toApply, LedgerEntry.Direction.CREDIT);
 
         accountingService.postJournalTransaction(
                 JournalType.ADJUSTMENT,
@@ -137,13 +182,8 @@ public final class CustomerCreditApplicationServiceImpl implements CustomerCredi
 
         CustomerPayment synthetic = CustomerPayment.create(invoice.id(), toApply, date, "CREDIT-4191");
         customerPaymentRepository.save(synthetic);
+        invoiceBalances.apply(synthetic.id(), synthetic.invoiceId(), synthetic.amount());
 
-        SalesInvoice updated;
-        if (toApply.amount().compareTo(remaining.amount()) == 0) {
-            updated = invoice.markPaid();
-        } else {
-            updated = invoice.markPartiallyPaid();
-        }
-        salesInvoiceRepository.save(updated);
+        InvoiceTransitions.settle(salesInvoiceRepository, invoiceBalances, invoice.id());
     }
 }
@@ -1,7 +1,12 @@
 package fr.kovelya.accounting.application.service.impl;
 
+import fr.kovelya.accounting.application.projection.AccountTotals;
+import fr.kovelya.accounting.application.projection.StatementCache;
+import fr.kovelya.accounting.application.report.AccountBalanceView;
 import fr.kovelya.accounting.application.report.BalanceSheetView;
+import fr.kovelya.accounting.application.report.FinancialStatementsView;
 import fr.kovelya.accounting.application.report.IncomeStatementView;
+import fr.kovelya.accounting.application.report.PeriodStatementsView;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.FinancialStatementsService;
 import fr.kovelya.accounting.domain.account.Account;
@@ -16,150 +21,167 @@ import fr.kovelya.accounting.domain.shared.Money;
 import java.math.BigDecimal;
 import java.util.Currency;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public final class FinancialStatementsServiceImpl implements FinancialStatementsService {
 
     private final AccountingService accountingService;
     private final JournalTransactionRepository journalTransactionRepository;
+    private final StatementCache statementCache;
 
     public FinancialStatementsServiceImpl(AccountingService accountingService, JournalTransactionRepository journalTransactionRepository) {
+        this(accountingService, journalTransactionRepository, null);
+    }
+
+    public FinancialStatementsServiceImpl(AccountingService accountingService, JournalTransactionRepository journalTransactionRepository, StatementCache statementCache) {
         this.accountingService = accountingService;
         this.journalTransactionRepository = journalTransactionRepository;
+        this.statementCache = statementCache;
     }
 
     @Override
     public IncomeStatementView getIncomeStatement(AccountingPeriod period) {
-        Currency currency = null;
-        BigDecimal revenueAmount = BigDecimal.ZERO;
-        BigDecimal expenseAmount = BigDecimal.ZERO;
-
-        for (Account account : accountingService.listAccounts(period.ledgerId())) {
-            Money balance = accountingService.getBalanceForPeriod(account.id(), period);
-            if (balance.amount().compareTo(BigDecimal.ZERO) == 0) {
-                continue;
-            }
-
-            if (currency == null) {
-                currency = balance.currency();
-            } else if (!balance.currency().equals(currency)) {
-                throw new IllegalStateException("Multiple currencies not supported in income statement");
-            }
-
-            if (account.type() == AccountType.INCOME) {
-                revenueAmount = revenueAmount.add(balance.amount());
-            } else if (account.type() == AccountType.EXPENSE) {
-                expenseAmount = expenseAmount.add(balance.amount());
-            }
-        }
-
-        if (currency == null) {
-            currency = Currency.getInstance("EUR");
-        }
+        return getStatements(period).incomeStatement();
+    }
 
-        Money totalRevenue = Money.of(revenueAmount, currency);
-        Money totalExpenses = Money.of(expenseAmount, currency);
-        Money netIncome = totalRevenue.subtract(totalExpenses);
+    @Override
+    public IncomeStatementView getOperatingIncomeStatement(AccountingPeriod period) {
+        return getStatements(period).operatingIncomeStatement();
+    }
 
-        return new IncomeStatementView(period, totalRevenue, totalExpenses, netIncome);
+    @Override
+    public BalanceSheetView getBalanceSheet(AccountingPeriod period) {
+        return getStatements(period).balanceSheet();
     }
 
     @Override
-    public IncomeStatementView getOperatingIncomeStatement(AccountingPeriod period) {
-        Currency currency = null;
-        Map<AccountId, BigDecimal> debit = new HashMap<>();
-        Map<AccountId, BigDecimal> credit = new HashMap<>();
+    public FinancialStatementsView getStatements(AccountingPeriod period) {
+        Optional<PeriodStatementsView> cached = cached(period);
+        if (cached.isPresent()) {
+            return cached.get().statements();
+        }
 
-        for (JournalTransaction tx : journalTransactionRepository.findAll()) {
-            if (!tx.getPeriodId().equals(period.id())) {
-                continue;
-            }
+        Currency operatingCurrency = null;
+        Map<AccountId, StatementTotals> totals = new HashMap<>();
+
+        for (JournalTransaction tx : journalTransactionRepository.findByPeriodId(period.id())) {
             String ref = tx.reference();
-            if (ref != null && ref.startsWith("CLOSE-")) {
-                continue;
-            }
+            boolean operating = ref == null || !ref.startsWith("CLOSE-");
 
             for (LedgerEntry entry : tx.entries()) {
-                Money amt = entry.amount();
-
-                if (currency == null) {
-                    currency = amt.currency();
-                } else if (!currency.equals(amt.currency())) {
-                    throw new IllegalStateException("Multiple currencies not supported in income statement");
-                }
-
-                if (entry.direction() == LedgerEntry.Direction.DEBIT) {
-                    debit.merge(entry.accountId(), amt.amount(), BigDecimal::add);
-                } else {
-                    credit.merge(entry.accountId(), amt.amount(), BigDecimal::add);
+                if (operating) {
+                    Currency entryCurrency = entry.amount().currency();
+                    if (operatingCurrency == null) {
+                        operatingCurrency = entryCurrency;
+                    } else if (!operatingCurrency.equals(entryCurrency)) {
+                        throw new IllegalStateException("Multiple currencies not supported in income statement");
+                    }
                 }
+                totals.computeIfAbsent(entry.accountId(), id -> new StatementTotals()).add(entry, operating);
             }
         }
 
-        if (currency == null) {
-            currency = Currency.getInstance("EUR");
-        }
-
+        Currency currency = null;
         BigDecimal revenueAmount = BigDecimal.ZERO;
         BigDecimal expenseAmount = BigDecimal.ZERO;
+        BigDecimal operatingRevenueAmount = BigDecimal.ZERO;
+        BigDecimal operatingExpenseAmount = BigDecimal.ZERO;
+        BigDecimal assetsAmount = BigDecimal.ZERO;
+        BigDecimal liabilitiesAmount = BigDecimal.ZERO;
+        BigDecimal equityAmount = BigDecimal.ZERO;
 
         for (Account account : accountingService.listAccounts(period.ledgerId())) {
-            BigDecimal d = debit.getOrDefault(account.id(), BigDecimal.ZERO);
-            BigDecimal c = credit.getOrDefault(account.id(), BigDecimal.ZERO);
+            StatementTotals accountTotals = totals.get(account.id());
+            if (accountTotals == null) {
+                continue;
+            }
 
             if (account.type() == AccountType.INCOME) {
-                revenueAmount = revenueAmount.add(c.subtract(d));
+                operatingRevenueAmount = operatingRevenueAmount.add(accountTotals.operatingCredit.subtract(accountTotals.operatingDebit));
             } else if (account.type() == AccountType.EXPENSE) {
-                expenseAmount = expenseAmount.add(d.subtract(c));
+                operatingExpenseAmount = operatingExpenseAmount.add(accountTotals.operatingDebit.subtract(accountTotals.operatingCredit));
             }
-        }
-
-        Money totalRevenue = Money.of(revenueAmount, currency);
-        Money totalExpenses = Money.of(expenseAmount, currency);
-        Money netIncome = totalRevenue.subtract(totalExpenses);
-
-        return new IncomeStatementView(period, totalRevenue, totalExpenses, netIncome);
-    }
-
-
-    @Override
-    public BalanceSheetView getBalanceSheet(AccountingPeriod period) {
-        Currency currency = null;
-        BigDecimal assetsAmount = BigDecimal.ZERO;
-        BigDecimal liabilitiesAmount = BigDecimal.ZERO;
-        BigDecimal equityAmount = BigDecimal.ZERO;
 
-        for (Account account : accountingService.listAccounts(period.ledgerId())) {
-            Money balance = accountingService.getBalanceForPeriod(account.id(), period);
-            if (balance.amount().compareTo(BigDecimal.ZERO) == 0) {
+            BigDecimal balance = new AccountTotals(accountTotals.debit, accountTotals.credit).net(account.type());
+            if (balance.compareTo(BigDecimal.ZERO) == 0) {
                 continue;
             }
 
             if (currency == null) {
-                currency = balance.currency();
-            } else if (!balance.currency().equals(currency)) {
-                throw new IllegalStateException("Multiple currencies not supported in balance sheet");
+                currency = account.currency();
+            } else if (!account.currency().equals(currency)) {
+                throw new IllegalStateException("Multiple currencies not supported in financial statements");
             }
 
-            if (account.type() == AccountType.ASSET) {
-                assetsAmount = assetsAmount.add(balance.amount());
-            } else if (account.type() == AccountType.LIABILITY) {
-                liabilitiesAmount = liabilitiesAmount.add(balance.amount());
-            } else if (account.type() == AccountType.EQUITY) {
-                equityAmount = equityAmount.add(balance.amount());
+            switch (account.type()) {
+                case INCOME -> revenueAmount = revenueAmount.add(balance);
+                case EXPENSE -> expenseAmount = expenseAmount.add(balance);
+                case ASSET -> assetsAmount = assetsAmount.add(balance);
+                case LIABILITY -> liabilitiesAmount = liabilitiesAmount.add(balance);
+                case EQUITY -> equityAmount = equityAmount.add(balance);
             }
         }
 
         if (currency == null) {
             currency = Currency.getInstance("EUR");
         }
+        if (operatingCurrency == null) {
+            operatingCurrency = Currency.getInstance("EUR");
+        }
+
+        Money totalRevenue = Money.of(revenueAmount, currency);
+        Money totalExpenses = Money.of(expenseAmount, currency);
+        IncomeStatementView incomeStatement = new IncomeStatementView(period, totalRevenue, totalExpenses, totalRevenue.subtract(totalExpenses));
+
+        Money operatingRevenue = Money.of(operatingRevenueAmount, operatingCurrency);
+        Money operatingExpenses = Money.of(operatingExpenseAmount, operatingCurrency);
+        IncomeStatementView operatingIncomeStatement = new IncomeStatementView(period, operatingRevenue, operatingExpenses, operatingRevenue.subtract(operatingExpenses));
 
         Money totalAssets = Money.of(assetsAmount, currency);
         Money totalLiabilities = Money.of(liabilitiesAmount, currency);
-        Money totalEquity = Money.of(equityAmount, currency);
-        Money derivedEquity = totalAssets.subtract(totalLiabilities);
+        BalanceSheetView balanceSheet = new BalanceSheetView(period, totalAssets, totalLiabilities, Money.of(equityAmount, currency), totalAssets.subtract(totalLiabilities));
+
+        return new FinancialStatementsView(period, incomeStatement, operatingIncomeStatement, balanceSheet);
+    }
 
-        return new BalanceSheetView(period, totalAssets, totalLiabilities, totalEquity, derivedEquity);
+    @Override
+    public List<AccountBalanceView> getTrialBalance(AccountingPeriod period) {
+        Optional<PeriodStatementsView> cached = cached(period);
+        if (cached.isPresent()) {
+            return cached.get().trialBalance();
+        }
+        return accountingService.getTrialBalance(period.ledgerId(), period);
     }
 
+    private Optional<PeriodStatementsView> cached(AccountingPeriod period) {
+        if (statementCache == null) {
+            return Optional.empty();
+        }
+        return statementCache.find(period);
+    }
+
+    private static final class StatementTotals {
+
+        private BigDecimal debit = BigDecimal.ZERO;
+        private BigDecimal credit = BigDecimal.ZERO;
+        private BigDecimal operatingDebit = BigDecimal.ZERO;
+        private BigDecimal operatingCredit = BigDecimal.ZERO;
+
+        private void add(LedgerEntry entry, boolean operating) {
+            BigDecimal amount = entry.amount().amount();
+            if (entry.direction() == LedgerEntry.Direction.DEBIT) {
+                debit = debit.add(amount);
+                if (operating) {
+                    operatingDebit = operatingDebit.add(amount);
+                }
+            } else {
+                credit = credit.add(amount);
+                if (operating) {
+                    operatingCredit = operatingCredit.add(amount);
+                }
+            }
+        }
+    }
 }
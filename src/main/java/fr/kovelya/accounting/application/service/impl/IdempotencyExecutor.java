@@ -1,42 +1,89 @@
 package fr.kovelya.accounting.application.service.impl;
 
+import fr.kovelya.accounting.application.diagnostics.IdempotentCommandEvent;
 import fr.kovelya.accounting.domain.repository.IdempotencyRecord;
 import fr.kovelya.accounting.domain.repository.IdempotencyRepository;
 
+import java.time.Duration;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 public final class IdempotencyExecutor {
 
+    private static final Duration DEFAULT_IN_FLIGHT_TIMEOUT = Duration.ofSeconds(30);
+    private static final long MAX_BACKOFF_NANOS = Duration.ofMillis(10).toNanos();
+
     private final IdempotencyRepository idempotencyRepository;
+    private final Duration inFlightTimeout;
 
     public IdempotencyExecutor(IdempotencyRepository idempotencyRepository) {
+        this(idempotencyRepository, DEFAULT_IN_FLIGHT_TIMEOUT);
+    }
+
+    public IdempotencyExecutor(IdempotencyRepository idempotencyRepository, Duration inFlightTimeout) {
         this.idempotencyRepository = Objects.requireNonNull(idempotencyRepository);
+        this.inFlightTimeout = Objects.requireNonNull(inFlightTimeout);
     }
 
     public <T> T run(UUID commandId, Supplier<T> action, Supplier<T> replayResult) {
         if (commandId == null) {
             throw new IllegalArgumentException("commandId is required");
         }
-        if (idempotencyRepository.find(commandId).isPresent()) {
-            return replayResult.get();
+        IdempotentCommandEvent event = new IdempotentCommandEvent();
+        event.begin();
+        if (event.isEnabled()) {
+            event.command(commandId.toString());
+        }
+        try {
+            if (!claimOrAwait(commandId)) {
+                T replayed = replayResult.get();
+                event.outcome("REPLAYED");
+                return replayed;
+            }
+            T result;
+            try {
+                result = action.get();
+            } catch (RuntimeException | Error e) {
+                idempotencyRepository.release(commandId);
+                throw e;
+            }
+            idempotencyRepository.complete(commandId, result == null ? null : result.toString());
+            event.outcome("EXECUTED");
+            return result;
+        } finally {
+            event.commit();
         }
-        T result = action.get();
-        String ref = result == null ? null : result.toString();
-        idempotencyRepository.save(IdempotencyRecord.done(commandId, ref));
-        return result;
     }
 
     public void runVoid(UUID commandId, Runnable action, Runnable replayAction) {
-        if (commandId == null) {
-            throw new IllegalArgumentException("commandId is required");
-        }
-        if (idempotencyRepository.find(commandId).isPresent()) {
+        run(commandId, () -> {
+            action.run();
+            return null;
+        }, () -> {
             replayAction.run();
-            return;
+            return null;
+        });
+    }
+
+    private boolean claimOrAwait(UUID commandId) {
+        long deadline = System.nanoTime() + inFlightTimeout.toNanos();
+        long backoff = 1_000L;
+        while (true) {
+            if (idempotencyRepository.claim(commandId)) {
+                return true;
+            }
+            Optional<IdempotencyRecord> existing = idempotencyRepository.find(commandId);
+            if (existing.isPresent() && existing.get().isDone()) {
+                return false;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Command " + commandId + " is still in progress");
+            }
+            LockSupport.parkNanos(backoff);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
         }
-        action.run();
-        idempotencyRepository.save(IdempotencyRecord.done(commandId, null));
     }
 }
@@ -1,16 +1,24 @@
 package fr.kovelya.accounting.application.service.impl;
 
 import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.metrics.Timer;
+import fr.kovelya.accounting.application.posting.PostingAccount;
+import fr.kovelya.accounting.application.posting.PostingCoordinator;
+import fr.kovelya.accounting.application.posting.PostingProfile;
+import fr.kovelya.accounting.application.posting.PostingProfiles;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.InvoicePaymentService;
-import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.credit.CustomerCredit;
+import fr.kovelya.accounting.domain.customer.CustomerId;
 import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
 import fr.kovelya.accounting.domain.invoice.SalesInvoice;
 import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.payment.CustomerPayment;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
 import fr.kovelya.accounting.domain.repository.CustomerCreditRepository;
 import fr.kovelya.accounting.domain.repository.CustomerPaymentRepository;
@@ -19,47 +27,114 @@ import fr.kovelya.accounting.domain.shared.Money;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Collections;
 import java.util.UUID;
 
 public final class InvoicePaymentServiceImpl implements InvoicePaymentService {
 
     private final SalesInvoiceRepository salesInvoiceRepository;
-    private final AccountRepository accountRepository;
+    private final PostingProfiles postingProfiles;
     private final AccountingService accountingService;
     private final CustomerPaymentRepository customerPaymentRepository;
+    private final InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances;
     private final CustomerCreditRepository customerCreditRepository;
     private final String receivableAccountCode;
     private final String customerAdvanceAccountCode;
+    private final PostingCoordinator postingCoordinator;
     private final IdempotencyExecutor idempotencyExecutor;
+    private final Timer paymentTimer;
 
     public InvoicePaymentServiceImpl(
             SalesInvoiceRepository salesInvoiceRepository,
             AccountRepository accountRepository,
             AccountingService accountingService,
             CustomerPaymentRepository customerPaymentRepository,
+            InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances,
             CustomerCreditRepository customerCreditRepository,
             String receivableAccountCode,
             String customerAdvanceAccountCode,
             IdempotencyExecutor idempotencyExecutor
+    ) {
+        this(
+                salesInvoiceRepository,
+                accountRepository,
+                accountingService,
+                customerPaymentRepository,
+                invoiceBalances,
+                customerCreditRepository,
+                receivableAccountCode,
+                customerAdvanceAccountCode,
+                idempotencyExecutor,
+                Metrics.noop()
+        );
+    }
+
+    public InvoicePaymentServiceImpl(
+            SalesInvoiceRepository salesInvoiceRepository,
+            AccountRepository accountRepository,
+            AccountingService accountingService,
+            CustomerPaymentRepository customerPaymentRepository,
+            InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances,
+            CustomerCreditRepository customerCreditRepository,
+            String receivableAccountCode,
+            String customerAdvanceAccountCode,
+            IdempotencyExecutor idempotencyExecutor,
+            Metrics metrics
+    ) {
+        this(
+                salesInvoiceRepository,
+                accountRepository,
+                accountingService,
+                customerPaymentRepository,
+                invoiceBalances,
+                customerCreditRepository,
+                receivableAccountCode,
+                customerAdvanceAccountCode,
+                idempotencyExecutor,
+                metrics,
+                PostingCoordinator.shared()
+        );
+    }
+
+    public InvoicePaymentServiceImpl(
+            SalesInvoiceRepository salesInvoiceRepository,
+            AccountRepository accountRepository,
+            AccountingService accountingService,
+            CustomerPaymentRepository customerPaymentRepository,
+            InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances,
+            CustomerCreditRepository customerCreditRepository,
+            String receivableAccountCode,
+            String customerAdvanceAccountCode,
+            IdempotencyExecutor idempotencyExecutor,
+            Metrics metrics,
+            PostingCoordinator postingCoordinator
     ) {
         this.salesInvoiceRepository = salesInvoiceRepository;
-        this.accountRepository = accountRepository;
         this.accountingService = accountingService;
         this.customerPaymentRepository = customerPaymentRepository;
+        this.invoiceBalances = invoiceBalances;
         this.customerCreditRepository = customerCreditRepository;
         this.receivableAccountCode = receivableAccountCode;
         this.customerAdvanceAccountCode = customerAdvanceAccountCode;
+        this.postingProfiles = new PostingProfiles(accountRepository, receivableAccountCode, customerAdvanceAccountCode);
         this.idempotencyExecutor = idempotencyExecutor;
+        this.postingCoordinator = postingCoordinator;
+        this.paymentTimer = metrics.timer("payments.customer.invoice");
     }
 
     @Override
     public void recordPayment(UUID commandId, SalesInvoiceId invoiceId, String bankAccountCode, Money amount, LocalDate paymentDate) {
-        idempotencyExecutor.runVoid(
-                commandId,
-                () -> doRecordPayment(commandId, invoiceId, bankAccountCode, amount, paymentDate),
-                () -> {}
-        );
+        long started = paymentTimer.start();
+        try {
+            idempotencyExecutor.runVoid(
+                    commandId,
+                    () -> postingCoordinator.runWithDocuments(Collections.singletonList(invoiceId),
+                            () -> doRecordPayment(commandId, invoiceId, bankAccountCode, amount, paymentDate)),
+                    () -> {}
+            );
+        } finally {
+            paymentTimer.stop(started);
+        }
     }
 
     private void doRecordPayment(UUID commandId, SalesInvoiceId invoiceId, String bankAccountCode, Money amount, LocalDate paymentDate) {
@@ -71,14 +146,7 @@ public final class InvoicePaymentServiceImpl implements InvoicePaymentService {
         }
 
         Money invoiceTotal = invoice.total();
-        Money alreadyPaid = Money.zero(invoiceTotal.currency());
-
-        List<CustomerPayment> existingPayments = customerPaymentRepository.findByInvoice(invoiceId);
-        for (CustomerPayment payment : existingPayments) {
-            alreadyPaid = alreadyPaid.add(payment.amount());
-        }
-
-        Money remaining = invoiceTotal.subtract(alreadyPaid);
+        Money remaining = invoiceBalances.outstanding(invoice.id(), invoice.total());
         if (remaining.amount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalStateException("Invoice is already fully paid");
         }
@@ -99,23 +167,25 @@ public final class InvoicePaymentServiceImpl implements InvoicePaymentService {
         Money applied = totalPaid.amount().compareTo(remaining.amount()) > 0 ? remaining : totalPaid;
         Money excess = totalPaid.subtract(applied);
 
-        Account receivable = accountRepository.findByCode(receivableAccountCode)
+        PostingProfile profile = postingProfiles.forLedger(invoice.ledgerId());
+
+        PostingAccount receivable = profile.find(receivableAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Receivable account not found: " + receivableAccountCode));
 
-        Account bank = accountRepository.findByCode(bankAccountCode)
+        PostingAccount bank = profile.find(bankAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Bank account not found: " + bankAccountCode));
 
         String reference = "BANK-PAY-" + invoice.number() + "-" + commandId;
         String description = "Payment of invoice " + invoice.number();
 
-        AccountPosting debitBank = new AccountPosting(bank.id(), totalPaid, LedgerEntry.Direction.DEBIT);
-        AccountPosting creditReceivable = new AccountPosting(receivable.id(), applied, LedgerEntry.Direction.CREDIT);
+        AccountPosting debitBank = new AccountPosting(bank, totalPaid, LedgerEntry.Direction.DEBIT);
+        AccountPosting creditReceivable = new AccountPosting(receivable, applied, LedgerEntry.Direction.CREDIT);
 
         if (excess.amount().compareTo(BigDecimal.ZERO) > 0) {
-            Account advances = accountRepository.findByCode(customerAdvanceAccountCode)
+            PostingAccount advances = profile.find(customerAdvanceAccountCode)
                     .orElseThrow(() -> new IllegalStateException("Customer advances account not found: " + customerAdvanceAccountCode));
 
-            AccountPosting creditAdvances = new AccountPosting(advances.id(), excess, LedgerEntry.Direction.CREDIT);
+            AccountPosting creditAdvances = new AccountPosting(advances, excess, LedgerEntry.Direction.CREDIT);
 
             accountingService.postJournalTransaction(
                     JournalType.BANK,
@@ -143,13 +213,8 @@ public final class InvoicePaymentServiceImpl implements InvoicePaymentService {
 
         CustomerPayment payment = CustomerPayment.create(invoice.id(), applied, paymentDate, bankAccountCode);
         customerPaymentRepository.save(payment);
+        invoiceBalances.apply(payment.id(), payment.invoiceId(), payment.amount());
 
-        SalesInvoice updated;
-        if (applied.amount().compareTo(remaining.amount()) == 0) {
-            updated = invoice.markPaid();
-        } else {
-            updated = invoice.markPartiallyPaid();
-        }
-        salesInvoiceRepository.save(updated);
+        InvoiceTransitions.settle(salesInvoiceRepository, invoiceBalances, invoice.id());
     }
 }
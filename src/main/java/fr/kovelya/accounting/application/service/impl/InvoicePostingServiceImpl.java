@@ -1,16 +1,24 @@
 package fr.kovelya.accounting.application.service.impl;
 
 import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.dto.BulkPostingResult;
+import fr.kovelya.accounting.application.dto.JournalPostingRequest;
+import fr.kovelya.accounting.application.posting.PostingAccount;
+import fr.kovelya.accounting.application.posting.PostingProfile;
+import fr.kovelya.accounting.application.posting.PostingProfiles;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.InvoicePostingService;
-import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.customer.CustomerId;
 import fr.kovelya.accounting.domain.invoice.InvoiceLine;
-import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
 import fr.kovelya.accounting.domain.invoice.SalesInvoice;
 import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
 import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
 import fr.kovelya.accounting.domain.repository.SalesInvoiceRepository;
 import fr.kovelya.accounting.domain.shared.Money;
@@ -19,57 +27,92 @@ import fr.kovelya.accounting.domain.tax.VatRate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Collection;
 
 public final class InvoicePostingServiceImpl implements InvoicePostingService {
 
     private final SalesInvoiceRepository salesInvoiceRepository;
-    private final AccountRepository accountRepository;
+    private final InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances;
+    private final PostingProfiles postingProfiles;
     private final AccountingService accountingService;
     private final JournalTransactionRepository journalTransactionRepository;
     private final String receivableAccountCode;
     private final String revenueAccountCode;
     private final String vatAccountCode;
     private final VatRate vatRate;
+    private final BulkInvoicePosting<SalesInvoiceId, SalesInvoice, SalesAccounts> bulkPosting;
 
-    public InvoicePostingServiceImpl(SalesInvoiceRepository salesInvoiceRepository, AccountRepository accountRepository, AccountingService accountingService, JournalTransactionRepository journalTransactionRepository, String receivableAccountCode, String revenueAccountCode, String vatAccountCode, VatRate vatRate) {
+    public InvoicePostingServiceImpl(SalesInvoiceRepository salesInvoiceRepository, InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances, AccountRepository accountRepository, AccountingService accountingService, JournalTransactionRepository journalTransactionRepository, String receivableAccountCode, String revenueAccountCode, String vatAccountCode, VatRate vatRate) {
         this.salesInvoiceRepository = salesInvoiceRepository;
-        this.accountRepository = accountRepository;
+        this.invoiceBalances = invoiceBalances;
         this.accountingService = accountingService;
         this.journalTransactionRepository = journalTransactionRepository;
         this.receivableAccountCode = receivableAccountCode;
         this.revenueAccountCode = revenueAccountCode;
         this.vatAccountCode = vatAccountCode;
+        this.postingProfiles = new PostingProfiles(accountRepository, receivableAccountCode, revenueAccountCode, vatAccountCode);
         this.vatRate = vatRate;
+        this.bulkPosting = new BulkInvoicePosting<>(JournalType.SALES, journalTransactionRepository, accountingService, this::issue, SalesInvoice::id, SalesInvoice::number, SalesInvoice::ledgerId, this::salesAccounts, this::journalRequest, BulkInvoicePosting.parallelStream());
     }
 
     @Override
     public void postInvoice(SalesInvoiceId invoiceId) {
-        SalesInvoice invoice = salesInvoiceRepository.findById(invoiceId)
-                .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
+        SalesInvoice toPost = issue(invoiceId);
 
-        SalesInvoice toPost = invoice;
+        if (journalTransactionRepository.findByJournalAndReference(JournalType.SALES, toPost.number()).isPresent()) {
+            return;
+        }
 
-        if (invoice.status() == InvoiceStatus.DRAFT) {
-            toPost = invoice.issue();
-            salesInvoiceRepository.save(toPost);
-        } else if (invoice.status() != InvoiceStatus.ISSUED) {
-            throw new IllegalStateException("Only draft or issued invoices can be posted");
+        JournalPostingRequest request = journalRequest(toPost, salesAccounts(toPost.ledgerId()));
+
+        try {
+            accountingService.postJournalTransaction(
+                    request.journalType(),
+                    request.reference(),
+                    request.description(),
+                    request.transactionDate(),
+                    request.postings()
+            );
+        } catch (DuplicateJournalReferenceException e) {
+            return;
         }
 
-        Account receivable = accountRepository.findByCode(receivableAccountCode)
+    }
+
+    @Override
+    public BulkPostingResult<SalesInvoiceId> postInvoices(Collection<SalesInvoiceId> invoiceIds) {
+        return bulkPosting.post(invoiceIds);
+    }
+
+    private SalesInvoice issue(SalesInvoiceId invoiceId) {
+        SalesInvoice invoice = salesInvoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
+        SalesInvoice issued = InvoiceTransitions.issue(salesInvoiceRepository, invoice);
+        invoiceBalances.issue(issued.id(), issued.customerId(), issued.dueDate(), issued.total());
+        return issued;
+    }
+
+    private SalesAccounts salesAccounts(LedgerId ledgerId) {
+        PostingProfile profile = postingProfiles.forLedger(ledgerId);
+
+        PostingAccount receivable = profile.find(receivableAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Receivable account not found: " + receivableAccountCode));
 
-        Account revenue = accountRepository.findByCode(revenueAccountCode)
+        PostingAccount revenue = profile.find(revenueAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Revenue account not found: " + revenueAccountCode));
 
-        Account vatAccount = accountRepository.findByCode(vatAccountCode)
+        PostingAccount vatAccount = profile.find(vatAccountCode)
                 .orElseThrow(() -> new IllegalStateException("VAT account not found: " + vatAccountCode));
 
+        return new SalesAccounts(receivable, revenue, vatAccount);
+    }
+
+    private JournalPostingRequest journalRequest(SalesInvoice invoice, SalesAccounts accounts) {
         BigDecimal totalGrossAmount = BigDecimal.ZERO;
         BigDecimal totalNetAmount = BigDecimal.ZERO;
         BigDecimal totalVatAmount = BigDecimal.ZERO;
 
-        for (InvoiceLine line : toPost.lines()) {
+        for (InvoiceLine line : invoice.lines()) {
             BigDecimal grossAmount = line.amount().amount();
             BigDecimal lineRate;
 
@@ -93,27 +136,25 @@ public final class InvoicePostingServiceImpl implements InvoicePostingService {
             totalVatAmount = totalVatAmount.add(vatAmount);
         }
 
-        Money gross = Money.of(totalGrossAmount, receivable.currency());
-        Money net = Money.of(totalNetAmount, revenue.currency());
-        Money vat = Money.of(totalVatAmount, vatAccount.currency());
+        Money gross = Money.of(totalGrossAmount, accounts.receivable().currency());
+        Money net = Money.of(totalNetAmount, accounts.revenue().currency());
+        Money vat = Money.of(totalVatAmount, accounts.vat().currency());
 
-        AccountPosting debitReceivable = new AccountPosting(receivable.id(), gross, LedgerEntry.Direction.DEBIT);
-        AccountPosting creditRevenue = new AccountPosting(revenue.id(), net, LedgerEntry.Direction.CREDIT);
-        AccountPosting creditVat = new AccountPosting(vatAccount.id(), vat, LedgerEntry.Direction.CREDIT);
+        AccountPosting debitReceivable = new AccountPosting(accounts.receivable(), gross, LedgerEntry.Direction.DEBIT);
+        AccountPosting creditRevenue = new AccountPosting(accounts.revenue(), net, LedgerEntry.Direction.CREDIT);
+        AccountPosting creditVat = new AccountPosting(accounts.vat(), vat, LedgerEntry.Direction.CREDIT);
 
-        if (journalTransactionRepository.findByJournalAndReference(JournalType.SALES, toPost.number()).isPresent()) {
-            return;
-        }
-
-        accountingService.postJournalTransaction(
+        return new JournalPostingRequest(
                 JournalType.SALES,
-                toPost.number(),
-                "Invoice " + toPost.number(),
-                toPost.issueDate(),
+                invoice.number(),
+                "Invoice " + invoice.number(),
+                invoice.issueDate(),
                 debitReceivable,
                 creditRevenue,
                 creditVat
         );
+    }
 
+    private record SalesAccounts(PostingAccount receivable, PostingAccount revenue, PostingAccount vat) {
     }
 }
@@ -0,0 +1,112 @@
+package fr.kovelya.accounting.application.service.impl;
+
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
+import fr.kovelya.accounting.domain.customer.CustomerId;
+import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
+import fr.kovelya.accounting.domain.payment.SupplierPaymentId;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceStatus;
+import fr.kovelya.accounting.domain.repository.PurchaseInvoiceRepository;
+import fr.kovelya.accounting.domain.repository.SalesInvoiceRepository;
+import fr.kovelya.accounting.domain.repository.StaleVersionException;
+import fr.kovelya.accounting.domain.supplier.SupplierId;
+
+final class InvoiceTransitions {
+
+    static final int MAX_ATTEMPTS = 8;
+
+    private InvoiceTransitions() {
+    }
+
+    static SalesInvoice issue(SalesInvoiceRepository repository, SalesInvoice invoice) {
+        SalesInvoice current = invoice;
+        for (int attempt = 1; ; attempt++) {
+            if (current.status() == InvoiceStatus.ISSUED) {
+                return current;
+            }
+            if (current.status() != InvoiceStatus.DRAFT) {
+                throw new IllegalStateException("Only draft or issued invoices can be posted");
+            }
+            try {
+                return repository.compareAndSave(current.issue());
+            } catch (StaleVersionException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                current = reload(repository, current.id());
+            }
+        }
+    }
+
+    static SalesInvoice settle(SalesInvoiceRepository repository, InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> balances, SalesInvoiceId invoiceId) {
+        for (int attempt = 1; ; attempt++) {
+            SalesInvoice current = reload(repository, invoiceId);
+            InvoiceStatus target = balances.outstanding(current.id(), current.total()).amount().signum() <= 0
+                    ? InvoiceStatus.PAID
+                    : InvoiceStatus.PARTIALLY_PAID;
+            if (current.status() == target) {
+                return current;
+            }
+            try {
+                return repository.compareAndSave(target == InvoiceStatus.PAID ? current.markPaid() : current.markPartiallyPaid());
+            } catch (StaleVersionException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    static PurchaseInvoice issue(PurchaseInvoiceRepository repository, PurchaseInvoice invoice) {
+        PurchaseInvoice current = invoice;
+        for (int attempt = 1; ; attempt++) {
+            if (current.status() == PurchaseInvoiceStatus.ISSUED) {
+                return current;
+            }
+            if (current.status() != PurchaseInvoiceStatus.DRAFT) {
+                throw new IllegalStateException("Only draft or issued purchase invoices can be posted");
+            }
+            try {
+                return repository.compareAndSave(current.issue());
+            } catch (StaleVersionException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                current = reload(repository, current.id());
+            }
+        }
+    }
+
+    static PurchaseInvoice settle(PurchaseInvoiceRepository repository, InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> balances, PurchaseInvoiceId invoiceId) {
+        for (int attempt = 1; ; attempt++) {
+            PurchaseInvoice current = reload(repository, invoiceId);
+            PurchaseInvoiceStatus target = balances.outstanding(current.id(), current.total()).amount().signum() <= 0
+                    ? PurchaseInvoiceStatus.PAID
+                    : PurchaseInvoiceStatus.PARTIALLY_PAID;
+            if (current.status() == target) {
+                return current;
+            }
+            try {
+                return repository.compareAndSave(target == PurchaseInvoiceStatus.PAID ? current.markPaid() : current.markPartiallyPaid());
+            } catch (StaleVersionException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static SalesInvoice reload(SalesInvoiceRepository repository, SalesInvoiceId invoiceId) {
+        return repository.findById(invoiceId)
+                .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
+    }
+
+    private static PurchaseInvoice reload(PurchaseInvoiceRepository repository, PurchaseInvoiceId invoiceId) {
+        return repository.findById(invoiceId)
+                .orElseThrow(() -> new IllegalArgumentException("Purchase invoice not found"));
+    }
+}
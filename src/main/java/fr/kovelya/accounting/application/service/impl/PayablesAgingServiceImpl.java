@@ -1,13 +1,20 @@
 package fr.kovelya.accounting.application.service.impl;
 
+import fr.kovelya.accounting.application.diagnostics.AgingRunEvent;
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.metrics.Timer;
+import fr.kovelya.accounting.application.report.AgingBucket;
 import fr.kovelya.accounting.application.report.SupplierPayableAgingView;
+import fr.kovelya.accounting.application.projection.DueDateAgingIndex;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.PayablesAgingService;
-import fr.kovelya.accounting.domain.payment.SupplierPayment;
+import fr.kovelya.accounting.domain.payment.SupplierPaymentId;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceStatus;
 import fr.kovelya.accounting.domain.repository.PurchaseInvoiceRepository;
-import fr.kovelya.accounting.domain.repository.SupplierPaymentRepository;
 import fr.kovelya.accounting.domain.repository.SupplierRepository;
+import fr.kovelya.accounting.domain.shared.MinorUnitMoney;
 import fr.kovelya.accounting.domain.shared.Money;
 import fr.kovelya.accounting.domain.supplier.Supplier;
 import fr.kovelya.accounting.domain.supplier.SupplierId;
@@ -16,108 +23,167 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public final class PayablesAgingServiceImpl implements PayablesAgingService {
 
     private final SupplierRepository supplierRepository;
     private final PurchaseInvoiceRepository purchaseInvoiceRepository;
-    private final SupplierPaymentRepository supplierPaymentRepository;
+    private final InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances;
+    private final boolean incremental;
+    private final Timer agingTimer;
 
-    public PayablesAgingServiceImpl(SupplierRepository supplierRepository, PurchaseInvoiceRepository purchaseInvoiceRepository, SupplierPaymentRepository supplierPaymentRepository) {
+    public PayablesAgingServiceImpl(SupplierRepository supplierRepository, PurchaseInvoiceRepository purchaseInvoiceRepository, InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances) {
+        this(supplierRepository, purchaseInvoiceRepository, invoiceBalances, Metrics.noop());
+    }
+
+    public PayablesAgingServiceImpl(SupplierRepository supplierRepository, PurchaseInvoiceRepository purchaseInvoiceRepository, InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances, Metrics metrics) {
+        this(supplierRepository, purchaseInvoiceRepository, invoiceBalances, false, metrics);
+    }
+
+    private PayablesAgingServiceImpl(SupplierRepository supplierRepository, PurchaseInvoiceRepository purchaseInvoiceRepository, InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances, boolean incremental, Metrics metrics) {
         this.supplierRepository = supplierRepository;
         this.purchaseInvoiceRepository = purchaseInvoiceRepository;
-        this.supplierPaymentRepository = supplierPaymentRepository;
+        this.invoiceBalances = invoiceBalances;
+        this.incremental = incremental;
+        this.agingTimer = metrics.timer("aging.payables");
+    }
+
+    public static PayablesAgingServiceImpl incremental(SupplierRepository supplierRepository, PurchaseInvoiceRepository purchaseInvoiceRepository, InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances) {
+        return incremental(supplierRepository, purchaseInvoiceRepository, invoiceBalances, Metrics.noop());
+    }
+
+    public static PayablesAgingServiceImpl incremental(SupplierRepository supplierRepository, PurchaseInvoiceRepository purchaseInvoiceRepository, InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances, Metrics metrics) {
+        return new PayablesAgingServiceImpl(supplierRepository, purchaseInvoiceRepository, invoiceBalances, true, metrics);
     }
 
     @Override
     public List<SupplierPayableAgingView> getSupplierAging(LocalDate asOfDate) {
+        long started = agingTimer.start();
+        AgingRunEvent event = new AgingRunEvent();
+        event.begin();
+        try {
+            if (event.isEnabled()) {
+                event.run("payables", incremental, String.valueOf(asOfDate));
+            }
+            return computeAging(event, asOfDate);
+        } finally {
+            event.commit();
+            agingTimer.stop(started);
+        }
+    }
+
+    private List<SupplierPayableAgingView> computeAging(AgingRunEvent event, LocalDate asOfDate) {
         List<SupplierPayableAgingView> result = new ArrayList<>();
 
         List<Supplier> suppliers = supplierRepository.findAll();
+        DueDateAgingIndex.Snapshot<SupplierId> snapshot = incremental ? invoiceBalances.aging().snapshot(asOfDate) : null;
         for (Supplier supplier : suppliers) {
-            SupplierPayableAgingView view = computeForSupplier(supplier, asOfDate);
+            SupplierPayableAgingView view = snapshot == null || snapshot.requiresExact(supplier.id())
+                    ? computeForSupplier(supplier, asOfDate)
+                    : view(supplier, snapshot.bucketsFor(supplier.id()));
             if (view != null && view.total().amount().compareTo(BigDecimal.ZERO) > 0) {
                 result.add(view);
             }
         }
-
+        event.result(suppliers.size(), result.size());
         return result;
     }
 
     private SupplierPayableAgingView computeForSupplier(Supplier supplier, LocalDate asOfDate) {
         SupplierId supplierId = supplier.id();
-        List<PurchaseInvoice> invoices = purchaseInvoiceRepository.findBySupplier(supplierId);
+        List<PurchaseInvoice> invoices = new ArrayList<>();
+        for (PurchaseInvoice invoice : purchaseInvoiceRepository.findBySupplier(supplierId)) {
+            if (invoice.status() != PurchaseInvoiceStatus.CANCELLED && invoice.status() != PurchaseInvoiceStatus.DRAFT) {
+                invoices.add(invoice);
+            }
+        }
 
-        Money notDue = null;
-        Money due0_30 = null;
-        Money due31_60 = null;
-        Money due61_90 = null;
-        Money due90Plus = null;
+        Money[] buckets;
+        try {
+            buckets = bucketsInMinorUnits(invoices, asOfDate);
+        } catch (ArithmeticException e) {
+            buckets = bucketsExact(invoices, asOfDate);
+        }
 
-        for (PurchaseInvoice invoice : invoices) {
-            if (invoice.status() == PurchaseInvoiceStatus.CANCELLED || invoice.status() == PurchaseInvoiceStatus.DRAFT) {
-                continue;
-            }
+        return view(supplier, buckets);
+    }
 
-            Money total = invoice.total();
-            Money paid = Money.zero(total.currency());
+    private static SupplierPayableAgingView view(Supplier supplier, Money[] buckets) {
+        if (buckets == null) {
+            return null;
+        }
 
-            List<SupplierPayment> payments = supplierPaymentRepository.findByInvoice(invoice.id());
-            for (SupplierPayment payment : payments) {
-                paid = paid.add(payment.amount());
-            }
+        Money total = buckets[AgingBucket.NOT_DUE.ordinal()]
+                .add(buckets[AgingBucket.DUE_0_30.ordinal()])
+                .add(buckets[AgingBucket.DUE_31_60.ordinal()])
+                .add(buckets[AgingBucket.DUE_61_90.ordinal()])
+                .add(buckets[AgingBucket.DUE_90_PLUS.ordinal()]);
 
-            Money amount = total.subtract(paid);
-            if (amount.amount().compareTo(BigDecimal.ZERO) <= 0) {
+        if (total.amount().compareTo(BigDecimal.ZERO) == 0) {
+            return null;
+        }
+
+        return new SupplierPayableAgingView(
+                supplier,
+                buckets[AgingBucket.NOT_DUE.ordinal()],
+                buckets[AgingBucket.DUE_0_30.ordinal()],
+                buckets[AgingBucket.DUE_31_60.ordinal()],
+                buckets[AgingBucket.DUE_61_90.ordinal()],
+                buckets[AgingBucket.DUE_90_PLUS.ordinal()],
+                total
+        );
+    }
+
+    private Money[] bucketsInMinorUnits(List<PurchaseInvoice> invoices, LocalDate asOfDate) {
+        MinorUnitMoney[] buckets = null;
+
+        for (PurchaseInvoice invoice : invoices) {
+            Money total = invoice.total();
+            MinorUnitMoney amount = MinorUnitMoney.from(total).subtract(MinorUnitMoney.from(invoiceBalances.paid(invoice.id(), total.currency())));
+            if (amount.signum() <= 0) {
                 continue;
             }
 
-            if (notDue == null) {
-                notDue = Money.zero(amount.currency());
-                due0_30 = Money.zero(amount.currency());
-                due31_60 = Money.zero(amount.currency());
-                due61_90 = Money.zero(amount.currency());
-                due90Plus = Money.zero(amount.currency());
+            if (buckets == null) {
+                buckets = new MinorUnitMoney[AgingBucket.values().length];
+                Arrays.fill(buckets, MinorUnitMoney.zero(amount.currency()));
             }
 
-            long daysPastDue = ChronoUnit.DAYS.between(invoice.dueDate(), asOfDate);
-
-            if (daysPastDue < 0) {
-                notDue = notDue.add(amount);
-            } else if (daysPastDue <= 30) {
-                due0_30 = due0_30.add(amount);
-            } else if (daysPastDue <= 60) {
-                due31_60 = due31_60.add(amount);
-            } else if (daysPastDue <= 90) {
-                due61_90 = due61_90.add(amount);
-            } else {
-                due90Plus = due90Plus.add(amount);
-            }
+            int index = AgingBucket.forDaysPastDue(ChronoUnit.DAYS.between(invoice.dueDate(), asOfDate)).ordinal();
+            buckets[index] = buckets[index].add(amount);
         }
 
-        if (notDue == null) {
+        if (buckets == null) {
             return null;
         }
 
-        Money total = notDue
-                .add(due0_30)
-                .add(due31_60)
-                .add(due61_90)
-                .add(due90Plus);
+        Money[] result = new Money[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            result[i] = buckets[i].toMoney();
+        }
+        return result;
+    }
+
+    private Money[] bucketsExact(List<PurchaseInvoice> invoices, LocalDate asOfDate) {
+        Money[] buckets = null;
 
-        if (total.amount().compareTo(BigDecimal.ZERO) == 0) {
-            return null;
+        for (PurchaseInvoice invoice : invoices) {
+            Money amount = invoiceBalances.outstanding(invoice.id(), invoice.total());
+            if (amount.amount().compareTo(BigDecimal.ZERO) <= 0) {
+                continue;
+            }
+
+            if (buckets == null) {
+                buckets = new Money[AgingBucket.values().length];
+                Arrays.fill(buckets, Money.zero(amount.currency()));
+            }
+
+            int index = AgingBucket.forDaysPastDue(ChronoUnit.DAYS.between(invoice.dueDate(), asOfDate)).ordinal();
+            buckets[index] = buckets[index].add(amount);
         }
 
-        return new SupplierPayableAgingView(
-                supplier,
-                notDue,
-                due0_30,
-                due31_60,
-                due61_90,
-                due90Plus,
-                total
-        );
+        return buckets;
     }
 }
@@ -1,7 +1,11 @@
 package fr.kovelya.accounting.application.service.impl;
 
+import fr.kovelya.accounting.application.diagnostics.PeriodCloseEvent;
 import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.projection.StatementCache;
+import fr.kovelya.accounting.application.report.PeriodStatementsView;
 import fr.kovelya.accounting.application.service.AccountingService;
+import fr.kovelya.accounting.application.service.FinancialStatementsService;
 import fr.kovelya.accounting.application.service.PeriodClosingService;
 import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.account.AccountId;
@@ -12,6 +16,7 @@ import fr.kovelya.accounting.domain.period.AccountingPeriod;
 import fr.kovelya.accounting.domain.period.PeriodStatus;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
 import fr.kovelya.accounting.domain.repository.AccountingPeriodRepository;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
 import fr.kovelya.accounting.domain.shared.Money;
 
 import java.math.BigDecimal;
@@ -24,15 +29,39 @@ public final class PeriodClosingServiceImpl implements PeriodClosingService {
     private final AccountingService accountingService;
     private final AccountingPeriodRepository accountingPeriodRepository;
     private final AccountRepository accountRepository;
+    private final FinancialStatementsService financialStatementsService;
+    private final StatementCache statementCache;
 
     public PeriodClosingServiceImpl(AccountingService accountingService, AccountingPeriodRepository accountingPeriodRepository, AccountRepository accountRepository) {
+        this(accountingService, accountingPeriodRepository, accountRepository, null, null);
+    }
+
+    public PeriodClosingServiceImpl(AccountingService accountingService, AccountingPeriodRepository accountingPeriodRepository, AccountRepository accountRepository, FinancialStatementsService financialStatementsService, StatementCache statementCache) {
+        if (statementCache != null && financialStatementsService == null) {
+            throw new IllegalArgumentException("Financial statements service is required to fill the statement cache");
+        }
         this.accountingService = accountingService;
         this.accountingPeriodRepository = accountingPeriodRepository;
         this.accountRepository = accountRepository;
+        this.financialStatementsService = financialStatementsService;
+        this.statementCache = statementCache;
     }
 
     @Override
     public void closePeriod(AccountingPeriod period, AccountId retainedEarningsAccountId) {
+        PeriodCloseEvent event = new PeriodCloseEvent();
+        event.begin();
+        try {
+            if (event.isEnabled()) {
+                event.period(period.ledgerId().toString(), period.name());
+            }
+            doClosePeriod(event, period, retainedEarningsAccountId);
+        } finally {
+            event.commit();
+        }
+    }
+
+    private void doClosePeriod(PeriodCloseEvent event, AccountingPeriod period, AccountId retainedEarningsAccountId) {
         if (period.status() != PeriodStatus.OPEN) {
             throw new IllegalStateException("Only open periods can be closed");
         }
@@ -45,11 +74,13 @@ public final class PeriodClosingServiceImpl implements PeriodClosingService {
         }
 
         List<AccountPosting> postings = new ArrayList<>();
+        int accountsScanned = 0;
 
         for (Account account : accountingService.listAccounts(period.ledgerId())) {
             if (account.type() != AccountType.INCOME && account.type() != AccountType.EXPENSE) {
                 continue;
             }
+            accountsScanned++;
 
             Money balance = accountingService.getBalanceForPeriod(account.id(), period);
             BigDecimal amount = balance.amount();
@@ -87,19 +118,77 @@ public final class PeriodClosingServiceImpl implements PeriodClosingService {
 
         if (!postings.isEmpty()) {
             LocalDate closingDate = period.endDate();
-            String reference = "CLOSE-" + period.name();
             String description = "Closing entries for period " + period.name();
-
-            accountingService.postJournalTransaction(
-                    JournalType.ADJUSTMENT,
-                    reference,
-                    description,
-                    closingDate,
-                    postings.toArray(new AccountPosting[0])
-            );
+            AccountPosting[] closingPostings = postings.toArray(new AccountPosting[0]);
+
+            for (int closing = 1; ; closing++) {
+                String reference = closing == 1 ? "CLOSE-" + period.name() : "CLOSE-" + period.name() + "-" + closing;
+                try {
+                    accountingService.postJournalTransaction(
+                            JournalType.ADJUSTMENT,
+                            reference,
+                            description,
+                            closingDate,
+                            closingPostings
+                    );
+                    break;
+                } catch (DuplicateJournalReferenceException e) {
+                    if (!e.reference().equals(reference)) {
+                        throw e;
+                    }
+                }
+            }
         }
 
         AccountingPeriod closed = period.close();
         accountingPeriodRepository.save(closed);
+        event.closed(accountsScanned, postings.size());
+
+        if (statementCache != null) {
+            cacheStatements(closed);
+        }
+    }
+
+    private void cacheStatements(AccountingPeriod closed) {
+        try {
+            statementCache.put(new PeriodStatementsView(
+                    closed,
+                    financialStatementsService.getStatements(closed),
+                    financialStatementsService.getTrialBalance(closed)
+            ));
+        } catch (RuntimeException e) {
+            statementCache.invalidate(closed.id());
+        }
+    }
+
+    @Override
+    public void reopenPeriod(AccountingPeriod period) {
+        AccountingPeriod current = currentState(period);
+        if (current.status() != PeriodStatus.CLOSED) {
+            throw new IllegalStateException("Only closed periods can be reopened");
+        }
+
+        accountingPeriodRepository.save(current.reopen());
+        if (statementCache != null) {
+            statementCache.invalidate(current.id());
+        }
+    }
+
+    @Override
+    public void archivePeriod(AccountingPeriod period) {
+        AccountingPeriod current = currentState(period);
+        if (current.status() != PeriodStatus.CLOSED) {
+            throw new IllegalStateException("Only closed periods can be archived");
+        }
+
+        accountingPeriodRepository.save(current.archive());
+        if (statementCache != null) {
+            statementCache.invalidate(current.id());
+        }
+    }
+
+    private AccountingPeriod currentState(AccountingPeriod period) {
+        return accountingPeriodRepository.findById(period.id())
+                .orElseThrow(() -> new IllegalArgumentException("Accounting period not found"));
     }
 }
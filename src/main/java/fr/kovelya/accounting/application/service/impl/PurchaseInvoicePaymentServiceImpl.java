@@ -1,13 +1,20 @@
 package fr.kovelya.accounting.application.service.impl;
 
 import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.metrics.Timer;
+import fr.kovelya.accounting.application.posting.PostingAccount;
+import fr.kovelya.accounting.application.posting.PostingCoordinator;
+import fr.kovelya.accounting.application.posting.PostingProfile;
+import fr.kovelya.accounting.application.posting.PostingProfiles;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.PurchaseInvoicePaymentService;
-import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.advance.SupplierAdvance;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.payment.SupplierPayment;
+import fr.kovelya.accounting.domain.payment.SupplierPaymentId;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceStatus;
@@ -16,50 +23,118 @@ import fr.kovelya.accounting.domain.repository.PurchaseInvoiceRepository;
 import fr.kovelya.accounting.domain.repository.SupplierAdvanceRepository;
 import fr.kovelya.accounting.domain.repository.SupplierPaymentRepository;
 import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.supplier.SupplierId;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Collections;
 import java.util.UUID;
 
 public final class PurchaseInvoicePaymentServiceImpl implements PurchaseInvoicePaymentService {
 
     private final PurchaseInvoiceRepository purchaseInvoiceRepository;
-    private final AccountRepository accountRepository;
+    private final PostingProfiles postingProfiles;
     private final AccountingService accountingService;
     private final SupplierPaymentRepository supplierPaymentRepository;
+    private final InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances;
     private final SupplierAdvanceRepository supplierAdvanceRepository;
     private final String payableAccountCode;
     private final String supplierAdvanceAccountCode;
+    private final PostingCoordinator postingCoordinator;
     private final IdempotencyExecutor idempotencyExecutor;
+    private final Timer paymentTimer;
 
     public PurchaseInvoicePaymentServiceImpl(
             PurchaseInvoiceRepository purchaseInvoiceRepository,
             AccountRepository accountRepository,
             AccountingService accountingService,
             SupplierPaymentRepository supplierPaymentRepository,
+            InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances,
             SupplierAdvanceRepository supplierAdvanceRepository,
             String payableAccountCode,
             String supplierAdvanceAccountCode,
             IdempotencyExecutor idempotencyExecutor
+    ) {
+        this(
+                purchaseInvoiceRepository,
+                accountRepository,
+                accountingService,
+                supplierPaymentRepository,
+                invoiceBalances,
+                supplierAdvanceRepository,
+                payableAccountCode,
+                supplierAdvanceAccountCode,
+                idempotencyExecutor,
+                Metrics.noop()
+        );
+    }
+
+    public PurchaseInvoicePaymentServiceImpl(
+            PurchaseInvoiceRepository purchaseInvoiceRepository,
+            AccountRepository accountRepository,
+            AccountingService accountingService,
+            SupplierPaymentRepository supplierPaymentRepository,
+            InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances,
+            SupplierAdvanceRepository supplierAdvanceRepository,
+            String payableAccountCode,
+            String supplierAdvanceAccountCode,
+            IdempotencyExecutor idempotencyExecutor,
+            Metrics metrics
+    ) {
+        this(
+                purchaseInvoiceRepository,
+                accountRepository,
+                accountingService,
+                supplierPaymentRepository,
+                invoiceBalances,
+                supplierAdvanceRepository,
+                payableAccountCode,
+                supplierAdvanceAccountCode,
+                idempotencyExecutor,
+                metrics,
+                PostingCoordinator.shared()
+        );
+    }
+
+    public PurchaseInvoicePaymentServiceImpl(
+            PurchaseInvoiceRepository purchaseInvoiceRepository,
+            AccountRepository accountRepository,
+            AccountingService accountingService,
+            SupplierPaymentRepository supplierPaymentRepository,
+            InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances,
+            SupplierAdvanceRepository supplierAdvanceRepository,
+            String payableAccountCode,
+            String supplierAdvanceAccountCode,
+            IdempotencyExecutor idempotencyExecutor,
+            Metrics metrics,
+            PostingCoordinator postingCoordinator
     ) {
         this.purchaseInvoiceRepository = purchaseInvoiceRepository;
-        this.accountRepository = accountRepository;
         this.accountingService = accountingService;
         this.supplierPaymentRepository = supplierPaymentRepository;
+        this.invoiceBalances = invoiceBalances;
         this.supplierAdvanceRepository = supplierAdvanceRepository;
         this.payableAccountCode = payableAccountCode;
         this.supplierAdvanceAccountCode = supplierAdvanceAccountCode;
+        this.postingProfiles = new PostingProfiles(accountRepository, payableAccountCode, supplierAdvanceAccountCode);
         this.idempotencyExecutor = idempotencyExecutor;
+        this.postingCoordinator = postingCoordinator;
+        this.paymentTimer = metrics.timer("payments.supplier.invoice");
     }
 
     @Override
     public void recordPayment(UUID commandId, PurchaseInvoiceId invoiceId, String bankAccountCode, Money amount, LocalDate paymentDate) {
-        idempotencyExecutor.runVoid(
-                commandId,
-                () -> doRecordPayment(commandId, invoiceId, bankAccountCode, amount, paymentDate),
-                () -> {}
-        );
+        long started = paymentTimer.start();
+        try {
+            idempotencyExecutor.runVoid(
+                    commandId,
+                    () -> postingCoordinator.runWithDocuments(Collections.singletonList(invoiceId),
+                            () -> doRecordPayment(commandId, invoiceId, bankAccountCode, amount, paymentDate)),
+                    () -> {}
+            );
+        } finally {
+            paymentTimer.stop(started);
+        }
     }
 
     private void doRecordPayment(UUID commandId, PurchaseInvoiceId invoiceId, String bankAccountCode, Money amount, LocalDate paymentDate) {
@@ -71,14 +146,7 @@ public final class PurchaseInvoicePaymentServiceImpl implements PurchaseInvoiceP
         }
 
         Money invoiceTotal = invoice.total();
-        Money alreadyPaid = Money.zero(invoiceTotal.currency());
-
-        List<SupplierPayment> existingPayments = supplierPaymentRepository.findByInvoice(invoiceId);
-        for (SupplierPayment payment : existingPayments) {
-            alreadyPaid = alreadyPaid.add(payment.amount());
-        }
-
-        Money remaining = invoiceTotal.subtract(alreadyPaid);
+        Money remaining = invoiceBalances.outstanding(invoice.id(), invoice.total());
         if (remaining.amount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalStateException("Purchase invoice is already fully paid");
         }
@@ -99,23 +167,25 @@ public final class PurchaseInvoicePaymentServiceImpl implements PurchaseInvoiceP
         Money applied = totalPaid.amount().compareTo(remaining.amount()) > 0 ? remaining : totalPaid;
         Money excess = totalPaid.subtract(applied);
 
-        Account payable = accountRepository.findByCode(payableAccountCode)
+        PostingProfile profile = postingProfiles.forLedger(invoice.ledgerId());
+
+        PostingAccount payable = profile.find(payableAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Payable account not found: " + payableAccountCode));
 
-        Account bank = accountRepository.findByCode(bankAccountCode)
+        PostingAccount bank = profile.find(bankAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Bank account not found: " + bankAccountCode));
 
         String reference = "BANK-PAY-" + invoice.number() + "-" + commandId;
         String description = "Payment of purchase invoice " + invoice.number();
 
-        AccountPosting debitPayable = new AccountPosting(payable.id(), applied, LedgerEntry.Direction.DEBIT);
-        AccountPosting creditBank = new AccountPosting(bank.id(), totalPaid, LedgerEntry.Direction.CREDIT);
+        AccountPosting debitPayable = new AccountPosting(payable, applied, LedgerEntry.Direction.DEBIT);
+        AccountPosting creditBank = new AccountPosting(bank, totalPaid, LedgerEntry.Direction.CREDIT);
 
         if (excess.amount().compareTo(BigDecimal.ZERO) > 0) {
-            Account advances = accountRepository.findByCode(supplierAdvanceAccountCode)
+            PostingAccount advances = profile.find(supplierAdvanceAccountCode)
                     .orElseThrow(() -> new IllegalStateException("Supplier advances account not found: " + supplierAdvanceAccountCode));
 
-            AccountPosting debitAdvances = new AccountPosting(advances.id(), excess, LedgerEntry.Direction.DEBIT);
+            AccountPosting debitAdvances = new AccountPosting(advances, excess, LedgerEntry.Direction.DEBIT);
 
             accountingService.postJournalTransaction(
                     JournalType.BANK,
@@ -143,13 +213,8 @@ public final class PurchaseInvoicePaymentServiceImpl implements PurchaseInvoiceP
 
         SupplierPayment payment = SupplierPayment.create(invoice.id(), applied, paymentDate, bankAccountCode);
         supplierPaymentRepository.save(payment);
+        invoiceBalances.apply(payment.id(), payment.invoiceId(), payment.amount());
 
-        PurchaseInvoice updated;
-        if (applied.amount().compareTo(remaining.amount()) == 0) {
-            updated = invoice.markPaid();
-        } else {
-            updated = invoice.markPartiallyPaid();
-        }
-        purchaseInvoiceRepository.save(updated);
+        InvoiceTransitions.settle(purchaseInvoiceRepository, invoiceBalances, invoice.id());
     }
 }
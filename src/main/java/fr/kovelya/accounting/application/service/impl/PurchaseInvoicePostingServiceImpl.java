@@ -1,75 +1,128 @@
 package fr.kovelya.accounting.application.service.impl;
 
 import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.dto.BulkPostingResult;
+import fr.kovelya.accounting.application.dto.JournalPostingRequest;
+import fr.kovelya.accounting.application.posting.PostingAccount;
+import fr.kovelya.accounting.application.posting.PostingProfile;
+import fr.kovelya.accounting.application.posting.PostingProfiles;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.PurchaseInvoicePostingService;
-import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.payment.SupplierPaymentId;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceLine;
-import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceStatus;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
 import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
 import fr.kovelya.accounting.domain.repository.PurchaseInvoiceRepository;
 import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.supplier.SupplierId;
 import fr.kovelya.accounting.domain.tax.TaxCategory;
 import fr.kovelya.accounting.domain.tax.VatRate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
 
 public final class PurchaseInvoicePostingServiceImpl implements PurchaseInvoicePostingService {
 
+    public static final int DEFAULT_SPLIT_THRESHOLD = 1_000;
+
     private final PurchaseInvoiceRepository purchaseInvoiceRepository;
-    private final AccountRepository accountRepository;
+    private final InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances;
+    private final PostingProfiles postingProfiles;
     private final AccountingService accountingService;
     private final JournalTransactionRepository journalTransactionRepository;
     private final String payableAccountCode;
     private final String expenseAccountCode;
     private final String vatDeductibleAccountCode;
     private final VatRate vatRate;
+    private final BulkInvoicePosting<PurchaseInvoiceId, PurchaseInvoice, PurchaseAccounts> bulkPosting;
+
+    public PurchaseInvoicePostingServiceImpl(PurchaseInvoiceRepository purchaseInvoiceRepository, InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances, AccountRepository accountRepository, AccountingService accountingService, JournalTransactionRepository journalTransactionRepository, String payableAccountCode, String expenseAccountCode, String vatDeductibleAccountCode, VatRate vatRate) {
+        this(purchaseInvoiceRepository, invoiceBalances, accountRepository, accountingService, journalTransactionRepository, payableAccountCode, expenseAccountCode, vatDeductibleAccountCode, vatRate, ForkJoinPool.commonPool(), DEFAULT_SPLIT_THRESHOLD);
+    }
 
-    public PurchaseInvoicePostingServiceImpl(PurchaseInvoiceRepository purchaseInvoiceRepository, AccountRepository accountRepository, AccountingService accountingService, JournalTransactionRepository journalTransactionRepository, String payableAccountCode, String expenseAccountCode, String vatDeductibleAccountCode, VatRate vatRate) {
+    public PurchaseInvoicePostingServiceImpl(PurchaseInvoiceRepository purchaseInvoiceRepository, InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances, AccountRepository accountRepository, AccountingService accountingService, JournalTransactionRepository journalTransactionRepository, String payableAccountCode, String expenseAccountCode, String vatDeductibleAccountCode, VatRate vatRate, ForkJoinPool pool, int splitThreshold) {
+        if (splitThreshold <= 0) {
+            throw new IllegalArgumentException("Split threshold must be positive");
+        }
         this.purchaseInvoiceRepository = purchaseInvoiceRepository;
-        this.accountRepository = accountRepository;
+        this.invoiceBalances = invoiceBalances;
         this.accountingService = accountingService;
         this.journalTransactionRepository = journalTransactionRepository;
         this.payableAccountCode = payableAccountCode;
         this.expenseAccountCode = expenseAccountCode;
         this.vatDeductibleAccountCode = vatDeductibleAccountCode;
+        this.postingProfiles = new PostingProfiles(accountRepository, payableAccountCode, expenseAccountCode, vatDeductibleAccountCode);
         this.vatRate = vatRate;
+        this.bulkPosting = new BulkInvoicePosting<>(JournalType.PURCHASES, journalTransactionRepository, accountingService, this::issue, PurchaseInvoice::id, PurchaseInvoice::number, PurchaseInvoice::ledgerId, this::purchaseAccounts, this::journalRequest, BulkInvoicePosting.forkJoin(pool, splitThreshold));
     }
 
     @Override
     public void postPurchaseInvoice(PurchaseInvoiceId invoiceId) {
-        PurchaseInvoice invoice = purchaseInvoiceRepository.findById(invoiceId)
-                .orElseThrow(() -> new IllegalArgumentException("Purchase invoice not found"));
+        PurchaseInvoice toPost = issue(invoiceId);
 
-        PurchaseInvoice toPost = invoice;
+        if (journalTransactionRepository.findByJournalAndReference(JournalType.PURCHASES, toPost.number()).isPresent()) {
+            return;
+        }
 
-        if (invoice.status() == PurchaseInvoiceStatus.DRAFT) {
-            toPost = invoice.issue();
-            purchaseInvoiceRepository.save(toPost);
-        } else if (invoice.status() != PurchaseInvoiceStatus.ISSUED) {
-            throw new IllegalStateException("Only draft or issued purchase invoices can be posted");
+        JournalPostingRequest request = journalRequest(toPost, purchaseAccounts(toPost.ledgerId()));
+
+        try {
+            accountingService.postJournalTransaction(
+                    request.journalType(),
+                    request.reference(),
+                    request.description(),
+                    request.transactionDate(),
+                    request.postings()
+            );
+        } catch (DuplicateJournalReferenceException e) {
+            return;
         }
 
-        Account payable = accountRepository.findByCode(payableAccountCode)
+    }
+
+    @Override
+    public BulkPostingResult<PurchaseInvoiceId> postPurchaseInvoices(Collection<PurchaseInvoiceId> invoiceIds) {
+        return bulkPosting.post(invoiceIds);
+    }
+
+    private PurchaseInvoice issue(PurchaseInvoiceId invoiceId) {
+        PurchaseInvoice invoice = purchaseInvoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new IllegalArgumentException("Purchase invoice not found"));
+        PurchaseInvoice issued = InvoiceTransitions.issue(purchaseInvoiceRepository, invoice);
+        invoiceBalances.issue(issued.id(), issued.supplierId(), issued.dueDate(), issued.total());
+        return issued;
+    }
+
+    private PurchaseAccounts purchaseAccounts(LedgerId ledgerId) {
+        PostingProfile profile = postingProfiles.forLedger(ledgerId);
+
+        PostingAccount payable = profile.find(payableAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Payable account not found: " + payableAccountCode));
 
-        Account expense = accountRepository.findByCode(expenseAccountCode)
+        PostingAccount expense = profile.find(expenseAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Expense account not found: " + expenseAccountCode));
 
-        Account vatDeductible = accountRepository.findByCode(vatDeductibleAccountCode)
+        PostingAccount vatDeductible = profile.find(vatDeductibleAccountCode)
                 .orElseThrow(() -> new IllegalStateException("VAT deductible account not found: " + vatDeductibleAccountCode));
 
+        return new PurchaseAccounts(payable, expense, vatDeductible);
+    }
+
+    private JournalPostingRequest journalRequest(PurchaseInvoice invoice, PurchaseAccounts accounts) {
         BigDecimal totalGrossAmount = BigDecimal.ZERO;
         BigDecimal totalNetAmount = BigDecimal.ZERO;
         BigDecimal totalVatAmount = BigDecimal.ZERO;
 
-        for (PurchaseInvoiceLine line : toPost.lines()) {
+        for (PurchaseInvoiceLine line : invoice.lines()) {
             BigDecimal grossAmount = line.amount().amount();
             BigDecimal lineRate;
 
@@ -93,29 +146,24 @@ public final class PurchaseInvoicePostingServiceImpl implements PurchaseInvoiceP
             totalVatAmount = totalVatAmount.add(vatAmount);
         }
 
-        Money gross = Money.of(totalGrossAmount, payable.currency());
-        Money net = Money.of(totalNetAmount, expense.currency());
-        Money vat = Money.of(totalVatAmount, vatDeductible.currency());
-        AccountPosting debitExpense = new AccountPosting(expense.id(), net, LedgerEntry.Direction.DEBIT);
-        AccountPosting debitVat = new AccountPosting(vatDeductible.id(), vat, LedgerEntry.Direction.DEBIT);
-        AccountPosting creditPayable = new AccountPosting(payable.id(), gross, LedgerEntry.Direction.CREDIT);
-
-        String reference = toPost.number();
-        String description = "Purchase invoice " + toPost.number();
+        Money gross = Money.of(totalGrossAmount, accounts.payable().currency());
+        Money net = Money.of(totalNetAmount, accounts.expense().currency());
+        Money vat = Money.of(totalVatAmount, accounts.vatDeductible().currency());
+        AccountPosting debitExpense = new AccountPosting(accounts.expense(), net, LedgerEntry.Direction.DEBIT);
+        AccountPosting debitVat = new AccountPosting(accounts.vatDeductible(), vat, LedgerEntry.Direction.DEBIT);
+        AccountPosting creditPayable = new AccountPosting(accounts.payable(), gross, LedgerEntry.Direction.CREDIT);
 
-        if (journalTransactionRepository.findByJournalAndReference(JournalType.PURCHASES, toPost.number()).isPresent()) {
-            return;
-        }
-
-        accountingService.postJournalTransaction(
+        return new JournalPostingRequest(
                 JournalType.PURCHASES,
-                reference,
-                description,
-                toPost.issueDate(),
+                invoice.number(),
+                "Purchase invoice " + invoice.number(),
+                invoice.issueDate(),
                 debitExpense,
                 debitVat,
                 creditPayable
         );
+    }
 
+    private record PurchaseAccounts(PostingAccount payable, PostingAccount expense, PostingAccount vatDeductible) {
     }
 }
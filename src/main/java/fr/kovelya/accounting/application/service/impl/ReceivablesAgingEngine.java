@@ -0,0 +1,202 @@
+package fr.kovelya.accounting.application.service.impl;
+
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
+import fr.kovelya.accounting.application.report.AgingBucket;
+import fr.kovelya.accounting.application.report.CustomerReceivableAgingView;
+import fr.kovelya.accounting.domain.customer.Customer;
+import fr.kovelya.accounting.domain.customer.CustomerId;
+import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
+import fr.kovelya.accounting.domain.shared.MinorUnitMoney;
+import fr.kovelya.accounting.domain.shared.Money;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+final class ReceivablesAgingEngine {
+
+    private static final AgingBucket[] BUCKETS = AgingBucket.values();
+
+    private final InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances;
+    private final ForkJoinPool pool;
+    private final int splitThreshold;
+
+    ReceivablesAgingEngine(InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances, ForkJoinPool pool, int splitThreshold) {
+        if (splitThreshold <= 0) {
+            throw new IllegalArgumentException("Split threshold must be positive");
+        }
+        this.invoiceBalances = invoiceBalances;
+        this.pool = pool;
+        this.splitThreshold = splitThreshold;
+    }
+
+    Buckets bucket(List<Customer> customers, List<SalesInvoice> invoices, LocalDate asOfDate) {
+        Map<CustomerId, Integer> customerIndex = new HashMap<>(customers.size() * 2);
+        for (int i = 0; i < customers.size(); i++) {
+            customerIndex.put(customers.get(i).id(), i);
+        }
+
+        int[] owner = new int[invoices.size()];
+        int[] start = new int[customers.size() + 1];
+        for (int i = 0; i < invoices.size(); i++) {
+            SalesInvoice invoice = invoices.get(i);
+            Integer customer = invoice.status() == InvoiceStatus.CANCELLED || invoice.status() == InvoiceStatus.DRAFT
+                    ? null
+                    : customerIndex.get(invoice.customerId());
+            owner[i] = customer != null ? customer : -1;
+            if (customer != null) {
+                start[customer + 1]++;
+            }
+        }
+        for (int i = 0; i < customers.size(); i++) {
+            start[i + 1] += start[i];
+        }
+
+        int[] order = new int[start[customers.size()]];
+        int[] next = Arrays.copyOf(start, customers.size());
+        for (int i = 0; i < owner.length; i++) {
+            if (owner[i] >= 0) {
+                order[next[owner[i]]++] = i;
+            }
+        }
+
+        Buckets buckets = new Buckets(customers.size());
+        int leafSize = Math.max(splitThreshold, order.length / (pool.getParallelism() * 4) + 1);
+        BucketTask task = new BucketTask(buckets, invoices, order, start, asOfDate.toEpochDay(), leafSize, 0, customers.size());
+        if (order.length <= leafSize) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return buckets;
+    }
+
+    final class Buckets {
+
+        private final long[] units;
+        private final Currency[] currencies;
+        private final boolean[] exact;
+
+        private Buckets(int customers) {
+            this.units = new long[customers * BUCKETS.length];
+            this.currencies = new Currency[customers];
+            this.exact = new boolean[customers];
+        }
+
+        boolean requiresExact(int customer) {
+            return exact[customer];
+        }
+
+        CustomerReceivableAgingView view(int customer, Customer source) {
+            Currency currency = currencies[customer];
+            if (currency == null) {
+                return null;
+            }
+
+            int base = customer * BUCKETS.length;
+            Money[] amounts = new Money[BUCKETS.length];
+            Money total = null;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                amounts[i] = MinorUnitMoney.ofMinor(units[base + i], currency).toMoney();
+                total = total == null ? amounts[i] : total.add(amounts[i]);
+            }
+            if (total.amount().signum() == 0) {
+                return null;
+            }
+
+            return new CustomerReceivableAgingView(
+                    source,
+                    amounts[AgingBucket.NOT_DUE.ordinal()],
+                    amounts[AgingBucket.DUE_0_30.ordinal()],
+                    amounts[AgingBucket.DUE_31_60.ordinal()],
+                    amounts[AgingBucket.DUE_61_90.ordinal()],
+                    amounts[AgingBucket.DUE_90_PLUS.ordinal()],
+                    total
+            );
+        }
+
+        private void add(int customer, SalesInvoice invoice, long asOfDay) {
+            if (exact[customer]) {
+                return;
+            }
+            try {
+                Money total = invoice.total();
+                Money paid = invoiceBalances.paid(invoice.id(), total.currency());
+                long amount = MinorUnitMoney.from(total).subtract(MinorUnitMoney.from(paid)).units();
+                if (amount <= 0L) {
+                    return;
+                }
+                if (!claimCurrency(customer, total.currency())) {
+                    return;
+                }
+                int index = customer * BUCKETS.length + AgingBucket.forDaysPastDue(asOfDay - invoice.dueDate().toEpochDay()).ordinal();
+                units[index] = Math.addExact(units[index], amount);
+            } catch (ArithmeticException e) {
+                exact[customer] = true;
+            }
+        }
+
+        private boolean claimCurrency(int customer, Currency currency) {
+            if (currencies[customer] == null) {
+                currencies[customer] = currency;
+                return true;
+            }
+            if (!currencies[customer].equals(currency)) {
+                exact[customer] = true;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class BucketTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Buckets buckets;
+        private final List<SalesInvoice> invoices;
+        private final int[] order;
+        private final int[] start;
+        private final long asOfDay;
+        private final int leafSize;
+        private final int from;
+        private final int to;
+
+        private BucketTask(Buckets buckets, List<SalesInvoice> invoices, int[] order, int[] start, long asOfDay, int leafSize, int from, int to) {
+            this.buckets = buckets;
+            this.invoices = invoices;
+            this.order = order;
+            this.start = start;
+            this.asOfDay = asOfDay;
+            this.leafSize = leafSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1 || start[to] - start[from] <= leafSize) {
+                for (int customer = from; customer < to; customer++) {
+                    for (int i = start[customer]; i < start[customer + 1]; i++) {
+                        buckets.add(customer, invoices.get(order[i]), asOfDay);
+                    }
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new BucketTask(buckets, invoices, order, start, asOfDay, leafSize, from, middle),
+                    new BucketTask(buckets, invoices, order, start, asOfDay, leafSize, middle, to)
+            );
+        }
+    }
+}
@@ -1,123 +1,271 @@
 package fr.kovelya.accounting.application.service.impl;
 
+import fr.kovelya.accounting.application.diagnostics.AgingRunEvent;
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.metrics.Timer;
+import fr.kovelya.accounting.application.report.AgingBucket;
 import fr.kovelya.accounting.application.report.CustomerReceivableAgingView;
+import fr.kovelya.accounting.application.projection.DueDateAgingIndex;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.ReceivablesAgingService;
 import fr.kovelya.accounting.domain.customer.Customer;
 import fr.kovelya.accounting.domain.customer.CustomerId;
 import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
 import fr.kovelya.accounting.domain.invoice.SalesInvoice;
-import fr.kovelya.accounting.domain.payment.CustomerPayment;
-import fr.kovelya.accounting.domain.repository.CustomerPaymentRepository;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
 import fr.kovelya.accounting.domain.repository.CustomerRepository;
 import fr.kovelya.accounting.domain.repository.SalesInvoiceRepository;
+import fr.kovelya.accounting.domain.shared.MinorUnitMoney;
 import fr.kovelya.accounting.domain.shared.Money;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public final class ReceivablesAgingServiceImpl implements ReceivablesAgingService {
 
+    public static final int DEFAULT_SPLIT_THRESHOLD = 50_000;
+
     private final CustomerRepository customerRepository;
     private final SalesInvoiceRepository salesInvoiceRepository;
-    private final CustomerPaymentRepository customerPaymentRepository;
+    private final InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances;
+    private final AgingStrategy strategy;
+    private final Timer agingTimer;
+
+    public ReceivablesAgingServiceImpl(CustomerRepository customerRepository, SalesInvoiceRepository salesInvoiceRepository, InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances) {
+        this(customerRepository, salesInvoiceRepository, invoiceBalances, ForkJoinPool.commonPool(), DEFAULT_SPLIT_THRESHOLD);
+    }
+
+    public ReceivablesAgingServiceImpl(CustomerRepository customerRepository, SalesInvoiceRepository salesInvoiceRepository, InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances, ForkJoinPool pool, int splitThreshold) {
+        this(customerRepository, salesInvoiceRepository, invoiceBalances, pool, splitThreshold, Metrics.noop());
+    }
 
-    public ReceivablesAgingServiceImpl(CustomerRepository customerRepository, SalesInvoiceRepository salesInvoiceRepository, CustomerPaymentRepository customerPaymentRepository) {
+    public ReceivablesAgingServiceImpl(CustomerRepository customerRepository, SalesInvoiceRepository salesInvoiceRepository, InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances, ForkJoinPool pool, int splitThreshold, Metrics metrics) {
+        this(customerRepository, salesInvoiceRepository, invoiceBalances, new SinglePassAging(new ReceivablesAgingEngine(invoiceBalances, pool, splitThreshold), salesInvoiceRepository), metrics);
+    }
+
+    private ReceivablesAgingServiceImpl(CustomerRepository customerRepository, SalesInvoiceRepository salesInvoiceRepository, InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances, AgingStrategy strategy, Metrics metrics) {
         this.customerRepository = customerRepository;
         this.salesInvoiceRepository = salesInvoiceRepository;
-        this.customerPaymentRepository = customerPaymentRepository;
+        this.invoiceBalances = invoiceBalances;
+        this.strategy = strategy;
+        this.agingTimer = metrics.timer("aging.receivables");
+    }
+
+    public static ReceivablesAgingServiceImpl incremental(CustomerRepository customerRepository, SalesInvoiceRepository salesInvoiceRepository, InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances) {
+        return incremental(customerRepository, salesInvoiceRepository, invoiceBalances, Metrics.noop());
+    }
+
+    public static ReceivablesAgingServiceImpl incremental(CustomerRepository customerRepository, SalesInvoiceRepository salesInvoiceRepository, InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances, Metrics metrics) {
+        return new ReceivablesAgingServiceImpl(customerRepository, salesInvoiceRepository, invoiceBalances, new IncrementalAging(invoiceBalances), metrics);
     }
 
     @Override
     public List<CustomerReceivableAgingView> getCustomerAging(LocalDate asOfDate) {
+        long started = agingTimer.start();
+        AgingRunEvent event = new AgingRunEvent();
+        event.begin();
+        try {
+            if (event.isEnabled()) {
+                event.run("receivables", strategy.incremental(), String.valueOf(asOfDate));
+            }
+            return computeAging(event, asOfDate);
+        } finally {
+            event.commit();
+            agingTimer.stop(started);
+        }
+    }
+
+    private List<CustomerReceivableAgingView> computeAging(AgingRunEvent event, LocalDate asOfDate) {
         List<CustomerReceivableAgingView> result = new ArrayList<>();
 
         List<Customer> customers = customerRepository.findAll();
-        for (Customer customer : customers) {
-            CustomerReceivableAgingView view = computeForCustomer(customer, asOfDate);
+        AgedCustomers aged = strategy.age(customers, asOfDate);
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            CustomerReceivableAgingView view = aged.requiresExact(i, customer)
+                    ? computeForCustomer(customer, asOfDate)
+                    : aged.view(i, customer);
             if (view != null && view.total().amount().compareTo(BigDecimal.ZERO) > 0) {
                 result.add(view);
             }
         }
-
+        event.result(customers.size(), result.size());
         return result;
     }
 
     private CustomerReceivableAgingView computeForCustomer(Customer customer, LocalDate asOfDate) {
         CustomerId customerId = customer.id();
-        List<SalesInvoice> invoices = salesInvoiceRepository.findByCustomer(customerId);
+        List<SalesInvoice> invoices = new ArrayList<>();
+        for (SalesInvoice invoice : salesInvoiceRepository.findByCustomer(customerId)) {
+            if (invoice.status() != InvoiceStatus.CANCELLED && invoice.status() != InvoiceStatus.DRAFT) {
+                invoices.add(invoice);
+            }
+        }
+
+        Money[] buckets;
+        try {
+            buckets = bucketsInMinorUnits(invoices, asOfDate);
+        } catch (ArithmeticException e) {
+            buckets = bucketsExact(invoices, asOfDate);
+        }
 
-        Money notDue = null;
-        Money due0_30 = null;
-        Money due31_60 = null;
-        Money due61_90 = null;
-        Money due90Plus = null;
+        return view(customer, buckets);
+    }
+
+    private static CustomerReceivableAgingView view(Customer customer, Money[] buckets) {
+        if (buckets == null) {
+            return null;
+        }
+
+        Money total = buckets[AgingBucket.NOT_DUE.ordinal()]
+                .add(buckets[AgingBucket.DUE_0_30.ordinal()])
+                .add(buckets[AgingBucket.DUE_31_60.ordinal()])
+                .add(buckets[AgingBucket.DUE_61_90.ordinal()])
+                .add(buckets[AgingBucket.DUE_90_PLUS.ordinal()]);
+
+        if (total.amount().compareTo(BigDecimal.ZERO) == 0) {
+            return null;
+        }
+
+        return new CustomerReceivableAgingView(
+                customer,
+                buckets[AgingBucket.NOT_DUE.ordinal()],
+                buckets[AgingBucket.DUE_0_30.ordinal()],
+                buckets[AgingBucket.DUE_31_60.ordinal()],
+                buckets[AgingBucket.DUE_61_90.ordinal()],
+                buckets[AgingBucket.DUE_90_PLUS.ordinal()],
+                total
+        );
+    }
+
+    private Money[] bucketsInMinorUnits(List<SalesInvoice> invoices, LocalDate asOfDate) {
+        MinorUnitMoney[] buckets = null;
 
         for (SalesInvoice invoice : invoices) {
-            if (invoice.status() == InvoiceStatus.CANCELLED || invoice.status() == InvoiceStatus.DRAFT) {
+            Money total = invoice.total();
+            MinorUnitMoney amount = MinorUnitMoney.from(total).subtract(MinorUnitMoney.from(invoiceBalances.paid(invoice.id(), total.currency())));
+            if (amount.signum() <= 0) {
                 continue;
             }
 
-            Money total = invoice.total();
-            Money paid = Money.zero(total.currency());
-
-            List<CustomerPayment> payments = customerPaymentRepository.findByInvoice(invoice.id());
-            for (CustomerPayment payment : payments) {
-                paid = paid.add(payment.amount());
+            if (buckets == null) {
+                buckets = new MinorUnitMoney[AgingBucket.values().length];
+                Arrays.fill(buckets, MinorUnitMoney.zero(amount.currency()));
             }
 
-            Money amount = total.subtract(paid);
+            int index = AgingBucket.forDaysPastDue(ChronoUnit.DAYS.between(invoice.dueDate(), asOfDate)).ordinal();
+            buckets[index] = buckets[index].add(amount);
+        }
+
+        if (buckets == null) {
+            return null;
+        }
+
+        Money[] result = new Money[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            result[i] = buckets[i].toMoney();
+        }
+        return result;
+    }
+
+    private Money[] bucketsExact(List<SalesInvoice> invoices, LocalDate asOfDate) {
+        Money[] buckets = null;
+
+        for (SalesInvoice invoice : invoices) {
+            Money amount = invoiceBalances.outstanding(invoice.id(), invoice.total());
             if (amount.amount().compareTo(BigDecimal.ZERO) <= 0) {
                 continue;
             }
 
-            if (notDue == null) {
-                notDue = Money.zero(amount.currency());
-                due0_30 = Money.zero(amount.currency());
-                due31_60 = Money.zero(amount.currency());
-                due61_90 = Money.zero(amount.currency());
-                due90Plus = Money.zero(amount.currency());
+            if (buckets == null) {
+                buckets = new Money[AgingBucket.values().length];
+                Arrays.fill(buckets, Money.zero(amount.currency()));
             }
 
-            long daysPastDue = ChronoUnit.DAYS.between(invoice.dueDate(), asOfDate);
-
-            if (daysPastDue < 0) {
-                notDue = notDue.add(amount);
-            } else if (daysPastDue <= 30) {
-                due0_30 = due0_30.add(amount);
-            } else if (daysPastDue <= 60) {
-                due31_60 = due31_60.add(amount);
-            } else if (daysPastDue <= 90) {
-                due61_90 = due61_90.add(amount);
-            } else {
-                due90Plus = due90Plus.add(amount);
-            }
+            int index = AgingBucket.forDaysPastDue(ChronoUnit.DAYS.between(invoice.dueDate(), asOfDate)).ordinal();
+            buckets[index] = buckets[index].add(amount);
         }
 
-        if (notDue == null) {
-            return null;
+        return buckets;
+    }
+
+    private interface AgingStrategy {
+        boolean incremental();
+
+        AgedCustomers age(List<Customer> customers, LocalDate asOfDate);
+    }
+
+    private interface AgedCustomers {
+        boolean requiresExact(int index, Customer customer);
+
+        CustomerReceivableAgingView view(int index, Customer customer);
+    }
+
+    private static final class IncrementalAging implements AgingStrategy {
+
+        private final InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances;
+
+        private IncrementalAging(InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> invoiceBalances) {
+            this.invoiceBalances = invoiceBalances;
         }
 
-        Money total = notDue
-                .add(due0_30)
-                .add(due31_60)
-                .add(due61_90)
-                .add(due90Plus);
+        @Override
+        public boolean incremental() {
+            return true;
+        }
 
-        if (total.amount().compareTo(BigDecimal.ZERO) == 0) {
-            return null;
+        @Override
+        public AgedCustomers age(List<Customer> customers, LocalDate asOfDate) {
+            DueDateAgingIndex.Snapshot<CustomerId> snapshot = invoiceBalances.aging().snapshot(asOfDate);
+            return new AgedCustomers() {
+                @Override
+                public boolean requiresExact(int index, Customer customer) {
+                    return snapshot.requiresExact(customer.id());
+                }
+
+                @Override
+                public CustomerReceivableAgingView view(int index, Customer customer) {
+                    return ReceivablesAgingServiceImpl.view(customer, snapshot.bucketsFor(customer.id()));
+                }
+            };
         }
+    }
 
-        return new CustomerReceivableAgingView(
-                customer,
-                notDue,
-                due0_30,
-                due31_60,
-                due61_90,
-                due90Plus,
-                total
-        );
+    private static final class SinglePassAging implements AgingStrategy {
+
+        private final ReceivablesAgingEngine engine;
+        private final SalesInvoiceRepository salesInvoiceRepository;
+
+        private SinglePassAging(ReceivablesAgingEngine engine, SalesInvoiceRepository salesInvoiceRepository) {
+            this.engine = engine;
+            this.salesInvoiceRepository = salesInvoiceRepository;
+        }
+
+        @Override
+        public boolean incremental() {
+            return false;
+        }
+
+        @Override
+        public AgedCustomers age(List<Customer> customers, LocalDate asOfDate) {
+            ReceivablesAgingEngine.Buckets buckets = engine.bucket(customers, salesInvoiceRepository.findAll(), asOfDate);
+            return new AgedCustomers() {
+                @Override
+                public boolean requiresExact(int index, Customer customer) {
+                    return buckets.requiresExact(index);
+                }
+
+                @Override
+                public CustomerReceivableAgingView view(int index, Customer customer) {
+                    return buckets.view(index, customer);
+                }
+            };
+        }
     }
 }
@@ -1,15 +1,18 @@
 package fr.kovelya.accounting.application.service.impl;
 
 import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.posting.PostingAccount;
+import fr.kovelya.accounting.application.posting.PostingProfile;
+import fr.kovelya.accounting.application.posting.PostingProfiles;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.SalesCreditNoteService;
-import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.invoice.InvoiceLine;
 import fr.kovelya.accounting.domain.invoice.SalesInvoice;
 import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
 import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
 import fr.kovelya.accounting.domain.repository.SalesInvoiceRepository;
 import fr.kovelya.accounting.domain.shared.Money;
@@ -23,7 +26,7 @@ import java.time.LocalDate;
 public final class SalesCreditNoteServiceImpl implements SalesCreditNoteService {
 
     private final SalesInvoiceRepository salesInvoiceRepository;
-    private final AccountRepository accountRepository;
+    private final PostingProfiles postingProfiles;
     private final AccountingService accountingService;
     private final JournalTransactionRepository journalTransactionRepository;
     private final String receivableAccountCode;
@@ -42,12 +45,12 @@ public final class SalesCreditNoteServiceImpl implements SalesCreditNoteService
             VatRate vatRate
     ) {
         this.salesInvoiceRepository = salesInvoiceRepository;
-        this.accountRepository = accountRepository;
         this.accountingService = accountingService;
         this.journalTransactionRepository = journalTransactionRepository;
         this.receivableAccountCode = receivableAccountCode;
         this.revenueAccountCode = revenueAccountCode;
         this.vatCollectedAccountCode = vatCollectedAccountCode;
+        this.postingProfiles = new PostingProfiles(accountRepository, receivableAccountCode, revenueAccountCode, vatCollectedAccountCode);
         this.vatRate = vatRate;
     }
 
@@ -71,13 +74,15 @@ public final class SalesCreditNoteServiceImpl implements SalesCreditNoteService
             return;
         }
 
-        Account receivable = accountRepository.findByCode(receivableAccountCode)
+        PostingProfile profile = postingProfiles.forLedger(invoice.ledgerId());
+
+        PostingAccount receivable = profile.find(receivableAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Receivable account not found: " + receivableAccountCode));
 
-        Account revenue = accountRepository.findByCode(revenueAccountCode)
+        PostingAccount revenue = profile.find(revenueAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Revenue account not found: " + revenueAccountCode));
 
-        Account vatCollected = accountRepository.findByCode(vatCollectedAccountCode)
+        PostingAccount vatCollected = profile.find(vatCollectedAccountCode)
                 .orElseThrow(() -> new IllegalStateException("VAT collected account not found: " + vatCollectedAccountCode));
 
         BigDecimal totalGrossAmount = BigDecimal.ZERO;
@@ -112,19 +117,23 @@ public final class SalesCreditNoteServiceImpl implements SalesCreditNoteService
         Money net = Money.of(totalNetAmount, revenue.currency());
         Money vat = Money.of(totalVatAmount, vatCollected.currency());
 
-        AccountPosting debitRevenue = new AccountPosting(revenue.id(), net, LedgerEntry.Direction.DEBIT);
-        AccountPosting debitVat = new AccountPosting(vatCollected.id(), vat, LedgerEntry.Direction.DEBIT);
-        AccountPosting creditReceivable = new AccountPosting(receivable.id(), gross, LedgerEntry.Direction.CREDIT);
-
-        accountingService.postJournalTransaction(
-                JournalType.SALES,
-                creditNoteNumber,
-                "Credit note " + creditNoteNumber + " for invoice " + invoice.number(),
-                issueDate,
-                debitRevenue,
-                debitVat,
-                creditReceivable
-        );
+        AccountPosting debitRevenue = new AccountPosting(revenue, net, LedgerEntry.Direction.DEBIT);
+        AccountPosting debitVat = new AccountPosting(vatCollected, vat, LedgerEntry.Direction.DEBIT);
+        AccountPosting creditReceivable = new AccountPosting(receivable, gross, LedgerEntry.Direction.CREDIT);
+
+        try {
+            accountingService.postJournalTransaction(
+                    JournalType.SALES,
+                    creditNoteNumber,
+                    "Credit note " + creditNoteNumber + " for invoice " + invoice.number(),
+                    issueDate,
+                    debitRevenue,
+                    debitVat,
+                    creditReceivable
+            );
+        } catch (DuplicateJournalReferenceException e) {
+            return;
+        }
     }
 
     @Override
@@ -153,13 +162,15 @@ public final class SalesCreditNoteServiceImpl implements SalesCreditNoteService
             return;
         }
 
-        Account receivable = accountRepository.findByCode(receivableAccountCode)
+        PostingProfile profile = postingProfiles.forLedger(invoice.ledgerId());
+
+        PostingAccount receivable = profile.find(receivableAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Receivable account not found: " + receivableAccountCode));
 
-        Account revenue = accountRepository.findByCode(revenueAccountCode)
+        PostingAccount revenue = profile.find(revenueAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Revenue account not found: " + revenueAccountCode));
 
-        Account vatCollected = accountRepository.findByCode(vatCollectedAccountCode)
+        PostingAccount vatCollected = profile.find(vatCollectedAccountCode)
                 .orElseThrow(() -> new IllegalStateException("VAT collected account not found: " + vatCollectedAccountCode));
 
         if (!grossAmountToCredit.currency().equals(receivable.currency())) {
@@ -211,18 +222,22 @@ public final class SalesCreditNoteServiceImpl implements SalesCreditNoteService
         Money net = Money.of(netToCredit, revenue.currency());
         Money vat = Money.of(vatToCredit, vatCollected.currency());
 
-        AccountPosting debitRevenue = new AccountPosting(revenue.id(), net, LedgerEntry.Direction.DEBIT);
-        AccountPosting debitVat = new AccountPosting(vatCollected.id(), vat, LedgerEntry.Direction.DEBIT);
-        AccountPosting creditReceivable = new AccountPosting(receivable.id(), gross, LedgerEntry.Direction.CREDIT);
-
-        accountingService.postJournalTransaction(
-                JournalType.SALES,
-                creditNoteNumber,
-                "Partial credit note " + creditNoteNumber + " for invoice " + invoice.number(),
-                issueDate,
-                debitRevenue,
-                debitVat,
-                creditReceivable
-        );
+        AccountPosting debitRevenue = new AccountPosting(revenue, net, LedgerEntry.Direction.DEBIT);
+        AccountPosting debitVat = new AccountPosting(vatCollected, vat, LedgerEntry.Direction.DEBIT);
+        AccountPosting creditReceivable = new AccountPosting(receivable, gross, LedgerEntry.Direction.CREDIT);
+
+        try {
+            accountingService.postJournalTransaction(
+                    JournalType.SALES,
+                    creditNoteNumber,
+                    "Partial credit note " + creditNoteNumber + " for invoice " + invoice.number(),
+                    issueDate,
+                    debitRevenue,
+                    debitVat,
+                    creditReceivable
+            );
+        } catch (DuplicateJournalReferenceException e) {
+            return;
+        }
     }
 }
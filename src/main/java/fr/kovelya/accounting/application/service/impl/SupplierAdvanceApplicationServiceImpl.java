@@ -1,21 +1,28 @@
 package fr.kovelya.accounting.application.service.impl;
 
 import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.posting.PostingAccount;
+import fr.kovelya.accounting.application.posting.PostingCoordinator;
+import fr.kovelya.accounting.application.posting.PostingProfile;
+import fr.kovelya.accounting.application.posting.PostingProfiles;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.SupplierAdvanceApplicationService;
-import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.advance.SupplierAdvance;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.payment.SupplierPayment;
+import fr.kovelya.accounting.domain.payment.SupplierPaymentId;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceStatus;
 import fr.kovelya.accounting.domain.repository.*;
 import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.supplier.SupplierId;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,42 +30,83 @@ public final class SupplierAdvanceApplicationServiceImpl implements SupplierAdva
 
     private final PurchaseInvoiceRepository purchaseInvoiceRepository;
     private final SupplierPaymentRepository supplierPaymentRepository;
+    private final InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances;
     private final SupplierAdvanceRepository supplierAdvanceRepository;
-    private final AccountRepository accountRepository;
+    private final PostingProfiles postingProfiles;
     private final AccountingService accountingService;
     private final String payableAccountCode;
     private final String supplierAdvanceAccountCode;
+    private final PostingCoordinator postingCoordinator;
     private final IdempotencyExecutor idempotencyExecutor;
 
     public SupplierAdvanceApplicationServiceImpl(
             PurchaseInvoiceRepository purchaseInvoiceRepository,
             SupplierPaymentRepository supplierPaymentRepository,
+            InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances,
             SupplierAdvanceRepository supplierAdvanceRepository,
             AccountRepository accountRepository,
             AccountingService accountingService,
             String payableAccountCode,
             String supplierAdvanceAccountCode,
             IdempotencyExecutor idempotencyExecutor
+    ) {
+        this(
+                purchaseInvoiceRepository,
+                supplierPaymentRepository,
+                invoiceBalances,
+                supplierAdvanceRepository,
+                accountRepository,
+                accountingService,
+                payableAccountCode,
+                supplierAdvanceAccountCode,
+                idempotencyExecutor,
+                PostingCoordinator.shared()
+        );
+    }
+
+    public SupplierAdvanceApplicationServiceImpl(
+            PurchaseInvoiceRepository purchaseInvoiceRepository,
+            SupplierPaymentRepository supplierPaymentRepository,
+            InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances,
+            SupplierAdvanceRepository supplierAdvanceRepository,
+            AccountRepository accountRepository,
+            AccountingService accountingService,
+            String payableAccountCode,
+            String supplierAdvanceAccountCode,
+            IdempotencyExecutor idempotencyExecutor,
+            PostingCoordinator postingCoordinator
     ) {
         this.purchaseInvoiceRepository = purchaseInvoiceRepository;
         this.supplierPaymentRepository = supplierPaymentRepository;
+        this.invoiceBalances = invoiceBalances;
         this.supplierAdvanceRepository = supplierAdvanceRepository;
-        this.accountRepository = accountRepository;
         this.accountingService = accountingService;
         this.payableAccountCode = payableAccountCode;
         this.supplierAdvanceAccountCode = supplierAdvanceAccountCode;
+        this.postingProfiles = new PostingProfiles(accountRepository, payableAccountCode, supplierAdvanceAccountCode);
         this.idempotencyExecutor = idempotencyExecutor;
+        this.postingCoordinator = postingCoordinator;
     }
 
     @Override
     public void applyAdvance(UUID commandId, PurchaseInvoiceId invoiceId, Money amount, LocalDate date) {
         idempotencyExecutor.runVoid(
                 commandId,
-                () -> doApply(invoiceId, amount, date, commandId),
+                () -> postingCoordinator.runWithDocuments(lockedDocuments(invoiceId),
+                        () -> doApply(invoiceId, amount, date, commandId)),
                 () -> {}
         );
     }
 
+    private List<Object> lockedDocuments(PurchaseInvoiceId invoiceId) {
+        List<Object> documents = new ArrayList<>();
+        documents.add(invoiceId);
+        if (invoiceId != null) {
+            purchaseInvoiceRepository.findById(invoiceId).ifPresent(invoice -> documents.add(invoice.supplierId()));
+        }
+        return documents;
+    }
+
     private void doApply(PurchaseInvoiceId invoiceId, Money amount, LocalDate date, UUID commandId) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount is required");
@@ -81,12 +129,7 @@ public final class SupplierAdvanceApplicationServiceImpl implements SupplierAdva
             throw new IllegalArgumentException("Currency mismatch");
         }
 
-        Money alreadyPaid = Money.zero(invoice.total().currency());
-        for (SupplierPayment p : supplierPaymentRepository.findByInvoice(invoiceId)) {
-            alreadyPaid = alreadyPaid.add(p.amount());
-        }
-
-        Money remaining = invoice.total().subtract(alreadyPaid);
+        Money remaining = invoiceBalances.outstanding(invoice.id(), invoice.total());
         if (remaining.amount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalStateException("Purchase invoice is already fully paid");
         }
@@ -112,16 +155,18 @@ public final class SupplierAdvanceApplicationServiceImpl implements SupplierAdva
             left = left.subtract(canUse);
         }
 
-        Account payable = accountRepository.findByCode(payableAccountCode)
+        PostingProfile profile = postingProfiles.forLedger(invoice.ledgerId());
+
+        PostingAccount payable = profile.find(payableAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Payable account not found: " + payableAccountCode));
 
-        Account adv = accountRepository.findByCode(supplierAdvanceAccountCode)
+        PostingAccount adv = profile.find(supplierAdvanceAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Supplier advances account not found: " + supplierAdvanceAccountCode));
 
         String reference = "ADV-APPLY-" + invoice.number() + "-" + commandId;
 
-        AccountPosting debitPayable = new AccountPosting(payable.id(), toApply, LedgerEntry.Direction.DEBIT);
-        AccountPosting creditAdv = new AccountPosting(adv.id(), toApply, LedgerEntry.Direction.CREDIT);
+        AccountPosting debitPayable = new AccountPosting(payable, toApply, LedgerEntry.Direction.DEBIT);
+        AccountPosting creditAdv = new AccountPosting(adv, toApply, LedgerEntry.Direction.CREDIT);
 
         accountingService.postJournalTransaction(
                 JournalType.ADJUSTMENT,
@@ -134,13 +179,8 @@ public final class SupplierAdvanceApplicationServiceImpl implements SupplierAdva
 
         SupplierPayment synthetic = SupplierPayment.create(invoice.id(), toApply, date, "ADV-4091");
         supplierPaymentRepository.save(synthetic);
+        invoiceBalances.apply(synthetic.id(), synthetic.invoiceId(), synthetic.amount());
 
-        PurchaseInvoice updated;
-        if (toApply.amount().compareTo(remaining.amount()) == 0) {
-            updated = invoice.markPaid();
-        } else {
-            updated = invoice.markPartiallyPaid();
-        }
-        purchaseInvoiceRepository.save(updated);
+        InvoiceTransitions.settle(purchaseInvoiceRepository, invoiceBalances, invoice.id());
     }
 }
@@ -8,8 +8,10 @@ import fr.kovelya.accounting.domain.advance.SupplierAdvance;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
+import fr.kovelya.accounting.domain.repository.SupplierRepository;
 import fr.kovelya.accounting.domain.repository.SupplierAdvanceRepository;
 import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.supplier.Supplier;
 import fr.kovelya.accounting.domain.supplier.SupplierId;
 
 import java.math.BigDecimal;
@@ -20,6 +22,7 @@ import java.util.UUID;
 public final class SupplierAdvanceReceiptServiceImpl implements SupplierAdvanceReceiptService {
 
     private final AccountRepository accountRepository;
+    private final SupplierRepository supplierRepository;
     private final AccountingService accountingService;
     private final SupplierAdvanceRepository supplierAdvanceRepository;
     private final String supplierAdvanceAccountCode;
@@ -27,12 +30,14 @@ public final class SupplierAdvanceReceiptServiceImpl implements SupplierAdvanceR
 
     public SupplierAdvanceReceiptServiceImpl(
             AccountRepository accountRepository,
+            SupplierRepository supplierRepository,
             AccountingService accountingService,
             SupplierAdvanceRepository supplierAdvanceRepository,
             String supplierAdvanceAccountCode,
             IdempotencyExecutor idempotencyExecutor
     ) {
         this.accountRepository = Objects.requireNonNull(accountRepository);
+        this.supplierRepository = Objects.requireNonNull(supplierRepository);
         this.accountingService = Objects.requireNonNull(accountingService);
         this.supplierAdvanceRepository = Objects.requireNonNull(supplierAdvanceRepository);
         this.supplierAdvanceAccountCode = Objects.requireNonNull(supplierAdvanceAccountCode);
@@ -55,10 +60,13 @@ public final class SupplierAdvanceReceiptServiceImpl implements SupplierAdvanceR
         if (date == null) throw new IllegalArgumentException("date is required");
         if (amount.amount().compareTo(BigDecimal.ZERO) <= 0) throw new IllegalArgumentException("amount must be positive");
 
-        Account bank = accountRepository.findByCode(bankAccountCode)
+        Supplier supplier = supplierRepository.findById(supplierId)
+                .orElseThrow(() -> new IllegalArgumentException("Supplier not found: " + supplierId));
+
+        Account bank = accountRepository.findByCode(supplier.ledgerId(), bankAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Bank account not found: " + bankAccountCode));
 
-        Account advance = accountRepository.findByCode(supplierAdvanceAccountCode)
+        Account advance = accountRepository.findByCode(supplier.ledgerId(), supplierAdvanceAccountCode)
                 .orElseThrow(() -> new IllegalStateException("Supplier advances account not found: " + supplierAdvanceAccountCode));
 
         if (!bank.currency().equals(amount.currency())) throw new IllegalArgumentException("Bank currency mismatch");
@@ -2,18 +2,27 @@ package fr.kovelya.accounting.application.service.impl;
 
 import fr.kovelya.accounting.application.dto.AccountPosting;
 import fr.kovelya.accounting.application.dto.PurchaseInvoicePaymentAllocation;
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.metrics.Timer;
+import fr.kovelya.accounting.application.posting.PostingAccount;
+import fr.kovelya.accounting.application.posting.PostingCoordinator;
+import fr.kovelya.accounting.application.posting.PostingProfile;
+import fr.kovelya.accounting.application.posting.PostingProfiles;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.AccountingService;
 import fr.kovelya.accounting.application.service.SupplierBatchPaymentService;
-import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.payment.SupplierPayment;
+import fr.kovelya.accounting.domain.payment.SupplierPaymentId;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceStatus;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
 import fr.kovelya.accounting.domain.repository.PurchaseInvoiceRepository;
 import fr.kovelya.accounting.domain.repository.SupplierPaymentRepository;
 import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.supplier.SupplierId;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -25,35 +34,106 @@ import java.util.UUID;
 public final class SupplierBatchPaymentServiceImpl implements SupplierBatchPaymentService {
 
     private final PurchaseInvoiceRepository purchaseInvoiceRepository;
-    private final AccountRepository accountRepository;
+    private final PostingProfiles postingProfiles;
     private final AccountingService accountingService;
     private final SupplierPaymentRepository supplierPaymentRepository;
+    private final InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances;
     private final String payableAccountCode;
+    private final PostingCoordinator postingCoordinator;
     private final IdempotencyExecutor idempotencyExecutor;
+    private final Timer paymentTimer;
 
     public SupplierBatchPaymentServiceImpl(
             PurchaseInvoiceRepository purchaseInvoiceRepository,
             AccountRepository accountRepository,
             AccountingService accountingService,
             SupplierPaymentRepository supplierPaymentRepository,
+            InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances,
             String payableAccountCode,
             IdempotencyExecutor idempotencyExecutor
+    ) {
+        this(
+                purchaseInvoiceRepository,
+                accountRepository,
+                accountingService,
+                supplierPaymentRepository,
+                invoiceBalances,
+                payableAccountCode,
+                idempotencyExecutor,
+                Metrics.noop()
+        );
+    }
+
+    public SupplierBatchPaymentServiceImpl(
+            PurchaseInvoiceRepository purchaseInvoiceRepository,
+            AccountRepository accountRepository,
+            AccountingService accountingService,
+            SupplierPaymentRepository supplierPaymentRepository,
+            InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances,
+            String payableAccountCode,
+            IdempotencyExecutor idempotencyExecutor,
+            Metrics metrics
+    ) {
+        this(
+                purchaseInvoiceRepository,
+                accountRepository,
+                accountingService,
+                supplierPaymentRepository,
+                invoiceBalances,
+                payableAccountCode,
+                idempotencyExecutor,
+                metrics,
+                PostingCoordinator.shared()
+        );
+    }
+
+    public SupplierBatchPaymentServiceImpl(
+            PurchaseInvoiceRepository purchaseInvoiceRepository,
+            AccountRepository accountRepository,
+            AccountingService accountingService,
+            SupplierPaymentRepository supplierPaymentRepository,
+            InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> invoiceBalances,
+            String payableAccountCode,
+            IdempotencyExecutor idempotencyExecutor,
+            Metrics metrics,
+            PostingCoordinator postingCoordinator
     ) {
         this.purchaseInvoiceRepository = purchaseInvoiceRepository;
-        this.accountRepository = accountRepository;
         this.accountingService = accountingService;
         this.supplierPaymentRepository = supplierPaymentRepository;
+        this.invoiceBalances = invoiceBalances;
         this.payableAccountCode = payableAccountCode;
+        this.postingProfiles = new PostingProfiles(accountRepository, payableAccountCode);
         this.idempotencyExecutor = idempotencyExecutor;
+        this.postingCoordinator = postingCoordinator;
+        this.paymentTimer = metrics.timer("payments.supplier.batch");
     }
 
     @Override
     public void recordBatchPayment(UUID commandId, String bankAccountCode, LocalDate paymentDate, PurchaseInvoicePaymentAllocation... allocations) {
-        idempotencyExecutor.runVoid(
-                commandId,
-                () -> doRecord(commandId, bankAccountCode, paymentDate, allocations),
-                () -> {}
-        );
+        long started = paymentTimer.start();
+        try {
+            idempotencyExecutor.runVoid(
+                    commandId,
+                    () -> postingCoordinator.runWithDocuments(invoiceIds(allocations),
+                            () -> doRecord(commandId, bankAccountCode, paymentDate, allocations)),
+                    () -> {}
+            );
+        } finally {
+            paymentTimer.stop(started);
+        }
+    }
+
+    private static List<Object> invoiceIds(PurchaseInvoicePaymentAllocation... allocations) {
+        List<Object> invoiceIds = new ArrayList<>();
+        if (allocations != null) {
+            for (PurchaseInvoicePaymentAllocation allocation : allocations) {
+                if (allocation != null && allocation.invoiceId() != null) {
+                    invoiceIds.add(allocation.invoiceId());
+                }
+            }
+        }
+        return invoiceIds;
     }
 
     private void doRecord(UUID commandId, String bankAccountCode, LocalDate paymentDate, PurchaseInvoicePaymentAllocation... allocations) {
@@ -64,19 +144,13 @@ public final class SupplierBatchPaymentServiceImpl implements SupplierBatchPayme
             throw new IllegalArgumentException("Payment date is required");
         }
 
-        Account bank = accountRepository.findByCode(bankAccountCode)
-                .orElseThrow(() -> new IllegalStateException("Bank account not found: " + bankAccountCode));
-
-        Account payable = accountRepository.findByCode(payableAccountCode)
-                .orElseThrow(() -> new IllegalStateException("Payable account not found: " + payableAccountCode));
-
         Currency currency = null;
         Money total = null;
 
         PurchaseInvoice firstInvoice = null;
 
         List<SupplierPayment> paymentsToSave = new ArrayList<>();
-        List<PurchaseInvoice> invoicesToSave = new ArrayList<>();
+        List<PurchaseInvoice> invoicesToSettle = new ArrayList<>();
 
         for (PurchaseInvoicePaymentAllocation a : allocations) {
             if (a == null || a.invoiceId() == null || a.amount() == null) {
@@ -106,12 +180,7 @@ public final class SupplierBatchPaymentServiceImpl implements SupplierBatchPayme
                 throw new IllegalStateException("Multiple currencies not supported in batch payment");
             }
 
-            Money alreadyPaid = Money.zero(invoice.total().currency());
-            for (SupplierPayment p : supplierPaymentRepository.findByInvoice(invoice.id())) {
-                alreadyPaid = alreadyPaid.add(p.amount());
-            }
-
-            Money remaining = invoice.total().subtract(alreadyPaid);
+            Money remaining = invoiceBalances.outstanding(invoice.id(), invoice.total());
             if (remaining.amount().compareTo(BigDecimal.ZERO) <= 0) {
                 throw new IllegalStateException("Purchase invoice already fully paid: " + invoice.number());
             }
@@ -123,15 +192,19 @@ public final class SupplierBatchPaymentServiceImpl implements SupplierBatchPayme
 
             paymentsToSave.add(SupplierPayment.create(invoice.id(), a.amount(), paymentDate, bankAccountCode));
 
-            PurchaseInvoice updated = a.amount().amount().compareTo(remaining.amount()) == 0
-                    ? invoice.markPaid()
-                    : invoice.markPartiallyPaid();
-
-            invoicesToSave.add(updated);
+            invoicesToSettle.add(invoice);
         }
 
-        AccountPosting debitPayable = new AccountPosting(payable.id(), total, LedgerEntry.Direction.DEBIT);
-        AccountPosting creditBank = new AccountPosting(bank.id(), total, LedgerEntry.Direction.CREDIT);
+        PostingProfile profile = postingProfiles.forLedger(firstInvoice.ledgerId());
+
+        PostingAccount bank = profile.find(bankAccountCode)
+                .orElseThrow(() -> new IllegalStateException("Bank account not found: " + bankAccountCode));
+
+        PostingAccount payable = profile.find(payableAccountCode)
+                .orElseThrow(() -> new IllegalStateException("Payable account not found: " + payableAccountCode));
+
+        AccountPosting debitPayable = new AccountPosting(payable, total, LedgerEntry.Direction.DEBIT);
+        AccountPosting creditBank = new AccountPosting(bank, total, LedgerEntry.Direction.CREDIT);
 
         accountingService.postJournalTransaction(
                 JournalType.BANK,
@@ -144,9 +217,10 @@ public final class SupplierBatchPaymentServiceImpl implements SupplierBatchPayme
 
         for (SupplierPayment p : paymentsToSave) {
             supplierPaymentRepository.save(p);
+            invoiceBalances.apply(p.id(), p.invoiceId(), p.amount());
         }
-        for (PurchaseInvoice inv : invoicesToSave) {
-            purchaseInvoiceRepository.save(inv);
+        for (PurchaseInvoice inv : invoicesToSettle) {
+            InvoiceTransitions.settle(purchaseInvoiceRepository, invoiceBalances, inv.id());
         }
     }
 }
@@ -6,22 +6,35 @@ import fr.kovelya.accounting.application.dto.PurchaseInvoiceLineRequest;
 import fr.kovelya.accounting.application.report.AccountBalanceView;
 import fr.kovelya.accounting.application.report.BalanceSheetView;
 import fr.kovelya.accounting.application.report.CustomerReceivableAgingView;
+import fr.kovelya.accounting.application.report.FinancialStatementsView;
 import fr.kovelya.accounting.application.report.IncomeStatementView;
 import fr.kovelya.accounting.application.report.SupplierPayableAgingView;
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.posting.DirectJournalCommitter;
+import fr.kovelya.accounting.application.posting.PostingCoordinator;
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
+import fr.kovelya.accounting.application.projection.StatementCache;
 import fr.kovelya.accounting.application.service.*;
 import fr.kovelya.accounting.application.service.impl.*;
 import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.account.AccountType;
 import fr.kovelya.accounting.domain.customer.Customer;
+import fr.kovelya.accounting.domain.customer.CustomerId;
 import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
 import fr.kovelya.accounting.domain.ledger.JournalTransaction;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.LedgerEntry;
 import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
+import fr.kovelya.accounting.domain.payment.SupplierPaymentId;
 import fr.kovelya.accounting.domain.period.AccountingPeriod;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
 import fr.kovelya.accounting.domain.shared.Money;
 import fr.kovelya.accounting.domain.supplier.Supplier;
+import fr.kovelya.accounting.domain.supplier.SupplierId;
 import fr.kovelya.accounting.domain.tax.TaxCategory;
 import fr.kovelya.accounting.domain.tax.VatRate;
 import fr.kovelya.accounting.infrastructure.persistence.memory.*;
@@ -35,7 +48,7 @@ public class ConsoleApp {
 
     public static void main(String[] args) {
         InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
-        InMemoryLedgerEntryRepository ledgerEntryRepository = new InMemoryLedgerEntryRepository();
+        SegmentedLedgerEntryRepository ledgerEntryRepository = new SegmentedLedgerEntryRepository();
         InMemoryJournalTransactionRepository transactionRepository = new InMemoryJournalTransactionRepository();
         InMemoryAccountingPeriodRepository periodRepository = new InMemoryAccountingPeriodRepository();
         InMemoryCustomerRepository customerRepository = new InMemoryCustomerRepository();
@@ -48,12 +61,20 @@ public class ConsoleApp {
         InMemoryIdempotencyRepository idempotencyRepository = new InMemoryIdempotencyRepository();
         InMemorySupplierAdvanceRepository supplierAdvanceRepository = new InMemorySupplierAdvanceRepository();
         IdempotencyExecutor idempotencyExecutor = new IdempotencyExecutor(idempotencyRepository);
+        InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> salesInvoiceBalances = InvoiceBalanceProjection.rebuildSales(customerPaymentRepository, salesInvoiceRepository);
+        InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> purchaseInvoiceBalances = InvoiceBalanceProjection.rebuildPurchases(supplierPaymentRepository, purchaseInvoiceRepository);
+
+        PostingCoordinator postingCoordinator = new PostingCoordinator();
+        AccountBalanceProjection balanceProjection = AccountBalanceProjection.rebuild(transactionRepository);
 
         AccountingService accountingService = new AccountingServiceImpl(
                 accountRepository,
-                ledgerEntryRepository,
                 transactionRepository,
-                periodRepository
+                periodRepository,
+                balanceProjection,
+                new DirectJournalCommitter(transactionRepository, ledgerEntryRepository, balanceProjection),
+                Metrics.noop(),
+                postingCoordinator
         );
 
         InvoicingService invoicingService = new InvoicingServiceImpl(
@@ -68,16 +89,11 @@ public class ConsoleApp {
                 Currency.getInstance("EUR")
         );
 
-        PeriodClosingService periodClosingService = new PeriodClosingServiceImpl(
-                accountingService,
-                periodRepository,
-                accountRepository
-        );
-
         VatRate vatRate20 = VatRate.ofFraction(new BigDecimal("0.20"));
 
         InvoicePostingService invoicePostingService = new InvoicePostingServiceImpl(
                 salesInvoiceRepository,
+                salesInvoiceBalances,
                 accountRepository,
                 accountingService,
                 transactionRepository,
@@ -92,14 +108,18 @@ public class ConsoleApp {
                 accountRepository,
                 accountingService,
                 customerPaymentRepository,
+                salesInvoiceBalances,
                 customerCreditRepository,
                 "4110",
                 "4191",
-                idempotencyExecutor
+                idempotencyExecutor,
+                Metrics.noop(),
+                postingCoordinator
         );
 
         PurchaseInvoicePostingService purchaseInvoicePostingService = new PurchaseInvoicePostingServiceImpl(
                 purchaseInvoiceRepository,
+                purchaseInvoiceBalances,
                 accountRepository,
                 accountingService,
                 transactionRepository,
@@ -114,24 +134,37 @@ public class ConsoleApp {
                 accountRepository,
                 accountingService,
                 supplierPaymentRepository,
+                purchaseInvoiceBalances,
                 supplierAdvanceRepository,
                 "4010",
                 "4090",
-                idempotencyExecutor
+                idempotencyExecutor,
+                Metrics.noop(),
+                postingCoordinator
         );
 
-        FinancialStatementsService financialStatementsService = new FinancialStatementsServiceImpl(accountingService, transactionRepository);
+        StatementCache statementCache = StatementCache.inMemory(16);
+
+        FinancialStatementsService financialStatementsService = new FinancialStatementsServiceImpl(accountingService, transactionRepository, statementCache);
+
+        PeriodClosingService periodClosingService = new PeriodClosingServiceImpl(
+                accountingService,
+                periodRepository,
+                accountRepository,
+                financialStatementsService,
+                statementCache
+        );
 
-        ReceivablesAgingService receivablesAgingService = new ReceivablesAgingServiceImpl(
+        ReceivablesAgingService receivablesAgingService = ReceivablesAgingServiceImpl.incremental(
                 customerRepository,
                 salesInvoiceRepository,
-                customerPaymentRepository
+                salesInvoiceBalances
         );
 
-        PayablesAgingService payablesAgingService = new PayablesAgingServiceImpl(
+        PayablesAgingService payablesAgingService = PayablesAgingServiceImpl.incremental(
                 supplierRepository,
                 purchaseInvoiceRepository,
-                supplierPaymentRepository
+                purchaseInvoiceBalances
         );
 
         LedgerId ledgerId = new LedgerId(UUID.randomUUID());
@@ -253,7 +286,7 @@ public class ConsoleApp {
         }
 
         System.out.println("Trial balance for " + fy2025.name() + ":");
-        for (AccountBalanceView line : accountingService.getTrialBalance(ledgerId, fy2025)) {
+        for (AccountBalanceView line : financialStatementsService.getTrialBalance(fy2025)) {
             System.out.println(
                     line.accountCode()
                             + " - " + line.accountName()
@@ -261,13 +294,14 @@ public class ConsoleApp {
             );
         }
 
-        IncomeStatementView incomeStatement = financialStatementsService.getIncomeStatement(fy2025);
+        FinancialStatementsView statements = financialStatementsService.getStatements(fy2025);
+        IncomeStatementView incomeStatement = statements.incomeStatement();
         System.out.println("Income statement for " + fy2025.name() + ":");
         System.out.println("Total revenue: " + incomeStatement.totalRevenue());
         System.out.println("Total expenses: " + incomeStatement.totalExpenses());
         System.out.println("Net income: " + incomeStatement.netIncome());
 
-        BalanceSheetView balanceSheet = financialStatementsService.getBalanceSheet(fy2025);
+        BalanceSheetView balanceSheet = statements.balanceSheet();
         System.out.println("Balance sheet for " + fy2025.name() + ":");
         System.out.println("Total assets: " + balanceSheet.totalAssets());
         System.out.println("Total liabilities: " + balanceSheet.totalLiabilities());
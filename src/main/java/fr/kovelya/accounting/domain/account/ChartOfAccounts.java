@@ -0,0 +1,90 @@
+package fr.kovelya.accounting.domain.account;
+
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+public final class ChartOfAccounts {
+
+    private final LedgerId ledgerId;
+    private final TreeMap<String, Account> byCode;
+    private final List<Account> accounts;
+
+    private ChartOfAccounts(LedgerId ledgerId, TreeMap<String, Account> byCode) {
+        this.ledgerId = ledgerId;
+        this.byCode = byCode;
+        this.accounts = Collections.unmodifiableList(new ArrayList<>(byCode.values()));
+    }
+
+    public static ChartOfAccounts empty(LedgerId ledgerId) {
+        if (ledgerId == null) {
+            throw new IllegalArgumentException("Ledger is required");
+        }
+        return new ChartOfAccounts(ledgerId, new TreeMap<>());
+    }
+
+    public static ChartOfAccounts of(LedgerId ledgerId, List<Account> accounts) {
+        if (ledgerId == null) {
+            throw new IllegalArgumentException("Ledger is required");
+        }
+        TreeMap<String, Account> byCode = new TreeMap<>();
+        Map<AccountId, String> codes = new HashMap<>();
+        for (Account account : accounts) {
+            requireAssignable(ledgerId, byCode, account);
+            String previousCode = codes.put(account.id(), account.code());
+            if (previousCode != null) {
+                byCode.remove(previousCode);
+            }
+            byCode.put(account.code(), account);
+        }
+        return new ChartOfAccounts(ledgerId, byCode);
+    }
+
+    public ChartOfAccounts with(Account account) {
+        requireAssignable(ledgerId, byCode, account);
+        TreeMap<String, Account> updated = new TreeMap<>(byCode);
+        updated.values().removeIf(a -> a.id().equals(account.id()));
+        updated.put(account.code(), account);
+        return new ChartOfAccounts(ledgerId, updated);
+    }
+
+    public ChartOfAccounts without(AccountId accountId) {
+        TreeMap<String, Account> updated = new TreeMap<>(byCode);
+        if (!updated.values().removeIf(a -> a.id().equals(accountId))) {
+            return this;
+        }
+        return new ChartOfAccounts(ledgerId, updated);
+    }
+
+    public Optional<Account> findByCode(String code) {
+        return Optional.ofNullable(byCode.get(code));
+    }
+
+    public LedgerId ledgerId() {
+        return ledgerId;
+    }
+
+    public List<Account> accounts() {
+        return accounts;
+    }
+
+    public int size() {
+        return byCode.size();
+    }
+
+    private static void requireAssignable(LedgerId ledgerId, TreeMap<String, Account> byCode, Account account) {
+        if (!ledgerId.equals(account.ledgerId())) {
+            throw new IllegalArgumentException("Account belongs to another ledger");
+        }
+        Account existing = byCode.get(account.code());
+        if (existing != null && !existing.id().equals(account.id())) {
+            throw new IllegalArgumentException("Account code already used in ledger: " + account.code());
+        }
+    }
+}
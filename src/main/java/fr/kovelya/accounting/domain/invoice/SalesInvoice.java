@@ -2,9 +2,11 @@ package fr.kovelya.accounting.domain.invoice;
 
 import fr.kovelya.accounting.domain.customer.CustomerId;
 import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.shared.MinorUnitMoney;
 import fr.kovelya.accounting.domain.shared.Money;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 public final class SalesInvoice {
@@ -17,8 +19,13 @@ public final class SalesInvoice {
     private final LocalDate dueDate;
     private final List<InvoiceLine> lines;
     private final InvoiceStatus status;
+    private final long version;
 
     public SalesInvoice(SalesInvoiceId id, LedgerId ledgerId, String number, CustomerId customerId, LocalDate issueDate, LocalDate dueDate, List<InvoiceLine> lines, InvoiceStatus status) {
+        this(id, ledgerId, number, customerId, issueDate, dueDate, lines, status, 0L);
+    }
+
+    public SalesInvoice(SalesInvoiceId id, LedgerId ledgerId, String number, CustomerId customerId, LocalDate issueDate, LocalDate dueDate, List<InvoiceLine> lines, InvoiceStatus status, long version) {
         if(ledgerId == null) {
             throw new IllegalArgumentException("Ledger is required");
         }
@@ -45,6 +52,7 @@ public final class SalesInvoice {
         this.dueDate = dueDate;
         this.lines = List.copyOf(lines);
         this.status = status;
+        this.version = version;
     }
 
     public static SalesInvoice draft(LedgerId ledgerId, String number, CustomerId customerId, LocalDate issueDate, LocalDate dueDate, List<InvoiceLine> lines) {
@@ -55,28 +63,28 @@ public final class SalesInvoice {
         if (status != InvoiceStatus.DRAFT) {
             throw new IllegalStateException("Only draft invoices can be issued");
         }
-        return new SalesInvoice(id, ledgerId, number, customerId, issueDate, dueDate, lines, InvoiceStatus.ISSUED);
+        return new SalesInvoice(id, ledgerId, number, customerId, issueDate, dueDate, lines, InvoiceStatus.ISSUED, version);
     }
 
     public SalesInvoice markPaid() {
         if (status != InvoiceStatus.ISSUED && status != InvoiceStatus.PARTIALLY_PAID) {
             throw new IllegalStateException("Only issued or partially paid invoices can be marked as paid");
         }
-        return new SalesInvoice(id, ledgerId, number, customerId, issueDate, dueDate, lines, InvoiceStatus.PAID);
+        return new SalesInvoice(id, ledgerId, number, customerId, issueDate, dueDate, lines, InvoiceStatus.PAID, version);
     }
 
     public SalesInvoice markPartiallyPaid() {
         if (status != InvoiceStatus.ISSUED && status != InvoiceStatus.PARTIALLY_PAID) {
             throw new IllegalStateException("Only issued invoices can become partially paid");
         }
-        return new SalesInvoice(id, ledgerId, number, customerId, issueDate, dueDate, lines, InvoiceStatus.PARTIALLY_PAID);
+        return new SalesInvoice(id, ledgerId, number, customerId, issueDate, dueDate, lines, InvoiceStatus.PARTIALLY_PAID, version);
     }
 
     public SalesInvoice cancel() {
         if (status != InvoiceStatus.DRAFT) {
             throw new IllegalStateException("Only draft invoices can be cancelled; use a credit not for issued invoices");
         }
-        return new SalesInvoice(id, ledgerId, number, customerId, issueDate, dueDate, lines, InvoiceStatus.CANCELLED);
+        return new SalesInvoice(id, ledgerId, number, customerId, issueDate, dueDate, lines, InvoiceStatus.CANCELLED, version);
     }
 
 
@@ -112,11 +120,19 @@ public final class SalesInvoice {
         return status;
     }
 
+    public long version() {
+        return version;
+    }
+
+    public SalesInvoice withVersion(long version) {
+        return new SalesInvoice(id, ledgerId, number, customerId, issueDate, dueDate, lines, status, version);
+    }
+
     public Money total() {
-        Money result = lines.get(0).amount();
-        for (int i = 1; i < lines.size(); i++) {
-            result = result.add(lines.get(i).amount());
+        List<Money> amounts = new ArrayList<>(lines.size());
+        for (InvoiceLine line : lines) {
+            amounts.add(line.amount());
         }
-        return result;
+        return MinorUnitMoney.sum(amounts);
     }
 }
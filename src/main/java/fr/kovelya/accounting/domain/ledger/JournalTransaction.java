@@ -5,7 +5,6 @@ import fr.kovelya.accounting.domain.period.AccountingPeriodId;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.Currency;
 import java.util.List;
 import java.util.Objects;
@@ -77,6 +76,19 @@ public final class JournalTransaction {
         );
     }
 
+    public static JournalTransaction restore(TransactionId id, JournalType journalType, String reference, String description, Instant timestamp, LocalDate transactionDate, AccountingPeriodId periodId, List<LedgerEntry> entries) {
+        if (id == null) {
+            throw new IllegalArgumentException("Transaction id is required");
+        }
+        if (journalType == null) {
+            throw new IllegalArgumentException("Journal type is required");
+        }
+        if (entries == null || entries.size() < 2) {
+            throw new IllegalArgumentException("Transaction must have at least two entries");
+        }
+        return new JournalTransaction(id, journalType, reference, description, timestamp, transactionDate, periodId, List.copyOf(entries));
+    }
+
     public TransactionId id() {
         return id;
     }
@@ -106,7 +118,7 @@ public final class JournalTransaction {
     }
 
     public List<LedgerEntry> entries() {
-        return new ArrayList<>(entries);
+        return entries;
     }
 
     @Override
@@ -34,6 +34,13 @@ public final class LedgerEntry {
         return new LedgerEntry(id, accountId, amount, direction, description, timestamp);
     }
 
+    public static LedgerEntry restore(String id, AccountId accountId, Money amount, Direction direction, String description, Instant timestamp) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("Entry id is required");
+        }
+        return new LedgerEntry(id, accountId, amount, direction, description, timestamp);
+    }
+
     public String id() {
         return id;
     }
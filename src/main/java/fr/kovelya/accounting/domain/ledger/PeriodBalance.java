@@ -0,0 +1,21 @@
+package fr.kovelya.accounting.domain.ledger;
+
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+
+import java.math.BigDecimal;
+
+public record PeriodBalance(AccountId accountId, AccountingPeriodId periodId, BigDecimal debit, BigDecimal credit) {
+
+    public PeriodBalance {
+        if (accountId == null) {
+            throw new IllegalArgumentException("Account is required");
+        }
+        if (periodId == null) {
+            throw new IllegalArgumentException("Period is required");
+        }
+        if (debit == null || credit == null) {
+            throw new IllegalArgumentException("Debit and credit totals are required");
+        }
+    }
+}
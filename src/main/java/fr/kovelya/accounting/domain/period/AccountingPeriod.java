@@ -68,6 +68,10 @@ public final class AccountingPeriod {
         return new AccountingPeriod(id, ledgerId, name, startDate, endDate, PeriodStatus.CLOSED);
     }
 
+    public AccountingPeriod reopen() {
+        return new AccountingPeriod(id, ledgerId, name, startDate, endDate, PeriodStatus.OPEN);
+    }
+
     public AccountingPeriod archive() {
         return new AccountingPeriod(id, ledgerId, name, startDate, endDate, PeriodStatus.ARCHIVED);
     }
@@ -1,10 +1,12 @@
 package fr.kovelya.accounting.domain.purchase;
 
 import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.shared.MinorUnitMoney;
 import fr.kovelya.accounting.domain.shared.Money;
 import fr.kovelya.accounting.domain.supplier.SupplierId;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -19,6 +21,7 @@ public final class PurchaseInvoice {
     private final LocalDate dueDate;
     private final List<PurchaseInvoiceLine> lines;
     private final PurchaseInvoiceStatus status;
+    private final long version;
 
     public PurchaseInvoice(
             PurchaseInvoiceId id,
@@ -29,6 +32,20 @@ public final class PurchaseInvoice {
             LocalDate dueDate,
             List<PurchaseInvoiceLine> lines,
             PurchaseInvoiceStatus status
+    ) {
+        this(id, ledgerId, number, supplierId, issueDate, dueDate, lines, status, 0L);
+    }
+
+    public PurchaseInvoice(
+            PurchaseInvoiceId id,
+            LedgerId ledgerId,
+            String number,
+            SupplierId supplierId,
+            LocalDate issueDate,
+            LocalDate dueDate,
+            List<PurchaseInvoiceLine> lines,
+            PurchaseInvoiceStatus status,
+            long version
     ) {
         this.id = Objects.requireNonNull(id);
         if (ledgerId == null) {
@@ -44,6 +61,7 @@ public final class PurchaseInvoice {
         this.dueDate = Objects.requireNonNull(dueDate);
         this.lines = List.copyOf(lines);
         this.status = Objects.requireNonNull(status);
+        this.version = version;
     }
 
     public static PurchaseInvoice draft(
@@ -67,21 +85,21 @@ public final class PurchaseInvoice {
         if (status != PurchaseInvoiceStatus.DRAFT) {
             throw new IllegalStateException("Only draft purchase invoices can be issued");
         }
-        return new PurchaseInvoice(id, ledgerId, number, supplierId, issueDate, dueDate, lines, PurchaseInvoiceStatus.ISSUED);
+        return new PurchaseInvoice(id, ledgerId, number, supplierId, issueDate, dueDate, lines, PurchaseInvoiceStatus.ISSUED, version);
     }
 
     public PurchaseInvoice markPaid() {
         if (status != PurchaseInvoiceStatus.ISSUED && status != PurchaseInvoiceStatus.PARTIALLY_PAID) {
             throw new IllegalStateException("Only issued or partially paid purchase invoices can be marked as paid");
         }
-        return new PurchaseInvoice(id, ledgerId, number, supplierId, issueDate, dueDate, lines, PurchaseInvoiceStatus.PAID);
+        return new PurchaseInvoice(id, ledgerId, number, supplierId, issueDate, dueDate, lines, PurchaseInvoiceStatus.PAID, version);
     }
 
     public PurchaseInvoice markPartiallyPaid() {
         if (status != PurchaseInvoiceStatus.ISSUED && status != PurchaseInvoiceStatus.PARTIALLY_PAID) {
             throw new IllegalStateException("Only issued purchase invoices can become partially paid");
         }
-        return new PurchaseInvoice(id, ledgerId, number, supplierId, issueDate, dueDate, lines, PurchaseInvoiceStatus.PARTIALLY_PAID);
+        return new PurchaseInvoice(id, ledgerId, number, supplierId, issueDate, dueDate, lines, PurchaseInvoiceStatus.PARTIALLY_PAID, version);
     }
 
     public PurchaseInvoice cancel() {
@@ -91,7 +109,7 @@ public final class PurchaseInvoice {
         if (status != PurchaseInvoiceStatus.DRAFT) {
             throw new IllegalArgumentException("Only draft purchase invoices can be cancelled");
         }
-        return new PurchaseInvoice(id, ledgerId, number, supplierId, issueDate, dueDate, lines, PurchaseInvoiceStatus.CANCELLED);
+        return new PurchaseInvoice(id, ledgerId, number, supplierId, issueDate, dueDate, lines, PurchaseInvoiceStatus.CANCELLED, version);
     }
 
     public PurchaseInvoiceId id() {
@@ -126,18 +144,22 @@ public final class PurchaseInvoice {
         return status;
     }
 
+    public long version() {
+        return version;
+    }
+
+    public PurchaseInvoice withVersion(long version) {
+        return new PurchaseInvoice(id, ledgerId, number, supplierId, issueDate, dueDate, lines, status, version);
+    }
+
     public Money total() {
-        Money total = null;
-        for (PurchaseInvoiceLine line : lines) {
-            if (total == null) {
-                total = line.amount();
-            } else {
-                total = total.add(line.amount());
-            }
-        }
-        if (total == null) {
+        if (lines.isEmpty()) {
             throw new IllegalStateException("Invoice has no lines");
         }
-        return total;
+        List<Money> amounts = new ArrayList<>(lines.size());
+        for (PurchaseInvoiceLine line : lines) {
+            amounts.add(line.amount());
+        }
+        return MinorUnitMoney.sum(amounts);
     }
 }
@@ -2,6 +2,8 @@ package fr.kovelya.accounting.domain.repository;
 
 import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.account.ChartOfAccounts;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,5 +16,9 @@ public interface AccountRepository {
 
     Optional<Account> findByCode(String code);
 
+    Optional<Account> findByCode(LedgerId ledgerId, String code);
+
+    ChartOfAccounts chartOf(LedgerId ledgerId);
+
     List<Account> findAll();
 }
@@ -0,0 +1,25 @@
+package fr.kovelya.accounting.domain.repository;
+
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+
+public final class DuplicateAccountCodeException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LedgerId ledgerId;
+    private final String code;
+
+    public DuplicateAccountCodeException(LedgerId ledgerId, String code) {
+        super("Ledger " + ledgerId + " already contains account code " + code);
+        this.ledgerId = ledgerId;
+        this.code = code;
+    }
+
+    public LedgerId ledgerId() {
+        return ledgerId;
+    }
+
+    public String code() {
+        return code;
+    }
+}
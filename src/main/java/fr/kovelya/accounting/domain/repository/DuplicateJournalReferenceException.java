@@ -0,0 +1,25 @@
+package fr.kovelya.accounting.domain.repository;
+
+import fr.kovelya.accounting.domain.ledger.JournalType;
+
+public final class DuplicateJournalReferenceException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final JournalType journalType;
+    private final String reference;
+
+    public DuplicateJournalReferenceException(JournalType journalType, String reference) {
+        super("Journal " + journalType + " already contains reference " + reference);
+        this.journalType = journalType;
+        this.reference = reference;
+    }
+
+    public JournalType journalType() {
+        return journalType;
+    }
+
+    public String reference() {
+        return reference;
+    }
+}
@@ -6,14 +6,24 @@ import java.util.UUID;
 
 public final class IdempotencyRecord {
 
+    public enum Status {
+        IN_FLIGHT, DONE
+    }
+
     private final UUID commandId;
     private final Instant createdAt;
     private final String resultRef;
+    private final Status status;
 
     public IdempotencyRecord(UUID commandId, Instant createdAt, String resultRef) {
+        this(commandId, createdAt, resultRef, Status.DONE);
+    }
+
+    public IdempotencyRecord(UUID commandId, Instant createdAt, String resultRef, Status status) {
         this.commandId = Objects.requireNonNull(commandId);
         this.createdAt = Objects.requireNonNull(createdAt);
         this.resultRef = resultRef;
+        this.status = Objects.requireNonNull(status);
     }
 
     public UUID commandId() {
@@ -28,8 +38,19 @@ public final class IdempotencyRecord {
         return resultRef;
     }
 
+    public Status status() {
+        return status;
+    }
+
+    public boolean isDone() {
+        return status == Status.DONE;
+    }
+
     public static IdempotencyRecord done(UUID commandId, String resultRef) {
         return new IdempotencyRecord(commandId, Instant.now(), resultRef);
     }
-}
 
+    public static IdempotencyRecord inFlight(UUID commandId, Instant claimedAt) {
+        return new IdempotencyRecord(commandId, claimedAt, null, Status.IN_FLIGHT);
+    }
+}
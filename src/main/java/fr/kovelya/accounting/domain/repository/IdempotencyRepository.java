@@ -8,4 +8,8 @@ public interface IdempotencyRepository {
     Optional<IdempotencyRecord> find(UUID commandId);
     void save(IdempotencyRecord record);
 
+    boolean claim(UUID commandId);
+    void complete(UUID commandId, String resultRef);
+    void release(UUID commandId);
+
 }
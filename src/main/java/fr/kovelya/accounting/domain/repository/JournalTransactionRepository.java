@@ -3,8 +3,10 @@ package fr.kovelya.accounting.domain.repository;
 import fr.kovelya.accounting.domain.ledger.JournalTransaction;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.TransactionId;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +14,14 @@ public interface JournalTransactionRepository {
 
     JournalTransaction save(JournalTransaction transaction);
 
+    default List<JournalTransaction> saveAll(List<JournalTransaction> transactions) {
+        List<JournalTransaction> saved = new ArrayList<>(transactions.size());
+        for (JournalTransaction transaction : transactions) {
+            saved.add(save(transaction));
+        }
+        return saved;
+    }
+
     Optional<JournalTransaction> findById(TransactionId id);
 
     Optional<JournalTransaction> findByJournalAndReference(JournalType journalType, String reference);
@@ -20,6 +30,16 @@ public interface JournalTransactionRepository {
 
     List<JournalTransaction> findByPeriod(Instant from, Instant to);
 
+    default List<JournalTransaction> findByPeriodId(AccountingPeriodId periodId) {
+        List<JournalTransaction> result = new ArrayList<>();
+        for (JournalTransaction transaction : findAll()) {
+            if (transaction.getPeriodId().equals(periodId)) {
+                result.add(transaction);
+            }
+        }
+        return result;
+    }
+
     List<JournalTransaction> findByJournal(JournalType journalType);
 
     List<JournalTransaction> findByJournalAndPeriod(JournalType journalType, Instant from, Instant to);
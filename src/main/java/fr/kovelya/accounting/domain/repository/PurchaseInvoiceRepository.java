@@ -12,6 +12,8 @@ public interface PurchaseInvoiceRepository {
 
     PurchaseInvoice save(PurchaseInvoice invoice);
 
+    PurchaseInvoice compareAndSave(PurchaseInvoice invoice);
+
     Optional<PurchaseInvoiceId> findIdByNumber(String number);
 
     Optional<PurchaseInvoice> findById(PurchaseInvoiceId id);
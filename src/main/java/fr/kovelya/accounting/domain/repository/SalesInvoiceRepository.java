@@ -12,6 +12,8 @@ import java.util.Optional;
 public interface SalesInvoiceRepository {
     SalesInvoice save(SalesInvoice invoice);
 
+    SalesInvoice compareAndSave(SalesInvoice invoice);
+
     Optional<SalesInvoice> findById(SalesInvoiceId id);
 
     Optional<SalesInvoice> findByNumber(String number);
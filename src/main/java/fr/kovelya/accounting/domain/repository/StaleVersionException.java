@@ -0,0 +1,29 @@
+package fr.kovelya.accounting.domain.repository;
+
+public final class StaleVersionException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String aggregateId;
+    private final long expectedVersion;
+    private final long actualVersion;
+
+    public StaleVersionException(String aggregateId, long expectedVersion, long actualVersion) {
+        super("Aggregate " + aggregateId + " is at version " + actualVersion + ", expected " + expectedVersion);
+        this.aggregateId = aggregateId;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public String aggregateId() {
+        return aggregateId;
+    }
+
+    public long expectedVersion() {
+        return expectedVersion;
+    }
+
+    public long actualVersion() {
+        return actualVersion;
+    }
+}
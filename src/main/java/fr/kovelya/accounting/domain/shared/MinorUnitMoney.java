@@ -0,0 +1,143 @@
+package fr.kovelya.accounting.domain.shared;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import java.util.Objects;
+
+public final class MinorUnitMoney implements Comparable<MinorUnitMoney> {
+
+    private final long units;
+    private final Currency currency;
+
+    private MinorUnitMoney(long units, Currency currency) {
+        this.units = units;
+        this.currency = Objects.requireNonNull(currency);
+    }
+
+    public static MinorUnitMoney ofMinor(long units, Currency currency) {
+        fractionDigits(currency);
+        return new MinorUnitMoney(units, currency);
+    }
+
+    public static MinorUnitMoney zero(Currency currency) {
+        return ofMinor(0L, currency);
+    }
+
+    public static MinorUnitMoney from(Money money) {
+        int digits = fractionDigits(money.currency());
+        BigDecimal amount = money.amount();
+        if (amount.scale() > digits) {
+            throw new ArithmeticException("Amount " + money + " has more decimals than " + money.currency().getCurrencyCode() + " allows");
+        }
+        return new MinorUnitMoney(amount.movePointRight(digits).longValueExact(), money.currency());
+    }
+
+    public static boolean isRepresentable(Money money) {
+        int digits = money.currency().getDefaultFractionDigits();
+        if (digits < 0 || money.amount().scale() > digits) {
+            return false;
+        }
+        return money.amount().precision() - money.amount().scale() + digits < 19
+                || money.amount().movePointRight(digits).abs().compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0;
+    }
+
+    public static Money sum(List<Money> amounts) {
+        if (amounts.isEmpty()) {
+            throw new IllegalArgumentException("At least one amount is required");
+        }
+        Money first = amounts.get(0);
+        if (amounts.size() == 1) {
+            return first;
+        }
+        Currency currency = first.currency();
+        long units = 0L;
+        for (Money amount : amounts) {
+            if (!amount.currency().equals(currency) || !isRepresentable(amount)) {
+                return sumExact(amounts);
+            }
+            long addend = amount.amount().movePointRight(currency.getDefaultFractionDigits()).longValueExact();
+            long next = units + addend;
+            if (((units ^ next) & (addend ^ next)) < 0) {
+                return sumExact(amounts);
+            }
+            units = next;
+        }
+        return ofMinor(units, currency).toMoney();
+    }
+
+    private static Money sumExact(List<Money> amounts) {
+        Money total = amounts.get(0);
+        for (int i = 1; i < amounts.size(); i++) {
+            total = total.add(amounts.get(i));
+        }
+        return total;
+    }
+
+    public long units() {
+        return units;
+    }
+
+    public Currency currency() {
+        return currency;
+    }
+
+    public MinorUnitMoney add(MinorUnitMoney other) {
+        requireSameCurrency(other);
+        return new MinorUnitMoney(Math.addExact(units, other.units), currency);
+    }
+
+    public MinorUnitMoney subtract(MinorUnitMoney other) {
+        requireSameCurrency(other);
+        return new MinorUnitMoney(Math.subtractExact(units, other.units), currency);
+    }
+
+    public MinorUnitMoney negate() {
+        return new MinorUnitMoney(Math.negateExact(units), currency);
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    public Money toMoney() {
+        return Money.of(BigDecimal.valueOf(units, currency.getDefaultFractionDigits()), currency);
+    }
+
+    @Override
+    public int compareTo(MinorUnitMoney other) {
+        requireSameCurrency(other);
+        return Long.compare(units, other.units);
+    }
+
+    private void requireSameCurrency(MinorUnitMoney other) {
+        if (!this.currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch");
+        }
+    }
+
+    private static int fractionDigits(Currency currency) {
+        int digits = currency.getDefaultFractionDigits();
+        if (digits < 0) {
+            throw new ArithmeticException("Currency " + currency.getCurrencyCode() + " has no minor unit");
+        }
+        return digits;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MinorUnitMoney that)) return false;
+        return units == that.units && Objects.equals(currency, that.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(units, currency);
+    }
+
+    @Override
+    public String toString() {
+        return BigDecimal.valueOf(units, currency.getDefaultFractionDigits()).toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
@@ -0,0 +1,47 @@
+package fr.kovelya.accounting.infrastructure.persistence.file;
+
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.PeriodBalance;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class BalanceAccumulator {
+
+    private final Map<AccountingPeriodId, Map<AccountId, BigDecimal[]>> buckets = new LinkedHashMap<>();
+
+    void add(JournalTransaction transaction) {
+        Map<AccountId, BigDecimal[]> bucket = buckets.computeIfAbsent(transaction.getPeriodId(), id -> new LinkedHashMap<>());
+        for (LedgerEntry entry : transaction.entries()) {
+            BigDecimal[] totals = bucket.computeIfAbsent(entry.accountId(), id -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            int side = entry.direction() == LedgerEntry.Direction.DEBIT ? 0 : 1;
+            totals[side] = totals[side].add(entry.amount().amount());
+        }
+    }
+
+    void addAll(Collection<PeriodBalance> balances) {
+        for (PeriodBalance balance : balances) {
+            BigDecimal[] totals = buckets.computeIfAbsent(balance.periodId(), id -> new LinkedHashMap<>())
+                    .computeIfAbsent(balance.accountId(), id -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            totals[0] = totals[0].add(balance.debit());
+            totals[1] = totals[1].add(balance.credit());
+        }
+    }
+
+    List<PeriodBalance> balances() {
+        List<PeriodBalance> result = new ArrayList<>();
+        for (Map.Entry<AccountingPeriodId, Map<AccountId, BigDecimal[]>> bucket : buckets.entrySet()) {
+            for (Map.Entry<AccountId, BigDecimal[]> totals : bucket.getValue().entrySet()) {
+                result.add(new PeriodBalance(totals.getKey(), bucket.getKey(), totals.getValue()[0], totals.getValue()[1]));
+            }
+        }
+        return result;
+    }
+}
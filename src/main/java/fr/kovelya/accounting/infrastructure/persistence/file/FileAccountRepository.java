@@ -0,0 +1,63 @@
+package fr.kovelya.accounting.infrastructure.persistence.file;
+
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.account.ChartOfAccounts;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.repository.AccountRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public final class FileAccountRepository implements AccountRepository {
+
+    private final RecordLog log;
+    private final InMemoryAccountRepository index;
+    private final Object lock;
+
+    FileAccountRepository(RecordLog log, InMemoryAccountRepository index, Object lock) {
+        this.log = log;
+        this.index = index;
+        this.lock = lock;
+    }
+
+    @Override
+    public Account save(Account account) {
+        byte[] payload = JournalRecordCodec.encode(account);
+        long position;
+        synchronized (lock) {
+            log.requireWritable();
+            index.requireUniqueCode(account);
+            position = log.write(JournalRecordCodec.ACCOUNT, payload);
+            index.save(account);
+        }
+        log.awaitDurable(position);
+        return account;
+    }
+
+    @Override
+    public Optional<Account> findById(AccountId id) {
+        return index.findById(id);
+    }
+
+    @Override
+    public Optional<Account> findByCode(String code) {
+        return index.findByCode(code);
+    }
+
+    @Override
+    public Optional<Account> findByCode(LedgerId ledgerId, String code) {
+        return index.findByCode(ledgerId, code);
+    }
+
+    @Override
+    public ChartOfAccounts chartOf(LedgerId ledgerId) {
+        return index.chartOf(ledgerId);
+    }
+
+    @Override
+    public List<Account> findAll() {
+        return index.findAll();
+    }
+}
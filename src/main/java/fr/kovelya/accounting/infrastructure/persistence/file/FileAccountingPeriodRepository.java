@@ -0,0 +1,56 @@
+package fr.kovelya.accounting.infrastructure.persistence.file;
+
+import fr.kovelya.accounting.domain.period.AccountingPeriod;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+import fr.kovelya.accounting.domain.period.PeriodStatus;
+import fr.kovelya.accounting.domain.repository.AccountingPeriodRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountingPeriodRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public final class FileAccountingPeriodRepository implements AccountingPeriodRepository {
+
+    private final RecordLog log;
+    private final InMemoryAccountingPeriodRepository index;
+    private final Object lock;
+
+    FileAccountingPeriodRepository(RecordLog log, InMemoryAccountingPeriodRepository index, Object lock) {
+        this.log = log;
+        this.index = index;
+        this.lock = lock;
+    }
+
+    @Override
+    public AccountingPeriod save(AccountingPeriod period) {
+        byte[] payload = JournalRecordCodec.encode(period);
+        long position;
+        synchronized (lock) {
+            position = log.write(JournalRecordCodec.PERIOD, payload);
+            index.save(period);
+        }
+        log.awaitDurable(position);
+        return period;
+    }
+
+    @Override
+    public Optional<AccountingPeriod> findById(AccountingPeriodId id) {
+        return index.findById(id);
+    }
+
+    @Override
+    public List<AccountingPeriod> findAll() {
+        return index.findAll();
+    }
+
+    @Override
+    public List<AccountingPeriod> findByStatus(PeriodStatus status) {
+        return index.findByStatus(status);
+    }
+
+    @Override
+    public Optional<AccountingPeriod> findByDate(LocalDate date) {
+        return index.findByDate(date);
+    }
+}
@@ -0,0 +1,186 @@
+package fr.kovelya.accounting.infrastructure.persistence.file;
+
+import fr.kovelya.accounting.domain.repository.IdempotencyRecord;
+import fr.kovelya.accounting.domain.repository.IdempotencyRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryIdempotencyRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public final class FileIdempotencyRepository implements IdempotencyRepository, Closeable {
+
+    static final byte DONE = 1;
+
+    private final Path path;
+    private final FsyncPolicy policy;
+    private final InMemoryIdempotencyRepository index;
+
+    private RecordLog log;
+
+    private FileIdempotencyRepository(Path path, FsyncPolicy policy, InMemoryIdempotencyRepository index, RecordLog log) {
+        this.path = path;
+        this.policy = policy;
+        this.index = index;
+        this.log = log;
+    }
+
+    public static FileIdempotencyRepository open(Path path, FsyncPolicy policy) {
+        return open(path, policy, new InMemoryIdempotencyRepository());
+    }
+
+    public static FileIdempotencyRepository open(Path path, FsyncPolicy policy, Duration ttl, int maxEntries, Clock clock) {
+        return open(path, policy, new InMemoryIdempotencyRepository(ttl, maxEntries, clock));
+    }
+
+    private static FileIdempotencyRepository open(Path path, FsyncPolicy policy, InMemoryIdempotencyRepository index) {
+        int[] replayed = new int[1];
+        RecordLog log = RecordLog.open(path, policy, (type, payload) -> {
+            if (type != DONE) {
+                throw new IllegalStateException("Unknown idempotency record type " + type + " in " + path);
+            }
+            IdempotencyRecord record = decode(payload);
+            if (!index.isExpired(record, index.clock().instant())) {
+                index.save(record);
+            }
+            replayed[0]++;
+        });
+
+        FileIdempotencyRepository repository = new FileIdempotencyRepository(path, policy, index, log);
+        if (replayed[0] > 2 * index.size() + 1024) {
+            repository.compact();
+        }
+        return repository;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(UUID commandId) {
+        return index.find(commandId);
+    }
+
+    @Override
+    public void save(IdempotencyRecord record) {
+        if (record.isDone()) {
+            append(record);
+        }
+        index.save(record);
+    }
+
+    @Override
+    public boolean claim(UUID commandId) {
+        return index.claim(commandId);
+    }
+
+    @Override
+    public void complete(UUID commandId, String resultRef) {
+        IdempotencyRecord record = new IdempotencyRecord(commandId, index.clock().instant(), resultRef, IdempotencyRecord.Status.DONE);
+        append(record);
+        index.save(record);
+    }
+
+    @Override
+    public void release(UUID commandId) {
+        index.release(commandId);
+    }
+
+    public InMemoryIdempotencyRepository index() {
+        return index;
+    }
+
+    public synchronized void compact() {
+        Map<UUID, IdempotencyRecord> live = new LinkedHashMap<>();
+        Instant now = index.clock().instant();
+        log.sync();
+        RecordLog.open(path, FsyncPolicy.osManaged(), (type, payload) -> {
+            IdempotencyRecord record = decode(payload);
+            if (index.isExpired(record, now)) {
+                live.remove(record.commandId());
+            } else {
+                live.put(record.commandId(), record);
+            }
+        }).close();
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            Files.deleteIfExists(compacted);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact idempotency log " + path, e);
+        }
+        try (RecordLog target = RecordLog.open(compacted, FsyncPolicy.osManaged(), (type, payload) -> {
+        })) {
+            List<byte[]> payloads = new ArrayList<>(live.size());
+            for (IdempotencyRecord record : live.values()) {
+                payloads.add(encode(record));
+            }
+            if (!payloads.isEmpty()) {
+                target.writeAll(DONE, payloads);
+            }
+        }
+
+        log.close();
+        try {
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact idempotency log " + path, e);
+        } finally {
+            log = RecordLog.open(path, policy, (type, payload) -> {
+            });
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        log.close();
+        index.close();
+    }
+
+    private void append(IdempotencyRecord record) {
+        byte[] payload = encode(record);
+        RecordLog target;
+        long position;
+        synchronized (this) {
+            target = log;
+            position = target.write(DONE, payload);
+        }
+        target.awaitDurable(position);
+    }
+
+    private static byte[] encode(IdempotencyRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(record.commandId().getMostSignificantBits());
+            out.writeLong(record.commandId().getLeastSignificantBits());
+            JournalRecordCodec.writeInstant(out, record.createdAt());
+            JournalRecordCodec.writeNullable(out, record.resultRef());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static IdempotencyRecord decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            UUID commandId = new UUID(in.readLong(), in.readLong());
+            Instant createdAt = JournalRecordCodec.readInstant(in);
+            return new IdempotencyRecord(commandId, createdAt, JournalRecordCodec.readNullable(in), IdempotencyRecord.Status.DONE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package fr.kovelya.accounting.infrastructure.persistence.file;
+
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.PeriodBalance;
+import fr.kovelya.accounting.domain.period.AccountingPeriod;
+import fr.kovelya.accounting.domain.repository.AccountRepository;
+import fr.kovelya.accounting.domain.repository.AccountingPeriodRepository;
+import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
+import fr.kovelya.accounting.domain.repository.LedgerEntryRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountingPeriodRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryJournalTransactionRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.SegmentedLedgerEntryRepository;
+
+import java.io.Closeable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class FileJournalStore implements Closeable {
+
+    private final RecordLog log;
+    private final Object lock = new Object();
+    private final InMemoryJournalTransactionRepository transactions;
+    private final InMemoryAccountRepository accounts;
+    private final InMemoryAccountingPeriodRepository periods;
+    private final FileJournalTransactionRepository transactionRepository;
+    private final FileAccountRepository accountRepository;
+    private final FileAccountingPeriodRepository periodRepository;
+    private final SegmentedLedgerEntryRepository ledgerEntryRepository;
+    private final List<PeriodBalance> recoveredBalances;
+
+    private FileJournalStore(RecordLog log, InMemoryJournalTransactionRepository transactions, SegmentedLedgerEntryRepository entries, InMemoryAccountRepository accounts, InMemoryAccountingPeriodRepository periods, List<PeriodBalance> recoveredBalances) {
+        this.log = log;
+        this.transactions = transactions;
+        this.accounts = accounts;
+        this.periods = periods;
+        this.transactionRepository = new FileJournalTransactionRepository(log, transactions, lock);
+        this.accountRepository = new FileAccountRepository(log, accounts, lock);
+        this.periodRepository = new FileAccountingPeriodRepository(log, periods, lock);
+        this.ledgerEntryRepository = entries;
+        this.recoveredBalances = List.copyOf(recoveredBalances);
+    }
+
+    public static FileJournalStore open(Path path, FsyncPolicy policy) {
+        return open(path, null, policy);
+    }
+
+    public static FileJournalStore open(Path path, Path snapshot, FsyncPolicy policy) {
+        InMemoryJournalTransactionRepository transactions = new InMemoryJournalTransactionRepository();
+        SegmentedLedgerEntryRepository entries = new SegmentedLedgerEntryRepository();
+        InMemoryAccountRepository accounts = new InMemoryAccountRepository();
+        InMemoryAccountingPeriodRepository periods = new InMemoryAccountingPeriodRepository();
+        BalanceAccumulator balances = new BalanceAccumulator();
+
+        List<Account> recoveredAccounts = new ArrayList<>();
+
+        long replayFrom = RecordLog.HEADER_SIZE;
+        if (snapshot != null && Files.exists(snapshot)) {
+            LedgerSnapshot loaded = LedgerSnapshot.read(snapshot);
+            recoveredAccounts.addAll(loaded.accounts());
+            for (AccountingPeriod period : loaded.periods()) {
+                periods.save(period);
+            }
+            for (JournalTransaction transaction : loaded.transactions()) {
+                transactions.save(transaction);
+                for (LedgerEntry entry : transaction.entries()) {
+                    entries.save(entry);
+                }
+            }
+            balances.addAll(loaded.balances());
+            replayFrom = loaded.logPosition();
+        }
+
+        RecordLog log = RecordLog.open(path, policy, replayFrom, (type, payload) -> {
+            switch (type) {
+                case JournalRecordCodec.TRANSACTION -> {
+                    JournalTransaction transaction = JournalRecordCodec.decode(payload);
+                    transactions.save(transaction);
+                    for (LedgerEntry entry : transaction.entries()) {
+                        entries.save(entry);
+                    }
+                    balances.add(transaction);
+                }
+                case JournalRecordCodec.ACCOUNT -> recoveredAccounts.add(JournalRecordCodec.decodeAccount(payload));
+                case JournalRecordCodec.PERIOD -> periods.save(JournalRecordCodec.decodePeriod(payload));
+                default -> throw new IllegalStateException("Unknown journal record type " + type + " in " + path);
+            }
+        });
+
+        try {
+            accounts.saveAll(recoveredAccounts);
+        } catch (RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        return new FileJournalStore(log, transactions, entries, accounts, periods, balances.balances());
+    }
+
+    public void writeSnapshot(Path snapshot) {
+        long position;
+        List<JournalTransaction> capturedTransactions;
+        List<Account> capturedAccounts;
+        List<AccountingPeriod> capturedPeriods;
+        synchronized (lock) {
+            log.sync();
+            position = log.position();
+            capturedTransactions = transactions.findAll();
+            capturedAccounts = accounts.findAll();
+            capturedPeriods = periods.findAll();
+        }
+
+        BalanceAccumulator balances = new BalanceAccumulator();
+        for (JournalTransaction transaction : capturedTransactions) {
+            balances.add(transaction);
+        }
+        LedgerSnapshot.write(snapshot, position, capturedAccounts, capturedPeriods, capturedTransactions, balances.balances());
+    }
+
+    public JournalTransactionRepository transactionRepository() {
+        return transactionRepository;
+    }
+
+    public LedgerEntryRepository ledgerEntryRepository() {
+        return ledgerEntryRepository;
+    }
+
+    public AccountRepository accountRepository() {
+        return accountRepository;
+    }
+
+    public AccountingPeriodRepository periodRepository() {
+        return periodRepository;
+    }
+
+    public List<PeriodBalance> recoveredBalances() {
+        return recoveredBalances;
+    }
+
+    public RecordLog log() {
+        return log;
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+}
@@ -0,0 +1,120 @@
+package fr.kovelya.accounting.infrastructure.persistence.file;
+
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.TransactionId;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
+import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryJournalTransactionRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public final class FileJournalTransactionRepository implements JournalTransactionRepository {
+
+    private final RecordLog log;
+    private final InMemoryJournalTransactionRepository index;
+    private final Object lock;
+
+    FileJournalTransactionRepository(RecordLog log, InMemoryJournalTransactionRepository index, Object lock) {
+        this.log = log;
+        this.index = index;
+        this.lock = lock;
+    }
+
+    @Override
+    public JournalTransaction save(JournalTransaction transaction) {
+        byte[] payload = JournalRecordCodec.encode(transaction);
+        long position;
+        synchronized (lock) {
+            log.requireWritable();
+            Optional<JournalTransaction> existing = index.findByJournalAndReference(transaction.journalType(), transaction.reference());
+            if (existing.isPresent()) {
+                if (existing.get().id().equals(transaction.id())) {
+                    return existing.get();
+                }
+                throw new DuplicateJournalReferenceException(transaction.journalType(), transaction.reference());
+            }
+            position = log.write(JournalRecordCodec.TRANSACTION, payload);
+            index.save(transaction);
+        }
+        log.awaitDurable(position);
+        return transaction;
+    }
+
+    @Override
+    public List<JournalTransaction> saveAll(List<JournalTransaction> transactions) {
+        List<byte[]> payloads = new ArrayList<>(transactions.size());
+        for (JournalTransaction transaction : transactions) {
+            payloads.add(JournalRecordCodec.encode(transaction));
+        }
+
+        long position;
+        synchronized (lock) {
+            log.requireWritable();
+            Set<String> batch = new HashSet<>();
+            List<JournalTransaction> pending = new ArrayList<>(transactions.size());
+            List<byte[]> pendingPayloads = new ArrayList<>(transactions.size());
+            for (int i = 0; i < transactions.size(); i++) {
+                JournalTransaction transaction = transactions.get(i);
+                Optional<JournalTransaction> existing = index.findByJournalAndReference(transaction.journalType(), transaction.reference());
+                if (existing.isPresent() && existing.get().id().equals(transaction.id())) {
+                    continue;
+                }
+                if (existing.isPresent() || !batch.add(transaction.journalType() + "|" + transaction.reference())) {
+                    throw new DuplicateJournalReferenceException(transaction.journalType(), transaction.reference());
+                }
+                pending.add(transaction);
+                pendingPayloads.add(payloads.get(i));
+            }
+            if (pending.isEmpty()) {
+                return List.copyOf(transactions);
+            }
+            position = log.writeAll(JournalRecordCodec.TRANSACTION, pendingPayloads);
+            index.saveAll(pending);
+        }
+        log.awaitDurable(position);
+        return List.copyOf(transactions);
+    }
+
+    @Override
+    public Optional<JournalTransaction> findById(TransactionId id) {
+        return index.findById(id);
+    }
+
+    @Override
+    public Optional<JournalTransaction> findByJournalAndReference(JournalType journalType, String reference) {
+        log.requireWritable();
+        return index.findByJournalAndReference(journalType, reference);
+    }
+
+    @Override
+    public List<JournalTransaction> findAll() {
+        return index.findAll();
+    }
+
+    @Override
+    public List<JournalTransaction> findByPeriodId(AccountingPeriodId periodId) {
+        return index.findByPeriodId(periodId);
+    }
+
+    @Override
+    public List<JournalTransaction> findByPeriod(Instant from, Instant to) {
+        return index.findByPeriod(from, to);
+    }
+
+    @Override
+    public List<JournalTransaction> findByJournal(JournalType journalType) {
+        return index.findByJournal(journalType);
+    }
+
+    @Override
+    public List<JournalTransaction> findByJournalAndPeriod(JournalType journalType, Instant from, Instant to) {
+        return index.findByJournalAndPeriod(journalType, from, to);
+    }
+}
@@ -0,0 +1,50 @@
+package fr.kovelya.accounting.infrastructure.persistence.file;
+
+import java.time.Duration;
+import java.util.Objects;
+
+public final class FsyncPolicy {
+
+    public enum Mode {
+        PER_TRANSACTION,
+        GROUP_COMMIT,
+        OS_MANAGED
+    }
+
+    private final Mode mode;
+    private final Duration interval;
+
+    private FsyncPolicy(Mode mode, Duration interval) {
+        this.mode = mode;
+        this.interval = interval;
+    }
+
+    public static FsyncPolicy perTransaction() {
+        return new FsyncPolicy(Mode.PER_TRANSACTION, Duration.ZERO);
+    }
+
+    public static FsyncPolicy groupCommit(Duration interval) {
+        Objects.requireNonNull(interval);
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Group commit interval must be positive");
+        }
+        return new FsyncPolicy(Mode.GROUP_COMMIT, interval);
+    }
+
+    public static FsyncPolicy osManaged() {
+        return new FsyncPolicy(Mode.OS_MANAGED, Duration.ZERO);
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public Duration interval() {
+        return interval;
+    }
+
+    @Override
+    public String toString() {
+        return mode == Mode.GROUP_COMMIT ? mode + "(" + interval.toMillis() + "ms)" : mode.toString();
+    }
+}
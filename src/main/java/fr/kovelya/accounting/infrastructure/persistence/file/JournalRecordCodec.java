@@ -0,0 +1,193 @@
+package fr.kovelya.accounting.infrastructure.persistence.file;
+
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.ledger.TransactionId;
+import fr.kovelya.accounting.domain.period.AccountingPeriod;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+import fr.kovelya.accounting.domain.period.PeriodStatus;
+import fr.kovelya.accounting.domain.shared.Money;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+final class JournalRecordCodec {
+
+    static final byte TRANSACTION = 1;
+    static final byte ACCOUNT = 2;
+    static final byte PERIOD = 3;
+
+    private JournalRecordCodec() {
+    }
+
+    static byte[] encode(JournalTransaction transaction) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(transaction.id().value());
+            out.writeUTF(transaction.journalType().name());
+            writeNullable(out, transaction.reference());
+            writeNullable(out, transaction.description());
+            writeInstant(out, transaction.timestamp());
+            out.writeLong(transaction.getTransactionDate().toEpochDay());
+            out.writeUTF(transaction.getPeriodId().value());
+
+            List<LedgerEntry> entries = transaction.entries();
+            out.writeInt(entries.size());
+            for (LedgerEntry entry : entries) {
+                out.writeUTF(entry.id());
+                out.writeUTF(entry.accountId().value());
+                writeMoney(out, entry.amount());
+                out.writeByte(entry.direction().ordinal());
+                writeNullable(out, entry.description());
+                writeInstant(out, entry.timestamp());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalTransaction decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            TransactionId id = TransactionId.of(in.readUTF());
+            JournalType journalType = JournalType.valueOf(in.readUTF());
+            String reference = readNullable(in);
+            String description = readNullable(in);
+            Instant timestamp = readInstant(in);
+            LocalDate transactionDate = LocalDate.ofEpochDay(in.readLong());
+            AccountingPeriodId periodId = AccountingPeriodId.of(in.readUTF());
+
+            int count = in.readInt();
+            List<LedgerEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(LedgerEntry.restore(
+                        in.readUTF(),
+                        AccountId.of(in.readUTF()),
+                        readMoney(in),
+                        LedgerEntry.Direction.values()[in.readByte()],
+                        readNullable(in),
+                        readInstant(in)
+                ));
+            }
+
+            return JournalTransaction.restore(id, journalType, reference, description, timestamp, transactionDate, periodId, entries);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] encode(Account account) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(account.id().value());
+            out.writeUTF(account.ledgerId().value().toString());
+            out.writeUTF(account.code());
+            out.writeUTF(account.name());
+            out.writeUTF(account.type().name());
+            out.writeUTF(account.currency().getCurrencyCode());
+            out.writeBoolean(account.isActive());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Account decodeAccount(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return new Account(
+                    AccountId.of(in.readUTF()),
+                    LedgerId.of(UUID.fromString(in.readUTF())),
+                    in.readUTF(),
+                    in.readUTF(),
+                    AccountType.valueOf(in.readUTF()),
+                    Currency.getInstance(in.readUTF()),
+                    in.readBoolean()
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] encode(AccountingPeriod period) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(period.id().value());
+            out.writeUTF(period.ledgerId().value().toString());
+            out.writeUTF(period.name());
+            out.writeLong(period.startDate().toEpochDay());
+            out.writeLong(period.endDate().toEpochDay());
+            out.writeUTF(period.status().name());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static AccountingPeriod decodePeriod(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return new AccountingPeriod(
+                    AccountingPeriodId.of(in.readUTF()),
+                    LedgerId.of(UUID.fromString(in.readUTF())),
+                    in.readUTF(),
+                    LocalDate.ofEpochDay(in.readLong()),
+                    LocalDate.ofEpochDay(in.readLong()),
+                    PeriodStatus.valueOf(in.readUTF())
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    static Instant readInstant(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return Instant.ofEpochSecond(seconds, in.readInt());
+    }
+
+    static void writeMoney(DataOutputStream out, Money money) throws IOException {
+        byte[] unscaled = money.amount().unscaledValue().toByteArray();
+        out.writeInt(money.amount().scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+        out.writeUTF(money.currency().getCurrencyCode());
+    }
+
+    static Money readMoney(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return Money.of(new BigDecimal(new BigInteger(unscaled), scale), Currency.getInstance(in.readUTF()));
+    }
+}
@@ -0,0 +1,542 @@
+package fr.kovelya.accounting.infrastructure.persistence.file;
+
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.ledger.PeriodBalance;
+import fr.kovelya.accounting.domain.ledger.TransactionId;
+import fr.kovelya.accounting.domain.period.AccountingPeriod;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+import fr.kovelya.accounting.domain.period.PeriodStatus;
+import fr.kovelya.accounting.domain.shared.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+record LedgerSnapshot(long logPosition, List<Account> accounts, List<AccountingPeriod> periods, List<JournalTransaction> transactions, List<PeriodBalance> balances) {
+
+    static final int MAGIC = 0x4B56534E;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 128;
+    static final int ACCOUNT_SIZE = 22;
+    static final int PERIOD_SIZE = 29;
+    static final int TRANSACTION_SIZE = 41;
+    static final int ENTRY_SIZE = 52;
+    static final int BALANCE_SIZE = 28;
+
+    private static final short DECIMAL_AS_STRING = Short.MIN_VALUE;
+    private static final byte ENTRY_ID_UUID = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long MAX_WINDOW = 1L << 30;
+
+    static void write(Path path, long logPosition, List<Account> accounts, List<AccountingPeriod> periods, List<JournalTransaction> transactions, List<PeriodBalance> balances) {
+        StringTable strings = new StringTable();
+        long entryCount = 0;
+        for (Account account : accounts) {
+            strings.intern(account.id().value());
+            strings.intern(account.ledgerId().value().toString());
+            strings.intern(account.code());
+            strings.intern(account.name());
+            strings.intern(account.currency().getCurrencyCode());
+        }
+        for (AccountingPeriod period : periods) {
+            strings.intern(period.id().value());
+            strings.intern(period.ledgerId().value().toString());
+            strings.intern(period.name());
+        }
+        for (JournalTransaction transaction : transactions) {
+            strings.intern(transaction.id().value());
+            strings.intern(transaction.reference());
+            strings.intern(transaction.description());
+            strings.intern(transaction.getPeriodId().value());
+            for (LedgerEntry entry : transaction.entries()) {
+                if (uuidOf(entry.id()) == null) {
+                    strings.intern(entry.id());
+                }
+                strings.intern(entry.accountId().value());
+                strings.intern(entry.description());
+                strings.intern(entry.amount().currency().getCurrencyCode());
+                strings.internDecimal(entry.amount().amount());
+                entryCount++;
+            }
+        }
+        for (PeriodBalance balance : balances) {
+            strings.intern(balance.accountId().value());
+            strings.intern(balance.periodId().value());
+            strings.internDecimal(balance.debit());
+            strings.internDecimal(balance.credit());
+        }
+
+        long stringIndexOffset = HEADER_SIZE;
+        long stringDataOffset = stringIndexOffset + 4L * (strings.size() + 1);
+        long accountsOffset = stringDataOffset + strings.dataSize();
+        long periodsOffset = accountsOffset + (long) ACCOUNT_SIZE * accounts.size();
+        long transactionsOffset = periodsOffset + (long) PERIOD_SIZE * periods.size();
+        long entriesOffset = transactionsOffset + (long) TRANSACTION_SIZE * transactions.size();
+        long balancesOffset = entriesOffset + ENTRY_SIZE * entryCount;
+        long end = balancesOffset + (long) BALANCE_SIZE * balances.size();
+        if (strings.dataSize() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Snapshot string table exceeds " + Integer.MAX_VALUE + " bytes");
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SectionWriter out = new SectionWriter(channel, HEADER_SIZE);
+
+            int offset = 0;
+            for (byte[] value : strings.values) {
+                out.reserve(4).putInt(offset);
+                offset += value.length;
+            }
+            out.reserve(4).putInt(offset);
+            for (byte[] value : strings.values) {
+                out.put(value);
+            }
+
+            for (Account account : accounts) {
+                out.reserve(ACCOUNT_SIZE)
+                        .putInt(strings.ref(account.id().value()))
+                        .putInt(strings.ref(account.ledgerId().value().toString()))
+                        .putInt(strings.ref(account.code()))
+                        .putInt(strings.ref(account.name()))
+                        .put((byte) account.type().ordinal())
+                        .putInt(strings.ref(account.currency().getCurrencyCode()))
+                        .put((byte) (account.isActive() ? 1 : 0));
+            }
+
+            for (AccountingPeriod period : periods) {
+                out.reserve(PERIOD_SIZE)
+                        .putInt(strings.ref(period.id().value()))
+                        .putInt(strings.ref(period.ledgerId().value().toString()))
+                        .putInt(strings.ref(period.name()))
+                        .putLong(period.startDate().toEpochDay())
+                        .putLong(period.endDate().toEpochDay())
+                        .put((byte) period.status().ordinal());
+            }
+
+            for (JournalTransaction transaction : transactions) {
+                out.reserve(TRANSACTION_SIZE)
+                        .putInt(strings.ref(transaction.id().value()))
+                        .put((byte) transaction.journalType().ordinal())
+                        .putInt(strings.ref(transaction.reference()))
+                        .putInt(strings.ref(transaction.description()))
+                        .putLong(transaction.timestamp().getEpochSecond())
+                        .putInt(transaction.timestamp().getNano())
+                        .putLong(transaction.getTransactionDate().toEpochDay())
+                        .putInt(strings.ref(transaction.getPeriodId().value()))
+                        .putInt(transaction.entries().size());
+            }
+
+            for (JournalTransaction transaction : transactions) {
+                for (LedgerEntry entry : transaction.entries()) {
+                    ByteBuffer record = out.reserve(ENTRY_SIZE);
+                    UUID uuid = uuidOf(entry.id());
+                    if (uuid != null) {
+                        record.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+                    } else {
+                        record.putLong(0L).putLong(strings.ref(entry.id()));
+                    }
+                    record.putInt(strings.ref(entry.accountId().value()))
+                            .putInt(strings.ref(entry.description()))
+                            .putLong(entry.timestamp().getEpochSecond())
+                            .putInt(entry.timestamp().getNano())
+                            .put((byte) entry.direction().ordinal())
+                            .put(uuid != null ? ENTRY_ID_UUID : 0);
+                    putDecimal(record, entry.amount().amount(), strings);
+                    record.putInt(strings.ref(entry.amount().currency().getCurrencyCode()));
+                }
+            }
+
+            for (PeriodBalance balance : balances) {
+                ByteBuffer record = out.reserve(BALANCE_SIZE)
+                        .putInt(strings.ref(balance.accountId().value()))
+                        .putInt(strings.ref(balance.periodId().value()));
+                putDecimal(record, balance.debit(), strings);
+                putDecimal(record, balance.credit(), strings);
+            }
+
+            out.flush();
+            if (out.position() != end) {
+                throw new IllegalStateException("Snapshot size mismatch: expected " + end + " bytes, wrote " + out.position());
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(logPosition)
+                    .putInt((int) out.checksum())
+                    .putInt(strings.size())
+                    .putInt(accounts.size())
+                    .putInt(periods.size())
+                    .putInt(transactions.size())
+                    .putLong(entryCount)
+                    .putInt(balances.size())
+                    .putLong(stringIndexOffset)
+                    .putLong(stringDataOffset)
+                    .putLong(accountsOffset)
+                    .putLong(periodsOffset)
+                    .putLong(transactionsOffset)
+                    .putLong(entriesOffset)
+                    .putLong(balancesOffset)
+                    .putLong(end);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write ledger snapshot " + path, e);
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot publish ledger snapshot " + path, e);
+        }
+    }
+
+    static LedgerSnapshot read(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalStateException("Truncated ledger snapshot " + path);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalStateException("Not a ledger snapshot: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported ledger snapshot version " + version + " in " + path);
+            }
+            long logPosition = header.getLong();
+            int checksum = header.getInt();
+            int stringCount = header.getInt();
+            int accountCount = header.getInt();
+            int periodCount = header.getInt();
+            int transactionCount = header.getInt();
+            long entryCount = header.getLong();
+            int balanceCount = header.getInt();
+            long stringIndexOffset = header.getLong();
+            long stringDataOffset = header.getLong();
+            long accountsOffset = header.getLong();
+            long periodsOffset = header.getLong();
+            long transactionsOffset = header.getLong();
+            long entriesOffset = header.getLong();
+            long balancesOffset = header.getLong();
+            long end = header.getLong();
+
+            if (end != channel.size()) {
+                throw new IllegalStateException("Ledger snapshot " + path + " has " + channel.size() + " bytes, expected " + end);
+            }
+            CRC32C crc = new CRC32C();
+            for (long offset = HEADER_SIZE; offset < end; offset += MAX_WINDOW) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAX_WINDOW, end - offset)));
+            }
+            if ((int) crc.getValue() != checksum) {
+                throw new IllegalStateException("Corrupted ledger snapshot " + path);
+            }
+
+            ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, stringIndexOffset, stringDataOffset - stringIndexOffset);
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, stringDataOffset, accountsOffset - stringDataOffset);
+            String[] strings = new String[stringCount];
+            byte[] scratch = new byte[256];
+            int start = index.getInt();
+            for (int i = 0; i < stringCount; i++) {
+                int next = index.getInt();
+                int length = next - start;
+                if (scratch.length < length) {
+                    scratch = new byte[length];
+                }
+                data.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                start = next;
+            }
+
+            Currency[] currencies = new Currency[stringCount];
+            AccountId[] accountIds = new AccountId[stringCount];
+            AccountingPeriodId[] periodIds = new AccountingPeriodId[stringCount];
+
+            ByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, accountsOffset, periodsOffset - accountsOffset);
+            List<Account> accounts = new ArrayList<>(accountCount);
+            for (int i = 0; i < accountCount; i++) {
+                accounts.add(new Account(
+                        accountId(accountIds, strings, section.getInt()),
+                        LedgerId.of(UUID.fromString(strings[section.getInt()])),
+                        strings[section.getInt()],
+                        strings[section.getInt()],
+                        AccountType.values()[section.get()],
+                        currency(currencies, strings, section.getInt()),
+                        section.get() == 1
+                ));
+            }
+
+            section = channel.map(FileChannel.MapMode.READ_ONLY, periodsOffset, transactionsOffset - periodsOffset);
+            List<AccountingPeriod> periods = new ArrayList<>(periodCount);
+            for (int i = 0; i < periodCount; i++) {
+                periods.add(new AccountingPeriod(
+                        periodId(periodIds, strings, section.getInt()),
+                        LedgerId.of(UUID.fromString(strings[section.getInt()])),
+                        strings[section.getInt()],
+                        LocalDate.ofEpochDay(section.getLong()),
+                        LocalDate.ofEpochDay(section.getLong()),
+                        PeriodStatus.values()[section.get()]
+                ));
+            }
+
+            ByteBuffer transactionSection = channel.map(FileChannel.MapMode.READ_ONLY, transactionsOffset, entriesOffset - transactionsOffset);
+            SectionReader entries = new SectionReader(channel, entriesOffset, entryCount, ENTRY_SIZE);
+            JournalType[] journalTypes = JournalType.values();
+            LedgerEntry.Direction[] directions = LedgerEntry.Direction.values();
+            List<JournalTransaction> transactions = new ArrayList<>(transactionCount);
+            for (int i = 0; i < transactionCount; i++) {
+                TransactionId id = TransactionId.of(strings[transactionSection.getInt()]);
+                JournalType journalType = journalTypes[transactionSection.get()];
+                String reference = string(strings, transactionSection.getInt());
+                String description = string(strings, transactionSection.getInt());
+                Instant timestamp = Instant.ofEpochSecond(transactionSection.getLong(), transactionSection.getInt());
+                LocalDate transactionDate = LocalDate.ofEpochDay(transactionSection.getLong());
+                AccountingPeriodId periodId = periodId(periodIds, strings, transactionSection.getInt());
+                int count = transactionSection.getInt();
+
+                List<LedgerEntry> transactionEntries = new ArrayList<>(count);
+                for (int e = 0; e < count; e++) {
+                    ByteBuffer record = entries.next();
+                    long high = record.getLong();
+                    long low = record.getLong();
+                    AccountId accountId = accountId(accountIds, strings, record.getInt());
+                    String entryDescription = string(strings, record.getInt());
+                    Instant entryTimestamp = Instant.ofEpochSecond(record.getLong(), record.getInt());
+                    LedgerEntry.Direction direction = directions[record.get()];
+                    String entryId = record.get() == ENTRY_ID_UUID ? new UUID(high, low).toString() : strings[(int) low];
+                    BigDecimal amount = getDecimal(record, strings);
+                    Currency currency = currency(currencies, strings, record.getInt());
+                    transactionEntries.add(LedgerEntry.restore(entryId, accountId, Money.of(amount, currency), direction, entryDescription, entryTimestamp));
+                }
+                transactions.add(JournalTransaction.restore(id, journalType, reference, description, timestamp, transactionDate, periodId, transactionEntries));
+            }
+
+            section = channel.map(FileChannel.MapMode.READ_ONLY, balancesOffset, end - balancesOffset);
+            List<PeriodBalance> balances = new ArrayList<>(balanceCount);
+            for (int i = 0; i < balanceCount; i++) {
+                balances.add(new PeriodBalance(
+                        accountId(accountIds, strings, section.getInt()),
+                        periodId(periodIds, strings, section.getInt()),
+                        getDecimal(section, strings),
+                        getDecimal(section, strings)
+                ));
+            }
+
+            return new LedgerSnapshot(logPosition, accounts, periods, transactions, balances);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read ledger snapshot " + path, e);
+        }
+    }
+
+    private static String string(String[] strings, int ref) {
+        return ref < 0 ? null : strings[ref];
+    }
+
+    private static AccountId accountId(AccountId[] cache, String[] strings, int ref) {
+        AccountId id = cache[ref];
+        if (id == null) {
+            id = AccountId.of(strings[ref]);
+            cache[ref] = id;
+        }
+        return id;
+    }
+
+    private static AccountingPeriodId periodId(AccountingPeriodId[] cache, String[] strings, int ref) {
+        AccountingPeriodId id = cache[ref];
+        if (id == null) {
+            id = AccountingPeriodId.of(strings[ref]);
+            cache[ref] = id;
+        }
+        return id;
+    }
+
+    private static Currency currency(Currency[] cache, String[] strings, int ref) {
+        Currency currency = cache[ref];
+        if (currency == null) {
+            currency = Currency.getInstance(strings[ref]);
+            cache[ref] = currency;
+        }
+        return currency;
+    }
+
+    private static UUID uuidOf(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean fitsInline(BigDecimal value) {
+        return value.scale() > DECIMAL_AS_STRING && value.scale() <= Short.MAX_VALUE && value.unscaledValue().bitLength() < 64;
+    }
+
+    private static void putDecimal(ByteBuffer buffer, BigDecimal value, StringTable strings) {
+        if (fitsInline(value)) {
+            buffer.putShort((short) value.scale()).putLong(value.unscaledValue().longValue());
+        } else {
+            buffer.putShort(DECIMAL_AS_STRING).putLong(strings.ref(value.toString()));
+        }
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer buffer, String[] strings) {
+        short scale = buffer.getShort();
+        long value = buffer.getLong();
+        if (scale == DECIMAL_AS_STRING) {
+            return new BigDecimal(strings[(int) value]);
+        }
+        return BigDecimal.valueOf(value, scale);
+    }
+
+    private static final class StringTable {
+
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private long dataSize;
+
+        void intern(String value) {
+            if (value == null || refs.containsKey(value)) {
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            refs.put(value, values.size());
+            values.add(bytes);
+            dataSize += bytes.length;
+        }
+
+        void internDecimal(BigDecimal value) {
+            if (!fitsInline(value)) {
+                intern(value.toString());
+            }
+        }
+
+        int ref(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                throw new IllegalStateException("String was not interned: " + value);
+            }
+            return ref;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        long dataSize() {
+            return dataSize;
+        }
+    }
+
+    private static final class SectionWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32C crc = new CRC32C();
+        private long position;
+
+        SectionWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        ByteBuffer reserve(int size) throws IOException {
+            if (buffer.remaining() < size) {
+                flush();
+            }
+            return buffer;
+        }
+
+        void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        long position() {
+            return position;
+        }
+
+        long checksum() {
+            return crc.getValue();
+        }
+    }
+
+    private static final class SectionReader {
+
+        private final FileChannel channel;
+        private final long offset;
+        private final long count;
+        private final int recordSize;
+        private final long recordsPerWindow;
+        private ByteBuffer window;
+        private long read;
+
+        SectionReader(FileChannel channel, long offset, long count, int recordSize) {
+            this.channel = channel;
+            this.offset = offset;
+            this.count = count;
+            this.recordSize = recordSize;
+            this.recordsPerWindow = MAX_WINDOW / recordSize;
+        }
+
+        ByteBuffer next() throws IOException {
+            if (read >= count) {
+                throw new IllegalStateException("Ledger snapshot section overrun");
+            }
+            if (read % recordsPerWindow == 0) {
+                long records = Math.min(recordsPerWindow, count - read);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, offset + read * recordSize, records * recordSize);
+            }
+            read++;
+            return window;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package fr.kovelya.accounting.infrastructure.persistence.file;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+public final class RecordLog implements Closeable {
+
+    public interface RecordHandler {
+        void handle(byte type, byte[] payload);
+    }
+
+    static final int MAGIC = 0x4B564C47;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_OVERHEAD = 9;
+    static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+    private final Thread groupCommitThread;
+
+    private volatile long written;
+    private long synced;
+    private volatile boolean closed;
+    private volatile RuntimeException failure;
+
+    private RecordLog(Path path, FileChannel channel, FsyncPolicy policy, long end) {
+        this.path = path;
+        this.channel = channel;
+        this.policy = policy;
+        this.written = end;
+        this.synced = end;
+        if (policy.mode() == FsyncPolicy.Mode.GROUP_COMMIT) {
+            this.groupCommitThread = new Thread(this::runGroupCommit, "record-log-group-commit");
+            this.groupCommitThread.setDaemon(true);
+            this.groupCommitThread.start();
+        } else {
+            this.groupCommitThread = null;
+        }
+    }
+
+    public static RecordLog open(Path path, FsyncPolicy policy, RecordHandler handler) {
+        return open(path, policy, HEADER_SIZE, handler);
+    }
+
+    public static RecordLog open(Path path, FsyncPolicy policy, long replayFrom, RecordHandler handler) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long end;
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+                end = HEADER_SIZE;
+            } else {
+                readHeader(channel, path);
+                if (replayFrom < HEADER_SIZE || replayFrom > channel.size()) {
+                    throw new IllegalArgumentException("Replay offset " + replayFrom + " is outside of " + path);
+                }
+                end = replay(channel, replayFrom, handler);
+                try {
+                    requireTornTail(channel, end, path);
+                } catch (IllegalStateException e) {
+                    channel.close();
+                    throw e;
+                }
+                if (end < channel.size()) {
+                    channel.truncate(end);
+                    channel.force(true);
+                }
+            }
+            channel.position(end);
+            return new RecordLog(path, channel, policy, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open record log " + path, e);
+        }
+    }
+
+    public long append(byte type, byte[] payload) {
+        long end = write(type, payload);
+        awaitDurable(end);
+        return end;
+    }
+
+    public long write(byte type, byte[] payload) {
+        return writeAll(type, List.of(payload));
+    }
+
+    public long writeAll(byte type, List<byte[]> payloads) {
+        int size = 0;
+        for (byte[] payload : payloads) {
+            if (payload.length + 1 > MAX_RECORD_SIZE) {
+                throw new IllegalArgumentException("Record too large: " + payload.length + " bytes");
+            }
+            size += RECORD_OVERHEAD + payload.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32C crc = new CRC32C();
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(type);
+            crc.update(payload);
+            buffer.putInt(payload.length + 1)
+                    .putInt((int) crc.getValue())
+                    .put(type)
+                    .put(payload);
+        }
+        buffer.flip();
+
+        synchronized (writeLock) {
+            requireOpen();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw fail(new UncheckedIOException("Cannot append to record log " + path, e));
+            }
+            written += buffer.limit();
+            return written;
+        }
+    }
+
+    public void awaitDurable(long position) {
+        switch (policy.mode()) {
+            case PER_TRANSACTION -> syncTo(position);
+            case GROUP_COMMIT -> waitForGroupCommit(position);
+            case OS_MANAGED -> {
+            }
+        }
+    }
+
+    public void requireWritable() {
+        requireOpen();
+    }
+
+    public void sync() {
+        syncTo(written);
+    }
+
+    public long position() {
+        return written;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public FsyncPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            if (!channel.isOpen()) {
+                return;
+            }
+            if (!closed) {
+                sync();
+                closed = true;
+            }
+        }
+        synchronized (syncLock) {
+            syncLock.notifyAll();
+        }
+        if (groupCommitThread != null) {
+            groupCommitThread.interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close record log " + path, e);
+        }
+    }
+
+    private void syncTo(long position) {
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            requireOpen();
+            long target = written;
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw fail(new UncheckedIOException("Cannot sync record log " + path, e));
+            }
+            synced = target;
+            syncLock.notifyAll();
+        }
+    }
+
+    private void waitForGroupCommit(long position) {
+        synchronized (syncLock) {
+            while (synced < position) {
+                requireOpen();
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for group commit", e);
+                }
+            }
+        }
+    }
+
+    private void runGroupCommit() {
+        long intervalNanos = policy.interval().toNanos();
+        while (!closed) {
+            try {
+                Thread.sleep(intervalNanos / 1_000_000L, (int) (intervalNanos % 1_000_000L));
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+        }
+    }
+
+    private RuntimeException fail(RuntimeException e) {
+        if (failure == null) {
+            failure = e;
+        }
+        closed = true;
+        synchronized (syncLock) {
+            syncLock.notifyAll();
+        }
+        return e;
+    }
+
+    private void requireOpen() {
+        RuntimeException failed = failure;
+        if (failed != null) {
+            throw new IllegalStateException("Record log " + path + " failed to persist a write; reopen it to recover", failed);
+        }
+        if (closed) {
+            throw new IllegalStateException("Record log " + path + " is closed");
+        }
+    }
+
+    private static void readHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IllegalStateException("Truncated record log header in " + path);
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IllegalStateException("Not a record log: " + path);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported record log version " + version + " in " + path);
+        }
+    }
+
+    private static long replay(FileChannel channel, long from, RecordHandler handler) throws IOException {
+        long size = channel.size();
+        long offset = from;
+        InputStream source = Channels.newInputStream(channel.position(from));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(source, 1 << 16));
+        CRC32C crc = new CRC32C();
+
+        while (size - offset >= RECORD_OVERHEAD) {
+            int length;
+            int checksum;
+            byte type;
+            byte[] payload;
+            try {
+                length = in.readInt();
+                if (length < 1 || length > MAX_RECORD_SIZE || offset + 8 + length > size) {
+                    break;
+                }
+                checksum = in.readInt();
+                type = in.readByte();
+                payload = new byte[length - 1];
+                in.readFully(payload);
+            } catch (EOFException e) {
+                break;
+            }
+
+            crc.reset();
+            crc.update(type);
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            handler.handle(type, payload);
+            offset += 8 + length;
+        }
+        return offset;
+    }
+
+    private static void requireTornTail(FileChannel channel, long bad, Path path) throws IOException {
+        long size = channel.size();
+        if (bad >= size) {
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(8);
+        CRC32C crc = new CRC32C();
+        long offset = bad;
+        while (size - offset >= RECORD_OVERHEAD) {
+            header.clear();
+            readFully(channel, header, offset);
+            int length = header.getInt(0);
+            if (length < 1 || length > MAX_RECORD_SIZE) {
+                if (offset == bad && !isZeroFilled(channel, offset, size)) {
+                    throw corrupted(path, bad, "record length " + length + " is invalid and data follows");
+                }
+                return;
+            }
+            if (offset + 8 + length > size) {
+                return;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            readFully(channel, body, offset + 8);
+            crc.reset();
+            crc.update(body.flip());
+            if (offset != bad && (int) crc.getValue() == header.getInt(4)) {
+                throw corrupted(path, bad, "a valid record follows at offset " + offset);
+            }
+            offset += 8 + length;
+        }
+    }
+
+    private static boolean isZeroFilled(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long offset = from;
+        while (offset < size) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), size - offset));
+            readFully(channel, buffer, offset);
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) != 0) {
+                    return false;
+                }
+            }
+            offset += buffer.limit();
+        }
+        return true;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of record log at offset " + offset);
+            }
+            offset += read;
+        }
+    }
+
+    private static IllegalStateException corrupted(Path path, long offset, String reason) {
+        return new IllegalStateException("Corrupted record at offset " + offset + " of " + path + ": " + reason);
+    }
+}
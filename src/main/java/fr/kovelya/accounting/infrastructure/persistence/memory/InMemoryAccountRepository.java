@@ -2,23 +2,77 @@ package fr.kovelya.accounting.infrastructure.persistence.memory;
 
 import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.account.ChartOfAccounts;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
 import fr.kovelya.accounting.domain.repository.AccountRepository;
+import fr.kovelya.accounting.domain.repository.DuplicateAccountCodeException;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 public final class InMemoryAccountRepository implements AccountRepository {
 
     private final ConcurrentHashMap<String, Account> storage = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LedgerId, ChartOfAccounts> charts = new ConcurrentHashMap<>();
 
     @Override
-    public Account save(Account account) {
-        storage.put(account.id().value(), account);
+    public synchronized Account save(Account account) {
+        requireUniqueCode(account);
+        Account previous = storage.put(account.id().value(), account);
+        if (previous != null && !previous.ledgerId().equals(account.ledgerId())) {
+            charts.computeIfPresent(previous.ledgerId(), (ledgerId, chart) -> chart.without(previous.id()));
+        }
+        charts.put(account.ledgerId(), chartOf(account.ledgerId()).with(account));
         return account;
     }
 
+    public synchronized void saveAll(Collection<Account> accounts) {
+        Map<String, Account> saved = new LinkedHashMap<>();
+        Set<LedgerId> ledgers = new HashSet<>();
+        for (Account account : accounts) {
+            Account previous = saved.put(account.id().value(), account);
+            if (previous == null) {
+                previous = storage.get(account.id().value());
+            }
+            if (previous != null) {
+                ledgers.add(previous.ledgerId());
+            }
+            ledgers.add(account.ledgerId());
+        }
+
+        Map<LedgerId, List<Account>> byLedger = new HashMap<>();
+        for (Account account : storage.values()) {
+            if (!saved.containsKey(account.id().value()) && ledgers.contains(account.ledgerId())) {
+                byLedger.computeIfAbsent(account.ledgerId(), id -> new ArrayList<>()).add(account);
+            }
+        }
+        for (Account account : saved.values()) {
+            byLedger.computeIfAbsent(account.ledgerId(), id -> new ArrayList<>()).add(account);
+        }
+
+        Map<LedgerId, ChartOfAccounts> rebuilt = new HashMap<>();
+        for (LedgerId ledgerId : ledgers) {
+            rebuilt.put(ledgerId, ChartOfAccounts.of(ledgerId, byLedger.getOrDefault(ledgerId, List.of())));
+        }
+        storage.putAll(saved);
+        charts.putAll(rebuilt);
+    }
+
+    public void requireUniqueCode(Account account) {
+        Optional<Account> existing = findByCode(account.ledgerId(), account.code());
+        if (existing.isPresent() && !existing.get().id().equals(account.id())) {
+            throw new DuplicateAccountCodeException(account.ledgerId(), account.code());
+        }
+    }
+
     @Override
     public Optional<Account> findById(AccountId id) {
         return Optional.ofNullable(storage.get(id.value()));
@@ -31,11 +85,27 @@ public final class InMemoryAccountRepository implements AccountRepository {
 
     @Override
     public Optional<Account> findByCode(String code) {
-        for (Account account : storage.values()) {
-            if (account.code().equals(code)) {
-                return Optional.of(account);
+        Optional<Account> found = Optional.empty();
+        for (ChartOfAccounts chart : charts.values()) {
+            Optional<Account> account = chart.findByCode(code);
+            if (account.isPresent()) {
+                if (found.isPresent()) {
+                    throw new IllegalStateException("Account code " + code + " exists in several ledgers; look it up by ledger");
+                }
+                found = account;
             }
         }
-        return Optional.empty();
+        return found;
+    }
+
+    @Override
+    public Optional<Account> findByCode(LedgerId ledgerId, String code) {
+        return chartOf(ledgerId).findByCode(code);
+    }
+
+    @Override
+    public ChartOfAccounts chartOf(LedgerId ledgerId) {
+        ChartOfAccounts chart = charts.get(ledgerId);
+        return chart != null ? chart : ChartOfAccounts.empty(ledgerId);
     }
 }
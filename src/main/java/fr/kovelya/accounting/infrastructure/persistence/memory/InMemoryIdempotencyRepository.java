@@ -3,22 +3,157 @@ package fr.kovelya.accounting.infrastructure.persistence.memory;
 import fr.kovelya.accounting.domain.repository.IdempotencyRecord;
 import fr.kovelya.accounting.domain.repository.IdempotencyRepository;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public final class InMemoryIdempotencyRepository implements IdempotencyRepository {
+public final class InMemoryIdempotencyRepository implements IdempotencyRepository, Closeable {
 
-    private final Map<UUID, IdempotencyRecord> storage = new HashMap<>();
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private final ConcurrentHashMap<UUID, IdempotencyRecord> storage = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+    private final Object evictionLock = new Object();
+
+    private ScheduledExecutorService evictor;
+
+    public InMemoryIdempotencyRepository() {
+        this(DEFAULT_TTL, DEFAULT_MAX_ENTRIES, Clock.systemUTC());
+    }
+
+    public InMemoryIdempotencyRepository(Duration ttl, int maxEntries, Clock clock) {
+        Objects.requireNonNull(ttl);
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Idempotency TTL must be positive");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Idempotency capacity must be positive");
+        }
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = Objects.requireNonNull(clock);
+    }
 
     @Override
     public Optional<IdempotencyRecord> find(UUID commandId) {
-        return Optional.ofNullable(storage.get(commandId));
+        IdempotencyRecord record = storage.get(commandId);
+        if (record == null) {
+            return Optional.empty();
+        }
+        if (isExpired(record, clock.instant())) {
+            storage.remove(commandId, record);
+            return Optional.empty();
+        }
+        return Optional.of(record);
     }
 
     @Override
     public void save(IdempotencyRecord record) {
         storage.put(record.commandId(), record);
     }
+
+    @Override
+    public boolean claim(UUID commandId) {
+        Instant now = clock.instant();
+        IdempotencyRecord claimed = IdempotencyRecord.inFlight(commandId, now);
+        if (storage.size() >= maxEntries && !storage.containsKey(commandId)) {
+            requireCapacity();
+        }
+        IdempotencyRecord current = storage.compute(commandId, (id, existing) ->
+                existing == null || isExpired(existing, now) ? claimed : existing);
+        return current == claimed;
+    }
+
+    @Override
+    public void complete(UUID commandId, String resultRef) {
+        save(new IdempotencyRecord(commandId, clock.instant(), resultRef, IdempotencyRecord.Status.DONE));
+    }
+
+    @Override
+    public void release(UUID commandId) {
+        storage.computeIfPresent(commandId, (id, existing) -> existing.isDone() ? existing : null);
+    }
+
+    public List<IdempotencyRecord> records() {
+        Instant now = clock.instant();
+        List<IdempotencyRecord> result = new ArrayList<>();
+        for (IdempotencyRecord record : storage.values()) {
+            if (!isExpired(record, now)) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return storage.size();
+    }
+
+    public int evictExpired() {
+        Instant now = clock.instant();
+        int removed = 0;
+        for (IdempotencyRecord record : storage.values()) {
+            if (isExpired(record, now) && storage.remove(record.commandId(), record)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public boolean isExpired(IdempotencyRecord record, Instant now) {
+        return !record.createdAt().plus(ttl).isAfter(now);
+    }
+
+    public Clock clock() {
+        return clock;
+    }
+
+    public synchronized void scheduleEviction(Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Eviction interval must be positive");
+        }
+        if (evictor != null) {
+            throw new IllegalStateException("Eviction is already scheduled");
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "idempotency-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = Math.max(1, interval.toMillis());
+        evictor.scheduleWithFixedDelay(this::evictExpired, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+    }
+
+    private void requireCapacity() {
+        synchronized (evictionLock) {
+            if (storage.size() < maxEntries) {
+                return;
+            }
+            evictExpired();
+            if (storage.size() >= maxEntries) {
+                throw new IllegalStateException("Idempotency store is full: " + maxEntries + " commands are still within their " + ttl + " retention window");
+            }
+        }
+    }
 }
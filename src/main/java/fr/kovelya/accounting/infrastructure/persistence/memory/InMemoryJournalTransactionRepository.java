@@ -3,51 +3,88 @@ package fr.kovelya.accounting.infrastructure.persistence.memory;
 import fr.kovelya.accounting.domain.ledger.JournalTransaction;
 import fr.kovelya.accounting.domain.ledger.JournalType;
 import fr.kovelya.accounting.domain.ledger.TransactionId;
+import fr.kovelya.accounting.domain.period.AccountingPeriodId;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
 import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class InMemoryJournalTransactionRepository implements JournalTransactionRepository {
 
-    private final List<JournalTransaction> storage = new CopyOnWriteArrayList<>();
+    private final List<JournalTransaction> storage = new ArrayList<>();
+    private final ConcurrentHashMap<TransactionId, JournalTransaction> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<JournalKey, JournalTransaction> byReference = new ConcurrentHashMap<>();
+    private final Map<AccountingPeriodId, List<JournalTransaction>> byPeriodId = new HashMap<>();
 
     @Override
-    public JournalTransaction save(JournalTransaction transaction) {
+    public synchronized JournalTransaction save(JournalTransaction transaction) {
+        JournalKey key = new JournalKey(transaction.journalType(), transaction.reference());
+        JournalTransaction existing = byReference.putIfAbsent(key, transaction);
+        if (existing != null) {
+            if (existing.id().equals(transaction.id())) {
+                return existing;
+            }
+            throw new DuplicateJournalReferenceException(transaction.journalType(), transaction.reference());
+        }
+        byId.put(transaction.id(), transaction);
+        byPeriodId.computeIfAbsent(transaction.getPeriodId(), id -> new ArrayList<>()).add(transaction);
         storage.add(transaction);
         return transaction;
     }
 
     @Override
-    public Optional<JournalTransaction> findById(TransactionId id) {
-        for (JournalTransaction transaction : storage) {
-            if (transaction.id().equals(id)) {
-                return Optional.of(transaction);
+    public synchronized List<JournalTransaction> saveAll(List<JournalTransaction> transactions) {
+        requireUniqueReferences(transactions);
+        List<JournalTransaction> saved = new ArrayList<>(transactions.size());
+        for (JournalTransaction transaction : transactions) {
+            saved.add(save(transaction));
+        }
+        return saved;
+    }
+
+    private void requireUniqueReferences(List<JournalTransaction> transactions) {
+        Map<JournalKey, JournalTransaction> batch = new HashMap<>();
+        for (JournalTransaction transaction : transactions) {
+            JournalKey key = new JournalKey(transaction.journalType(), transaction.reference());
+            JournalTransaction existing = byReference.get(key);
+            if (existing == null) {
+                existing = batch.putIfAbsent(key, transaction);
+            }
+            if (existing != null && !existing.id().equals(transaction.id())) {
+                throw new DuplicateJournalReferenceException(transaction.journalType(), transaction.reference());
             }
         }
-        return Optional.empty();
+    }
+
+    @Override
+    public Optional<JournalTransaction> findById(TransactionId id) {
+        return Optional.ofNullable(byId.get(id));
     }
 
     @Override
     public Optional<JournalTransaction> findByJournalAndReference(JournalType journalType, String reference) {
-        for (JournalTransaction transaction : storage) {
-            if (transaction.journalType() == journalType && transaction.reference().equals(reference)) {
-                return Optional.of(transaction);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(byReference.get(new JournalKey(journalType, reference)));
     }
 
     @Override
-    public List<JournalTransaction> findAll() {
+    public synchronized List<JournalTransaction> findAll() {
         return new ArrayList<>(storage);
     }
 
     @Override
-    public List<JournalTransaction> findByPeriod(Instant from, Instant to) {
+    public synchronized List<JournalTransaction> findByPeriodId(AccountingPeriodId periodId) {
+        List<JournalTransaction> transactions = byPeriodId.get(periodId);
+        return transactions == null ? new ArrayList<>() : new ArrayList<>(transactions);
+    }
+
+    @Override
+    public synchronized List<JournalTransaction> findByPeriod(Instant from, Instant to) {
         List<JournalTransaction> result = new ArrayList<>();
         for (JournalTransaction transaction : storage) {
             Instant ts = transaction.timestamp();
@@ -59,7 +96,7 @@ public final class InMemoryJournalTransactionRepository implements JournalTransa
     }
 
     @Override
-    public List<JournalTransaction> findByJournal(JournalType journalType) {
+    public synchronized List<JournalTransaction> findByJournal(JournalType journalType) {
         List<JournalTransaction> result = new ArrayList<>();
         for (JournalTransaction transaction : storage) {
             if (transaction.journalType() == journalType) {
@@ -70,7 +107,7 @@ public final class InMemoryJournalTransactionRepository implements JournalTransa
     }
 
     @Override
-    public List<JournalTransaction> findByJournalAndPeriod(JournalType journalType, Instant from, Instant to) {
+    public synchronized List<JournalTransaction> findByJournalAndPeriod(JournalType journalType, Instant from, Instant to) {
         List<JournalTransaction> result = new ArrayList<>();
         for (JournalTransaction transaction : storage) {
             Instant ts = transaction.timestamp();
@@ -82,4 +119,7 @@ public final class InMemoryJournalTransactionRepository implements JournalTransa
         }
         return result;
     }
+
+    private record JournalKey(JournalType journalType, String reference) {
+    }
 }
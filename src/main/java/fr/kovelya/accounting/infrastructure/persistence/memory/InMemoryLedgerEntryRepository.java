@@ -6,6 +6,7 @@ import fr.kovelya.accounting.domain.repository.LedgerEntryRepository;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -19,6 +20,10 @@ public final class InMemoryLedgerEntryRepository implements LedgerEntryRepositor
         return entry;
     }
 
+    public void saveAll(Collection<LedgerEntry> entries) {
+        storage.addAll(entries);
+    }
+
     @Override
     public List<LedgerEntry> findByAccount(AccountId accountId) {
         List<LedgerEntry> result = new ArrayList<>();
@@ -3,54 +3,83 @@ package fr.kovelya.accounting.infrastructure.persistence.memory;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
 import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
 import fr.kovelya.accounting.domain.repository.PurchaseInvoiceRepository;
+import fr.kovelya.accounting.domain.repository.StaleVersionException;
 import fr.kovelya.accounting.domain.supplier.SupplierId;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public final class InMemoryPurchaseInvoiceRepository implements PurchaseInvoiceRepository {
 
-    private final List<PurchaseInvoice> storage = new ArrayList<>();
+    private final Map<PurchaseInvoiceId, PurchaseInvoice> byId = new ConcurrentHashMap<>();
+    private final Queue<PurchaseInvoiceId> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final Map<String, PurchaseInvoiceId> byNumber = new ConcurrentHashMap<>();
+    private final Map<SupplierId, Queue<PurchaseInvoiceId>> bySupplier = new ConcurrentHashMap<>();
 
     @Override
     public PurchaseInvoice save(PurchaseInvoice invoice) {
-        for (int i = 0; i < storage.size(); i++) {
-            if (storage.get(i).id().equals(invoice.id())) {
-                storage.set(i, invoice);
-                return invoice;
+        return byId.compute(invoice.id(), (id, stored) -> {
+            if (stored == null) {
+                index(invoice);
+                return invoice.withVersion(1);
             }
-        }
-        storage.add(invoice);
-        return invoice;
+            return invoice.withVersion(stored.version() + 1);
+        });
+    }
+
+    @Override
+    public PurchaseInvoice compareAndSave(PurchaseInvoice invoice) {
+        return byId.compute(invoice.id(), (id, stored) -> {
+            long current = stored == null ? 0 : stored.version();
+            if (current != invoice.version()) {
+                throw new StaleVersionException(id.value().toString(), invoice.version(), current);
+            }
+            if (stored == null) {
+                index(invoice);
+            }
+            return invoice.withVersion(current + 1);
+        });
+    }
+
+    private void index(PurchaseInvoice invoice) {
+        insertionOrder.add(invoice.id());
+        byNumber.putIfAbsent(invoice.number(), invoice.id());
+        bySupplier.computeIfAbsent(invoice.supplierId(), s -> new ConcurrentLinkedQueue<>()).add(invoice.id());
     }
 
     @Override
     public Optional<PurchaseInvoiceId> findIdByNumber(String number) {
-        return storage.stream()
-                .filter(inv -> inv.number().equals(number))
-                .map(PurchaseInvoice::id)
-                .findFirst();
+        return Optional.ofNullable(byNumber.get(number));
     }
 
     @Override
     public Optional<PurchaseInvoice> findById(PurchaseInvoiceId id) {
-        return storage.stream().filter(inv -> inv.id().equals(id)).findFirst();
+        return Optional.ofNullable(byId.get(id));
     }
 
     @Override
     public List<PurchaseInvoice> findBySupplier(SupplierId supplierId) {
+        return resolve(bySupplier.getOrDefault(supplierId, new ConcurrentLinkedQueue<>()));
+    }
+
+    @Override
+    public List<PurchaseInvoice> findAll() {
+        return resolve(insertionOrder);
+    }
+
+    private List<PurchaseInvoice> resolve(Queue<PurchaseInvoiceId> ids) {
         List<PurchaseInvoice> result = new ArrayList<>();
-        for (PurchaseInvoice invoice : storage) {
-            if (invoice.supplierId().equals(supplierId)) {
+        for (PurchaseInvoiceId id : ids) {
+            PurchaseInvoice invoice = byId.get(id);
+            if (invoice != null) {
                 result.add(invoice);
             }
         }
         return result;
     }
-
-    @Override
-    public List<PurchaseInvoice> findAll() {
-        return new ArrayList<>(storage);
-    }
 }
@@ -5,63 +5,74 @@ import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
 import fr.kovelya.accounting.domain.invoice.SalesInvoice;
 import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
 import fr.kovelya.accounting.domain.repository.SalesInvoiceRepository;
+import fr.kovelya.accounting.domain.repository.StaleVersionException;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public final class InMemorySalesInvoiceRepository implements SalesInvoiceRepository {
-    private final List<SalesInvoice> storage = new CopyOnWriteArrayList<>();
+    private final Map<SalesInvoiceId, SalesInvoice> byId = new ConcurrentHashMap<>();
+    private final Queue<SalesInvoiceId> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final Map<String, SalesInvoiceId> byNumber = new ConcurrentHashMap<>();
+    private final Map<CustomerId, Queue<SalesInvoiceId>> byCustomer = new ConcurrentHashMap<>();
 
     @Override
     public SalesInvoice save(SalesInvoice invoice) {
-        for (int i = 0; i < storage.size(); i++) {
-            if(storage.get(i).id().equals(invoice.id())) {
-                storage.set(i, invoice);
-                return invoice;
+        return byId.compute(invoice.id(), (id, stored) -> {
+            if (stored == null) {
+                index(invoice);
+                return invoice.withVersion(1);
             }
-        }
-        storage.add(invoice);
-        return invoice;
+            return invoice.withVersion(stored.version() + 1);
+        });
     }
 
     @Override
-    public Optional<SalesInvoice> findById(SalesInvoiceId id) {
-        for (SalesInvoice invoice : storage) {
-            if (invoice.id().equals(id)) {
-                return Optional.of(invoice);
+    public SalesInvoice compareAndSave(SalesInvoice invoice) {
+        return byId.compute(invoice.id(), (id, stored) -> {
+            long current = stored == null ? 0 : stored.version();
+            if (current != invoice.version()) {
+                throw new StaleVersionException(id.value(), invoice.version(), current);
             }
-        }
-        return Optional.empty();
+            if (stored == null) {
+                index(invoice);
+            }
+            return invoice.withVersion(current + 1);
+        });
+    }
+
+    private void index(SalesInvoice invoice) {
+        insertionOrder.add(invoice.id());
+        byNumber.putIfAbsent(invoice.number(), invoice.id());
+        byCustomer.computeIfAbsent(invoice.customerId(), c -> new ConcurrentLinkedQueue<>()).add(invoice.id());
+    }
+
+    @Override
+    public Optional<SalesInvoice> findById(SalesInvoiceId id) {
+        return Optional.ofNullable(byId.get(id));
     }
 
     @Override
     public Optional<SalesInvoice> findByNumber(String number) {
-        for (SalesInvoice invoice : storage) {
-            if (invoice.number().equals(number)) {
-                return Optional.of(invoice);
-            }
-        }
-        return Optional.empty();
+        SalesInvoiceId id = byNumber.get(number);
+        return id == null ? Optional.empty() : findById(id);
     }
 
     @Override
     public List<SalesInvoice> findByCustomer(CustomerId customerId) {
-        List<SalesInvoice> result = new ArrayList<>();
-        for (SalesInvoice invoice : storage) {
-            if (invoice.customerId().equals(customerId)) {
-                result.add(invoice);
-            }
-        }
-        return result;
+        return resolve(byCustomer.getOrDefault(customerId, new ConcurrentLinkedQueue<>()));
     }
 
     @Override
     public List<SalesInvoice> findByStatus(InvoiceStatus status) {
         List<SalesInvoice> result = new ArrayList<>();
-        for (SalesInvoice invoice : storage) {
+        for (SalesInvoice invoice : findAll()) {
             if (invoice.status() == status) {
                 result.add(invoice);
             }
@@ -72,7 +83,7 @@ public final class InMemorySalesInvoiceRepository implements SalesInvoiceReposit
     @Override
     public List<SalesInvoice> findByIssueDateBetween(LocalDate from, LocalDate to) {
         List<SalesInvoice> result = new ArrayList<>();
-        for (SalesInvoice invoice : storage) {
+        for (SalesInvoice invoice : findAll()) {
             LocalDate issue = invoice.issueDate();
             if ((issue.isEqual(from) || issue.isAfter(from)) &&
                     (issue.isEqual(to) || issue.isBefore(to))) {
@@ -84,6 +95,17 @@ public final class InMemorySalesInvoiceRepository implements SalesInvoiceReposit
 
     @Override
     public List<SalesInvoice> findAll() {
-        return new ArrayList<>(storage);
+        return resolve(insertionOrder);
+    }
+
+    private List<SalesInvoice> resolve(Queue<SalesInvoiceId> ids) {
+        List<SalesInvoice> result = new ArrayList<>();
+        for (SalesInvoiceId id : ids) {
+            SalesInvoice invoice = byId.get(id);
+            if (invoice != null) {
+                result.add(invoice);
+            }
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -7,13 +7,14 @@ import fr.kovelya.accounting.domain.supplier.SupplierId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public final class InMemorySupplierRepository implements SupplierRepository {
 
-    private final List<Supplier> storage = new ArrayList<>();
+    private final List<Supplier> storage = new CopyOnWriteArrayList<>();
 
     @Override
-    public Supplier save(Supplier supplier) {
+    public synchronized Supplier save(Supplier supplier) {
         for (int i = 0; i < storage.size(); i++) {
             if (storage.get(i).id().equals(supplier.id())) {
                 storage.set(i, supplier);
@@ -0,0 +1,228 @@
+package fr.kovelya.accounting.infrastructure.persistence.memory;
+
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.repository.LedgerEntryRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class SegmentedLedgerEntryRepository implements LedgerEntryRepository {
+
+    static final int SEGMENT_CAPACITY = 1024;
+
+    private final ConcurrentHashMap<AccountId, AccountEntries> partitions = new ConcurrentHashMap<>();
+
+    @Override
+    public LedgerEntry save(LedgerEntry entry) {
+        partitions.computeIfAbsent(entry.accountId(), id -> new AccountEntries()).append(entry);
+        return entry;
+    }
+
+    @Override
+    public List<LedgerEntry> findByAccount(AccountId accountId) {
+        AccountEntries entries = partitions.get(accountId);
+        if (entries == null) {
+            return new ArrayList<>();
+        }
+        return entries.all();
+    }
+
+    @Override
+    public List<LedgerEntry> findByAccountAndPeriod(AccountId accountId, Instant from, Instant to) {
+        AccountEntries entries = partitions.get(accountId);
+        if (entries == null) {
+            return new ArrayList<>();
+        }
+        return entries.between(key(from), key(to));
+    }
+
+    static long key(Instant instant) {
+        long seconds = instant.getEpochSecond();
+        if (seconds >= Long.MAX_VALUE / 1_000_000_000L) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds <= Long.MIN_VALUE / 1_000_000_000L) {
+            return Long.MIN_VALUE;
+        }
+        return seconds * 1_000_000_000L + instant.getNano();
+    }
+
+    private static final class AccountEntries {
+
+        private final List<Segment> segments = new ArrayList<>();
+        private int size;
+
+        synchronized void append(LedgerEntry entry) {
+            long key = key(entry.timestamp());
+
+            if (segments.isEmpty()) {
+                segments.add(new Segment());
+            }
+
+            Segment tail = segments.get(segments.size() - 1);
+            if (tail.size == 0 || key >= tail.lastKey()) {
+                if (tail.isFull()) {
+                    tail = new Segment();
+                    segments.add(tail);
+                }
+                tail.add(entry, key);
+            } else {
+                insertLate(entry, key);
+            }
+            size++;
+        }
+
+        private void insertLate(LedgerEntry entry, long key) {
+            int index = segmentFor(key);
+            Segment segment = segments.get(index);
+            if (segment.isFull()) {
+                Segment right = segment.splitHalf();
+                segments.add(index + 1, right);
+                if (right.size > 0 && key >= right.firstKey()) {
+                    segment = right;
+                }
+            }
+            segment.insert(entry, key);
+        }
+
+        private int segmentFor(long key) {
+            int low = 0;
+            int high = segments.size() - 1;
+            int result = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (segments.get(mid).firstKey() <= key) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+
+        synchronized List<LedgerEntry> all() {
+            List<LedgerEntry> result = new ArrayList<>(size);
+            for (Segment segment : segments) {
+                segment.copyTo(result, 0, segment.size);
+            }
+            return result;
+        }
+
+        synchronized List<LedgerEntry> between(long fromKey, long toKey) {
+            List<LedgerEntry> result = new ArrayList<>();
+            if (fromKey > toKey) {
+                return result;
+            }
+
+            int low = 0;
+            int high = segments.size() - 1;
+            int first = segments.size();
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (segments.get(mid).lastKey() >= fromKey) {
+                    first = mid;
+                    high = mid - 1;
+                } else {
+                    low = mid + 1;
+                }
+            }
+
+            for (int i = first; i < segments.size(); i++) {
+                Segment segment = segments.get(i);
+                if (segment.firstKey() > toKey) {
+                    break;
+                }
+                int start = segment.lowerBound(fromKey);
+                int end = segment.upperBound(toKey);
+                segment.copyTo(result, start, end);
+            }
+            return result;
+        }
+    }
+
+    private static final class Segment {
+
+        private final LedgerEntry[] entries = new LedgerEntry[SEGMENT_CAPACITY];
+        private final long[] keys = new long[SEGMENT_CAPACITY];
+        private int size;
+
+        boolean isFull() {
+            return size == SEGMENT_CAPACITY;
+        }
+
+        long firstKey() {
+            return keys[0];
+        }
+
+        long lastKey() {
+            return keys[size - 1];
+        }
+
+        void add(LedgerEntry entry, long key) {
+            entries[size] = entry;
+            keys[size] = key;
+            size++;
+        }
+
+        void insert(LedgerEntry entry, long key) {
+            int position = upperBound(key);
+            System.arraycopy(entries, position, entries, position + 1, size - position);
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            entries[position] = entry;
+            keys[position] = key;
+            size++;
+        }
+
+        Segment splitHalf() {
+            Segment right = new Segment();
+            int half = size / 2;
+            int moved = size - half;
+            System.arraycopy(entries, half, right.entries, 0, moved);
+            System.arraycopy(keys, half, right.keys, 0, moved);
+            right.size = moved;
+            for (int i = half; i < size; i++) {
+                entries[i] = null;
+            }
+            size = half;
+            return right;
+        }
+
+        int lowerBound(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int upperBound(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void copyTo(List<LedgerEntry> target, int from, int to) {
+            for (int i = from; i < to; i++) {
+                target.add(entries[i]);
+            }
+        }
+    }
+}
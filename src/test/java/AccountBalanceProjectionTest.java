@@ -0,0 +1,72 @@
+import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.shared.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountBalanceProjectionTest {
+
+    @Test
+    void balancesFollowPostingsAndReversals() {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+
+        ctx.accountingService().postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("1000.00"), eur), JournalType.GENERAL, "Capital", LocalDate.of(2025, 1, 1));
+        ctx.accountingService().postJournalTransaction(
+                JournalType.GENERAL,
+                "WITHDRAW-1",
+                "Withdrawal",
+                LocalDate.of(2025, 1, 2),
+                new AccountPosting(ctx.capital().id(), Money.of(new BigDecimal("250.00"), eur), LedgerEntry.Direction.DEBIT),
+                new AccountPosting(ctx.bank().id(), Money.of(new BigDecimal("250.00"), eur), LedgerEntry.Direction.CREDIT)
+        );
+
+        assertEquals(0, new BigDecimal("750.00").compareTo(ctx.accountingService().getBalance(ctx.bank().id()).amount()));
+        assertEquals(0, new BigDecimal("750.00").compareTo(ctx.accountingService().getBalance(ctx.capital().id()).amount()));
+
+        var withdrawal = ctx.transactionRepository().findByJournalAndReference(JournalType.GENERAL, "WITHDRAW-1").orElseThrow();
+        ctx.accountingService().reverseTransaction(withdrawal.id(), "REV-WITHDRAW-1", null, LocalDate.of(2025, 1, 3));
+
+        assertEquals(0, new BigDecimal("1000.00").compareTo(ctx.accountingService().getBalance(ctx.bank().id()).amount()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(ctx.accountingService().getBalance(ctx.retainedEarnings().id()).amount()));
+    }
+
+    @Test
+    void rebuildFromJournalMatchesFullRecompute() {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+
+        for (int i = 1; i <= 20; i++) {
+            ctx.accountingService().postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal(i), eur), JournalType.GENERAL, "Capital " + i, LocalDate.of(2025, 1, i));
+        }
+
+        var rebuilt = AccountBalanceProjection.rebuild(ctx.transactionRepository());
+        var accountIds = List.of(ctx.bank().id(), ctx.capital().id(), ctx.retainedEarnings().id());
+
+        assertTrue(rebuilt.verify(ctx.ledgerEntryRepository(), accountIds).isEmpty());
+        assertEquals(0, new BigDecimal("210").compareTo(rebuilt.totalsFor(ctx.bank().id()).debit()));
+        assertEquals(0, new BigDecimal("210").compareTo(rebuilt.totalsFor(ctx.capital().id()).credit()));
+    }
+
+    @Test
+    void verifyReportsEntriesMissingFromProjection() {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+
+        ctx.accountingService().postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("100"), eur), JournalType.GENERAL, "Capital", LocalDate.of(2025, 1, 1));
+        var projection = AccountBalanceProjection.rebuild(ctx.transactionRepository());
+
+        ctx.ledgerEntryRepository().save(LedgerEntry.create(ctx.bank().id(), Money.of(new BigDecimal("5"), eur), LedgerEntry.Direction.DEBIT, "Stray", Instant.now()));
+
+        assertEquals(List.of(ctx.bank().id()), projection.verify(ctx.ledgerEntryRepository(), List.of(ctx.bank().id(), ctx.capital().id())));
+    }
+}
@@ -0,0 +1,118 @@
+import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.dto.BulkPostingResult;
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.application.dto.JournalPostingRequest;
+import fr.kovelya.accounting.application.service.impl.AccountingServiceImpl;
+import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import fr.kovelya.accounting.infrastructure.persistence.memory.SegmentedLedgerEntryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkInvoicePostingTest {
+
+    @Test
+    void bulkPostingReportsPostedSkippedAndFailedInvoices() {
+        var ctx = TestBootstrap.bootstrap();
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-BULK", "Customer bulk");
+        List<SalesInvoiceId> ids = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            ids.add(ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-BULK-" + i, customer.id(),
+                    LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                    new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD),
+                    new InvoiceLineRequest("Export", new BigDecimal("30.00"), TaxCategory.EXEMPT)).id());
+        }
+        ctx.invoicePostingService().postInvoice(ids.get(0));
+
+        SalesInvoiceId outOfPeriod = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-BULK-OLD", customer.id(),
+                LocalDate.of(1999, 1, 10), LocalDate.of(1999, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD)).id();
+        LedgerId emptyLedger = new LedgerId(UUID.randomUUID());
+        var foreignCustomer = ctx.invoicingService().createCustomer(emptyLedger, "CUST-BULK-X", "Foreign customer");
+        SalesInvoiceId noAccounts = ctx.invoicingService().createDraftInvoice(emptyLedger, "INV-BULK-X", foreignCustomer.id(),
+                LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD)).id();
+        SalesInvoiceId missing = SalesInvoiceId.newId();
+
+        List<SalesInvoiceId> batch = new ArrayList<>(ids);
+        batch.add(ids.get(1));
+        batch.add(outOfPeriod);
+        batch.add(noAccounts);
+        batch.add(missing);
+
+        BulkPostingResult<SalesInvoiceId> result = ctx.invoicePostingService().postInvoices(batch);
+
+        assertEquals(1499, result.posted().size());
+        assertEquals(ids.subList(1, 1500), result.posted());
+        assertEquals(List.of(ids.get(0)), result.skipped());
+        assertEquals(3, result.failed().size());
+        assertInstanceOf(IllegalStateException.class, result.failed().get(outOfPeriod));
+        assertInstanceOf(IllegalStateException.class, result.failed().get(noAccounts));
+        assertInstanceOf(IllegalArgumentException.class, result.failed().get(missing));
+        assertEquals(1503, result.total());
+
+        assertEquals(1500, ctx.transactionRepository().findByJournal(JournalType.SALES).size());
+        assertEquals(InvoiceStatus.ISSUED, ctx.salesInvoiceRepository().findById(ids.get(1499)).orElseThrow().status());
+        var receivable = ctx.accountRepository().findByCode(ctx.ledgerId(), "4110").orElseThrow();
+        var revenue = ctx.accountRepository().findByCode(ctx.ledgerId(), "7060").orElseThrow();
+        var vat = ctx.accountRepository().findByCode(ctx.ledgerId(), "4457").orElseThrow();
+        assertEquals(0, new BigDecimal("225000").compareTo(ctx.accountingService().getBalance(receivable.id()).amount()));
+        assertEquals(0, new BigDecimal("195000").compareTo(ctx.accountingService().getBalance(revenue.id()).amount()));
+        assertEquals(0, new BigDecimal("30000").compareTo(ctx.accountingService().getBalance(vat.id()).amount()));
+        assertEquals(0, new BigDecimal("150").compareTo(ctx.salesInvoiceBalances().outstanding(
+                ids.get(7), ctx.salesInvoiceRepository().findById(ids.get(7)).orElseThrow().total()).amount()));
+
+        BulkPostingResult<SalesInvoiceId> again = ctx.invoicePostingService().postInvoices(ids);
+        assertTrue(again.posted().isEmpty());
+        assertEquals(1500, again.skipped().size());
+    }
+
+    @Test
+    void durabilityFailureStopsTheJournalInsteadOfReportingDuplicates() {
+        var ctx = TestBootstrap.bootstrap();
+        var amount = Money.of(new BigDecimal("10"), Currency.getInstance("EUR"));
+        var repository = new FailingAfterIndexJournalRepository(() -> {
+            throw new UncheckedIOException(new IOException("fsync failed"));
+        });
+        var entries = new SegmentedLedgerEntryRepository();
+        var accountingService = new AccountingServiceImpl(ctx.accountRepository(), entries, repository, ctx.periodRepository());
+        List<JournalPostingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requests.add(new JournalPostingRequest(JournalType.GENERAL, "BULK-IO-" + i, "Bulk", LocalDate.of(2025, 1, 15),
+                    new AccountPosting(ctx.bank().id(), amount, LedgerEntry.Direction.DEBIT),
+                    new AccountPosting(ctx.capital().id(), amount, LedgerEntry.Direction.CREDIT)));
+        }
+
+        Map<String, RuntimeException> failures = accountingService.postJournalTransactions(requests);
+
+        assertEquals(3, failures.size());
+        for (RuntimeException failure : failures.values()) {
+            assertInstanceOf(UncheckedIOException.class, failure);
+        }
+
+        Map<String, RuntimeException> retried = accountingService.postJournalTransactions(requests);
+
+        assertEquals(3, retried.size());
+        for (RuntimeException failure : retried.values()) {
+            assertInstanceOf(IllegalStateException.class, failure);
+        }
+        assertThrows(IllegalStateException.class, () -> repository.findByJournalAndReference(JournalType.GENERAL, "BULK-IO-0"));
+        assertTrue(entries.findByAccount(ctx.bank().id()).isEmpty());
+    }
+}
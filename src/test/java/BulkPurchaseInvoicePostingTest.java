@@ -0,0 +1,78 @@
+import fr.kovelya.accounting.application.dto.BulkPostingResult;
+import fr.kovelya.accounting.application.dto.PurchaseInvoiceLineRequest;
+import fr.kovelya.accounting.application.service.impl.PurchaseInvoicePostingServiceImpl;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceStatus;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import fr.kovelya.accounting.domain.tax.VatRate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkPurchaseInvoicePostingTest {
+
+    @Test
+    void bulkPostingSplitsAcrossTheForkJoinPoolAndReportsEveryInvoice() {
+        var ctx = TestBootstrap.bootstrap();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            var service = new PurchaseInvoicePostingServiceImpl(ctx.purchaseInvoiceRepository(), ctx.purchaseInvoiceBalances(), ctx.accountRepository(),
+                    ctx.accountingService(), ctx.transactionRepository(), "4010", "6060", "4456",
+                    VatRate.ofFraction(new BigDecimal("0.20")), pool, 16);
+            var supplier = ctx.purchasingService().createSupplier(ctx.ledgerId(), "SUP-BULK", "Supplier bulk");
+            List<PurchaseInvoiceId> ids = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                ids.add(ctx.purchasingService().createDraftPurchaseInvoice(ctx.ledgerId(), "BILL-BULK-" + i, supplier.id(),
+                        LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1),
+                        new PurchaseInvoiceLineRequest("Subcontracting", new BigDecimal("240.00"), TaxCategory.STANDARD),
+                        new PurchaseInvoiceLineRequest("Exempt fees", new BigDecimal("10.00"), TaxCategory.EXEMPT)).id());
+            }
+            service.postPurchaseInvoice(ids.get(3));
+            PurchaseInvoiceId outOfPeriod = ctx.purchasingService().createDraftPurchaseInvoice(ctx.ledgerId(), "BILL-BULK-OLD", supplier.id(),
+                    LocalDate.of(1999, 3, 1), LocalDate.of(1999, 4, 1),
+                    new PurchaseInvoiceLineRequest("Subcontracting", new BigDecimal("240.00"), TaxCategory.STANDARD)).id();
+            PurchaseInvoiceId cancelled = ctx.purchasingService().createDraftPurchaseInvoice(ctx.ledgerId(), "BILL-BULK-CXL", supplier.id(),
+                    LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1),
+                    new PurchaseInvoiceLineRequest("Subcontracting", new BigDecimal("240.00"), TaxCategory.STANDARD)).id();
+            ctx.purchaseInvoiceRepository().save(ctx.purchaseInvoiceRepository().findById(cancelled).orElseThrow().cancel());
+
+            List<PurchaseInvoiceId> batch = new ArrayList<>(ids);
+            batch.add(outOfPeriod);
+            batch.add(cancelled);
+            BulkPostingResult<PurchaseInvoiceId> result = service.postPurchaseInvoices(batch);
+
+            assertEquals(499, result.posted().size());
+            assertFalse(result.posted().contains(ids.get(3)));
+            assertEquals(List.of(ids.get(3)), result.skipped());
+            assertEquals(Set.of(outOfPeriod, cancelled), result.failed().keySet());
+            assertInstanceOf(IllegalStateException.class, result.failed().get(outOfPeriod));
+            assertInstanceOf(IllegalStateException.class, result.failed().get(cancelled));
+
+            assertEquals(500, ctx.transactionRepository().findByJournal(JournalType.PURCHASES).size());
+            assertEquals(PurchaseInvoiceStatus.ISSUED, ctx.purchaseInvoiceRepository().findById(ids.get(499)).orElseThrow().status());
+            var payable = ctx.accountRepository().findByCode(ctx.ledgerId(), "4010").orElseThrow();
+            var expense = ctx.accountRepository().findByCode(ctx.ledgerId(), "6060").orElseThrow();
+            var vat = ctx.accountRepository().findByCode(ctx.ledgerId(), "4456").orElseThrow();
+            assertEquals(0, new BigDecimal("125000").compareTo(ctx.accountingService().getBalance(payable.id()).amount()));
+            assertEquals(0, new BigDecimal("105000").compareTo(ctx.accountingService().getBalance(expense.id()).amount()));
+            assertEquals(0, new BigDecimal("20000").compareTo(ctx.accountingService().getBalance(vat.id()).amount()));
+
+            BulkPostingResult<PurchaseInvoiceId> again = service.postPurchaseInvoices(ids);
+            assertTrue(again.posted().isEmpty());
+            assertEquals(500, again.skipped().size());
+            assertThrows(IllegalArgumentException.class, () -> new PurchaseInvoicePostingServiceImpl(ctx.purchaseInvoiceRepository(), ctx.purchaseInvoiceBalances(),
+                    ctx.accountRepository(), ctx.accountingService(), ctx.transactionRepository(), "4010", "6060", "4456",
+                    VatRate.ofFraction(new BigDecimal("0.20")), pool, 0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.account.ChartOfAccounts;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.repository.DuplicateAccountCodeException;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChartOfAccountsTest {
+
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    @Test
+    void codesAreUniquePerLedgerAndSnapshotsAreImmutable() {
+        var repository = new InMemoryAccountRepository();
+        LedgerId first = new LedgerId(UUID.randomUUID());
+        LedgerId second = new LedgerId(UUID.randomUUID());
+
+        Account bank = repository.save(Account.open(first, "5121", "Bank", AccountType.ASSET, EUR));
+        repository.save(Account.open(first, "1010", "Capital", AccountType.EQUITY, EUR));
+        Account otherBank = repository.save(Account.open(second, "5121", "Other bank", AccountType.ASSET, EUR));
+
+        ChartOfAccounts chart = repository.chartOf(first);
+        assertEquals(List.of("1010", "5121"), chart.accounts().stream().map(Account::code).toList());
+        assertEquals(bank.id(), repository.findByCode(first, "5121").orElseThrow().id());
+        assertEquals(otherBank.id(), repository.findByCode(second, "5121").orElseThrow().id());
+        assertThrows(IllegalStateException.class, () -> repository.findByCode("5121"));
+        assertTrue(repository.findByCode("1010").isPresent());
+
+        DuplicateAccountCodeException duplicate = assertThrows(DuplicateAccountCodeException.class,
+                () -> repository.save(Account.open(first, "5121", "Second bank", AccountType.ASSET, EUR)));
+        assertEquals("5121", duplicate.code());
+        assertEquals(first, duplicate.ledgerId());
+
+        repository.save(Account.open(first, "7060", "Revenue", AccountType.INCOME, EUR));
+        repository.save(new Account(bank.id(), first, "5122", "Bank renamed", AccountType.ASSET, EUR, true));
+
+        assertEquals(2, chart.size());
+        assertThrows(UnsupportedOperationException.class, () -> chart.accounts().clear());
+        ChartOfAccounts updated = repository.chartOf(first);
+        assertEquals(List.of("1010", "5122", "7060"), updated.accounts().stream().map(Account::code).toList());
+        assertTrue(updated.findByCode("5121").isEmpty());
+        assertEquals(0, repository.chartOf(new LedgerId(UUID.randomUUID())).size());
+    }
+
+    @Test
+    void bulkLoadMatchesSavingOneAccountAtATime() {
+        LedgerId ledgerId = new LedgerId(UUID.randomUUID());
+        Account bank = Account.open(ledgerId, "5121", "Bank", AccountType.ASSET, EUR);
+        Account capital = Account.open(ledgerId, "1010", "Capital", AccountType.EQUITY, EUR);
+        Account renamed = new Account(bank.id(), ledgerId, "5122", "Bank renamed", AccountType.ASSET, EUR, true);
+        List<Account> history = List.of(bank, capital, renamed);
+
+        var saved = new InMemoryAccountRepository();
+        history.forEach(saved::save);
+        var loaded = new InMemoryAccountRepository();
+        loaded.saveAll(history);
+
+        assertEquals(saved.chartOf(ledgerId).accounts(), loaded.chartOf(ledgerId).accounts());
+        assertEquals(saved.chartOf(ledgerId).accounts(), ChartOfAccounts.of(ledgerId, history).accounts());
+        assertEquals(List.of("1010", "5122"), loaded.chartOf(ledgerId).accounts().stream().map(Account::code).toList());
+        assertEquals(2, loaded.findAll().size());
+        assertThrows(IllegalArgumentException.class,
+                () -> loaded.saveAll(List.of(Account.open(ledgerId, "1010", "Second capital", AccountType.EQUITY, EUR))));
+        assertEquals(2, loaded.findAll().size());
+    }
+
+    @Test
+    void postingResolvesAccountsInTheInvoiceLedger() {
+        var ctx = TestBootstrap.bootstrap();
+        LedgerId otherLedger = new LedgerId(UUID.randomUUID());
+        ctx.accountingService().openAccount(otherLedger, "4110", "Foreign receivables", "EUR", AccountType.ASSET);
+        ctx.accountingService().openAccount(otherLedger, "7060", "Foreign revenue", "EUR", AccountType.INCOME);
+        ctx.accountingService().openAccount(otherLedger, "4457", "Foreign VAT", "EUR", AccountType.LIABILITY);
+
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-COA", "Customer COA");
+        var invoice = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-COA", customer.id(),
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1),
+                new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD));
+        ctx.invoicePostingService().postInvoice(invoice.id());
+
+        var transaction = ctx.transactionRepository().findByJournalAndReference(JournalType.SALES, "INV-COA").orElseThrow();
+        ChartOfAccounts chart = ctx.accountRepository().chartOf(ctx.ledgerId());
+        for (var entry : transaction.entries()) {
+            assertEquals(ctx.ledgerId(), ctx.accountRepository().findById(entry.accountId()).orElseThrow().ledgerId());
+        }
+        assertEquals(chart.accounts(), ctx.accountingService().listAccounts(ctx.ledgerId()));
+        assertEquals(3, ctx.accountingService().listAccounts(otherLedger).size());
+    }
+}
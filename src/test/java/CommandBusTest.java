@@ -0,0 +1,186 @@
+import fr.kovelya.accounting.application.command.AccountingCommand;
+import fr.kovelya.accounting.application.command.CommandBus;
+import fr.kovelya.accounting.application.dto.BulkPostingResult;
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.application.dto.SalesInvoicePaymentAllocation;
+import fr.kovelya.accounting.application.service.InvoicePostingService;
+import fr.kovelya.accounting.application.service.impl.IdempotencyExecutor;
+import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryIdempotencyRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandBusTest {
+
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    @Test
+    void commandsOnOneLedgerRunInSubmissionOrder() throws Exception {
+        var ctx = TestBootstrap.bootstrap();
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-BUS", "Customer bus");
+        List<SalesInvoice> drafts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            drafts.add(ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-BUS-" + i, customer.id(),
+                    LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                    new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD)));
+        }
+        Money half = Money.of(new BigDecimal("60.00"), EUR);
+        List<CompletableFuture<UUID>> futures = new ArrayList<>();
+
+        try (CommandBus bus = bus(ctx, ctx.invoicePostingService(), 16)) {
+            for (SalesInvoice draft : drafts) {
+                futures.add(bus.submit(new AccountingCommand.PostInvoice(UUID.randomUUID(), draft.id())));
+                futures.add(bus.submit(new AccountingCommand.RecordPayment(UUID.randomUUID(), draft.id(), "5121", half, LocalDate.of(2025, 2, 1))));
+                futures.add(bus.submit(new AccountingCommand.RecordPayment(UUID.randomUUID(), draft.id(), "5121", half, LocalDate.of(2025, 2, 2))));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            assertEquals(0, bus.pending());
+        }
+
+        for (SalesInvoice draft : drafts) {
+            assertEquals(InvoiceStatus.PAID, ctx.salesInvoiceRepository().findById(draft.id()).orElseThrow().status());
+        }
+        assertEquals(0, new BigDecimal("6000").compareTo(ctx.accountingService().getBalance(ctx.bank().id()).amount()));
+    }
+
+    @Test
+    void failuresCompleteTheirFutureWithoutBlockingTheLaneAndPostingsAreIdempotent() throws Exception {
+        var ctx = TestBootstrap.bootstrap();
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-BUS-2", "Customer bus 2");
+        var draft = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-BUS-F", customer.id(),
+                LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD));
+        AtomicInteger postings = new AtomicInteger();
+        InvoicePostingService counting = postingService(invoiceId -> {
+            postings.incrementAndGet();
+            ctx.invoicePostingService().postInvoice(invoiceId);
+        });
+        UUID postCommand = UUID.randomUUID();
+        Money tooMuch = Money.of(new BigDecimal("500.00"), EUR);
+
+        try (CommandBus bus = bus(ctx, counting, 4)) {
+            CompletableFuture<UUID> premature = bus.submit(new AccountingCommand.RecordPayment(UUID.randomUUID(), draft.id(), "5121", tooMuch, LocalDate.of(2025, 2, 1)));
+            CompletableFuture<UUID> posted = bus.submit(new AccountingCommand.PostInvoice(postCommand, draft.id()));
+            CompletableFuture<UUID> replayed = bus.submit(new AccountingCommand.PostInvoice(postCommand, draft.id()));
+            CompletableFuture<UUID> missing = bus.submit(new AccountingCommand.PostInvoice(UUID.randomUUID(), new SalesInvoiceId("missing")));
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> premature.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+            assertEquals(postCommand, posted.get(10, TimeUnit.SECONDS));
+            assertEquals(postCommand, replayed.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class,
+                    assertThrows(ExecutionException.class, () -> missing.get(10, TimeUnit.SECONDS)).getCause());
+        }
+
+        assertEquals(2, postings.get());
+        assertEquals(InvoiceStatus.ISSUED, ctx.salesInvoiceRepository().findById(draft.id()).orElseThrow().status());
+    }
+
+    @Test
+    void submitBlocksWhenTheQueueIsFullAndRejectsAfterClose() throws Exception {
+        var ctx = TestBootstrap.bootstrap();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        InvoicePostingService blocking = postingService(invoiceId -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CommandBus bus = bus(ctx, blocking, 1);
+        CompletableFuture<UUID> first = bus.submit(new AccountingCommand.PostInvoice(UUID.randomUUID(), SalesInvoiceId.newId()));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(1, bus.pending());
+
+        CompletableFuture<CompletableFuture<UUID>> second = CompletableFuture.supplyAsync(
+                () -> bus.submit(new AccountingCommand.PostInvoice(UUID.randomUUID(), SalesInvoiceId.newId())));
+        Thread.sleep(200);
+        assertFalse(second.isDone());
+
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS);
+
+        bus.close();
+        assertThrows(IllegalStateException.class, () -> bus.submit(new AccountingCommand.PostInvoice(UUID.randomUUID(), SalesInvoiceId.newId())));
+        assertThrows(IllegalArgumentException.class, () -> bus.submit(new AccountingCommand.PostInvoice(null, SalesInvoiceId.newId())));
+    }
+
+    @Test
+    void batchPaymentsSpanningSeveralLedgersAreRejected() {
+        var ctx = TestBootstrap.bootstrap();
+        LedgerId otherLedger = new LedgerId(UUID.randomUUID());
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-BUS-3", "Customer bus 3");
+        var otherCustomer = ctx.invoicingService().createCustomer(otherLedger, "CUST-BUS-4", "Customer bus 4");
+        var local = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-BUS-L", customer.id(),
+                LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD));
+        var foreign = ctx.invoicingService().createDraftInvoice(otherLedger, "INV-BUS-O", otherCustomer.id(),
+                LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD));
+        Money amount = Money.of(new BigDecimal("10.00"), EUR);
+
+        try (CommandBus bus = bus(ctx, ctx.invoicePostingService(), 4)) {
+            CompletableFuture<UUID> rejected = bus.submit(new AccountingCommand.RecordBatchPayment(
+                    UUID.randomUUID(), "5121", LocalDate.of(2025, 2, 1),
+                    List.of(new SalesInvoicePaymentAllocation(local.id(), amount), new SalesInvoicePaymentAllocation(foreign.id(), amount))));
+
+            assertInstanceOf(IllegalArgumentException.class,
+                    assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS)).getCause());
+            assertEquals(0, bus.pending());
+        }
+    }
+
+    private static InvoicePostingService postingService(Consumer<SalesInvoiceId> post) {
+        return new InvoicePostingService() {
+            @Override
+            public void postInvoice(SalesInvoiceId invoiceId) {
+                post.accept(invoiceId);
+            }
+
+            @Override
+            public BulkPostingResult<SalesInvoiceId> postInvoices(Collection<SalesInvoiceId> invoiceIds) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static CommandBus bus(TestBootstrap.Context ctx, InvoicePostingService postingService, int maxPending) {
+        return new CommandBus(
+                ctx.salesInvoiceRepository(),
+                ctx.purchaseInvoiceRepository(),
+                postingService,
+                ctx.invoicePaymentService(),
+                ctx.customerBatchPaymentService(),
+                ctx.customerCreditApplicationService(),
+                ctx.purchaseInvoicePostingService(),
+                ctx.purchaseInvoicePaymentService(),
+                ctx.supplierBatchPaymentService(),
+                ctx.supplierAdvanceApplicationService(),
+                new IdempotencyExecutor(new InMemoryIdempotencyRepository()),
+                maxPending
+        );
+    }
+}
@@ -1,4 +1,6 @@
+import fr.kovelya.accounting.domain.account.AccountType;
 import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
 import fr.kovelya.accounting.domain.shared.Money;
 import org.junit.jupiter.api.Test;
 
@@ -44,4 +46,29 @@ public class CustomerUnallocatedPaymentTest {
         assertEquals(1, ctx.ledgerEntryRepository().findByAccount(bank.id()).size());
         assertEquals(1, ctx.ledgerEntryRepository().findByAccount(adv.id()).size());
     }
+
+    @Test
+    void unallocatedCustomerPaymentUsesTheCustomerLedgerAccounts() {
+        var ctx = TestBootstrap.bootstrap();
+        LedgerId otherLedger = new LedgerId(UUID.randomUUID());
+        var otherBank = ctx.accountingService().openAccount(otherLedger, "5121", "Foreign bank", "EUR", AccountType.ASSET);
+        var otherAdvances = ctx.accountingService().openAccount(otherLedger, "4191", "Foreign advances", "EUR", AccountType.LIABILITY);
+
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-ADV-002", "Acme");
+        ctx.customerAdvanceReceiptService().recordUnallocatedPayment(
+                UUID.randomUUID(),
+                customer.id(),
+                "5121",
+                Money.of(new BigDecimal("100.00"), Currency.getInstance("EUR")),
+                LocalDate.of(2025, 1, 5)
+        );
+
+        var bank = ctx.accountRepository().findByCode(ctx.ledgerId(), "5121").orElseThrow();
+        var adv = ctx.accountRepository().findByCode(ctx.ledgerId(), "4191").orElseThrow();
+        assertEquals(1, ctx.ledgerEntryRepository().findByAccount(bank.id()).size());
+        assertEquals(1, ctx.ledgerEntryRepository().findByAccount(adv.id()).size());
+        assertTrue(ctx.ledgerEntryRepository().findByAccount(otherBank.id()).isEmpty());
+        assertTrue(ctx.ledgerEntryRepository().findByAccount(otherAdvances.id()).isEmpty());
+        assertThrows(IllegalStateException.class, () -> ctx.accountRepository().findByCode("5121"));
+    }
 }
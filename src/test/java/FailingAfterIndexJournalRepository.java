@@ -0,0 +1,76 @@
+import fr.kovelya.accounting.domain.ledger.JournalTransaction;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.TransactionId;
+import fr.kovelya.accounting.domain.repository.JournalTransactionRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryJournalTransactionRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+final class FailingAfterIndexJournalRepository implements JournalTransactionRepository {
+
+    private final InMemoryJournalTransactionRepository index = new InMemoryJournalTransactionRepository();
+    private final Runnable afterIndex;
+    private volatile RuntimeException failure;
+
+    FailingAfterIndexJournalRepository(Runnable afterIndex) {
+        this.afterIndex = afterIndex;
+    }
+
+    @Override
+    public JournalTransaction save(JournalTransaction transaction) {
+        requireWritable();
+        return index.save(transaction);
+    }
+
+    @Override
+    public List<JournalTransaction> saveAll(List<JournalTransaction> transactions) {
+        requireWritable();
+        index.saveAll(transactions);
+        try {
+            afterIndex.run();
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        }
+        return transactions;
+    }
+
+    private void requireWritable() {
+        if (failure != null) {
+            throw new IllegalStateException("Journal failed to persist a write", failure);
+        }
+    }
+
+    @Override
+    public Optional<JournalTransaction> findById(TransactionId id) {
+        return index.findById(id);
+    }
+
+    @Override
+    public Optional<JournalTransaction> findByJournalAndReference(JournalType journalType, String reference) {
+        requireWritable();
+        return index.findByJournalAndReference(journalType, reference);
+    }
+
+    @Override
+    public List<JournalTransaction> findAll() {
+        return index.findAll();
+    }
+
+    @Override
+    public List<JournalTransaction> findByPeriod(Instant from, Instant to) {
+        return index.findByPeriod(from, to);
+    }
+
+    @Override
+    public List<JournalTransaction> findByJournal(JournalType journalType) {
+        return index.findByJournal(journalType);
+    }
+
+    @Override
+    public List<JournalTransaction> findByJournalAndPeriod(JournalType journalType, Instant from, Instant to) {
+        return index.findByJournalAndPeriod(journalType, from, to);
+    }
+}
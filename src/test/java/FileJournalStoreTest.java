@@ -0,0 +1,137 @@
+import fr.kovelya.accounting.application.service.impl.AccountingServiceImpl;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.file.FileJournalStore;
+import fr.kovelya.accounting.infrastructure.persistence.file.FsyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileJournalStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void transactionsSurviveReopen() {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+        var file = dir.resolve("journal.log");
+
+        try (var store = FileJournalStore.open(file, FsyncPolicy.perTransaction())) {
+            var accountingService = new AccountingServiceImpl(ctx.accountRepository(), store.ledgerEntryRepository(), store.transactionRepository(), ctx.periodRepository());
+            for (int i = 1; i <= 10; i++) {
+                accountingService.postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal(i + ".50"), eur), JournalType.GENERAL, "Capital " + i, LocalDate.of(2025, 1, i));
+            }
+        }
+
+        try (var store = FileJournalStore.open(file, FsyncPolicy.osManaged())) {
+            var accountingService = new AccountingServiceImpl(ctx.accountRepository(), store.ledgerEntryRepository(), store.transactionRepository(), ctx.periodRepository());
+
+            assertEquals(10, store.transactionRepository().findAll().size());
+            assertEquals(10, store.ledgerEntryRepository().findByAccount(ctx.bank().id()).size());
+            assertEquals(0, new BigDecimal("60.00").compareTo(accountingService.getBalance(ctx.bank().id()).amount()));
+
+            var first = store.transactionRepository().findAll().get(0);
+            assertEquals(first, store.transactionRepository().findByJournalAndReference(JournalType.GENERAL, first.reference()).orElseThrow());
+            assertEquals(LocalDate.of(2025, 1, 1), first.getTransactionDate());
+            assertEquals(ctx.period().id(), first.getPeriodId());
+        }
+    }
+
+    @Test
+    void tornTailIsTruncatedOnRecovery() throws IOException {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+        var file = dir.resolve("journal.log");
+
+        try (var store = FileJournalStore.open(file, FsyncPolicy.osManaged())) {
+            var accountingService = new AccountingServiceImpl(ctx.accountRepository(), store.ledgerEntryRepository(), store.transactionRepository(), ctx.periodRepository());
+            accountingService.postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("100"), eur), JournalType.GENERAL, "First", LocalDate.of(2025, 1, 1));
+            accountingService.postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("200"), eur), JournalType.GENERAL, "Second", LocalDate.of(2025, 1, 2));
+        }
+
+        long size = Files.size(file);
+        try (var raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size - 7);
+        }
+
+        try (var store = FileJournalStore.open(file, FsyncPolicy.groupCommit(Duration.ofMillis(2)))) {
+            assertEquals(1, store.transactionRepository().findAll().size());
+            assertEquals("First", store.transactionRepository().findAll().get(0).description());
+
+            var accountingService = new AccountingServiceImpl(ctx.accountRepository(), store.ledgerEntryRepository(), store.transactionRepository(), ctx.periodRepository());
+            accountingService.postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("300"), eur), JournalType.GENERAL, "Third", LocalDate.of(2025, 1, 3));
+        }
+
+        try (var store = FileJournalStore.open(file, FsyncPolicy.osManaged())) {
+            assertEquals(2, store.transactionRepository().findAll().size());
+            assertEquals("Third", store.transactionRepository().findAll().get(1).description());
+        }
+    }
+
+    @Test
+    void corruptedRecordStopsReplay() throws IOException {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+        var file = dir.resolve("journal.log");
+        long firstRecordEnd;
+
+        try (var store = FileJournalStore.open(file, FsyncPolicy.osManaged())) {
+            var accountingService = new AccountingServiceImpl(ctx.accountRepository(), store.ledgerEntryRepository(), store.transactionRepository(), ctx.periodRepository());
+            accountingService.postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("100"), eur), JournalType.GENERAL, "First", LocalDate.of(2025, 1, 1));
+            firstRecordEnd = store.log().position();
+            accountingService.postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("200"), eur), JournalType.GENERAL, "Second", LocalDate.of(2025, 1, 2));
+        }
+
+        try (var raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(firstRecordEnd + 20);
+            int value = raf.read();
+            raf.seek(firstRecordEnd + 20);
+            raf.write(value ^ 0xFF);
+        }
+
+        try (var store = FileJournalStore.open(file, FsyncPolicy.osManaged())) {
+            assertEquals(1, store.transactionRepository().findAll().size());
+            assertEquals(firstRecordEnd, Files.size(file));
+        }
+    }
+
+    @Test
+    void corruptedRecordFollowedByValidRecordsFailsRecovery() throws IOException {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+        var file = dir.resolve("journal.log");
+        long firstRecordEnd;
+
+        try (var store = FileJournalStore.open(file, FsyncPolicy.osManaged())) {
+            var accountingService = new AccountingServiceImpl(ctx.accountRepository(), store.ledgerEntryRepository(), store.transactionRepository(), ctx.periodRepository());
+            accountingService.postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("100"), eur), JournalType.GENERAL, "First", LocalDate.of(2025, 1, 1));
+            firstRecordEnd = store.log().position();
+            accountingService.postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("200"), eur), JournalType.GENERAL, "Second", LocalDate.of(2025, 1, 2));
+            accountingService.postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("300"), eur), JournalType.GENERAL, "Third", LocalDate.of(2025, 1, 3));
+        }
+
+        long size = Files.size(file);
+        try (var raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(firstRecordEnd + 20);
+            int value = raf.read();
+            raf.seek(firstRecordEnd + 20);
+            raf.write(value ^ 0xFF);
+        }
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> FileJournalStore.open(file, FsyncPolicy.osManaged()));
+        assertTrue(failure.getMessage().contains("offset " + firstRecordEnd));
+        assertEquals(size, Files.size(file));
+    }
+}
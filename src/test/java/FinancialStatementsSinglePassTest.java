@@ -0,0 +1,74 @@
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.application.dto.PurchaseInvoiceLineRequest;
+import fr.kovelya.accounting.application.report.BalanceSheetView;
+import fr.kovelya.accounting.application.report.FinancialStatementsView;
+import fr.kovelya.accounting.application.report.IncomeStatementView;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FinancialStatementsSinglePassTest {
+
+    @Test
+    void singlePassMatchesPerStatementViewsBeforeAndAfterClosing() {
+        var ctx = TestBootstrap.bootstrap();
+
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-001", "Acme");
+        var supplier = ctx.purchasingService().createSupplier(ctx.ledgerId(), "SUP-001", "Supplier");
+        for (int i = 0; i < 5; i++) {
+            var invoice = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-STMT-" + i, customer.id(),
+                    LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                    new InvoiceLineRequest("Service", new BigDecimal("120.50").add(BigDecimal.valueOf(i)), TaxCategory.STANDARD));
+            ctx.invoicePostingService().postInvoice(invoice.id());
+        }
+        var purchase = ctx.purchasingService().createDraftPurchaseInvoice(ctx.ledgerId(), "PINV-STMT-0001", supplier.id(),
+                LocalDate.of(2025, 1, 12), LocalDate.of(2025, 2, 12),
+                new PurchaseInvoiceLineRequest("Subcontract", new BigDecimal("80.00"), TaxCategory.STANDARD));
+        ctx.purchaseInvoicePostingService().postPurchaseInvoice(purchase.id());
+
+        assertMatchesSeparateCalls(ctx);
+
+        ctx.periodClosingService().closePeriod(ctx.period(), ctx.retainedEarnings().id());
+
+        var statements = assertMatchesSeparateCalls(ctx);
+        assertEquals(0, statements.incomeStatement().netIncome().amount().signum());
+        assertTrue(statements.operatingIncomeStatement().netIncome().amount().signum() > 0);
+        assertEquals(statements.balanceSheet().totalEquity(), statements.balanceSheet().derivedEquity());
+    }
+
+    @Test
+    void emptyPeriodDefaultsToZeroInEuro() {
+        var ctx = TestBootstrap.bootstrap();
+        var period = ctx.accountingService().createPeriod(ctx.ledgerId(), "FY2026", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31));
+
+        var statements = ctx.financialStatementsService().getStatements(period);
+
+        assertEquals("EUR", statements.incomeStatement().totalRevenue().currency().getCurrencyCode());
+        assertEquals(0, statements.operatingIncomeStatement().netIncome().amount().signum());
+        assertEquals(0, statements.balanceSheet().totalAssets().amount().signum());
+    }
+
+    private static FinancialStatementsView assertMatchesSeparateCalls(TestBootstrap.Context ctx) {
+        var service = ctx.financialStatementsService();
+        var statements = service.getStatements(ctx.period());
+        assertSameIncome(service.getIncomeStatement(ctx.period()), statements.incomeStatement());
+        assertSameIncome(service.getOperatingIncomeStatement(ctx.period()), statements.operatingIncomeStatement());
+        BalanceSheetView expected = service.getBalanceSheet(ctx.period());
+        BalanceSheetView actual = statements.balanceSheet();
+        assertEquals(expected.totalAssets(), actual.totalAssets());
+        assertEquals(expected.totalLiabilities(), actual.totalLiabilities());
+        assertEquals(expected.totalEquity(), actual.totalEquity());
+        assertEquals(expected.derivedEquity(), actual.derivedEquity());
+        return statements;
+    }
+
+    private static void assertSameIncome(IncomeStatementView expected, IncomeStatementView actual) {
+        assertEquals(expected.totalRevenue(), actual.totalRevenue());
+        assertEquals(expected.totalExpenses(), actual.totalExpenses());
+        assertEquals(expected.netIncome(), actual.netIncome());
+    }
+}
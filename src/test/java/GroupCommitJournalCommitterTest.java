@@ -0,0 +1,205 @@
+import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.posting.GroupCommitJournalCommitter;
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.application.service.impl.AccountingServiceImpl;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.file.FileJournalStore;
+import fr.kovelya.accounting.infrastructure.persistence.file.FsyncPolicy;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryLedgerEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupCommitJournalCommitterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentPostingsAreBatchedAndDurable() throws Exception {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+        var file = dir.resolve("journal.log");
+        int threads = 8;
+        int perThread = 50;
+
+        try (var store = FileJournalStore.open(file, FsyncPolicy.groupCommit(Duration.ofMillis(2)))) {
+            var projection = AccountBalanceProjection.rebuild(store.transactionRepository());
+            try (var committer = new GroupCommitJournalCommitter(store.transactionRepository(), store.ledgerEntryRepository(), projection, 64)) {
+                var accountingService = new AccountingServiceImpl(ctx.accountRepository(), store.transactionRepository(), ctx.periodRepository(), projection, committer);
+
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                try {
+                    for (int t = 0; t < threads; t++) {
+                        int thread = t;
+                        futures.add(executor.submit(() -> {
+                            start.await();
+                            for (int i = 0; i < perThread; i++) {
+                                var amount = Money.of(BigDecimal.ONE, eur);
+                                accountingService.postJournalTransaction(
+                                        JournalType.GENERAL,
+                                        "GC-" + thread + "-" + i,
+                                        "Group commit",
+                                        LocalDate.of(2025, 1, 15),
+                                        new AccountPosting(ctx.bank().id(), amount, LedgerEntry.Direction.DEBIT),
+                                        new AccountPosting(ctx.capital().id(), amount, LedgerEntry.Direction.CREDIT)
+                                );
+                            }
+                            return null;
+                        }));
+                    }
+                    start.countDown();
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                } finally {
+                    executor.shutdownNow();
+                }
+
+                int total = threads * perThread;
+                assertEquals(total, store.transactionRepository().findAll().size());
+                assertEquals(total, store.ledgerEntryRepository().findByAccount(ctx.bank().id()).size());
+                assertEquals(0, new BigDecimal(total).compareTo(accountingService.getBalance(ctx.bank().id()).amount()));
+                assertEquals(total, committer.commitLatencyMicros().count());
+                assertEquals(total, committer.batchSizes().sum());
+                assertTrue(committer.batchSizes().count() <= total);
+            }
+        }
+
+        try (var store = FileJournalStore.open(file, FsyncPolicy.osManaged())) {
+            assertEquals(threads * perThread, store.transactionRepository().findAll().size());
+        }
+    }
+
+    @Test
+    void duplicateInBatchOnlyFailsItsOwnCaller() throws Exception {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+        var amount = Money.of(new BigDecimal("10"), eur);
+
+        try (var store = FileJournalStore.open(dir.resolve("journal.log"), FsyncPolicy.osManaged())) {
+            var projection = AccountBalanceProjection.rebuild(store.transactionRepository());
+            try (var committer = new GroupCommitJournalCommitter(store.transactionRepository(), store.ledgerEntryRepository(), projection, 16)) {
+                var accountingService = new AccountingServiceImpl(ctx.accountRepository(), store.transactionRepository(), ctx.periodRepository(), projection, committer);
+
+                int threads = 6;
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                try {
+                    for (int t = 0; t < threads; t++) {
+                        String reference = t < 2 ? "GC-DUP" : "GC-" + t;
+                        futures.add(executor.submit(() -> {
+                            start.await();
+                            accountingService.postJournalTransaction(
+                                    JournalType.GENERAL,
+                                    reference,
+                                    "Group commit",
+                                    LocalDate.of(2025, 1, 15),
+                                    new AccountPosting(ctx.bank().id(), amount, LedgerEntry.Direction.DEBIT),
+                                    new AccountPosting(ctx.capital().id(), amount, LedgerEntry.Direction.CREDIT)
+                            );
+                            return null;
+                        }));
+                    }
+                    start.countDown();
+
+                    int failures = 0;
+                    for (Future<?> future : futures) {
+                        try {
+                            future.get();
+                        } catch (ExecutionException e) {
+                            assertInstanceOf(DuplicateJournalReferenceException.class, e.getCause());
+                            failures++;
+                        }
+                    }
+                    assertEquals(1, failures);
+                } finally {
+                    executor.shutdownNow();
+                }
+
+                assertEquals(5, store.transactionRepository().findAll().size());
+                assertEquals(0, new BigDecimal("50").compareTo(accountingService.getBalance(ctx.bank().id()).amount()));
+            }
+        }
+    }
+
+    @Test
+    void durabilityFailureIsReportedInsteadOfReSaving() {
+        var ctx = TestBootstrap.bootstrap();
+        var amount = Money.of(new BigDecimal("10"), Currency.getInstance("EUR"));
+        var repository = new FailingAfterIndexJournalRepository(() -> {
+            throw new UncheckedIOException(new IOException("fsync failed"));
+        });
+        var entries = new InMemoryLedgerEntryRepository();
+        var projection = new AccountBalanceProjection();
+
+        try (var committer = new GroupCommitJournalCommitter(repository, entries, projection, 16)) {
+            var accountingService = new AccountingServiceImpl(ctx.accountRepository(), repository, ctx.periodRepository(), projection, committer);
+
+            assertThrows(UncheckedIOException.class, () -> accountingService.postJournalTransaction(
+                    JournalType.GENERAL,
+                    "GC-IO",
+                    "Group commit",
+                    LocalDate.of(2025, 1, 15),
+                    new AccountPosting(ctx.bank().id(), amount, LedgerEntry.Direction.DEBIT),
+                    new AccountPosting(ctx.capital().id(), amount, LedgerEntry.Direction.CREDIT)
+            ));
+            assertTrue(entries.findByAccount(ctx.bank().id()).isEmpty());
+            assertEquals(0, committer.commitLatencyMicros().count());
+        }
+    }
+
+    @Test
+    void writerDeathReleasesWaitingCallers() throws Exception {
+        var ctx = TestBootstrap.bootstrap();
+        var amount = Money.of(new BigDecimal("10"), Currency.getInstance("EUR"));
+        var repository = new FailingAfterIndexJournalRepository(() -> {
+            throw new AssertionError("writer killed");
+        });
+        var entries = new InMemoryLedgerEntryRepository();
+        var projection = new AccountBalanceProjection();
+
+        try (var committer = new GroupCommitJournalCommitter(repository, entries, projection, 16)) {
+            var accountingService = new AccountingServiceImpl(ctx.accountRepository(), repository, ctx.periodRepository(), projection, committer);
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> caller = executor.submit(() -> accountingService.postJournalTransaction(
+                        JournalType.GENERAL,
+                        "GC-ERR",
+                        "Group commit",
+                        LocalDate.of(2025, 1, 15),
+                        new AccountPosting(ctx.bank().id(), amount, LedgerEntry.Direction.DEBIT),
+                        new AccountPosting(ctx.capital().id(), amount, LedgerEntry.Direction.CREDIT)
+                ));
+                ExecutionException failure = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalStateException.class, failure.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
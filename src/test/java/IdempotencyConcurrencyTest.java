@@ -0,0 +1,236 @@
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.application.service.impl.IdempotencyExecutor;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import fr.kovelya.accounting.infrastructure.persistence.file.FileIdempotencyRepository;
+import fr.kovelya.accounting.infrastructure.persistence.file.FsyncPolicy;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryIdempotencyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyConcurrencyTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void duplicateCommandsExecuteExactlyOnceUnderContention() throws Exception {
+        var repository = new InMemoryIdempotencyRepository();
+        var executor = new IdempotencyExecutor(repository);
+        int commands = 2_000;
+        int duplicates = 8;
+
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < commands; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        List<UUID> submissions = new ArrayList<>();
+        for (int d = 0; d < duplicates; d++) {
+            submissions.addAll(ids);
+        }
+        Collections.shuffle(submissions);
+
+        var executions = new ConcurrentHashMap<UUID, AtomicInteger>();
+        var results = new ConcurrentHashMap<UUID, List<String>>();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (UUID commandId : submissions) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    String result = executor.run(
+                            commandId,
+                            () -> {
+                                executions.computeIfAbsent(commandId, id -> new AtomicInteger()).incrementAndGet();
+                                return "R-" + commandId;
+                            },
+                            () -> repository.find(commandId).orElseThrow().resultRef()
+                    );
+                    results.computeIfAbsent(commandId, id -> Collections.synchronizedList(new ArrayList<>())).add(result);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(commands, executions.size());
+        for (UUID commandId : ids) {
+            assertEquals(1, executions.get(commandId).get());
+            assertEquals(duplicates, results.get(commandId).size());
+            for (String result : results.get(commandId)) {
+                assertEquals("R-" + commandId, result);
+            }
+        }
+        assertEquals(commands, repository.size());
+    }
+
+    @Test
+    void concurrentPaymentRetriesRecordASinglePayment() throws Exception {
+        var ctx = TestBootstrap.bootstrap();
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-001", "Acme");
+        var invoice = ctx.invoicingService().createDraftInvoice(
+                ctx.ledgerId(),
+                "INV-IDEM-0001",
+                customer.id(),
+                LocalDate.of(2025, 1, 10),
+                LocalDate.of(2025, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD)
+        );
+        ctx.invoicePostingService().postInvoice(invoice.id());
+
+        UUID commandId = UUID.randomUUID();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    ctx.invoicePaymentService().recordPayment(
+                            commandId,
+                            invoice.id(),
+                            "5121",
+                            Money.of(new BigDecimal("10.00"), Currency.getInstance("EUR")),
+                            LocalDate.of(2025, 1, 15)
+                    );
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, ctx.customerPaymentRepository().findByInvoice(invoice.id()).size());
+        assertEquals(1, ctx.transactionRepository().findByJournal(JournalType.BANK).size());
+    }
+
+    @Test
+    void expiredRecordsAreEvictedAndLiveRecordsAreNeverDropped() {
+        var clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        var repository = new InMemoryIdempotencyRepository(Duration.ofMinutes(10), 100, clock);
+        var executor = new IdempotencyExecutor(repository);
+
+        UUID failing = UUID.randomUUID();
+        assertThrows(IllegalStateException.class, () -> executor.run(failing, () -> {
+            throw new IllegalStateException("boom");
+        }, () -> "replay"));
+        assertTrue(repository.find(failing).isEmpty());
+        assertEquals("retried", executor.run(failing, () -> "retried", () -> "replay"));
+        assertEquals("replay", executor.run(failing, () -> "again", () -> "replay"));
+
+        for (int i = 0; i < 99; i++) {
+            repository.complete(UUID.randomUUID(), null);
+        }
+        assertEquals(100, repository.size());
+
+        clock.advance(Duration.ofMinutes(11));
+        assertTrue(repository.find(failing).isEmpty());
+        assertEquals(99, repository.evictExpired());
+        assertEquals(0, repository.size());
+        assertEquals("fresh", executor.run(failing, () -> "fresh", () -> "replay"));
+
+        for (int i = 0; i < 99; i++) {
+            clock.advance(Duration.ofMillis(1));
+            repository.complete(UUID.randomUUID(), null);
+        }
+        assertThrows(IllegalStateException.class, () -> executor.run(UUID.randomUUID(), () -> "over", () -> "replay"));
+        assertEquals(100, repository.size());
+        assertEquals("replay", executor.run(failing, () -> "again", () -> "replay"));
+
+        clock.advance(Duration.ofMinutes(11));
+        assertEquals("later", executor.run(UUID.randomUUID(), () -> "later", () -> "replay"));
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    void fileRepositoryKeepsDeduplicationAcrossRestarts() {
+        var clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        var file = dir.resolve("idempotency.log");
+        UUID kept = UUID.randomUUID();
+        UUID expiring = UUID.randomUUID();
+
+        try (var repository = FileIdempotencyRepository.open(file, FsyncPolicy.perTransaction(), Duration.ofHours(1), 1_000, clock)) {
+            var executor = new IdempotencyExecutor(repository);
+            executor.run(expiring, () -> "old", () -> "replay");
+            clock.advance(Duration.ofMinutes(45));
+            executor.run(kept, () -> "PAY-1", () -> "replay");
+        }
+
+        clock.advance(Duration.ofMinutes(30));
+        try (var repository = FileIdempotencyRepository.open(file, FsyncPolicy.perTransaction(), Duration.ofHours(1), 1_000, clock)) {
+            assertEquals("PAY-1", repository.find(kept).orElseThrow().resultRef());
+            assertTrue(repository.find(expiring).isEmpty());
+            var executor = new IdempotencyExecutor(repository);
+            assertEquals("replay", executor.run(kept, () -> "PAY-2", () -> "replay"));
+
+            repository.compact();
+            assertEquals("PAY-1", repository.find(kept).orElseThrow().resultRef());
+        }
+
+        try (var repository = FileIdempotencyRepository.open(file, FsyncPolicy.osManaged(), Duration.ofHours(1), 1_000, clock)) {
+            assertEquals(1, repository.index().size());
+            assertTrue(repository.find(kept).isPresent());
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.application.dto.PurchaseInvoiceLineRequest;
+import fr.kovelya.accounting.application.report.CustomerReceivableAgingView;
+import fr.kovelya.accounting.application.report.SupplierPayableAgingView;
+import fr.kovelya.accounting.application.service.impl.PayablesAgingServiceImpl;
+import fr.kovelya.accounting.application.service.impl.ReceivablesAgingServiceImpl;
+import fr.kovelya.accounting.domain.customer.Customer;
+import fr.kovelya.accounting.domain.invoice.InvoiceLine;
+import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalAgingTest {
+
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    @Test
+    void receivablesRollForwardAndBackMatchFullRecompute() {
+        var ctx = TestBootstrap.bootstrap();
+        var incremental = ReceivablesAgingServiceImpl.incremental(ctx.customerRepository(), ctx.salesInvoiceRepository(), ctx.salesInvoiceBalances());
+        var full = new ReceivablesAgingServiceImpl(ctx.customerRepository(), ctx.salesInvoiceRepository(), ctx.salesInvoiceBalances());
+        Random random = new Random(7);
+        LocalDate start = LocalDate.of(2025, 1, 1);
+
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            customers.add(ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-" + i, "Customer " + i));
+        }
+
+        List<SalesInvoiceId> issued = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            LocalDate issueDate = start.plusDays(random.nextInt(60));
+            var invoice = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-INC-" + i, customers.get(random.nextInt(customers.size())).id(),
+                    issueDate, issueDate.plusDays(15 + random.nextInt(30)),
+                    new InvoiceLineRequest("Service", BigDecimal.valueOf(1_000 + random.nextInt(50_000), 2), TaxCategory.STANDARD));
+            if (i % 5 != 0) {
+                ctx.invoicePostingService().postInvoice(invoice.id());
+                issued.add(invoice.id());
+            }
+        }
+
+        assertSameReceivables(full.getCustomerAging(start.plusDays(40)), incremental.getCustomerAging(start.plusDays(40)));
+
+        for (int i = 0; i < issued.size(); i += 3) {
+            var invoice = ctx.salesInvoiceRepository().findById(issued.get(i)).orElseThrow();
+            ctx.invoicePaymentService().recordPayment(UUID.randomUUID(), invoice.id(), "5121",
+                    Money.of(invoice.total().amount().divide(BigDecimal.valueOf(2 + random.nextInt(2)), 2, RoundingMode.DOWN), EUR),
+                    invoice.issueDate().plusDays(5));
+        }
+        ctx.invoicePaymentService().recordPayment(UUID.randomUUID(), issued.get(1), "5121", null, start.plusDays(70));
+
+        SalesInvoice fractional = ctx.salesInvoiceRepository().save(new SalesInvoice(SalesInvoiceId.newId(), ctx.ledgerId(), "INV-INC-FRAC", customers.get(0).id(),
+                start, start.plusDays(10), List.of(new InvoiceLine("Service", Money.of(new BigDecimal("12.345"), EUR), TaxCategory.STANDARD)), InvoiceStatus.ISSUED));
+        ctx.salesInvoiceBalances().issue(fractional.id(), fractional.customerId(), fractional.dueDate(), fractional.total());
+
+        LocalDate[] dates = {start.plusDays(41), start.plusDays(55), start.plusDays(90), start.plusDays(200), start.plusDays(60), start, start.plusDays(121), start.plusDays(122)};
+        for (LocalDate asOf : dates) {
+            assertSameReceivables(full.getCustomerAging(asOf), incremental.getCustomerAging(asOf));
+        }
+    }
+
+    @Test
+    void payablesRollForwardAcrossBucketThresholds() {
+        var ctx = TestBootstrap.bootstrap();
+        var incremental = PayablesAgingServiceImpl.incremental(ctx.supplierRepository(), ctx.purchaseInvoiceRepository(), ctx.purchaseInvoiceBalances());
+        var full = new PayablesAgingServiceImpl(ctx.supplierRepository(), ctx.purchaseInvoiceRepository(), ctx.purchaseInvoiceBalances());
+        var supplier = ctx.purchasingService().createSupplier(ctx.ledgerId(), "SUP-001", "Supplier");
+        LocalDate due = LocalDate.of(2025, 2, 10);
+
+        var invoice = ctx.purchasingService().createDraftPurchaseInvoice(ctx.ledgerId(), "PINV-INC-0001", supplier.id(),
+                LocalDate.of(2025, 1, 10), due, new PurchaseInvoiceLineRequest("Subcontract", new BigDecimal("120.00"), TaxCategory.STANDARD));
+        ctx.purchaseInvoicePostingService().postPurchaseInvoice(invoice.id());
+        ctx.purchaseInvoicePaymentService().recordPayment(UUID.randomUUID(), invoice.id(), "5121", Money.of(new BigDecimal("20.00"), EUR), LocalDate.of(2025, 1, 15));
+
+        LocalDate[] dates = {due.minusDays(1), due, due.plusDays(30), due.plusDays(31), due.plusDays(61), due.plusDays(91), due.plusDays(5), due.minusDays(10)};
+        for (LocalDate asOf : dates) {
+            List<SupplierPayableAgingView> expected = full.getSupplierAging(asOf);
+            List<SupplierPayableAgingView> actual = incremental.getSupplierAging(asOf);
+            assertEquals(1, actual.size());
+            assertEquals(expected.get(0).notDue(), actual.get(0).notDue(), asOf.toString());
+            assertEquals(expected.get(0).due0_30(), actual.get(0).due0_30(), asOf.toString());
+            assertEquals(expected.get(0).due31_60(), actual.get(0).due31_60(), asOf.toString());
+            assertEquals(expected.get(0).due61_90(), actual.get(0).due61_90(), asOf.toString());
+            assertEquals(expected.get(0).due90Plus(), actual.get(0).due90Plus(), asOf.toString());
+            assertEquals(0, new BigDecimal("100.00").compareTo(actual.get(0).total().amount()));
+        }
+    }
+
+    private static void assertSameReceivables(List<CustomerReceivableAgingView> expected, List<CustomerReceivableAgingView> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            CustomerReceivableAgingView e = expected.get(i);
+            CustomerReceivableAgingView a = actual.get(i);
+            assertEquals(e.customer().id(), a.customer().id());
+            assertEquals(e.notDue(), a.notDue());
+            assertEquals(e.due0_30(), a.due0_30());
+            assertEquals(e.due31_60(), a.due31_60());
+            assertEquals(e.due61_90(), a.due61_90());
+            assertEquals(e.due90Plus(), a.due90Plus());
+            assertEquals(e.total(), a.total());
+        }
+    }
+}
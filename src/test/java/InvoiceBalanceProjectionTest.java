@@ -0,0 +1,265 @@
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.application.dto.PurchaseInvoiceLineRequest;
+import fr.kovelya.accounting.application.dto.PurchaseInvoicePaymentAllocation;
+import fr.kovelya.accounting.application.dto.SalesInvoicePaymentAllocation;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
+import fr.kovelya.accounting.application.service.impl.PayablesAgingServiceImpl;
+import fr.kovelya.accounting.application.service.impl.ReceivablesAgingServiceImpl;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.payment.CustomerPayment;
+import fr.kovelya.accounting.domain.payment.SupplierPayment;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvoiceBalanceProjectionTest {
+
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    static Stream<Side<?>> sides() {
+        return Stream.of(new Sales(), new Purchases());
+    }
+
+    @ParameterizedTest
+    @MethodSource("sides")
+    void paymentsBatchesAndAdvancesKeepOutstandingInSync(Side<?> side) {
+        keepsOutstandingInSync(side);
+    }
+
+    @ParameterizedTest
+    @MethodSource("sides")
+    void verifyDetectsPaymentsSavedBehindTheProjection(Side<?> side) {
+        detectsPaymentsSavedBehind(side);
+    }
+
+    private static <I> void keepsOutstandingInSync(Side<I> side) {
+        var ctx = TestBootstrap.bootstrap();
+        List<I> ids = side.postInvoices(ctx, "100.00", "50.00");
+        I first = ids.get(0);
+        I second = ids.get(1);
+
+        side.pay(ctx, first, eur("30.00"), LocalDate.of(2025, 1, 15));
+        side.payBatch(ctx, LocalDate.of(2025, 1, 16), first, eur("40.00"), second, eur("50.00"));
+        side.applyUnallocated(ctx, first, eur("20.00"), LocalDate.of(2025, 1, 17), LocalDate.of(2025, 1, 18));
+
+        var balances = side.balances(ctx);
+        assertEquals(0, new BigDecimal("90.00").compareTo(balances.paid(first, EUR).amount()));
+        assertEquals(0, new BigDecimal("10.00").compareTo(side.outstanding(ctx, balances, first).amount()));
+        assertEquals("PARTIALLY_PAID", side.status(ctx, first));
+        assertEquals("PAID", side.status(ctx, second));
+        assertTrue(side.verify(ctx, balances).isEmpty());
+
+        List<Money> aging = side.agingTotals(ctx, LocalDate.of(2025, 3, 1));
+        assertEquals(1, aging.size());
+        assertEquals(0, new BigDecimal("10.00").compareTo(aging.get(0).amount()));
+
+        assertThrows(IllegalArgumentException.class, () -> side.pay(ctx, first, eur("-1"), LocalDate.of(2025, 1, 20)));
+        side.pay(ctx, first, null, LocalDate.of(2025, 1, 20));
+        assertEquals("PAID", side.status(ctx, first));
+        assertEquals(0, side.outstanding(ctx, balances, first).amount().signum());
+    }
+
+    private static <I> void detectsPaymentsSavedBehind(Side<I> side) {
+        var ctx = TestBootstrap.bootstrap();
+        I invoice = side.postInvoices(ctx, "100.00").get(0);
+
+        side.saveBehind(ctx, invoice, eur("10.00"), LocalDate.of(2025, 1, 15));
+
+        assertEquals(List.of(invoice), side.verify(ctx, side.balances(ctx)));
+
+        var rebuilt = side.rebuild(ctx);
+        assertTrue(side.verify(ctx, rebuilt).isEmpty());
+        assertEquals(0, new BigDecimal("10.00").compareTo(rebuilt.paid(invoice, EUR).amount()));
+        assertEquals(0, new BigDecimal("90.00").compareTo(side.outstanding(ctx, rebuilt, invoice).amount()));
+    }
+
+    private static Money eur(String amount) {
+        return Money.of(new BigDecimal(amount), EUR);
+    }
+
+    private interface Side<I> {
+
+        List<I> postInvoices(TestBootstrap.Context ctx, String... amounts);
+
+        void pay(TestBootstrap.Context ctx, I invoiceId, Money amount, LocalDate date);
+
+        void payBatch(TestBootstrap.Context ctx, LocalDate date, I first, Money firstAmount, I second, Money secondAmount);
+
+        void applyUnallocated(TestBootstrap.Context ctx, I invoiceId, Money amount, LocalDate receivedOn, LocalDate appliedOn);
+
+        void saveBehind(TestBootstrap.Context ctx, I invoiceId, Money amount, LocalDate date);
+
+        InvoiceBalanceProjection<I, ?, ?> balances(TestBootstrap.Context ctx);
+
+        InvoiceBalanceProjection<I, ?, ?> rebuild(TestBootstrap.Context ctx);
+
+        List<I> verify(TestBootstrap.Context ctx, InvoiceBalanceProjection<I, ?, ?> projection);
+
+        Money outstanding(TestBootstrap.Context ctx, InvoiceBalanceProjection<I, ?, ?> projection, I invoiceId);
+
+        String status(TestBootstrap.Context ctx, I invoiceId);
+
+        List<Money> agingTotals(TestBootstrap.Context ctx, LocalDate asOfDate);
+    }
+
+    private static final class Sales implements Side<SalesInvoiceId> {
+
+        @Override
+        public List<SalesInvoiceId> postInvoices(TestBootstrap.Context ctx, String... amounts) {
+            var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-001", "Acme");
+            return Stream.of(amounts).map(amount -> {
+                var draft = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-BAL-" + amount, customer.id(),
+                        LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                        new InvoiceLineRequest("Service", new BigDecimal(amount), TaxCategory.STANDARD));
+                ctx.invoicePostingService().postInvoice(draft.id());
+                return draft.id();
+            }).toList();
+        }
+
+        @Override
+        public void pay(TestBootstrap.Context ctx, SalesInvoiceId invoiceId, Money amount, LocalDate date) {
+            ctx.invoicePaymentService().recordPayment(UUID.randomUUID(), invoiceId, "5121", amount, date);
+        }
+
+        @Override
+        public void payBatch(TestBootstrap.Context ctx, LocalDate date, SalesInvoiceId first, Money firstAmount, SalesInvoiceId second, Money secondAmount) {
+            ctx.customerBatchPaymentService().recordBatchPayment(UUID.randomUUID(), "5121", date,
+                    new SalesInvoicePaymentAllocation(first, firstAmount),
+                    new SalesInvoicePaymentAllocation(second, secondAmount));
+        }
+
+        @Override
+        public void applyUnallocated(TestBootstrap.Context ctx, SalesInvoiceId invoiceId, Money amount, LocalDate receivedOn, LocalDate appliedOn) {
+            var invoice = ctx.salesInvoiceRepository().findById(invoiceId).orElseThrow();
+            ctx.customerAdvanceReceiptService().recordUnallocatedPayment(UUID.randomUUID(), invoice.customerId(), "5121", amount, receivedOn);
+            ctx.customerCreditApplicationService().applyCredit(UUID.randomUUID(), invoiceId, amount, appliedOn);
+        }
+
+        @Override
+        public void saveBehind(TestBootstrap.Context ctx, SalesInvoiceId invoiceId, Money amount, LocalDate date) {
+            ctx.customerPaymentRepository().save(CustomerPayment.create(invoiceId, amount, date, "5121"));
+        }
+
+        @Override
+        public InvoiceBalanceProjection<SalesInvoiceId, ?, ?> balances(TestBootstrap.Context ctx) {
+            return ctx.salesInvoiceBalances();
+        }
+
+        @Override
+        public InvoiceBalanceProjection<SalesInvoiceId, ?, ?> rebuild(TestBootstrap.Context ctx) {
+            return InvoiceBalanceProjection.rebuildSales(ctx.customerPaymentRepository());
+        }
+
+        @Override
+        public List<SalesInvoiceId> verify(TestBootstrap.Context ctx, InvoiceBalanceProjection<SalesInvoiceId, ?, ?> projection) {
+            return projection.verify(ctx.customerPaymentRepository().findAll(), CustomerPayment::invoiceId, CustomerPayment::amount);
+        }
+
+        @Override
+        public Money outstanding(TestBootstrap.Context ctx, InvoiceBalanceProjection<SalesInvoiceId, ?, ?> projection, SalesInvoiceId invoiceId) {
+            return projection.outstanding(invoiceId, ctx.salesInvoiceRepository().findById(invoiceId).orElseThrow().total());
+        }
+
+        @Override
+        public String status(TestBootstrap.Context ctx, SalesInvoiceId invoiceId) {
+            return ctx.salesInvoiceRepository().findById(invoiceId).orElseThrow().status().name();
+        }
+
+        @Override
+        public List<Money> agingTotals(TestBootstrap.Context ctx, LocalDate asOfDate) {
+            return new ReceivablesAgingServiceImpl(ctx.customerRepository(), ctx.salesInvoiceRepository(), ctx.salesInvoiceBalances())
+                    .getCustomerAging(asOfDate).stream().map(view -> view.total()).toList();
+        }
+
+        @Override
+        public String toString() {
+            return "sales";
+        }
+    }
+
+    private static final class Purchases implements Side<PurchaseInvoiceId> {
+
+        @Override
+        public List<PurchaseInvoiceId> postInvoices(TestBootstrap.Context ctx, String... amounts) {
+            var supplier = ctx.purchasingService().createSupplier(ctx.ledgerId(), "SUP-001", "Supplier");
+            return Stream.of(amounts).map(amount -> {
+                var draft = ctx.purchasingService().createDraftPurchaseInvoice(ctx.ledgerId(), "PINV-BAL-" + amount, supplier.id(),
+                        LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                        new PurchaseInvoiceLineRequest("Subcontract", new BigDecimal(amount), TaxCategory.STANDARD));
+                ctx.purchaseInvoicePostingService().postPurchaseInvoice(draft.id());
+                return draft.id();
+            }).toList();
+        }
+
+        @Override
+        public void pay(TestBootstrap.Context ctx, PurchaseInvoiceId invoiceId, Money amount, LocalDate date) {
+            ctx.purchaseInvoicePaymentService().recordPayment(UUID.randomUUID(), invoiceId, "5121", amount, date);
+        }
+
+        @Override
+        public void payBatch(TestBootstrap.Context ctx, LocalDate date, PurchaseInvoiceId first, Money firstAmount, PurchaseInvoiceId second, Money secondAmount) {
+            ctx.supplierBatchPaymentService().recordBatchPayment(UUID.randomUUID(), "5121", date,
+                    new PurchaseInvoicePaymentAllocation(first, firstAmount),
+                    new PurchaseInvoicePaymentAllocation(second, secondAmount));
+        }
+
+        @Override
+        public void applyUnallocated(TestBootstrap.Context ctx, PurchaseInvoiceId invoiceId, Money amount, LocalDate receivedOn, LocalDate appliedOn) {
+            var invoice = ctx.purchaseInvoiceRepository().findById(invoiceId).orElseThrow();
+            ctx.supplierAdvanceReceiptService().recordUnallocatedPayment(UUID.randomUUID(), invoice.supplierId(), "5121", amount, receivedOn);
+            ctx.supplierAdvanceApplicationService().applyAdvance(UUID.randomUUID(), invoiceId, amount, appliedOn);
+        }
+
+        @Override
+        public void saveBehind(TestBootstrap.Context ctx, PurchaseInvoiceId invoiceId, Money amount, LocalDate date) {
+            ctx.supplierPaymentRepository().save(SupplierPayment.create(invoiceId, amount, date, "5121"));
+        }
+
+        @Override
+        public InvoiceBalanceProjection<PurchaseInvoiceId, ?, ?> balances(TestBootstrap.Context ctx) {
+            return ctx.purchaseInvoiceBalances();
+        }
+
+        @Override
+        public InvoiceBalanceProjection<PurchaseInvoiceId, ?, ?> rebuild(TestBootstrap.Context ctx) {
+            return InvoiceBalanceProjection.rebuildPurchases(ctx.supplierPaymentRepository());
+        }
+
+        @Override
+        public List<PurchaseInvoiceId> verify(TestBootstrap.Context ctx, InvoiceBalanceProjection<PurchaseInvoiceId, ?, ?> projection) {
+            return projection.verify(ctx.supplierPaymentRepository().findAll(), SupplierPayment::invoiceId, SupplierPayment::amount);
+        }
+
+        @Override
+        public Money outstanding(TestBootstrap.Context ctx, InvoiceBalanceProjection<PurchaseInvoiceId, ?, ?> projection, PurchaseInvoiceId invoiceId) {
+            return projection.outstanding(invoiceId, ctx.purchaseInvoiceRepository().findById(invoiceId).orElseThrow().total());
+        }
+
+        @Override
+        public String status(TestBootstrap.Context ctx, PurchaseInvoiceId invoiceId) {
+            return ctx.purchaseInvoiceRepository().findById(invoiceId).orElseThrow().status().name();
+        }
+
+        @Override
+        public List<Money> agingTotals(TestBootstrap.Context ctx, LocalDate asOfDate) {
+            return new PayablesAgingServiceImpl(ctx.supplierRepository(), ctx.purchaseInvoiceRepository(), ctx.purchaseInvoiceBalances())
+                    .getSupplierAging(asOfDate).stream().map(view -> view.total()).toList();
+        }
+
+        @Override
+        public String toString() {
+            return "purchases";
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.domain.customer.CustomerId;
+import fr.kovelya.accounting.domain.invoice.InvoiceLine;
+import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoice;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceLine;
+import fr.kovelya.accounting.domain.repository.StaleVersionException;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.supplier.SupplierId;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryPurchaseInvoiceRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemorySalesInvoiceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvoiceVersioningTest {
+
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    @Test
+    void savesStampVersionsAndStaleCompareAndSaveIsRejected() {
+        var repository = new InMemorySalesInvoiceRepository();
+        LedgerId ledgerId = new LedgerId(UUID.randomUUID());
+        SalesInvoice draft = SalesInvoice.draft(ledgerId, "INV-V1", CustomerId.newId(), LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                List.of(new InvoiceLine("Service", Money.of(new BigDecimal("120.00"), EUR), TaxCategory.STANDARD)));
+        assertEquals(0, draft.version());
+
+        SalesInvoice saved = repository.save(draft);
+        assertEquals(1, saved.version());
+        SalesInvoice issued = repository.compareAndSave(saved.issue());
+        assertEquals(2, issued.version());
+        assertEquals(InvoiceStatus.ISSUED, repository.findByNumber("INV-V1").orElseThrow().status());
+
+        StaleVersionException stale = assertThrows(StaleVersionException.class, () -> repository.compareAndSave(saved.cancel()));
+        assertEquals(1, stale.expectedVersion());
+        assertEquals(2, stale.actualVersion());
+        assertEquals(draft.id().value(), stale.aggregateId());
+        assertEquals(InvoiceStatus.ISSUED, repository.findById(draft.id()).orElseThrow().status());
+        assertEquals(1, repository.findAll().size());
+        assertEquals(1, repository.findByCustomer(draft.customerId()).size());
+
+        var purchases = new InMemoryPurchaseInvoiceRepository();
+        PurchaseInvoice bill = purchases.compareAndSave(PurchaseInvoice.draft(ledgerId, "BILL-V1", SupplierId.newId(), LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                List.of(new PurchaseInvoiceLine("Supplies", Money.of(new BigDecimal("60.00"), EUR), TaxCategory.STANDARD))));
+        assertEquals(1, bill.version());
+        assertEquals(bill.id(), purchases.findIdByNumber("BILL-V1").orElseThrow());
+        assertThrows(StaleVersionException.class, () -> purchases.compareAndSave(bill.withVersion(0).issue()));
+        assertEquals(2, purchases.compareAndSave(bill.issue()).version());
+    }
+
+    @Test
+    void concurrentCompareAndSaveWithRetryLosesNoUpdates() throws Exception {
+        var repository = new InMemorySalesInvoiceRepository();
+        SalesInvoice invoice = repository.save(SalesInvoice.draft(new LedgerId(UUID.randomUUID()), "INV-V2", CustomerId.newId(),
+                LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                List.of(new InvoiceLine("Service", Money.of(new BigDecimal("120.00"), EUR), TaxCategory.STANDARD))));
+        repository.compareAndSave(invoice.issue());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 250; i++) {
+                        while (true) {
+                            SalesInvoice current = repository.findById(invoice.id()).orElseThrow();
+                            try {
+                                repository.compareAndSave(current.markPartiallyPaid());
+                                break;
+                            } catch (StaleVersionException ignored) {
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(2 + 8 * 250, repository.findById(invoice.id()).orElseThrow().version());
+    }
+
+    @Test
+    void paymentsSettleTheLatestVersionAndRejectStaleSnapshots() {
+        var ctx = TestBootstrap.bootstrap();
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-V3", "Customer V3");
+        var draft = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-V3", customer.id(),
+                LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD));
+        ctx.invoicePostingService().postInvoice(draft.id());
+        SalesInvoice issued = ctx.salesInvoiceRepository().findById(draft.id()).orElseThrow();
+        Money sixty = Money.of(new BigDecimal("60.00"), EUR);
+
+        ctx.invoicePaymentService().recordPayment(UUID.randomUUID(), draft.id(), "5121", sixty, LocalDate.of(2025, 2, 1));
+        SalesInvoice partial = ctx.salesInvoiceRepository().findById(draft.id()).orElseThrow();
+        assertEquals(InvoiceStatus.PARTIALLY_PAID, partial.status());
+        assertEquals(issued.version() + 1, partial.version());
+
+        assertThrows(StaleVersionException.class, () -> ctx.salesInvoiceRepository().compareAndSave(issued.markPaid()));
+
+        ctx.invoicePaymentService().recordPayment(UUID.randomUUID(), draft.id(), "5121", sixty, LocalDate.of(2025, 2, 2));
+        SalesInvoice paid = ctx.salesInvoiceRepository().findById(draft.id()).orElseThrow();
+        assertEquals(InvoiceStatus.PAID, paid.status());
+        assertEquals(partial.version() + 1, paid.version());
+    }
+}
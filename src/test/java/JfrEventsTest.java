@@ -0,0 +1,100 @@
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.application.service.impl.PayablesAgingServiceImpl;
+import fr.kovelya.accounting.application.service.impl.ReceivablesAgingServiceImpl;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JfrEventsTest {
+
+    private static final String PREFIX = "fr.kovelya.accounting.";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void postingQueriesPaymentsAgingAndCloseEmitEvents() throws Exception {
+        var ctx = TestBootstrap.bootstrap();
+        Path dump = directory.resolve("accounting.jfr");
+        UUID paymentCommand = UUID.randomUUID();
+
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("JournalPosting", "BalanceQuery", "PeriodClose", "IdempotentCommand", "AgingRun")) {
+                recording.enable(PREFIX + name).withoutThreshold();
+            }
+            recording.start();
+
+            ctx.accountingService().postTransfer(ctx.bank().id(), ctx.capital().id(),
+                    Money.of(new BigDecimal("50.00"), Currency.getInstance("EUR")), JournalType.GENERAL, "Funding", LocalDate.of(2025, 2, 1));
+            ctx.accountingService().getBalanceForPeriod(ctx.bank().id(), ctx.period());
+
+            var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-JFR", "Customer JFR");
+            var invoice = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-JFR", customer.id(),
+                    LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1),
+                    new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD));
+            ctx.invoicePostingService().postInvoice(invoice.id());
+            Money partial = Money.of(new BigDecimal("20.00"), Currency.getInstance("EUR"));
+            ctx.invoicePaymentService().recordPayment(paymentCommand, invoice.id(), "5121", partial, LocalDate.of(2025, 3, 15));
+            ctx.invoicePaymentService().recordPayment(paymentCommand, invoice.id(), "5121", partial, LocalDate.of(2025, 3, 15));
+
+            ReceivablesAgingServiceImpl.incremental(ctx.customerRepository(), ctx.salesInvoiceRepository(), ctx.salesInvoiceBalances())
+                    .getCustomerAging(LocalDate.of(2025, 6, 30));
+            PayablesAgingServiceImpl.incremental(ctx.supplierRepository(), ctx.purchaseInvoiceRepository(), ctx.purchaseInvoiceBalances())
+                    .getSupplierAging(LocalDate.of(2025, 6, 30));
+
+            ctx.periodClosingService().closePeriod(ctx.period(), ctx.retainedEarnings().id());
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+
+        RecordedEvent funding = only(events, "JournalPosting", e -> "GENERAL".equals(e.getString("journalType")));
+        assertEquals(ctx.ledgerId().toString(), funding.getString("ledgerId"));
+        assertEquals(2, funding.getInt("entryCount"));
+        assertTrue(funding.getBoolean("succeeded"));
+
+        RecordedEvent balance = only(events, "BalanceQuery", e -> ctx.bank().id().value().equals(e.getString("accountId")));
+        assertEquals(ctx.ledgerId().toString(), balance.getString("ledgerId"));
+        assertFalse(balance.getBoolean("frozen"));
+
+        RecordedEvent close = only(events, "PeriodClose", e -> true);
+        assertEquals(ctx.period().name(), close.getString("period"));
+        assertTrue(close.getBoolean("succeeded"));
+        assertEquals(2, close.getInt("closingEntries"));
+        assertTrue(close.getInt("accountsScanned") > 0);
+
+        only(events, "IdempotentCommand", e -> "EXECUTED".equals(e.getString("outcome")) && paymentCommand.toString().equals(e.getString("commandId")));
+        only(events, "IdempotentCommand", e -> "REPLAYED".equals(e.getString("outcome")));
+
+        RecordedEvent receivables = only(events, "AgingRun", e -> "receivables".equals(e.getString("kind")));
+        assertTrue(receivables.getBoolean("incremental"));
+        assertEquals(1, receivables.getInt("rows"));
+        only(events, "AgingRun", e -> "payables".equals(e.getString("kind")));
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name, Predicate<RecordedEvent> filter) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(e -> e.getEventType().getName().equals(PREFIX + name))
+                .filter(filter)
+                .toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,96 @@
+import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.repository.DuplicateJournalReferenceException;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalReferenceUniquenessTest {
+
+    @Test
+    void duplicateReferenceIsRejectedWithoutSideEffects() {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+        var amount = Money.of(new BigDecimal("100"), eur);
+
+        ctx.accountingService().postJournalTransaction(
+                JournalType.GENERAL,
+                "GEN-0001",
+                "Capital",
+                LocalDate.of(2025, 1, 1),
+                new AccountPosting(ctx.bank().id(), amount, LedgerEntry.Direction.DEBIT),
+                new AccountPosting(ctx.capital().id(), amount, LedgerEntry.Direction.CREDIT)
+        );
+
+        var duplicate = assertThrows(DuplicateJournalReferenceException.class, () -> ctx.accountingService().postJournalTransaction(
+                JournalType.GENERAL,
+                "GEN-0001",
+                "Capital again",
+                LocalDate.of(2025, 1, 2),
+                new AccountPosting(ctx.bank().id(), amount, LedgerEntry.Direction.DEBIT),
+                new AccountPosting(ctx.capital().id(), amount, LedgerEntry.Direction.CREDIT)
+        ));
+
+        assertEquals(JournalType.GENERAL, duplicate.journalType());
+        assertEquals("GEN-0001", duplicate.reference());
+        assertEquals(1, ctx.transactionRepository().findAll().size());
+        assertEquals(1, ctx.ledgerEntryRepository().findByAccount(ctx.bank().id()).size());
+        assertEquals(0, new BigDecimal("100").compareTo(ctx.accountingService().getBalance(ctx.bank().id()).amount()));
+
+        var saved = ctx.transactionRepository().findByJournalAndReference(JournalType.GENERAL, "GEN-0001").orElseThrow();
+        assertEquals(saved, ctx.transactionRepository().findById(saved.id()).orElseThrow());
+        assertTrue(ctx.transactionRepository().findByJournalAndReference(JournalType.BANK, "GEN-0001").isEmpty());
+    }
+
+    @Test
+    void concurrentInvoicePostingCreatesASingleTransaction() throws Exception {
+        var ctx = TestBootstrap.bootstrap();
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-001", "Acme");
+        var invoice = ctx.invoicingService().createDraftInvoice(
+                ctx.ledgerId(),
+                "INV-RACE-0001",
+                customer.id(),
+                LocalDate.of(2025, 1, 10),
+                LocalDate.of(2025, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal("120.00"), TaxCategory.STANDARD)
+        );
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ctx.invoicePostingService().postInvoice(invoice.id());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, ctx.transactionRepository().findByJournal(JournalType.SALES).size());
+        var receivable = ctx.accountRepository().findByCode("4110").orElseThrow();
+        assertEquals(1, ctx.ledgerEntryRepository().findByAccount(receivable.id()).size());
+    }
+}
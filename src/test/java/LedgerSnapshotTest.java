@@ -0,0 +1,101 @@
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.application.service.impl.AccountingServiceImpl;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.file.FileJournalStore;
+import fr.kovelya.accounting.infrastructure.persistence.file.FsyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void snapshotPlusTailRestoresFullState() {
+        var eur = Currency.getInstance("EUR");
+        var log = dir.resolve("journal.log");
+        var snapshot = dir.resolve("journal.snapshot");
+        var ledgerId = new LedgerId(UUID.randomUUID());
+        String bankId;
+        String capitalId;
+
+        try (var store = FileJournalStore.open(log, snapshot, FsyncPolicy.osManaged())) {
+            var accountingService = new AccountingServiceImpl(store.accountRepository(), store.ledgerEntryRepository(), store.transactionRepository(), store.periodRepository());
+            accountingService.createPeriod(ledgerId, "FY2025", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+            var bank = accountingService.openAccount(ledgerId, "5121", "Bank", "EUR", AccountType.ASSET);
+            var capital = accountingService.openAccount(ledgerId, "1010", "Capital", "EUR", AccountType.EQUITY);
+            bankId = bank.id().value();
+            capitalId = capital.id().value();
+
+            for (int i = 1; i <= 20; i++) {
+                accountingService.postTransfer(bank.id(), capital.id(), Money.of(new BigDecimal(i + ".25"), eur), JournalType.GENERAL, "Before " + i, LocalDate.of(2025, 1, i));
+            }
+            store.writeSnapshot(snapshot);
+
+            for (int i = 1; i <= 5; i++) {
+                accountingService.postTransfer(bank.id(), capital.id(), Money.of(new BigDecimal("1000000000000000000000.01"), eur), JournalType.GENERAL, "After " + i, LocalDate.of(2025, 2, i));
+            }
+            store.accountRepository().save(capital.deactivate());
+        }
+
+        try (var store = FileJournalStore.open(log, snapshot, FsyncPolicy.osManaged())) {
+            assertEquals(25, store.transactionRepository().findAll().size());
+            assertEquals("Before 1", store.transactionRepository().findAll().get(0).description());
+            assertEquals(2, store.accountRepository().findAll().size());
+            assertEquals(1, store.periodRepository().findAll().size());
+            assertFalse(store.accountRepository().findByCode("1010").orElseThrow().isActive());
+
+            var bank = store.accountRepository().findByCode("5121").orElseThrow();
+            assertEquals(bankId, bank.id().value());
+            assertEquals(25, store.ledgerEntryRepository().findByAccount(bank.id()).size());
+
+            var restored = AccountBalanceProjection.restore(store.recoveredBalances());
+            var rebuilt = AccountBalanceProjection.rebuild(store.transactionRepository());
+            var period = store.periodRepository().findAll().get(0);
+            assertTrue(rebuilt.totalsFor(bank.id()).sameAs(restored.totalsFor(bank.id())));
+            assertTrue(rebuilt.totalsFor(bank.id(), period.id()).sameAs(restored.totalsFor(bank.id(), period.id())));
+            assertEquals(0, new BigDecimal("5000000000000000000215.05").compareTo(restored.totalsFor(bank.id()).debit()));
+
+            var accountingService = new AccountingServiceImpl(store.accountRepository(), store.ledgerEntryRepository(), store.transactionRepository(), store.periodRepository(), restored);
+            assertEquals(0, new BigDecimal("5000000000000000000215.05").compareTo(accountingService.getBalance(bank.id()).amount()));
+            assertEquals(capitalId, store.accountRepository().findByCode("1010").orElseThrow().id().value());
+        }
+    }
+
+    @Test
+    void corruptedSnapshotIsRejected() throws IOException {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+        var log = dir.resolve("journal.log");
+        var snapshot = dir.resolve("journal.snapshot");
+
+        try (var store = FileJournalStore.open(log, snapshot, FsyncPolicy.osManaged())) {
+            var accountingService = new AccountingServiceImpl(ctx.accountRepository(), store.ledgerEntryRepository(), store.transactionRepository(), ctx.periodRepository());
+            accountingService.postTransfer(ctx.bank().id(), ctx.capital().id(), Money.of(new BigDecimal("100"), eur), JournalType.GENERAL, "First", LocalDate.of(2025, 1, 1));
+            store.writeSnapshot(snapshot);
+        }
+
+        try (var raf = new RandomAccessFile(snapshot.toFile(), "rw")) {
+            raf.seek(raf.length() - 3);
+            int value = raf.read();
+            raf.seek(raf.length() - 3);
+            raf.write(value ^ 0xFF);
+        }
+
+        assertThrows(IllegalStateException.class, () -> FileJournalStore.open(log, snapshot, FsyncPolicy.osManaged()));
+    }
+}
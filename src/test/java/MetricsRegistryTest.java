@@ -0,0 +1,87 @@
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.metrics.MetricsRegistry;
+import fr.kovelya.accounting.application.posting.DirectJournalCommitter;
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.application.service.impl.AccountingServiceImpl;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountingPeriodRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryJournalTransactionRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.SegmentedLedgerEntryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRegistryTest {
+
+    @Test
+    void instrumentedPostingRecordsServiceAndRepositoryTimings() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        var transactionRepository = new InMemoryJournalTransactionRepository();
+        var ledgerEntryRepository = new SegmentedLedgerEntryRepository();
+        var projection = new AccountBalanceProjection();
+        var accountingService = new AccountingServiceImpl(
+                new InMemoryAccountRepository(),
+                transactionRepository,
+                new InMemoryAccountingPeriodRepository(),
+                projection,
+                new DirectJournalCommitter(transactionRepository, ledgerEntryRepository, projection, metrics),
+                metrics
+        );
+        LedgerId ledgerId = new LedgerId(UUID.randomUUID());
+        var period = accountingService.createPeriod(ledgerId, "FY2025", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+        var bank = accountingService.openAccount(ledgerId, "5121", "Bank", "EUR", AccountType.ASSET);
+        var capital = accountingService.openAccount(ledgerId, "1010", "Capital", "EUR", AccountType.EQUITY);
+
+        for (int i = 0; i < 3; i++) {
+            accountingService.postTransfer(bank.id(), capital.id(), Money.of(new BigDecimal("10.00"), Currency.getInstance("EUR")), JournalType.GENERAL, "Funding", LocalDate.of(2025, 2, 1));
+        }
+        assertThrows(IllegalStateException.class, () -> accountingService.postTransfer(bank.id(), capital.id(),
+                Money.of(BigDecimal.ONE, Currency.getInstance("EUR")), JournalType.GENERAL, "Out of period", LocalDate.of(2026, 2, 1)));
+        accountingService.getTrialBalance(ledgerId, period);
+
+        assertEquals(4, metrics.timer("accounting.postJournalTransaction").snapshot().count());
+        assertEquals(3, metrics.timer("repository.journalTransaction.save").snapshot().count());
+        assertEquals(3, metrics.timer("repository.ledgerEntry.save").snapshot().count());
+        assertEquals(6, metrics.counter("accounting.postedEntries").value());
+        assertEquals(1, metrics.timer("accounting.getTrialBalance").snapshot().count());
+    }
+
+    @Test
+    void textSnapshotListsEveryMetricSortedByName() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        AtomicLong depth = new AtomicLong(7);
+        metrics.counter("b.counter").add(5);
+        metrics.gauge("a.gauge", depth::get);
+        metrics.timer("c.timer").stop(metrics.timer("c.timer").start());
+        depth.set(9);
+
+        String[] lines = metrics.textSnapshot().split("\n");
+
+        assertEquals(3, lines.length);
+        assertEquals("gauge a.gauge 9", lines[0]);
+        assertEquals("counter b.counter 5", lines[1]);
+        assertTrue(lines[2].startsWith("timer c.timer count=1 "));
+        assertSame(metrics.counter("b.counter"), metrics.counter("b.counter"));
+    }
+
+    @Test
+    void noopMetricsRecordNothing() {
+        Metrics metrics = Metrics.noop();
+        metrics.counter("ignored").add(3);
+        metrics.timer("ignored").stop(metrics.timer("ignored").start());
+
+        assertEquals(0, metrics.counter("ignored").value());
+        assertEquals(0, metrics.timer("ignored").snapshot().count());
+        assertEquals("", metrics.textSnapshot());
+    }
+}
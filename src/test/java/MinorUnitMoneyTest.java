@@ -0,0 +1,86 @@
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.domain.shared.MinorUnitMoney;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MinorUnitMoneyTest {
+
+    @Test
+    void conversionIsLossless() {
+        var eur = Currency.getInstance("EUR");
+        var jpy = Currency.getInstance("JPY");
+
+        for (String value : new String[]{"0", "0.01", "-12.50", "100", "1E+3", "92233720368547758.07"}) {
+            var money = Money.of(new BigDecimal(value), eur);
+            assertTrue(MinorUnitMoney.isRepresentable(money));
+            assertEquals(money, MinorUnitMoney.from(money).toMoney());
+        }
+
+        assertEquals(1250L, MinorUnitMoney.from(Money.of(new BigDecimal("12.5"), eur)).units());
+        assertEquals(1250L, MinorUnitMoney.from(Money.of(new BigDecimal("1250"), jpy)).units());
+    }
+
+    @Test
+    void unrepresentableAmountsAreRejected() {
+        var eur = Currency.getInstance("EUR");
+        var subCent = Money.of(new BigDecimal("0.005"), eur);
+        var tooLarge = Money.of(new BigDecimal("92233720368547758.08"), eur);
+
+        assertFalse(MinorUnitMoney.isRepresentable(subCent));
+        assertFalse(MinorUnitMoney.isRepresentable(tooLarge));
+        assertThrows(ArithmeticException.class, () -> MinorUnitMoney.from(subCent));
+        assertThrows(ArithmeticException.class, () -> MinorUnitMoney.from(tooLarge));
+    }
+
+    @Test
+    void arithmeticDetectsOverflowAndCurrencyMismatch() {
+        var eur = Currency.getInstance("EUR");
+        var max = MinorUnitMoney.ofMinor(Long.MAX_VALUE, eur);
+
+        assertThrows(ArithmeticException.class, () -> max.add(MinorUnitMoney.ofMinor(1L, eur)));
+        assertThrows(ArithmeticException.class, () -> MinorUnitMoney.ofMinor(Long.MIN_VALUE, eur).negate());
+        assertThrows(IllegalArgumentException.class, () -> max.subtract(MinorUnitMoney.zero(Currency.getInstance("USD"))));
+        assertEquals(MinorUnitMoney.ofMinor(150L, eur), MinorUnitMoney.ofMinor(100L, eur).add(MinorUnitMoney.ofMinor(50L, eur)));
+    }
+
+    @Test
+    void sumFallsBackToExactArithmeticOnOverflowOrExtraDecimals() {
+        var eur = Currency.getInstance("EUR");
+        var large = Money.of(new BigDecimal("92233720368547758.07"), eur);
+        var cent = Money.of(new BigDecimal("0.01"), eur);
+
+        assertEquals(0, new BigDecimal("15.00").compareTo(MinorUnitMoney.sum(List.of(
+                Money.of(new BigDecimal("10.25"), eur), Money.of(new BigDecimal("4.75"), eur))).amount()));
+        assertEquals(0, new BigDecimal("92233720368547758.08").compareTo(MinorUnitMoney.sum(List.of(large, cent)).amount()));
+        assertEquals(0, new BigDecimal("0.015").compareTo(MinorUnitMoney.sum(List.of(cent, Money.of(new BigDecimal("0.005"), eur))).amount()));
+        assertThrows(IllegalArgumentException.class, () -> MinorUnitMoney.sum(List.of(cent, Money.of(BigDecimal.ONE, Currency.getInstance("USD")))));
+        assertThrows(IllegalArgumentException.class, () -> MinorUnitMoney.sum(List.of()));
+    }
+
+    @Test
+    void invoiceTotalFallsBackToExactArithmetic() {
+        var ctx = TestBootstrap.bootstrap();
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-001", "Acme");
+
+        var invoice = ctx.invoicingService().createDraftInvoice(
+                ctx.ledgerId(),
+                "INV-MINOR-0001",
+                customer.id(),
+                LocalDate.of(2025, 1, 10),
+                LocalDate.of(2025, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal("10.25"), TaxCategory.STANDARD),
+                new InvoiceLineRequest("Metered usage", new BigDecimal("0.005"), TaxCategory.STANDARD),
+                new InvoiceLineRequest("Support", new BigDecimal("4.75"), TaxCategory.STANDARD)
+        );
+
+        assertEquals(0, new BigDecimal("15.005").compareTo(invoice.total().amount()));
+    }
+}
@@ -0,0 +1,72 @@
+import fr.kovelya.accounting.application.report.AccountBalanceView;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.shared.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PeriodTrialBalanceTest {
+
+    @Test
+    void trialBalanceIsBucketedPerPeriod() {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+        var ledgerId = new LedgerId(UUID.randomUUID());
+
+        var p2024 = ctx.accountingService().createPeriod(ledgerId, "FY2024", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        var p2025 = ctx.accountingService().createPeriod(ledgerId, "FY2025", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+
+        var bank = ctx.accountingService().openAccount(ledgerId, "5121", "Bank", "EUR", AccountType.ASSET);
+        var sales = ctx.accountingService().openAccount(ledgerId, "7060", "Sales", "EUR", AccountType.INCOME);
+
+        ctx.accountingService().postTransfer(bank.id(), sales.id(), Money.of(new BigDecimal("100.00"), eur), JournalType.GENERAL, "Sale 2024", LocalDate.of(2024, 12, 31));
+        ctx.accountingService().postTransfer(bank.id(), sales.id(), Money.of(new BigDecimal("40.00"), eur), JournalType.GENERAL, "Sale 2025", LocalDate.of(2025, 1, 1));
+        ctx.accountingService().postTransfer(bank.id(), sales.id(), Money.of(new BigDecimal("2.50"), eur), JournalType.GENERAL, "Sale 2025", LocalDate.of(2025, 6, 30));
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(ctx.accountingService().getTrialBalance(ledgerId, p2024), "7060")));
+        assertEquals(0, new BigDecimal("42.50").compareTo(balance(ctx.accountingService().getTrialBalance(ledgerId, p2025), "7060")));
+        assertEquals(0, new BigDecimal("42.50").compareTo(ctx.accountingService().getBalanceForPeriod(bank.id(), p2025).amount()));
+        assertEquals(2, ctx.accountingService().getTrialBalance(ledgerId, p2025).size());
+    }
+
+    @Test
+    void closedPeriodKeepsItsBalancesAfterClosing() {
+        var ctx = TestBootstrap.bootstrap();
+        var eur = Currency.getInstance("EUR");
+        var ledgerId = new LedgerId(UUID.randomUUID());
+
+        var p2024 = ctx.accountingService().createPeriod(ledgerId, "FY2024", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        var bank = ctx.accountingService().openAccount(ledgerId, "5121", "Bank", "EUR", AccountType.ASSET);
+        var sales = ctx.accountingService().openAccount(ledgerId, "7060", "Sales", "EUR", AccountType.INCOME);
+        var retained = ctx.accountingService().openAccount(ledgerId, "1100", "Retained earnings", "EUR", AccountType.EQUITY);
+
+        ctx.accountingService().postTransfer(bank.id(), sales.id(), Money.of(new BigDecimal("100.00"), eur), JournalType.GENERAL, "Sale", LocalDate.of(2024, 3, 1));
+        ctx.periodClosingService().closePeriod(p2024, retained.id());
+
+        var first = ctx.accountingService().getTrialBalance(ledgerId, p2024);
+        var second = ctx.accountingService().getTrialBalance(ledgerId, p2024);
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(balance(first, "7060")));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(first, "1100")));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(second, "5121")));
+        assertThrows(IllegalStateException.class, () -> ctx.accountingService().postTransfer(bank.id(), sales.id(), Money.of(BigDecimal.ONE, eur), JournalType.GENERAL, "Late sale", LocalDate.of(2024, 6, 1)));
+        assertEquals(0, new BigDecimal("100.00").compareTo(ctx.accountingService().getBalanceForPeriod(bank.id(), p2024).amount()));
+    }
+
+    private static BigDecimal balance(List<AccountBalanceView> lines, String code) {
+        for (AccountBalanceView line : lines) {
+            if (line.accountCode().equals(code)) {
+                return line.balance().amount();
+            }
+        }
+        throw new AssertionError("Missing account " + code);
+    }
+}
@@ -0,0 +1,116 @@
+import fr.kovelya.accounting.application.dto.AccountPosting;
+import fr.kovelya.accounting.application.posting.PostingAccount;
+import fr.kovelya.accounting.application.posting.PostingProfile;
+import fr.kovelya.accounting.application.posting.PostingProfiles;
+import fr.kovelya.accounting.application.service.impl.AccountingServiceImpl;
+import fr.kovelya.accounting.domain.account.Account;
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.account.ChartOfAccounts;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.repository.AccountRepository;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryAccountingPeriodRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryJournalTransactionRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.SegmentedLedgerEntryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostingProfilesTest {
+
+    @Test
+    void profileIsReusedUntilTheChartOfAccountsChanges() {
+        var ctx = TestBootstrap.bootstrap();
+        PostingProfiles profiles = new PostingProfiles(ctx.accountRepository(), "4110", "7060", "4191");
+
+        PostingProfile first = profiles.forLedger(ctx.ledgerId());
+        assertSame(first, profiles.forLedger(ctx.ledgerId()));
+        assertEquals("4110", first.find("4110").orElseThrow().code());
+        assertSame(first.find("7060").orElseThrow(), first.find("7060").orElseThrow());
+        assertTrue(first.find("9999").isEmpty());
+
+        ctx.accountingService().openAccount(ctx.ledgerId(), "9999", "Suspense", "EUR", AccountType.ASSET);
+
+        PostingProfile refreshed = profiles.forLedger(ctx.ledgerId());
+        assertNotSame(first, refreshed);
+        assertEquals("9999", refreshed.find("9999").orElseThrow().code());
+        assertSame(refreshed, profiles.forLedger(ctx.ledgerId()));
+    }
+
+    @Test
+    void postingWithResolvedHandlesSkipsAccountLookups() {
+        CountingAccountRepository accounts = new CountingAccountRepository();
+        var accountingService = new AccountingServiceImpl(accounts, new SegmentedLedgerEntryRepository(),
+                new InMemoryJournalTransactionRepository(), new InMemoryAccountingPeriodRepository());
+        LedgerId ledgerId = new LedgerId(UUID.randomUUID());
+        accountingService.createPeriod(ledgerId, "FY2025", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+        Account bank = accountingService.openAccount(ledgerId, "5121", "Bank", "EUR", AccountType.ASSET);
+        accountingService.openAccount(ledgerId, "1010", "Capital", "EUR", AccountType.EQUITY);
+        Money amount = Money.of(new BigDecimal("40.00"), Currency.getInstance("EUR"));
+
+        PostingProfile profile = new PostingProfiles(accounts, "5121", "1010").forLedger(ledgerId);
+        PostingAccount debit = profile.find("5121").orElseThrow();
+        PostingAccount credit = profile.find("1010").orElseThrow();
+        accountingService.postJournalTransaction(JournalType.GENERAL, "HANDLES-1", "Funding", LocalDate.of(2025, 2, 1),
+                new AccountPosting(debit, amount, LedgerEntry.Direction.DEBIT),
+                new AccountPosting(credit, amount, LedgerEntry.Direction.CREDIT));
+
+        assertEquals(0, accounts.findByIdCalls.get());
+        assertEquals(0, new BigDecimal("40").compareTo(accountingService.getBalance(bank.id()).amount()));
+
+        accountingService.postJournalTransaction(JournalType.GENERAL, "IDS-1", "Funding", LocalDate.of(2025, 2, 2),
+                new AccountPosting(debit.id(), amount, LedgerEntry.Direction.DEBIT),
+                new AccountPosting(credit.id(), amount, LedgerEntry.Direction.CREDIT));
+
+        assertEquals(3, accounts.findByIdCalls.get());
+    }
+
+    private static final class CountingAccountRepository implements AccountRepository {
+
+        private final InMemoryAccountRepository delegate = new InMemoryAccountRepository();
+        private final AtomicInteger findByIdCalls = new AtomicInteger();
+
+        @Override
+        public Account save(Account account) {
+            return delegate.save(account);
+        }
+
+        @Override
+        public Optional<Account> findById(AccountId id) {
+            findByIdCalls.incrementAndGet();
+            return delegate.findById(id);
+        }
+
+        @Override
+        public Optional<Account> findByCode(String code) {
+            return delegate.findByCode(code);
+        }
+
+        @Override
+        public Optional<Account> findByCode(LedgerId ledgerId, String code) {
+            return delegate.findByCode(ledgerId, code);
+        }
+
+        @Override
+        public ChartOfAccounts chartOf(LedgerId ledgerId) {
+            return delegate.chartOf(ledgerId);
+        }
+
+        @Override
+        public List<Account> findAll() {
+            return delegate.findAll();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import fr.kovelya.accounting.application.report.AgingBucket;
+import fr.kovelya.accounting.application.report.CustomerReceivableAgingView;
+import fr.kovelya.accounting.application.service.impl.ReceivablesAgingServiceImpl;
+import fr.kovelya.accounting.domain.customer.Customer;
+import fr.kovelya.accounting.domain.invoice.InvoiceLine;
+import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
+import fr.kovelya.accounting.domain.payment.CustomerPayment;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceivablesAgingEngineTest {
+
+    private static final Currency EUR = Currency.getInstance("EUR");
+    private static final InvoiceStatus[] STATUSES = InvoiceStatus.values();
+
+    @Test
+    void parallelSinglePassMatchesPerCustomerComputation() {
+        var ctx = TestBootstrap.bootstrap();
+        Random random = new Random(42);
+        LocalDate asOf = LocalDate.of(2025, 6, 30);
+
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            customers.add(ctx.customerRepository().save(Customer.create(ctx.ledgerId(), "CUST-" + i, "Customer " + i)));
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            Customer customer = customers.get(random.nextInt(customers.size()));
+            LocalDate issue = asOf.minusDays(random.nextInt(200));
+            BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(100_000), 2);
+            if (i == 7) {
+                amount = new BigDecimal("10.005");
+            }
+            SalesInvoice invoice = new SalesInvoice(SalesInvoiceId.newId(), ctx.ledgerId(), "INV-AGE-" + i, customer.id(),
+                    issue, issue.plusDays(30), List.of(new InvoiceLine("Service", Money.of(amount, EUR), TaxCategory.STANDARD)),
+                    STATUSES[random.nextInt(STATUSES.length)]);
+            ctx.salesInvoiceRepository().save(invoice);
+            if (random.nextInt(3) == 0) {
+                BigDecimal paid = amount.scale() > 2 ? new BigDecimal("1.00") : amount.multiply(BigDecimal.valueOf(random.nextInt(120), 2)).setScale(2, RoundingMode.DOWN);
+                CustomerPayment payment = ctx.customerPaymentRepository().save(CustomerPayment.create(invoice.id(), Money.of(paid, EUR), issue, "5121"));
+                ctx.salesInvoiceBalances().apply(payment.id(), payment.invoiceId(), payment.amount());
+            }
+        }
+
+        Map<Customer, BigDecimal[]> expected = expectedBuckets(ctx, ctx.customerRepository().findAll(), asOf);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            var parallel = new ReceivablesAgingServiceImpl(ctx.customerRepository(), ctx.salesInvoiceRepository(), ctx.salesInvoiceBalances(), pool, 16)
+                    .getCustomerAging(asOf);
+            var sequential = new ReceivablesAgingServiceImpl(ctx.customerRepository(), ctx.salesInvoiceRepository(), ctx.salesInvoiceBalances())
+                    .getCustomerAging(asOf);
+
+            assertEquals(expected.size(), parallel.size());
+            assertViewsMatch(expected, parallel);
+            assertViewsMatch(expected, sequential);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Map<Customer, BigDecimal[]> expectedBuckets(TestBootstrap.Context ctx, List<Customer> customers, LocalDate asOf) {
+        Map<Customer, BigDecimal[]> expected = new LinkedHashMap<>();
+        for (Customer customer : customers) {
+            BigDecimal[] buckets = null;
+            for (SalesInvoice invoice : ctx.salesInvoiceRepository().findByCustomer(customer.id())) {
+                if (invoice.status() == InvoiceStatus.CANCELLED || invoice.status() == InvoiceStatus.DRAFT) {
+                    continue;
+                }
+                BigDecimal amount = invoice.total().amount();
+                for (CustomerPayment payment : ctx.customerPaymentRepository().findByInvoice(invoice.id())) {
+                    amount = amount.subtract(payment.amount().amount());
+                }
+                if (amount.signum() <= 0) {
+                    continue;
+                }
+                if (buckets == null) {
+                    buckets = new BigDecimal[AgingBucket.values().length];
+                    Arrays.fill(buckets, BigDecimal.ZERO);
+                }
+                int index = AgingBucket.forDaysPastDue(ChronoUnit.DAYS.between(invoice.dueDate(), asOf)).ordinal();
+                buckets[index] = buckets[index].add(amount);
+            }
+            if (buckets != null) {
+                expected.put(customer, buckets);
+            }
+        }
+        return expected;
+    }
+
+    private static void assertViewsMatch(Map<Customer, BigDecimal[]> expected, List<CustomerReceivableAgingView> views) {
+        assertEquals(expected.size(), views.size());
+        List<Customer> order = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < views.size(); i++) {
+            CustomerReceivableAgingView view = views.get(i);
+            assertEquals(order.get(i).id(), view.customer().id());
+            BigDecimal[] buckets = expected.get(order.get(i));
+            Money[] actual = {view.notDue(), view.due0_30(), view.due31_60(), view.due61_90(), view.due90Plus()};
+            BigDecimal total = BigDecimal.ZERO;
+            for (int b = 0; b < buckets.length; b++) {
+                assertEquals(0, buckets[b].compareTo(actual[b].amount()), view.customer().code() + " bucket " + b);
+                total = total.add(buckets[b]);
+            }
+            assertEquals(0, total.compareTo(view.total().amount()));
+        }
+    }
+}
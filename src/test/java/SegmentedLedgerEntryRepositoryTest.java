@@ -0,0 +1,76 @@
+import fr.kovelya.accounting.domain.account.AccountId;
+import fr.kovelya.accounting.domain.ledger.LedgerEntry;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.infrastructure.persistence.memory.InMemoryLedgerEntryRepository;
+import fr.kovelya.accounting.infrastructure.persistence.memory.SegmentedLedgerEntryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentedLedgerEntryRepositoryTest {
+
+    @Test
+    void rangeQueriesMatchLinearScanWithLateEntries() {
+        var segmented = new SegmentedLedgerEntryRepository();
+        var linear = new InMemoryLedgerEntryRepository();
+        var eur = Currency.getInstance("EUR");
+        var accounts = List.of(AccountId.newId(), AccountId.newId(), AccountId.newId());
+        var start = Instant.parse("2025-01-01T00:00:00Z");
+        var random = new Random(42);
+        List<LedgerEntry> generated = new ArrayList<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            long day = random.nextInt(10) == 0 ? random.nextInt(365) : i * 365L / 5_000;
+            var entry = LedgerEntry.create(
+                    accounts.get(random.nextInt(accounts.size())),
+                    Money.of(new BigDecimal(i), eur),
+                    LedgerEntry.Direction.DEBIT,
+                    "Entry " + i,
+                    start.plus(day, ChronoUnit.DAYS)
+            );
+            segmented.save(entry);
+            generated.add(entry);
+        }
+        linear.saveAll(generated);
+
+        for (AccountId account : accounts) {
+            assertEquals(
+                    new HashSet<>(linear.findByAccount(account)),
+                    new HashSet<>(segmented.findByAccount(account))
+            );
+
+            for (int month = 0; month < 12; month++) {
+                var from = start.plus(month * 30L, ChronoUnit.DAYS);
+                var to = from.plus(30, ChronoUnit.DAYS).minusNanos(1);
+
+                List<LedgerEntry> expected = new ArrayList<>(linear.findByAccountAndPeriod(account, from, to));
+                List<LedgerEntry> actual = segmented.findByAccountAndPeriod(account, from, to);
+
+                assertEquals(expected.size(), actual.size());
+                assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+
+                List<LedgerEntry> sorted = new ArrayList<>(actual);
+                sorted.sort(Comparator.comparing(LedgerEntry::timestamp));
+                assertEquals(sorted.stream().map(LedgerEntry::timestamp).toList(), actual.stream().map(LedgerEntry::timestamp).toList());
+            }
+        }
+    }
+
+    @Test
+    void unknownAccountReturnsEmptyList() {
+        var repository = new SegmentedLedgerEntryRepository();
+
+        assertTrue(repository.findByAccount(AccountId.newId()).isEmpty());
+        assertTrue(repository.findByAccountAndPeriod(AccountId.newId(), Instant.EPOCH, Instant.now()).isEmpty());
+    }
+}
@@ -0,0 +1,137 @@
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.application.projection.StatementCache;
+import fr.kovelya.accounting.application.report.AccountBalanceView;
+import fr.kovelya.accounting.application.report.BalanceSheetView;
+import fr.kovelya.accounting.application.report.FinancialStatementsView;
+import fr.kovelya.accounting.application.report.IncomeStatementView;
+import fr.kovelya.accounting.application.report.PeriodStatementsView;
+import fr.kovelya.accounting.application.service.FinancialStatementsService;
+import fr.kovelya.accounting.application.service.PeriodClosingService;
+import fr.kovelya.accounting.application.service.impl.FinancialStatementsServiceImpl;
+import fr.kovelya.accounting.application.service.impl.PeriodClosingServiceImpl;
+import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.period.AccountingPeriod;
+import fr.kovelya.accounting.domain.period.PeriodStatus;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void closingFillsCacheAndReopeningInvalidatesIt() {
+        var ctx = TestBootstrap.bootstrap();
+        StatementCache cache = StatementCache.inMemory(4);
+        FinancialStatementsService statements = new FinancialStatementsServiceImpl(ctx.accountingService(), ctx.transactionRepository(), cache);
+        PeriodClosingService closing = new PeriodClosingServiceImpl(ctx.accountingService(), ctx.periodRepository(), ctx.accountRepository(), statements, cache);
+
+        postInvoice(ctx, "INV-CACHE-1", "120.00");
+        closing.closePeriod(ctx.period(), ctx.retainedEarnings().id());
+
+        assertEquals(1, cache.size());
+        assertEquals(0, new BigDecimal("100").compareTo(statements.getOperatingIncomeStatement(ctx.period()).netIncome().amount()));
+        assertSame(cache.find(ctx.period()).orElseThrow().statements(), statements.getStatements(ctx.period()));
+        assertEquals(ctx.accountingService().getTrialBalance(ctx.ledgerId(), ctx.period()).size(), statements.getTrialBalance(ctx.period()).size());
+
+        closing.reopenPeriod(ctx.period());
+
+        assertEquals(0, cache.size());
+        AccountingPeriod reopened = ctx.periodRepository().findById(ctx.period().id()).orElseThrow();
+        assertEquals(PeriodStatus.OPEN, reopened.status());
+
+        postInvoice(ctx, "INV-CACHE-2", "60.00");
+        closing.closePeriod(reopened, ctx.retainedEarnings().id());
+
+        assertTrue(ctx.transactionRepository().findByJournalAndReference(JournalType.ADJUSTMENT, "CLOSE-TEST-2").isPresent());
+        assertEquals(0, new BigDecimal("150").compareTo(statements.getOperatingIncomeStatement(reopened).netIncome().amount()));
+        assertEquals(0, statements.getIncomeStatement(reopened).netIncome().amount().signum());
+
+        closing.archivePeriod(reopened);
+
+        assertEquals(0, cache.size());
+        assertEquals(PeriodStatus.ARCHIVED, ctx.periodRepository().findById(reopened.id()).orElseThrow().status());
+        assertThrows(IllegalStateException.class, () -> closing.reopenPeriod(reopened));
+    }
+
+    @Test
+    void closingSucceedsWhenTheStatementsCannotBeCached() {
+        var ctx = TestBootstrap.bootstrap();
+        StatementCache cache = StatementCache.inMemory(4);
+        FinancialStatementsService statements = new FinancialStatementsServiceImpl(ctx.accountingService(), ctx.transactionRepository(), cache);
+        PeriodClosingService closing = new PeriodClosingServiceImpl(ctx.accountingService(), ctx.periodRepository(), ctx.accountRepository(), statements, cache);
+        var usdBank = ctx.accountingService().openAccount(ctx.ledgerId(), "5122", "Bank USD", "USD", AccountType.ASSET);
+        var usdLoan = ctx.accountingService().openAccount(ctx.ledgerId(), "1641", "Loan USD", "USD", AccountType.LIABILITY);
+
+        postInvoice(ctx, "INV-CACHE-3", "120.00");
+        ctx.accountingService().postTransfer(usdBank.id(), usdLoan.id(), Money.of(new BigDecimal("50.00"), Currency.getInstance("USD")),
+                JournalType.BANK, "USD loan", LocalDate.of(2025, 3, 2));
+
+        assertDoesNotThrow(() -> closing.closePeriod(ctx.period(), ctx.retainedEarnings().id()));
+
+        assertEquals(PeriodStatus.CLOSED, ctx.periodRepository().findById(ctx.period().id()).orElseThrow().status());
+        assertEquals(0, cache.size());
+        assertThrows(IllegalStateException.class, () -> statements.getStatements(ctx.period()));
+    }
+
+    @Test
+    void persistentCacheEvictsFromMemoryAndReloadsFromDisk() {
+        AccountingPeriod first = period("FY2024", 2024);
+        AccountingPeriod second = period("FY2025", 2025);
+        StatementCache cache = StatementCache.persistent(directory, 1);
+
+        cache.put(view(first, "1200.50"));
+        cache.put(view(second, "80.00"));
+
+        assertEquals(1, cache.size());
+        PeriodStatementsView reloaded = cache.find(first).orElseThrow();
+        assertEquals(0, new BigDecimal("1200.50").compareTo(reloaded.statements().incomeStatement().totalRevenue().amount()));
+        assertEquals(0, new BigDecimal("1200.50").compareTo(reloaded.trialBalance().get(0).balance().amount()));
+        assertEquals("7060", reloaded.trialBalance().get(0).accountCode());
+
+        StatementCache restarted = StatementCache.persistent(directory, 4);
+        assertEquals(0, new BigDecimal("80.00").compareTo(restarted.find(second).orElseThrow().statements().balanceSheet().totalAssets().amount()));
+
+        restarted.invalidate(second.id());
+
+        assertTrue(restarted.find(second).isEmpty());
+        assertFalse(Files.exists(directory.resolve(second.id().value() + ".stmt")));
+        assertTrue(restarted.find(first).isPresent());
+    }
+
+    private static void postInvoice(TestBootstrap.Context ctx, String number, String amount) {
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-" + number, "Customer " + number);
+        var invoice = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), number, customer.id(),
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1),
+                new InvoiceLineRequest("Service", new BigDecimal(amount), TaxCategory.STANDARD));
+        ctx.invoicePostingService().postInvoice(invoice.id());
+    }
+
+    private static AccountingPeriod period(String name, int year) {
+        return AccountingPeriod.open(new LedgerId(UUID.randomUUID()), name, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)).close();
+    }
+
+    private static PeriodStatementsView view(AccountingPeriod period, String amount) {
+        Money money = Money.of(new BigDecimal(amount), Currency.getInstance("EUR"));
+        Money zero = Money.of(BigDecimal.ZERO, Currency.getInstance("EUR"));
+        IncomeStatementView income = new IncomeStatementView(period, money, zero, money);
+        BalanceSheetView balanceSheet = new BalanceSheetView(period, money, zero, money, money);
+        FinancialStatementsView statements = new FinancialStatementsView(period, income, income, balanceSheet);
+        return new PeriodStatementsView(period, statements, List.of(new AccountBalanceView("7060", "Sales Revenue", AccountType.INCOME, money)));
+    }
+}
@@ -0,0 +1,131 @@
+import fr.kovelya.accounting.application.dto.InvoiceLineRequest;
+import fr.kovelya.accounting.application.dto.SalesInvoicePaymentAllocation;
+import fr.kovelya.accounting.application.posting.StripedLocks;
+import fr.kovelya.accounting.domain.invoice.InvoiceStatus;
+import fr.kovelya.accounting.domain.invoice.SalesInvoice;
+import fr.kovelya.accounting.domain.ledger.JournalType;
+import fr.kovelya.accounting.domain.shared.Money;
+import fr.kovelya.accounting.domain.tax.TaxCategory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedPostingConcurrencyTest {
+
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    @Test
+    void concurrentPaymentsOnOneInvoiceNeverOverpayIt() throws Exception {
+        var ctx = TestBootstrap.bootstrap();
+        SalesInvoice invoice = postedInvoice(ctx, "INV-RACE", "120.00");
+        Money ten = Money.of(new BigDecimal("10.00"), EUR);
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(16, i -> {
+            try {
+                ctx.invoicePaymentService().recordPayment(UUID.randomUUID(), invoice.id(), "5121", ten, LocalDate.of(2025, 2, 1));
+            } catch (IllegalStateException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(4, rejected.get());
+        assertEquals(12, ctx.customerPaymentRepository().findByInvoice(invoice.id()).size());
+        assertEquals(12, ctx.transactionRepository().findByJournal(JournalType.BANK).size());
+        assertEquals(InvoiceStatus.PAID, ctx.salesInvoiceRepository().findById(invoice.id()).orElseThrow().status());
+        assertEquals(0, ctx.salesInvoiceBalances().outstanding(invoice.id(), invoice.total()).amount().signum());
+        assertTrue(ctx.customerCreditRepository().findOpenByCustomer(invoice.customerId()).isEmpty());
+    }
+
+    @Test
+    void batchesLockingTheSameInvoicesInOppositeOrderDoNotDeadlock() {
+        var ctx = TestBootstrap.bootstrap();
+        SalesInvoice first = postedInvoice(ctx, "INV-LOCK-A", "1200.00");
+        SalesInvoice second = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), "INV-LOCK-B", first.customerId(),
+                LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal("1200.00"), TaxCategory.STANDARD));
+        ctx.invoicePostingService().postInvoice(second.id());
+        Money one = Money.of(BigDecimal.ONE, EUR);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> runConcurrently(64, i -> {
+            SalesInvoice a = i % 2 == 0 ? first : second;
+            SalesInvoice b = i % 2 == 0 ? second : first;
+            ctx.customerBatchPaymentService().recordBatchPayment(UUID.randomUUID(), "5121", LocalDate.of(2025, 2, 1),
+                    new SalesInvoicePaymentAllocation(a.id(), one),
+                    new SalesInvoicePaymentAllocation(b.id(), one));
+        }));
+
+        assertEquals(64, ctx.customerPaymentRepository().findByInvoice(first.id()).size());
+        assertEquals(0, new BigDecimal("1136").compareTo(ctx.salesInvoiceBalances().outstanding(first.id(), first.total()).amount()));
+        assertEquals(0, new BigDecimal("1136").compareTo(ctx.salesInvoiceBalances().outstanding(second.id(), second.total()).amount()));
+        assertEquals(0, new BigDecimal("128").compareTo(ctx.accountingService().getBalance(ctx.bank().id()).amount()));
+    }
+
+    @Test
+    void stripedLocksAreReleasedInOrderAndRejectInvalidSizes() {
+        StripedLocks locks = new StripedLocks(8);
+        List<Object> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            keys.add(UUID.randomUUID());
+        }
+        keys.add(null);
+
+        try (StripedLocks.Held held = locks.lockAll(keys)) {
+            assertNotNull(held);
+        }
+        try (StripedLocks.Held held = locks.lockAll(List.of())) {
+            assertNotNull(held);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new StripedLocks(12));
+        assertEquals(8, locks.stripes());
+    }
+
+    private static SalesInvoice postedInvoice(TestBootstrap.Context ctx, String number, String amount) {
+        var customer = ctx.invoicingService().createCustomer(ctx.ledgerId(), "CUST-" + number, "Customer " + number);
+        var invoice = ctx.invoicingService().createDraftInvoice(ctx.ledgerId(), number, customer.id(),
+                LocalDate.of(2025, 1, 10), LocalDate.of(2025, 2, 10),
+                new InvoiceLineRequest("Service", new BigDecimal(amount), TaxCategory.STANDARD));
+        ctx.invoicePostingService().postInvoice(invoice.id());
+        return ctx.salesInvoiceRepository().findById(invoice.id()).orElseThrow();
+    }
+
+    private interface Task {
+        void run(int index) throws Exception;
+    }
+
+    private static void runConcurrently(int tasks, Task task) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -1,10 +1,21 @@
+import fr.kovelya.accounting.application.metrics.Metrics;
+import fr.kovelya.accounting.application.posting.DirectJournalCommitter;
+import fr.kovelya.accounting.application.posting.PostingCoordinator;
+import fr.kovelya.accounting.application.projection.AccountBalanceProjection;
+import fr.kovelya.accounting.application.projection.InvoiceBalanceProjection;
 import fr.kovelya.accounting.application.service.*;
 import fr.kovelya.accounting.application.service.impl.*;
 import fr.kovelya.accounting.domain.account.Account;
 import fr.kovelya.accounting.domain.account.AccountType;
+import fr.kovelya.accounting.domain.customer.CustomerId;
+import fr.kovelya.accounting.domain.invoice.SalesInvoiceId;
 import fr.kovelya.accounting.domain.ledger.LedgerId;
+import fr.kovelya.accounting.domain.payment.CustomerPaymentId;
+import fr.kovelya.accounting.domain.payment.SupplierPaymentId;
 import fr.kovelya.accounting.domain.period.AccountingPeriod;
+import fr.kovelya.accounting.domain.purchase.PurchaseInvoiceId;
 import fr.kovelya.accounting.domain.repository.SupplierAdvanceRepository;
+import fr.kovelya.accounting.domain.supplier.SupplierId;
 import fr.kovelya.accounting.domain.tax.VatRate;
 import fr.kovelya.accounting.infrastructure.persistence.memory.*;
 
@@ -17,7 +28,7 @@ public class TestBootstrap {
 
     public static Context bootstrap() {
         var accountRepository = new InMemoryAccountRepository();
-        var ledgerEntryRepository = new InMemoryLedgerEntryRepository();
+        var ledgerEntryRepository = new SegmentedLedgerEntryRepository();
         var transactionRepository = new InMemoryJournalTransactionRepository();
         var periodRepository = new InMemoryAccountingPeriodRepository();
         var customerRepository = new InMemoryCustomerRepository();
@@ -29,13 +40,21 @@ public class TestBootstrap {
         var supplierPaymentRepository = new InMemorySupplierPaymentRepository();
         var customerCreditRepository = new InMemoryCustomerCreditRepository();
         var idempotencyExecutor = new IdempotencyExecutor(idempotencyRepository);
+        var salesInvoiceBalances = InvoiceBalanceProjection.rebuildSales(customerPaymentRepository, salesInvoiceRepository);
+        var purchaseInvoiceBalances = InvoiceBalanceProjection.rebuildPurchases(supplierPaymentRepository, purchaseInvoiceRepository);
         var supplierAdvanceRepository = new InMemorySupplierAdvanceRepository();
 
+        var postingCoordinator = new PostingCoordinator();
+        var balanceProjection = AccountBalanceProjection.rebuild(transactionRepository);
+
         AccountingService accountingService = new AccountingServiceImpl(
                 accountRepository,
-                ledgerEntryRepository,
                 transactionRepository,
-                periodRepository
+                periodRepository,
+                balanceProjection,
+                new DirectJournalCommitter(transactionRepository, ledgerEntryRepository, balanceProjection),
+                Metrics.noop(),
+                postingCoordinator
         );
 
         InvoicingService invoicingService = new InvoicingServiceImpl(
@@ -60,6 +79,7 @@ public class TestBootstrap {
 
         PurchaseInvoicePostingService purchaseInvoicePostingService = new PurchaseInvoicePostingServiceImpl(
                 purchaseInvoiceRepository,
+                purchaseInvoiceBalances,
                 accountRepository,
                 accountingService,
                 transactionRepository,
@@ -74,14 +94,18 @@ public class TestBootstrap {
                 accountRepository,
                 accountingService,
                 supplierPaymentRepository,
+                purchaseInvoiceBalances,
                 supplierAdvanceRepository,
                 "4010",
                 "4091",
-                idempotencyExecutor
+                idempotencyExecutor,
+                Metrics.noop(),
+                postingCoordinator
         );
 
         InvoicePostingService invoicePostingService = new InvoicePostingServiceImpl(
                 salesInvoiceRepository,
+                salesInvoiceBalances,
                 accountRepository,
                 accountingService,
                 transactionRepository,
@@ -96,10 +120,13 @@ public class TestBootstrap {
                 accountRepository,
                 accountingService,
                 customerPaymentRepository,
+                salesInvoiceBalances,
                 customerCreditRepository,
                 "4110",
                 "4191",
-                idempotencyExecutor
+                idempotencyExecutor,
+                Metrics.noop(),
+                postingCoordinator
         );
 
         SalesCreditNoteService salesCreditNoteService = new SalesCreditNoteServiceImpl(
@@ -116,23 +143,27 @@ public class TestBootstrap {
         CustomerCreditApplicationService customerCreditApplicationService = new CustomerCreditApplicationServiceImpl(
                 salesInvoiceRepository,
                 customerPaymentRepository,
+                salesInvoiceBalances,
                 customerCreditRepository,
                 accountRepository,
                 accountingService,
                 "4110",
                 "4191",
-                idempotencyExecutor
+                idempotencyExecutor,
+                postingCoordinator
         );
 
         SupplierAdvanceApplicationService supplierAdvanceApplicationService = new SupplierAdvanceApplicationServiceImpl(
                 purchaseInvoiceRepository,
                 supplierPaymentRepository,
+                purchaseInvoiceBalances,
                 supplierAdvanceRepository,
                 accountRepository,
                 accountingService,
                 "4010",
                 "4091",
-                idempotencyExecutor
+                idempotencyExecutor,
+                postingCoordinator
         );
 
         CustomerBatchPaymentService customerBatchPaymentService = new CustomerBatchPaymentServiceImpl(
@@ -140,8 +171,11 @@ public class TestBootstrap {
                 accountRepository,
                 accountingService,
                 customerPaymentRepository,
+                salesInvoiceBalances,
                 "4110",
-                idempotencyExecutor
+                idempotencyExecutor,
+                Metrics.noop(),
+                postingCoordinator
         );
 
         SupplierBatchPaymentService supplierBatchPaymentService = new SupplierBatchPaymentServiceImpl(
@@ -149,13 +183,17 @@ public class TestBootstrap {
                 accountRepository,
                 accountingService,
                 supplierPaymentRepository,
+                purchaseInvoiceBalances,
                 "4010",
-                idempotencyExecutor
+                idempotencyExecutor,
+                Metrics.noop(),
+                postingCoordinator
         );
 
         CustomerAdvanceReceiptService customerAdvanceReceiptService =
                 new CustomerAdvanceReceiptServiceImpl(
                         accountRepository,
+                        customerRepository,
                         accountingService,
                         customerCreditRepository,
                         "4191",
@@ -165,6 +203,7 @@ public class TestBootstrap {
         SupplierAdvanceReceiptService supplierAdvanceReceiptService =
                 new SupplierAdvanceReceiptServiceImpl(
                         accountRepository,
+                        supplierRepository,
                         accountingService,
                         supplierAdvanceRepository,
                         "4091",
@@ -203,9 +242,11 @@ public class TestBootstrap {
                 customerRepository,
                 salesInvoiceRepository,
                 customerPaymentRepository,
+                salesInvoiceBalances,
                 supplierRepository,
                 purchaseInvoiceRepository,
                 supplierPaymentRepository,
+                purchaseInvoiceBalances,
                 accountingService,
                 invoicingService,
                 purchasingService,
@@ -234,15 +275,17 @@ public class TestBootstrap {
 
     public record Context(
             InMemoryAccountRepository accountRepository,
-            InMemoryLedgerEntryRepository ledgerEntryRepository,
+            SegmentedLedgerEntryRepository ledgerEntryRepository,
             InMemoryJournalTransactionRepository transactionRepository,
             InMemoryAccountingPeriodRepository periodRepository,
             InMemoryCustomerRepository customerRepository,
             InMemorySalesInvoiceRepository salesInvoiceRepository,
             InMemoryCustomerPaymentRepository customerPaymentRepository,
+            InvoiceBalanceProjection<SalesInvoiceId, CustomerId, CustomerPaymentId> salesInvoiceBalances,
             InMemorySupplierRepository supplierRepository,
             InMemoryPurchaseInvoiceRepository purchaseInvoiceRepository,
             InMemorySupplierPaymentRepository supplierPaymentRepository,
+            InvoiceBalanceProjection<PurchaseInvoiceId, SupplierId, SupplierPaymentId> purchaseInvoiceBalances,
             AccountingService accountingService,
             InvoicingService invoicingService,
             PurchasingService purchasingService,